@@ -0,0 +1,89 @@
+package Scheduler.Bench;
+
+import Scheduler.Models.Appointment;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of constructing appointments as the DAO classes do and of rendering their display strings as the
+ * appointment table does
+ *
+ * @author Chris Criswell
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AppointmentBenchmarks {
+
+    /**
+     * Number of distinct start times cycled through, so formatting doesn't see one value only
+     */
+    private static final int timeCount = 1024;
+
+    private final ZonedDateTime[] starts = new ZonedDateTime[timeCount];
+    private final ZonedDateTime[] ends = new ZonedDateTime[timeCount];
+
+    private int next = 0;
+
+    @Setup
+    public void createTimes() {
+
+        ZonedDateTime start = ZonedDateTime.of(2021, 1, 4, 8, 0, 0, 0, ZoneId.systemDefault());
+
+        for (int i = 0; i < timeCount; i++) {
+            starts[i] = start.plusMinutes(i * 30L);
+            ends[i] = starts[i].plusMinutes(30);
+        }
+
+    }
+
+    private Appointment nextAppointment() {
+
+        int i = next++ & (timeCount - 1);
+
+        return new Appointment(i, 1, 1, 1, "Appointment", "Synthetic", "Office", "Type", starts[i], ends[i],
+                "Customer", "Contact");
+
+    }
+
+    /**
+     * Constructs an appointment that is never shown
+     */
+    @Benchmark
+    public Appointment construct() {
+        return nextAppointment();
+    }
+
+    /**
+     * Constructs an appointment and reads the four display strings shown in the appointment table
+     */
+    @Benchmark
+    public void constructAndRender(Blackhole blackhole) {
+
+        Appointment appointment = nextAppointment();
+
+        blackhole.consume(appointment.getFormattedStartDate());
+        blackhole.consume(appointment.getFormattedStartTime());
+        blackhole.consume(appointment.getFormattedEndDate());
+        blackhole.consume(appointment.getFormattedEndTime());
+
+    }
+
+}
@@ -0,0 +1,149 @@
+package Scheduler.Bench;
+
+import Scheduler.DAO.AppointmentDAO;
+import Scheduler.DAO.BatchResult;
+import Scheduler.Models.Appointment;
+import Scheduler.Utils.UserSession;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of batched appointment writes against the seeded in-memory database, for the batch sizes given with
+ * -p batchSize=.... Each operation writes rowsPerCall rows, so the score is in rows per second. The update benchmark
+ * also reports the batches it sent as auxiliary counters; inserts are prepared with generated keys outside the pool's
+ * statement cache, so the pool doesn't count them.
+ *
+ * @author Chris Criswell
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class BatchWriteBenchmarks {
+
+    /**
+     * Rows written per benchmark call
+     */
+    private static final int rowsPerCall = 1000;
+
+    /**
+     * Rows sent per JDBC batch
+     */
+    @Param({"1", "50", "500"})
+    public int batchSize;
+
+    private final AppointmentDAO appointmentDAO = new AppointmentDAO();
+
+    /**
+     * Seeded appointments rewritten by the update benchmark
+     */
+    private final List<Appointment> seededAppointments = new ArrayList<>(rowsPerCall);
+
+    /**
+     * Start time of the first appointment written
+     */
+    private final ZonedDateTime firstStart = ZonedDateTime.of(2022, 1, 3, 8, 0, 0, 0, ZoneId.systemDefault());
+
+    /**
+     * Logs in the user writes are attributed to and picks the seeded appointments to update
+     * @param database seeded database
+     */
+    @Setup(Level.Trial)
+    public void setUp(SeededDatabase database) {
+
+        UserSession.loginUser("bench", 1);
+
+        for (int id = 1; id <= Math.min(rowsPerCall, database.appointmentCount); id++) {
+            seededAppointments.add(appointment(id, id));
+        }
+
+    }
+
+    /**
+     * Removes the appointments inserted during an iteration so every iteration inserts into a table of the seeded
+     * size
+     * @param database seeded database
+     * @throws SQLException if the rows can't be deleted
+     */
+    @TearDown(Level.Iteration)
+    public void removeInserted(SeededDatabase database) throws SQLException {
+
+        try (Connection connection = database.getConnectionPool().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("DELETE FROM appointments WHERE Appointment_ID > " + database.appointmentCount);
+        }
+
+    }
+
+    /**
+     * Inserts rowsPerCall new appointments with addAppointments
+     */
+    @Benchmark
+    @OperationsPerInvocation(rowsPerCall)
+    public BatchResult<Appointment> addAppointments() {
+
+        List<Appointment> appointments = new ArrayList<>(rowsPerCall);
+
+        for (int row = 0; row < rowsPerCall; row++) {
+            appointments.add(appointment(0, row));
+        }
+
+        return appointmentDAO.addAppointments(appointments, batchSize);
+
+    }
+
+    /**
+     * Rewrites up to rowsPerCall seeded appointments with updateAppointments
+     */
+    @Benchmark
+    @OperationsPerInvocation(rowsPerCall)
+    public BatchResult<Appointment> updateAppointments(SeededDatabase database, DAOBenchmarks.StatementCounts counts) {
+
+        long executionsBefore = database.getConnectionPool().getStatementExecutions();
+        BatchResult<Appointment> result = appointmentDAO.updateAppointments(seededAppointments, batchSize);
+        counts.record(executionsBefore, database);
+
+        return result;
+
+    }
+
+    /**
+     * Builds an appointment for one of the seeded customers
+     * @param appointmentID ID to update, or 0 for a new appointment
+     * @param row row number, used to spread appointments over time and customers
+     * @return appointment
+     */
+    private Appointment appointment(int appointmentID, int row) {
+
+        ZonedDateTime start = firstStart.plusMinutes(30L * row);
+
+        return new Appointment(appointmentID, row % 10 + 1, row % 3 + 1, row % 2 + 1, "Appointment " + row,
+                "Synthetic", "Office", "Type " + row % SeededDatabase.typeCount, start, start.plusMinutes(30));
+
+    }
+
+}
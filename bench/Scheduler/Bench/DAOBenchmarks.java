@@ -0,0 +1,116 @@
+package Scheduler.Bench;
+
+import Scheduler.DAO.AppointmentDAO;
+import Scheduler.DAO.ReportsDAO;
+import Scheduler.Models.Appointment;
+import Scheduler.Models.MonthlyAppointmentsByTypeCounter;
+
+import javafx.collections.ObservableList;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of DAO queries that hydrate model objects, run against the seeded in-memory database. Alongside the
+ * score each benchmark reports the statements it executed and the operations it ran as auxiliary counters, so
+ * statementExecutions / operations gives the number of queries per call (1 for a joined load, rather than 1 + 2N
+ * for a load that looks up each appointment's customer and contact separately).
+ *
+ * @author Chris Criswell
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class DAOBenchmarks {
+
+    private final AppointmentDAO appointmentDAO = new AppointmentDAO();
+    private final ReportsDAO reportsDAO = new ReportsDAO();
+
+    /**
+     * Auxiliary counters of the statements executed through the pool, summed over the measurement iterations
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class StatementCounts {
+
+        /**
+         * Prepared statement executions counted by the pool
+         */
+        public long statementExecutions;
+
+        /**
+         * Benchmark operations run
+         */
+        public long operations;
+
+        /**
+         * Resets the counters at the start of each iteration
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+            statementExecutions = 0;
+            operations = 0;
+        }
+
+        /**
+         * Counts one operation and the statements it executed
+         * @param executionsBefore pool statement executions before the operation
+         * @param database seeded database the operation ran against
+         */
+        void record(long executionsBefore, SeededDatabase database) {
+            statementExecutions += database.getConnectionPool().getStatementExecutions() - executionsBefore;
+            operations++;
+        }
+
+    }
+
+    /**
+     * Loads and hydrates every appointment
+     */
+    @Benchmark
+    public ObservableList<Appointment> getAllAppointments(SeededDatabase database, StatementCounts counts) {
+        long executionsBefore = database.getConnectionPool().getStatementExecutions();
+        ObservableList<Appointment> appointments = appointmentDAO.getAllAppointments();
+        counts.record(executionsBefore, database);
+        return appointments;
+    }
+
+    /**
+     * Loads the first page of the appointment table
+     */
+    @Benchmark
+    public ObservableList<Appointment> getFirstAppointmentsPage(SeededDatabase database, StatementCounts counts) {
+        long executionsBefore = database.getConnectionPool().getStatementExecutions();
+        ObservableList<Appointment> page = appointmentDAO.getAppointmentsPage(null, 0, 100);
+        counts.record(executionsBefore, database);
+        return page;
+    }
+
+    /**
+     * Counts appointments of each type per month
+     */
+    @Benchmark
+    public ObservableList<MonthlyAppointmentsByTypeCounter> getMonthlyCustomerAppointmentsByType(SeededDatabase database,
+                                                                                                 StatementCounts counts) {
+        long executionsBefore = database.getConnectionPool().getStatementExecutions();
+        ObservableList<MonthlyAppointmentsByTypeCounter> counters = reportsDAO.getMonthlyCustomerAppointmentsByType();
+        counts.record(executionsBefore, database);
+        return counters;
+    }
+
+}
@@ -0,0 +1,46 @@
+package Scheduler.Bench;
+
+import Scheduler.DAO.DAOFactory;
+import Scheduler.Models.Appointment;
+import Scheduler.Models.MonthlyAppointmentsByTypeCounter;
+
+import javafx.collections.ObservableList;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The queries of DAOBenchmarks run against the in-memory storage backend, for comparison with the database
+ *
+ * @author Chris Criswell
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class InMemoryDAOBenchmarks {
+
+    @Benchmark
+    public ObservableList<Appointment> getAllAppointments(SeededStore store) {
+        return DAOFactory.getAppointmentDAO().getAllAppointments();
+    }
+
+    @Benchmark
+    public ObservableList<Appointment> getFirstAppointmentsPage(SeededStore store) {
+        return DAOFactory.getAppointmentDAO().getAppointmentsPage(null, 0, 100);
+    }
+
+    @Benchmark
+    public ObservableList<MonthlyAppointmentsByTypeCounter> getMonthlyCustomerAppointmentsByType(SeededStore store) {
+        return DAOFactory.getReportsDAO().getMonthlyCustomerAppointmentsByType();
+    }
+
+}
@@ -0,0 +1,137 @@
+package Scheduler.Bench;
+
+import Scheduler.Models.LoginAttempt;
+import Scheduler.Utils.LoginActivityStore;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks of login activity store queries over a year of seeded attempts, stored in a temporary directory
+ *
+ * @author Chris Criswell
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoginActivityStoreBenchmarks {
+
+    /**
+     * Number of attempts seeded
+     */
+    @Param({"1000000", "5000000"})
+    public int attemptCount;
+
+    /**
+     * Number of distinct usernames attempts are spread over
+     */
+    private static final int userCount = 10_000;
+
+    /**
+     * Time of the last seeded attempt, used as the current time by the queries
+     */
+    private static final Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+    private Path directory;
+    private LoginActivityStore store;
+
+    /**
+     * Index of the next user queried
+     */
+    private int next = 0;
+
+    @Setup
+    public void seedStore() throws IOException {
+
+        directory = Files.createTempDirectory("login-activity-bench");
+        store = new LoginActivityStore(directory);
+
+        long spacingMillis = Duration.ofDays(365).toMillis() / attemptCount;
+        Instant first = now.minus(Duration.ofDays(365));
+        List<LoginAttempt> batch = new ArrayList<>();
+
+        for (int i = 0; i < attemptCount; i++) {
+
+            //a fifth of attempts are denied
+            batch.add(new LoginAttempt("user" + (i * 7919L % userCount), first.plusMillis(i * spacingMillis),
+                    i % 5 != 0));
+
+            if (batch.size() == 100_000) {
+                store.append(batch);
+                batch.clear();
+            }
+
+        }
+
+        store.append(batch);
+
+    }
+
+    @TearDown
+    public void deleteStore() throws IOException {
+
+        store.close();
+
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+
+    }
+
+    /**
+     * Counts one user's denied attempts in the last hour
+     */
+    @Benchmark
+    public int failedAttemptsLastHour() {
+        return store.countFailedAttempts("user" + next++ % userCount, now.minus(Duration.ofHours(1)), now);
+    }
+
+    /**
+     * Counts one user's denied attempts over the whole year
+     */
+    @Benchmark
+    public int failedAttemptsLastYear() {
+        return store.countFailedAttempts("user" + next++ % userCount, now.minus(Duration.ofDays(365)), now);
+    }
+
+    /**
+     * Counts successful logins on each of the last 30 days
+     */
+    @Benchmark
+    public SortedMap<LocalDate, Integer> loginsPerDay() {
+
+        LocalDate lastDay = now.atOffset(ZoneOffset.UTC).toLocalDate();
+
+        return store.countLoginsPerDay(lastDay.minusDays(29), lastDay, ZoneId.of("UTC"), true);
+
+    }
+
+}
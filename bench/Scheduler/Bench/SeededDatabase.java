@@ -0,0 +1,138 @@
+package Scheduler.Bench;
+
+import Scheduler.Utils.ConnectionPool;
+import Scheduler.Utils.DatabaseHandler;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Benchmark state holding an in-memory H2 database in MySQL mode with the scheduler schema, seeded with synthetic
+ * appointments and installed as the DAO classes' data source. The number of appointments is set with
+ * -p appointmentCount=...; customers are seeded at one per ten appointments.
+ *
+ * @author Chris Criswell
+ */
+@State(Scope.Benchmark)
+public class SeededDatabase {
+
+    /**
+     * Number of appointments seeded
+     */
+    @Param({"1000", "10000", "100000"})
+    public int appointmentCount;
+
+    /**
+     * Number of distinct appointment types seeded
+     */
+    static final int typeCount = 5;
+
+    /**
+     * Pool connected to the seeded database
+     */
+    private ConnectionPool connectionPool;
+
+    /**
+     * Creates and seeds the database once per trial
+     * @throws SQLException if the schema can't be created or seeded
+     */
+    @Setup(Level.Trial)
+    public void seed() throws SQLException {
+
+        connectionPool = new ConnectionPool("jdbc:h2:mem:bench" + System.nanoTime() +
+                ";MODE=MySQL;NON_KEYWORDS=END,START,USER;DB_CLOSE_DELAY=-1", "sa", "");
+
+        try (Connection connection = connectionPool.getConnection();
+             Statement statement = connection.createStatement()) {
+
+            statement.execute("CREATE TABLE countries (Country_ID INT PRIMARY KEY, Country VARCHAR(50))");
+            statement.execute("CREATE TABLE first_level_divisions (Division_ID INT PRIMARY KEY, " +
+                    "Division VARCHAR(50), COUNTRY_ID INT)");
+            statement.execute("CREATE TABLE contacts (Contact_ID INT PRIMARY KEY, Contact_Name VARCHAR(50), " +
+                    "Email VARCHAR(50))");
+            statement.execute("CREATE TABLE users (User_ID INT PRIMARY KEY, User_Name VARCHAR(50), " +
+                    "Password VARCHAR(50))");
+            statement.execute("CREATE TABLE customers (Customer_ID INT AUTO_INCREMENT PRIMARY KEY, " +
+                    "Customer_Name VARCHAR(50), Address VARCHAR(100), Postal_Code VARCHAR(50), Phone VARCHAR(50), " +
+                    "Create_Date DATETIME, Created_By VARCHAR(50), Last_Update DATETIME, Last_Updated_By VARCHAR(50), " +
+                    "Division_ID INT)");
+            statement.execute("CREATE TABLE appointments (Appointment_ID INT AUTO_INCREMENT PRIMARY KEY, " +
+                    "Title VARCHAR(50), Description VARCHAR(50), Location VARCHAR(50), Type VARCHAR(50), " +
+                    "Start DATETIME, End DATETIME, Create_Date DATETIME, Created_By VARCHAR(50), " +
+                    "Last_Update DATETIME, Last_Updated_By VARCHAR(50), Customer_ID INT, User_ID INT, Contact_ID INT)");
+            statement.execute("CREATE INDEX idx_appointments_start ON appointments (Start)");
+
+            statement.execute("INSERT INTO countries VALUES (1, 'U.S'), (2, 'UK'), (3, 'Canada')");
+            statement.execute("INSERT INTO first_level_divisions VALUES (1, 'Alabama', 1), (60, 'Ontario', 3), " +
+                    "(101, 'England', 2)");
+            statement.execute("INSERT INTO contacts VALUES (1, 'Anika Costa', 'acoista@company.com'), " +
+                    "(2, 'Daniel Garcia', 'dgarcia@company.com'), (3, 'Li Lee', 'lee@company.com')");
+            statement.execute("INSERT INTO users VALUES (1, 'test', 'test'), (2, 'admin', 'admin')");
+
+        }
+
+        int customerCount = Math.max(10, appointmentCount / 10);
+
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement customers = connection.prepareStatement("INSERT INTO customers " +
+                     "(Customer_Name, Address, Postal_Code, Phone, Create_Date, Created_By, Last_Update, " +
+                     "Last_Updated_By, Division_ID) SELECT CONCAT('Customer ', X), CONCAT(X, ' Main St'), '12345', " +
+                     "'555-555-5555', NOW(), 'bench', NOW(), 'bench', CASE MOD(X, 3) WHEN 0 THEN 1 WHEN 1 THEN 60 " +
+                     "ELSE 101 END FROM SYSTEM_RANGE(1, ?)");
+             PreparedStatement appointments = connection.prepareStatement("INSERT INTO appointments " +
+                     "(Title, Description, Location, Type, Start, End, Create_Date, Created_By, Last_Update, " +
+                     "Last_Updated_By, Customer_ID, User_ID, Contact_ID) SELECT CONCAT('Appointment ', X), " +
+                     "'Synthetic', 'Office', CONCAT('Type ', MOD(X, ?)), " +
+                     "DATEADD('MINUTE', X * 30, TIMESTAMP '2021-01-04 08:00:00'), " +
+                     "DATEADD('MINUTE', X * 30 + 30, TIMESTAMP '2021-01-04 08:00:00'), NOW(), 'bench', NOW(), " +
+                     "'bench', MOD(X, ?) + 1, MOD(X, 2) + 1, MOD(X, 3) + 1 FROM SYSTEM_RANGE(1, ?)")) {
+
+            customers.setInt(1, customerCount);
+            customers.execute();
+
+            appointments.setInt(1, typeCount);
+            appointments.setInt(2, customerCount);
+            appointments.setInt(3, appointmentCount);
+            appointments.execute();
+
+        }
+
+        DatabaseHandler.setDataSource(connectionPool);
+
+    }
+
+    /**
+     * Accessor for the pool connected to the seeded database
+     * @return connection pool
+     */
+    ConnectionPool getConnectionPool() { return connectionPool; }
+
+    /**
+     * Drops the database at the end of the trial
+     */
+    @TearDown(Level.Trial)
+    public void drop() {
+
+        try (Connection connection = connectionPool.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+
+        catch (SQLException exception) {
+            System.out.println(exception.getMessage());
+        }
+
+        DatabaseHandler.setDataSource(null);
+
+    }
+
+}
@@ -0,0 +1,81 @@
+package Scheduler.Bench;
+
+import Scheduler.DAO.DAOFactory;
+import Scheduler.DAO.InMemoryStore;
+import Scheduler.DAO.StorageBackend;
+import Scheduler.Models.Appointment;
+import Scheduler.Models.Customer;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark state selecting the in-memory storage backend and seeding its store with the same synthetic customers and
+ * appointments as SeededDatabase
+ *
+ * @author Chris Criswell
+ */
+@State(Scope.Benchmark)
+public class SeededStore {
+
+    /**
+     * Number of appointments seeded
+     */
+    @Param({"1000", "10000", "100000"})
+    public int appointmentCount;
+
+    /**
+     * Selects the in-memory backend and seeds the store once per trial
+     */
+    @Setup(Level.Trial)
+    public void seed() {
+
+        DAOFactory.useBackend(StorageBackend.MEMORY);
+        InMemoryStore.getInMemoryStore().clear();
+
+        int customerCount = Math.max(10, appointmentCount / 10);
+        int[] divisionIDs = {1, 67, 101};
+
+        List<Customer> customers = new ArrayList<>(customerCount);
+
+        for (int i = 1; i <= customerCount; i++) {
+            customers.add(new Customer(0, "Customer " + i, i + " Main St", "12345", divisionIDs[i % 3], null, null,
+                    "555-555-5555"));
+        }
+
+        DAOFactory.getCustomerDAO().addCustomers(customers, customerCount);
+
+        ZonedDateTime start = ZonedDateTime.of(2021, 1, 4, 8, 0, 0, 0, ZoneId.systemDefault());
+        List<Appointment> appointments = new ArrayList<>(appointmentCount);
+
+        for (int i = 1; i <= appointmentCount; i++) {
+            appointments.add(new Appointment(0, i % customerCount + 1, i % 3 + 1, i % 2 + 1, "Appointment " + i,
+                    "Synthetic", "Office", "Type " + i % SeededDatabase.typeCount, start.plusMinutes(i * 30L),
+                    start.plusMinutes(i * 30L + 30), null, null));
+        }
+
+        DAOFactory.getAppointmentDAO().addAppointments(appointments, appointmentCount);
+
+    }
+
+    /**
+     * Empties the store and restores the MySQL backend at the end of the trial
+     */
+    @TearDown(Level.Trial)
+    public void drop() {
+
+        InMemoryStore.getInMemoryStore().clear();
+        DAOFactory.useBackend(StorageBackend.MYSQL);
+
+    }
+
+}
@@ -0,0 +1,91 @@
+package Scheduler.Bench;
+
+import Scheduler.Utils.StringPair;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Month;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of StringPair hashing, counting month and type pairs in a HashMap as the client-side report counting did
+ *
+ * @author Chris Criswell
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class StringPairBenchmarks {
+
+    /**
+     * Number of pairs counted per operation
+     */
+    @Param({"10000"})
+    public int pairCount;
+
+    private String[] months;
+    private String[] types;
+
+    /**
+     * Index of the next pair hashed by the single-pair benchmark
+     */
+    private int next = 0;
+
+    @Setup
+    public void createPairs() {
+
+        months = new String[pairCount];
+        types = new String[pairCount];
+
+        for (int i = 0; i < pairCount; i++) {
+            //new strings each time so hash codes aren't already cached on shared instances
+            months[i] = new String(Month.of(i % 12 + 1).toString());
+            types[i] = new String("Type " + i % SeededDatabase.typeCount);
+        }
+
+    }
+
+    /**
+     * Hashes one pair
+     */
+    @Benchmark
+    public int hashPair() {
+
+        int i = next++ % pairCount;
+
+        return new StringPair<>(months[i], types[i]).hashCode();
+
+    }
+
+    /**
+     * Counts every pair in a HashMap keyed by StringPair
+     */
+    @Benchmark
+    public Map<StringPair<String>, Integer> countPairs() {
+
+        Map<StringPair<String>, Integer> counts = new HashMap<>();
+
+        for (int i = 0; i < pairCount; i++) {
+            counts.merge(new StringPair<>(months[i], types[i]), 1, Integer::sum);
+        }
+
+        return counts;
+
+    }
+
+}
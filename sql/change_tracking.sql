@@ -0,0 +1,26 @@
+-- Change tracking used by the background change poller to merge edits made by other clients.
+--
+-- Inserts and updates are found through the existing Last_Update columns; these indexes let
+-- each poll read only the rows changed since the last one instead of scanning the tables.
+CREATE INDEX idx_appointments_last_update ON appointments (Last_Update);
+CREATE INDEX idx_customers_last_update ON customers (Last_Update);
+
+-- Deleted rows leave no Last_Update behind, so each delete records a tombstone here. Without
+-- this table the poller still merges inserts and updates but not deletes.
+CREATE TABLE deleted_rows (
+    Tombstone_ID BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    Table_Name VARCHAR(50) NOT NULL,
+    Row_ID INT NOT NULL,
+    Deleted_At DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TRIGGER appointments_tombstone AFTER DELETE ON appointments
+    FOR EACH ROW INSERT INTO deleted_rows (Table_Name, Row_ID) VALUES ('appointments', OLD.Appointment_ID);
+
+CREATE TRIGGER customers_tombstone AFTER DELETE ON customers
+    FOR EACH ROW INSERT INTO deleted_rows (Table_Name, Row_ID) VALUES ('customers', OLD.Customer_ID);
+
+-- Tombstones are only needed until every open client has polled past them; old ones can be
+-- pruned periodically, for example:
+--
+-- DELETE FROM deleted_rows WHERE Deleted_At < NOW() - INTERVAL 1 DAY;
@@ -0,0 +1,35 @@
+-- Recommended indexes for the appointments table.
+--
+-- Appointment range queries compare the raw Start and End columns against bound timestamps
+-- (Start < ? AND End > ?), so MySQL can answer them with an index range scan instead of a
+-- full table scan.
+
+-- Customer overlap checks: equality on Customer_ID, then range on Start, with End covered.
+CREATE INDEX idx_appointments_customer_start_end ON appointments (Customer_ID, Start, End);
+
+-- Contact schedules and per-contact overlap checks.
+CREATE INDEX idx_appointments_contact_start ON appointments (Contact_ID, Start);
+
+-- Dashboard range queries across all customers.
+CREATE INDEX idx_appointments_start_end ON appointments (Start, End);
+
+-- Keyset paging of the appointment table (ORDER BY Start, Appointment_ID). InnoDB appends the
+-- primary key to secondary indexes, so this index is ordered by (Start, Appointment_ID).
+CREATE INDEX idx_appointments_start ON appointments (Start);
+
+-- Upcoming appointment alerts: equality on User_ID, then range on Start.
+CREATE INDEX idx_appointments_user_start ON appointments (User_ID, Start);
+
+-- Verify index use; the "key" column should name one of the indexes above and "type"
+-- should be "range" rather than "ALL". IndexUseTest checks the plans of the first two
+-- queries automatically against H2 with these indexes.
+--
+-- EXPLAIN SELECT * FROM appointments
+--     WHERE Start < '2021-01-08 00:00:00' AND End > '2021-01-01 00:00:00';
+--
+-- EXPLAIN SELECT Appointment_ID FROM appointments
+--     WHERE Customer_ID = 1 AND Start < '2021-01-01 10:00:00' AND End > '2021-01-01 09:00:00';
+--
+-- EXPLAIN SELECT * FROM appointments
+--     WHERE Start > '2021-01-01 09:00:00' OR (Start = '2021-01-01 09:00:00' AND Appointment_ID > 5)
+--     ORDER BY Start, Appointment_ID LIMIT 100;
@@ -0,0 +1,104 @@
+package Scheduler.CLI;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parsed command line of a headless command: positional arguments plus "--name value" options
+ *
+ * @author Chris Criswell
+ */
+class CommandOptions {
+
+    /**
+     * Positional arguments in order
+     */
+    private final List<String> positional = new ArrayList<>();
+
+    /**
+     * Option values keyed by name without the leading dashes
+     */
+    private final Map<String, String> options = new HashMap<>();
+
+    /**
+     * Constructor parsing command line arguments
+     * @param args command line arguments
+     * @throws IllegalArgumentException if an option has no value
+     */
+    CommandOptions(String[] args) {
+
+        for (int i = 0; i < args.length; i++) {
+
+            if (args[i].startsWith("--")) {
+
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + args[i]);
+                }
+
+                options.put(args[i].substring(2), args[++i]);
+
+            }
+
+            else {
+                positional.add(args[i]);
+            }
+
+        }
+
+    }
+
+    /**
+     * Gets a positional argument
+     * @param index position of argument
+     * @return argument, or null if not given
+     */
+    String get(int index) {
+        return index < positional.size() ? positional.get(index) : null;
+    }
+
+    /**
+     * Gets an option value
+     * @param name option name without the leading dashes
+     * @param defaultValue value returned if option not given
+     * @return option value or default
+     */
+    String get(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    /**
+     * Gets a positive integer option value
+     * @param name option name without the leading dashes
+     * @param defaultValue value returned if option not given
+     * @return option value or default
+     * @throws IllegalArgumentException if the value is not a positive integer
+     */
+    int getPositiveInt(String name, int defaultValue) {
+
+        String value = options.get(name);
+
+        if (value == null) {
+            return defaultValue;
+        }
+
+        try {
+
+            int parsed = Integer.parseInt(value);
+
+            if (parsed > 0) {
+                return parsed;
+            }
+
+        }
+
+        catch (NumberFormatException exception) {
+            //reported below
+        }
+
+        throw new IllegalArgumentException("--" + name + " must be a positive integer");
+
+    }
+
+}
@@ -0,0 +1,178 @@
+package Scheduler.CLI;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming reader of CSV records with a header row. Supports RFC 4180 quoting: fields may be wrapped in double quotes
+ * to contain commas, line breaks or doubled quotes.
+ *
+ * @author Chris Criswell
+ */
+public class CsvRecordReader implements RecordReader {
+
+    /**
+     * Underlying reader
+     */
+    private final BufferedReader reader;
+
+    /**
+     * Field names from header row
+     */
+    private final List<String> header;
+
+    /**
+     * Number of lines read so far
+     */
+    private long linesRead = 0;
+
+    /**
+     * Line number the last returned record started on
+     */
+    private long recordLine = 0;
+
+    /**
+     * Constructor reading the header row
+     * @param reader reader positioned at the header row
+     * @throws IOException if the header can't be read
+     */
+    public CsvRecordReader(BufferedReader reader) throws IOException {
+
+        this.reader = reader;
+
+        List<String> header = readFields();
+
+        if (header == null) {
+            throw new IOException("CSV file is empty");
+        }
+
+        this.header = header;
+
+    }
+
+    @Override
+    public Map<String, String> next() throws IOException {
+
+        List<String> fields;
+
+        //skip blank lines
+        do {
+            fields = readFields();
+        } while (fields != null && fields.size() == 1 && fields.get(0).isEmpty());
+
+        if (fields == null) {
+            return null;
+        }
+
+        if (fields.size() != header.size()) {
+            throw new MalformedRecordException("Line " + recordLine + " has " + fields.size() + " fields, expected " +
+                    header.size());
+        }
+
+        Map<String, String> record = new HashMap<>();
+
+        for (int i = 0; i < header.size(); i++) {
+            record.put(header.get(i), fields.get(i));
+        }
+
+        return record;
+
+    }
+
+    @Override
+    public long getLineNumber() { return recordLine; }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Reads the fields of one record, which may span several lines when a quoted field contains line breaks
+     * @return list of field values, or null at end of file
+     * @throws IOException if the file can't be read or ends inside a quoted field
+     */
+    private List<String> readFields() throws IOException {
+
+        String line = reader.readLine();
+
+        if (line == null) {
+            return null;
+        }
+
+        linesRead++;
+        recordLine = linesRead;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        while (true) {
+
+            for (int i = 0; i < line.length(); i++) {
+
+                char character = line.charAt(i);
+
+                if (quoted) {
+
+                    if (character == '"') {
+
+                        if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                            field.append('"');
+                            i++;
+                        }
+
+                        else {
+                            quoted = false;
+                        }
+
+                    }
+
+                    else {
+                        field.append(character);
+                    }
+
+                }
+
+                else if (character == '"') {
+                    quoted = true;
+                }
+
+                else if (character == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                }
+
+                else {
+                    field.append(character);
+                }
+
+            }
+
+            if (!quoted) {
+                break;
+            }
+
+            //quoted field continues on the next line
+            line = reader.readLine();
+
+            if (line == null) {
+                throw new MalformedRecordException("Line " + recordLine + " ends inside a quoted field");
+            }
+
+            linesRead++;
+            field.append('\n');
+
+        }
+
+        fields.add(field.toString());
+
+        return fields;
+
+    }
+
+}
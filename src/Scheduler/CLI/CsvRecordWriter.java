@@ -0,0 +1,62 @@
+package Scheduler.CLI;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Streaming writer of CSV rows, quoting fields per RFC 4180 when they contain commas, quotes or line breaks
+ *
+ * @author Chris Criswell
+ */
+public class CsvRecordWriter {
+
+    /**
+     * Underlying writer
+     */
+    private final Writer writer;
+
+    /**
+     * Constructor with underlying writer
+     * @param writer destination for CSV text
+     */
+    public CsvRecordWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Writes one row
+     * @param fields field values; null is written as an empty field
+     * @throws IOException if the row can't be written
+     */
+    public void writeRow(String... fields) throws IOException {
+
+        for (int i = 0; i < fields.length; i++) {
+
+            if (i > 0) {
+                writer.write(',');
+            }
+
+            writer.write(quote(fields[i] == null ? "" : fields[i]));
+
+        }
+
+        writer.write("\r\n");
+
+    }
+
+    /**
+     * Quotes a field if it contains a comma, quote or line break
+     * @param field field value
+     * @return field as written in CSV
+     */
+    public static String quote(String field) {
+
+        if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0 && field.indexOf('\r') < 0) {
+            return field;
+        }
+
+        return '"' + field.replace("\"", "\"\"") + '"';
+
+    }
+
+}
@@ -0,0 +1,167 @@
+package Scheduler.CLI;
+
+import Scheduler.DAO.DAOFactory;
+import Scheduler.DAO.ReportsDAOInterface;
+import Scheduler.Utils.DatabaseHandler;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.DateTimeException;
+import java.time.ZoneId;
+
+/**
+ * Headless command exporting a report to CSV without starting the JavaFX UI. Rows are streamed from the database
+ * straight to the output file, so memory use stays constant however many appointments the report covers.
+ *
+ * Reports are "contacts" (appointments by contact), "users" (appointments by creating user) and "types" (appointment
+ * counts per month and type). Appointment start and end dates are written as ISO-8601 date/times with offset in the
+ * zone given by --zone, which ImportCommand reads back.
+ *
+ * @author Chris Criswell
+ */
+public class ExportCommand {
+
+    /**
+     * Command line usage printed on invalid arguments
+     */
+    private static final String usage = "Usage: ExportCommand contacts|users|types <file or -> --user <name> " +
+            "--password <password> [--zone <zone ID>]";
+
+    /**
+     * Runs the export command
+     * @param args command line arguments; see usage
+     */
+    public static void main(String[] args) {
+
+        int exitCode;
+
+        try {
+            exitCode = run(new CommandOptions(args));
+        }
+
+        catch (IllegalArgumentException exception) {
+
+            System.err.println(exception.getMessage());
+            System.err.println(usage);
+            exitCode = 2;
+
+        }
+
+        DatabaseHandler.endConnection();
+        System.exit(exitCode);
+
+    }
+
+    /**
+     * Checks the command line and exports the report
+     * @param options parsed command line
+     * @return process exit code: 0 on success, 2 on failure
+     */
+    private static int run(CommandOptions options) {
+
+        String report = options.get(0);
+        String file = options.get(1);
+
+        if (report == null || file == null ||
+                !(report.equals("contacts") || report.equals("users") || report.equals("types"))) {
+            throw new IllegalArgumentException("Expected contacts, users or types and a file");
+        }
+
+        ZoneId zone;
+
+        try {
+            zone = ZoneId.of(options.get("zone", ZoneId.systemDefault().getId()));
+        }
+
+        catch (DateTimeException exception) {
+            throw new IllegalArgumentException("--zone must be a zone ID such as America/New_York");
+        }
+
+        //"-" writes the CSV to standard output, so everything else the login and DAO code prints goes to standard error
+        //instead of into the CSV
+        PrintStream standardOutput = System.out;
+
+        if (file.equals("-")) {
+            System.setOut(System.err);
+        }
+
+        try {
+            return export(options, report, file, zone, standardOutput);
+        }
+
+        finally {
+            System.setOut(standardOutput);
+        }
+
+    }
+
+    /**
+     * Logs in and streams the report to its output
+     * @param options parsed command line
+     * @param report contacts, users or types
+     * @param file file to write, or - for standard output
+     * @param zone zone appointment times are written in
+     * @param standardOutput standard output stream to write to when file is -
+     * @return process exit code: 0 on success, 2 on failure
+     */
+    private static int export(CommandOptions options, String report, String file, ZoneId zone,
+                              PrintStream standardOutput) {
+
+        if (!DatabaseHandler.login(options.get("user", ""), options.get("password", ""))) {
+            System.err.println("Login failed");
+            return 2;
+        }
+
+        long startTime = System.nanoTime();
+        long rowCount;
+
+        try (Writer output = file.equals("-") ?
+                new BufferedWriter(new OutputStreamWriter(standardOutput, StandardCharsets.UTF_8)) :
+                Files.newBufferedWriter(Paths.get(file), StandardCharsets.UTF_8)) {
+
+            CsvRecordWriter writer = new CsvRecordWriter(output);
+            ReportsDAOInterface reportsDAO = DAOFactory.getReportsDAO();
+
+            switch (report) {
+                case "contacts":
+                    rowCount = reportsDAO.exportAppointmentsByContact(writer::writeRow, zone);
+                    break;
+                case "users":
+                    rowCount = reportsDAO.exportAppointmentsByUserCreated(writer::writeRow, zone);
+                    break;
+                default:
+                    rowCount = reportsDAO.exportMonthlyCustomerAppointmentsByType(writer::writeRow);
+                    break;
+            }
+
+            output.flush();
+
+        }
+
+        catch (IOException exception) {
+
+            System.err.println(exception.getMessage());
+            return 2;
+
+        }
+
+        if (rowCount < 0) {
+            System.err.println("Export failed");
+            return 2;
+        }
+
+        double seconds = (System.nanoTime() - startTime) / 1_000_000_000.0;
+
+        System.err.printf("Exported %d rows in %.2fs (%.0f rows/s)%n", rowCount, seconds, rowCount / seconds);
+
+        return 0;
+
+    }
+
+}
@@ -0,0 +1,696 @@
+package Scheduler.CLI;
+
+import Scheduler.DAO.AppointmentDAO;
+import Scheduler.DAO.AppointmentDAOInterface;
+import Scheduler.DAO.BatchResult;
+import Scheduler.DAO.CustomerDAOInterface;
+import Scheduler.DAO.DAOFactory;
+import Scheduler.Models.Appointment;
+import Scheduler.Models.Customer;
+import Scheduler.Utils.DatabaseHandler;
+import Scheduler.Utils.ReferenceDataCache;
+import Scheduler.Utils.UserSession;
+import Scheduler.Utils.Validators;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Headless command importing customers or appointments from a CSV or NDJSON file without starting the JavaFX UI.
+ * The file is streamed one record at a time; chunks of records are validated with the same rules as the input forms on
+ * a pool of worker threads and written in order with batched inserts, so the records held in memory are bounded by the
+ * number of chunks in flight however large the file is. Appointments are also checked for overlaps with appointments
+ * earlier in the same file, which takes one interval per imported appointment.
+ *
+ * Customer records use the fields Customer_Name, Address, Postal_Code, Phone and either Division or Division_ID.
+ * Appointment records use Title, Description, Location, Type, Start, End, Customer_ID and either Contact or Contact_ID,
+ * with Start and End as ISO-8601 date/times; those without an offset are read in the zone given by --zone.
+ *
+ * @author Chris Criswell
+ */
+public class ImportCommand {
+
+    /**
+     * Command line usage printed on invalid arguments
+     */
+    private static final String usage = "Usage: ImportCommand customers|appointments <file> --user <name> " +
+            "--password <password> [--format csv|ndjson] [--batch-size <rows>] [--threads <count>] " +
+            "[--zone <zone ID>] [--rejects <file>]";
+
+    /**
+     * Exception for a record that fails parsing or validation
+     */
+    private static class RejectedRowException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Constructor with error message
+         * @param message reason the record was rejected
+         */
+        RejectedRowException(String message) {
+            super(message);
+        }
+
+    }
+
+    /**
+     * Converts a record into a validated row
+     *
+     * @param <T> type of row
+     */
+    private interface RowParser<T> {
+
+        /**
+         * Converts a record into a validated row
+         * @param record field values keyed by field name
+         * @return validated row
+         * @throws RejectedRowException if the record fails parsing or validation
+         */
+        T parse(Map<String, String> record) throws RejectedRowException;
+
+    }
+
+    /**
+     * Checks validated rows, in file order, against the rows accepted before them in the same file
+     *
+     * @param <T> type of row
+     */
+    private interface RowCheck<T> {
+
+        /**
+         * Accepts a row unless it conflicts with a row accepted earlier
+         * @param row validated row
+         * @return message describing the conflict, or null if the row was accepted
+         */
+        String accept(T row);
+
+        /**
+         * Withdraws an accepted row the database failed to insert, so it no longer conflicts with later rows
+         * @param row accepted row
+         */
+        void withdraw(T row);
+
+    }
+
+    /**
+     * Row check rejecting appointments that overlap an appointment earlier in the file for the same customer, by the
+     * same rule as AppointmentDAO.checkIfOtherAppointmentsInRange. Used only by the writing thread.
+     */
+    private static class AppointmentOverlapCheck implements RowCheck<Appointment> {
+
+        /**
+         * End of each accepted appointment keyed by its start, in epoch milliseconds, by customer ID. Accepted
+         * appointments don't overlap, so only the nearest appointment starting at or before and after a new one's start
+         * need be checked.
+         */
+        private final Map<Integer, TreeMap<Long, Long>> accepted = new HashMap<>();
+
+        @Override
+        public String accept(Appointment appointment) {
+
+            long start = appointment.getStartDateTime().toInstant().toEpochMilli();
+            long end = appointment.getEndDateTime().toInstant().toEpochMilli();
+
+            TreeMap<Long, Long> slots = accepted.computeIfAbsent(appointment.getCustomerID(), id -> new TreeMap<>());
+
+            //two intervals overlap when each starts before the other ends
+            Map.Entry<Long, Long> before = slots.floorEntry(start);
+            Map.Entry<Long, Long> after = slots.higherEntry(start);
+
+            if ((before != null && before.getValue() > start) || (after != null && after.getKey() < end)) {
+                return "An appointment earlier in the file is already scheduled in this time slot";
+            }
+
+            slots.merge(start, end, Math::max);
+
+            return null;
+
+        }
+
+        @Override
+        public void withdraw(Appointment appointment) {
+
+            TreeMap<Long, Long> slots = accepted.get(appointment.getCustomerID());
+
+            if (slots != null) {
+                slots.remove(appointment.getStartDateTime().toInstant().toEpochMilli(),
+                        appointment.getEndDateTime().toInstant().toEpochMilli());
+            }
+
+        }
+
+    }
+
+    /**
+     * Chunk of records validated together, holding the valid rows and the rejected records with their line numbers
+     *
+     * @param <T> type of row
+     */
+    private static class Chunk<T> {
+
+        /**
+         * Rows that passed validation, in file order
+         */
+        final List<T> rows = new ArrayList<>();
+
+        /**
+         * Line number of each valid row
+         */
+        final List<Long> rowLines = new ArrayList<>();
+
+        /**
+         * Line number of each rejected record
+         */
+        final List<Long> rejectedLines = new ArrayList<>();
+
+        /**
+         * Reason each record was rejected
+         */
+        final List<String> rejectedReasons = new ArrayList<>();
+
+    }
+
+    /**
+     * Number of rows per validation chunk and insert batch
+     */
+    private final int batchSize;
+
+    /**
+     * Number of validation worker threads
+     */
+    private final int threadCount;
+
+    /**
+     * Destination for rejected row reports
+     */
+    private final PrintWriter rejects;
+
+    /**
+     * Number of records read, including malformed ones
+     */
+    private long rowsRead = 0;
+
+    /**
+     * Number of rows written to the database
+     */
+    private long rowsImported = 0;
+
+    /**
+     * Number of records rejected by parsing, validation, row checks or the database
+     */
+    private long rowsRejected = 0;
+
+    /**
+     * Constructor with pipeline settings
+     * @param batchSize number of rows per validation chunk and insert batch
+     * @param threadCount number of validation worker threads
+     * @param rejects destination for rejected row reports
+     */
+    ImportCommand(int batchSize, int threadCount, PrintWriter rejects) {
+        this.batchSize = batchSize;
+        this.threadCount = threadCount;
+        this.rejects = rejects;
+    }
+
+    /**
+     * Runs the import command
+     * @param args command line arguments; see usage
+     */
+    public static void main(String[] args) {
+
+        int exitCode;
+
+        try {
+            exitCode = run(new CommandOptions(args));
+        }
+
+        catch (IllegalArgumentException exception) {
+
+            System.err.println(exception.getMessage());
+            System.err.println(usage);
+            exitCode = 2;
+
+        }
+
+        DatabaseHandler.endConnection();
+        System.exit(exitCode);
+
+    }
+
+    /**
+     * Opens the input, logs in and imports the file
+     * @param options parsed command line
+     * @return process exit code: 0 if every row was imported, 1 if any row was rejected, 2 on failure
+     */
+    private static int run(CommandOptions options) {
+
+        String kind = options.get(0);
+        String file = options.get(1);
+
+        if (kind == null || file == null || !(kind.equals("customers") || kind.equals("appointments"))) {
+            throw new IllegalArgumentException("Expected customers or appointments and a file");
+        }
+
+        String format = options.get("format", file.toLowerCase().endsWith(".csv") ? "csv" : "ndjson");
+
+        if (!format.equals("csv") && !format.equals("ndjson")) {
+            throw new IllegalArgumentException("--format must be csv or ndjson");
+        }
+
+        int batchSize = options.getPositiveInt("batch-size", AppointmentDAO.defaultBatchSize);
+        int threadCount = options.getPositiveInt("threads", Math.min(4, Runtime.getRuntime().availableProcessors()));
+        ZoneId zone;
+
+        try {
+            zone = ZoneId.of(options.get("zone", ZoneId.systemDefault().getId()));
+        }
+
+        catch (DateTimeException exception) {
+            throw new IllegalArgumentException("--zone must be a zone ID such as America/New_York");
+        }
+
+        String rejectsFile = options.get("rejects", null);
+
+        if (!DatabaseHandler.login(options.get("user", ""), options.get("password", ""))) {
+            System.err.println("Login failed");
+            return 2;
+        }
+
+        if (!ReferenceDataCache.getReferenceDataCache().refresh()) {
+            System.err.println("Could not load reference data");
+            return 2;
+        }
+
+        try (BufferedReader input = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8);
+             PrintWriter rejects = rejectsFile == null ?
+                     new PrintWriter(System.err, true) :
+                     new PrintWriter(Files.newBufferedWriter(Paths.get(rejectsFile), StandardCharsets.UTF_8))) {
+
+            RecordReader reader = format.equals("csv") ? new CsvRecordReader(input) : new NdjsonRecordReader(input);
+
+            rejects.println("line,reason");
+
+            ImportCommand command = new ImportCommand(batchSize, threadCount, rejects);
+
+            if (kind.equals("customers")) {
+
+                CustomerDAOInterface customerDAO = DAOFactory.getCustomerDAO();
+                command.importRows(reader, ImportCommand::parseCustomer, null,
+                        customers -> customerDAO.addCustomers(customers, batchSize));
+
+            }
+
+            else {
+
+                AppointmentDAOInterface appointmentDAO = DAOFactory.getAppointmentDAO();
+                command.importRows(reader, record -> parseAppointment(record, zone), new AppointmentOverlapCheck(),
+                        appointments -> appointmentDAO.addAppointments(appointments, batchSize));
+
+            }
+
+            return command.rowsRejected == 0 ? 0 : 1;
+
+        }
+
+        catch (IOException exception) {
+
+            System.err.println(exception.getMessage());
+            return 2;
+
+        }
+
+    }
+
+    /**
+     * Streams records from a reader through validation workers and batched writes, then prints a summary
+     * @param reader source of records
+     * @param parser converts a record into a validated row
+     * @param check checks valid rows against earlier rows in the file, or null for no check
+     * @param writer writes a batch of rows
+     * @param <T> type of row
+     * @throws IOException if the file can't be read
+     */
+    <T> void importRows(RecordReader reader, RowParser<T> parser, RowCheck<T> check,
+                        Function<List<T>, BatchResult<T>> writer) throws IOException {
+
+        long startTime = System.nanoTime();
+
+        AtomicInteger threadNumber = new AtomicInteger(1);
+
+        ExecutorService workers = Executors.newFixedThreadPool(threadCount, runnable -> {
+            Thread thread = new Thread(runnable, "import-worker-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        //chunks are written in file order; the queue bound keeps at most two chunks per worker in memory
+        Deque<Future<Chunk<T>>> pending = new ArrayDeque<>();
+
+        try {
+
+            List<Map<String, String>> records = new ArrayList<>(batchSize);
+            List<Long> lines = new ArrayList<>(batchSize);
+
+            while (true) {
+
+                Map<String, String> record;
+
+                try {
+                    record = reader.next();
+                }
+
+                catch (MalformedRecordException exception) {
+
+                    rowsRead++;
+                    reject(reader.getLineNumber(), exception.getMessage());
+                    continue;
+
+                }
+
+                if (record != null) {
+
+                    rowsRead++;
+                    records.add(record);
+                    lines.add(reader.getLineNumber());
+
+                }
+
+                if (records.size() == batchSize || (record == null && !records.isEmpty())) {
+
+                    List<Map<String, String>> chunkRecords = records;
+                    List<Long> chunkLines = lines;
+
+                    pending.addLast(workers.submit(() -> validate(chunkRecords, chunkLines, parser)));
+
+                    records = new ArrayList<>(batchSize);
+                    lines = new ArrayList<>(batchSize);
+
+                }
+
+                while (pending.size() > threadCount * 2 || (record == null && !pending.isEmpty())) {
+                    write(pending.removeFirst().get(), check, writer);
+                }
+
+                if (record == null) {
+                    break;
+                }
+
+            }
+
+        }
+
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+
+        catch (ExecutionException exception) {
+            throw new IOException(exception.getCause());
+        }
+
+        finally {
+            workers.shutdownNow();
+            reader.close();
+        }
+
+        double seconds = (System.nanoTime() - startTime) / 1_000_000_000.0;
+
+        System.out.printf("Read %d rows, imported %d, rejected %d in %.2fs (%.0f rows/s read, %.0f rows/s imported)%n",
+                rowsRead, rowsImported, rowsRejected, seconds, rowsRead / seconds, rowsImported / seconds);
+
+    }
+
+    /**
+     * Validates a chunk of records on a worker thread
+     * @param records records of the chunk, in file order
+     * @param lines line number of each record
+     * @param parser converts a record into a validated row
+     * @param <T> type of row
+     * @return chunk holding the valid rows and the rejected records
+     */
+    private static <T> Chunk<T> validate(List<Map<String, String>> records, List<Long> lines, RowParser<T> parser) {
+
+        Chunk<T> chunk = new Chunk<>();
+
+        for (int i = 0; i < records.size(); i++) {
+
+            try {
+
+                chunk.rows.add(parser.parse(records.get(i)));
+                chunk.rowLines.add(lines.get(i));
+
+            }
+
+            catch (RejectedRowException | RuntimeException exception) {
+
+                chunk.rejectedLines.add(lines.get(i));
+                chunk.rejectedReasons.add(exception.getMessage());
+
+            }
+
+        }
+
+        return chunk;
+
+    }
+
+    /**
+     * Reports a validated chunk's rejected records, checks its valid rows in file order against the rows accepted
+     * before them and writes those that pass, reporting rows the check or the database rejected. Chunks are written one
+     * at a time in file order on the reading thread.
+     * @param chunk validated chunk
+     * @param check checks rows against earlier rows in the file, or null for no check
+     * @param writer writes a batch of rows
+     * @param <T> type of row
+     */
+    private <T> void write(Chunk<T> chunk, RowCheck<T> check, Function<List<T>, BatchResult<T>> writer) {
+
+        for (int i = 0; i < chunk.rejectedLines.size(); i++) {
+            reject(chunk.rejectedLines.get(i), chunk.rejectedReasons.get(i));
+        }
+
+        List<T> rows = chunk.rows;
+        List<Long> rowLines = chunk.rowLines;
+
+        if (check != null) {
+
+            rows = new ArrayList<>(chunk.rows.size());
+            rowLines = new ArrayList<>(chunk.rows.size());
+
+            for (int i = 0; i < chunk.rows.size(); i++) {
+
+                String message = check.accept(chunk.rows.get(i));
+
+                if (message == null) {
+                    rows.add(chunk.rows.get(i));
+                    rowLines.add(chunk.rowLines.get(i));
+                }
+
+                else {
+                    reject(chunk.rowLines.get(i), message);
+                }
+
+            }
+
+        }
+
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        BatchResult<T> result = writer.apply(rows);
+
+        rowsImported += result.getWritten().size();
+
+        for (BatchResult.Failure<T> failure : result.getFailures()) {
+
+            if (check != null) {
+                check.withdraw(rows.get(failure.getIndex()));
+            }
+
+            reject(rowLines.get(failure.getIndex()), failure.getMessage());
+
+        }
+
+    }
+
+    /**
+     * Counts a rejected record and reports it with its line number
+     * @param line line number of record
+     * @param reason reason the record was rejected, or null if unknown
+     */
+    private void reject(long line, String reason) {
+
+        rowsRejected++;
+        rejects.println(line + "," + CsvRecordWriter.quote(reason == null ? "" : reason));
+
+    }
+
+    /**
+     * Gets a trimmed field value
+     * @param record record to read
+     * @param name field name
+     * @return trimmed value, or an empty string if the field is missing
+     */
+    private static String field(Map<String, String> record, String name) {
+
+        String value = record.get(name);
+
+        return value == null ? "" : value.trim();
+
+    }
+
+    /**
+     * Parses an ID field
+     * @param value field value
+     * @param name field name for error message
+     * @return parsed ID
+     * @throws RejectedRowException if the value is not an integer
+     */
+    private static int parseID(String value, String name) throws RejectedRowException {
+
+        try {
+            return Integer.parseInt(value);
+        }
+
+        catch (NumberFormatException exception) {
+            throw new RejectedRowException("Invalid " + name + " '" + value + "'");
+        }
+
+    }
+
+    /**
+     * Parses an ISO-8601 date/time, with or without an offset or zone
+     * @param value field value
+     * @param name field name for error message
+     * @param zone zone for date/times without an offset
+     * @return parsed date/time in the system time zone
+     * @throws RejectedRowException if the value can't be parsed
+     */
+    private static ZonedDateTime parseDateTime(String value, String name, ZoneId zone) throws RejectedRowException {
+
+        try {
+
+            if (value.contains("[")) {
+                return ZonedDateTime.parse(value).withZoneSameInstant(ZoneId.systemDefault());
+            }
+
+            if (value.endsWith("Z") || value.matches(".*[+-]\\d\\d:?\\d\\d$")) {
+                return OffsetDateTime.parse(value).atZoneSameInstant(ZoneId.systemDefault());
+            }
+
+            return LocalDateTime.parse(value.replace(' ', 'T')).atZone(zone).withZoneSameInstant(ZoneId.systemDefault());
+
+        }
+
+        catch (DateTimeParseException exception) {
+            throw new RejectedRowException("Invalid " + name + " '" + value + "'");
+        }
+
+    }
+
+    /**
+     * Converts a customer record into a validated customer, resolving its division from reference data
+     * @param record customer record
+     * @return customer ready to insert
+     * @throws RejectedRowException if the record fails validation
+     */
+    private static Customer parseCustomer(Map<String, String> record) throws RejectedRowException {
+
+        ReferenceDataCache referenceData = ReferenceDataCache.getReferenceDataCache();
+
+        String name = field(record, "Customer_Name");
+        String address = field(record, "Address");
+        String postalCode = field(record, "Postal_Code");
+        String phoneNumber = field(record, "Phone");
+
+        int divisionID = field(record, "Division_ID").isEmpty() ?
+                referenceData.getDivisionID(field(record, "Division")) :
+                parseID(field(record, "Division_ID"), "Division_ID");
+
+        String divisionName = referenceData.getDivisionName(divisionID);
+
+        if (divisionName == null) {
+            throw new RejectedRowException("Unknown division");
+        }
+
+        String message = Validators.checkCustomerInput(name, address, postalCode, phoneNumber,
+                String.valueOf(divisionID));
+
+        if (message != null) {
+            throw new RejectedRowException(message);
+        }
+
+        return new Customer(0, name, address, postalCode, divisionID, divisionName,
+                referenceData.getCountryNameByDivisionID(divisionID), phoneNumber);
+
+    }
+
+    /**
+     * Converts an appointment record into a validated appointment, resolving its contact from reference data. The
+     * appointment is created by the logged-in user.
+     * @param record appointment record
+     * @param zone zone for date/times without an offset
+     * @return appointment ready to insert
+     * @throws RejectedRowException if the record fails validation
+     */
+    private static Appointment parseAppointment(Map<String, String> record, ZoneId zone) throws RejectedRowException {
+
+        ReferenceDataCache referenceData = ReferenceDataCache.getReferenceDataCache();
+
+        String title = field(record, "Title");
+        String description = field(record, "Description");
+        String location = field(record, "Location");
+        String type = field(record, "Type");
+        String customerID = field(record, "Customer_ID");
+        int userID = UserSession.getCurrentUser().getId();
+
+        ZonedDateTime start = parseDateTime(field(record, "Start"), "Start", zone);
+        ZonedDateTime end = parseDateTime(field(record, "End"), "End", zone);
+
+        int contactID = field(record, "Contact_ID").isEmpty() ?
+                referenceData.getContactID(field(record, "Contact")) :
+                parseID(field(record, "Contact_ID"), "Contact_ID");
+
+        String contactName = referenceData.getContactName(contactID);
+
+        if (contactName == null) {
+            throw new RejectedRowException("Unknown contact");
+        }
+
+        String message = Validators.checkAppointmentInput(0, title, description, location, type, start, end,
+                customerID, String.valueOf(userID));
+
+        if (message != null) {
+            throw new RejectedRowException(message);
+        }
+
+        return new Appointment(0, Integer.parseInt(customerID), contactID, userID, title, description, location, type,
+                start, end, null, contactName);
+
+    }
+
+}
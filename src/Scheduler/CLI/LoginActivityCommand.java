@@ -0,0 +1,247 @@
+package Scheduler.CLI;
+
+import Scheduler.Models.LoginAttempt;
+import Scheduler.Utils.LoginActivityStore;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Headless command querying the login activity store in the working directory, or filling it from text logs.
+ *
+ * "convert" merges login_activity.txt files, plain or gzip compressed as rotated by LoginTracker, into the store;
+ * attempts already stored are skipped, so a log can be converted more than once. Run it while the application is
+ * closed. "failed" prints the number of denied attempts for a username over the last --hours hours, and "daily" prints
+ * successful and denied logins per day over the last --days days in the zone given by --zone.
+ *
+ * @author Chris Criswell
+ */
+public class LoginActivityCommand {
+
+    private static final String usage = "Usage: LoginActivityCommand convert <file>... | failed <username> " +
+            "[--hours <hours>] | daily [--days <days>] [--zone <zone ID>]";
+
+    /**
+     * Runs the login activity command
+     * @param args command line arguments; see usage
+     */
+    public static void main(String[] args) {
+
+        int exitCode;
+
+        try {
+            exitCode = run(new CommandOptions(args));
+        }
+
+        catch (IllegalArgumentException exception) {
+
+            System.err.println(exception.getMessage());
+            System.err.println(usage);
+            exitCode = 2;
+
+        }
+
+        System.exit(exitCode);
+
+    }
+
+    /**
+     * Opens the store and runs the requested action
+     * @param options parsed command line
+     * @return process exit code: 0 on success, 2 on failure
+     */
+    private static int run(CommandOptions options) {
+
+        String action = options.get(0);
+
+        if (action == null || !(action.equals("convert") || action.equals("failed") || action.equals("daily"))) {
+            throw new IllegalArgumentException("Expected convert, failed or daily");
+        }
+
+        LoginActivityStore store = LoginActivityStore.getLoginActivityStore();
+
+        if (store == null) {
+            return 2;
+        }
+
+        long startTime = System.nanoTime();
+
+        switch (action) {
+
+            case "convert":
+                if (!convert(store, options)) {
+                    return 2;
+                }
+                break;
+
+            case "failed": {
+
+                String username = options.get(1);
+
+                if (username == null) {
+                    throw new IllegalArgumentException("Expected a username");
+                }
+
+                Instant now = Instant.now();
+                Instant from = now.minus(Duration.ofHours(options.getPositiveInt("hours", 1)));
+
+                System.out.println(store.countFailedAttempts(username, from, now));
+                break;
+
+            }
+
+            default: {
+
+                ZoneId zone;
+
+                try {
+                    zone = ZoneId.of(options.get("zone", ZoneId.systemDefault().getId()));
+                }
+
+                catch (DateTimeException exception) {
+                    throw new IllegalArgumentException("--zone must be a zone ID such as America/New_York");
+                }
+
+                LocalDate lastDay = LocalDate.now(zone);
+                LocalDate firstDay = lastDay.minusDays(options.getPositiveInt("days", 30) - 1);
+
+                SortedMap<LocalDate, Integer> successes = store.countLoginsPerDay(firstDay, lastDay, zone, true);
+                SortedMap<LocalDate, Integer> denials = store.countLoginsPerDay(firstDay, lastDay, zone, false);
+
+                System.out.println("Date,Successful,Denied");
+
+                for (Map.Entry<LocalDate, Integer> day : successes.entrySet()) {
+                    System.out.println(day.getKey() + "," + day.getValue() + "," + denials.get(day.getKey()));
+                }
+
+                break;
+
+            }
+
+        }
+
+        System.err.printf("%s over %d stored attempts in %.3f ms%n", action, store.getAttemptCount(),
+                (System.nanoTime() - startTime) / 1_000_000.0);
+
+        return 0;
+
+    }
+
+    /**
+     * Parses text logs and merges their attempts into the store
+     * @param store login activity store
+     * @param options parsed command line listing the files after the action
+     * @return true if every file was read and the store rewritten
+     */
+    private static boolean convert(LoginActivityStore store, CommandOptions options) {
+
+        if (options.get(1) == null) {
+            throw new IllegalArgumentException("Expected at least one log file");
+        }
+
+        List<LoginAttempt> attempts = new ArrayList<>();
+        long skipped = 0;
+
+        for (int index = 1; options.get(index) != null; index++) {
+
+            String file = options.get(index);
+
+            try (InputStream input = file.endsWith(".gz") ?
+                    new GZIPInputStream(Files.newInputStream(Paths.get(file))) : Files.newInputStream(Paths.get(file));
+                 BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+
+                String line;
+
+                while ((line = reader.readLine()) != null) {
+
+                    LoginAttempt attempt = parse(line);
+
+                    if (attempt != null) {
+                        attempts.add(attempt);
+                    }
+
+                    else if (!line.isEmpty()) {
+                        skipped++;
+                    }
+
+                }
+
+            }
+
+            catch (IOException exception) {
+
+                System.err.println(file + ": " + exception.getMessage());
+                return false;
+
+            }
+
+        }
+
+        try {
+
+            int added = store.merge(attempts);
+
+            System.err.printf("Read %d attempts, added %d new, skipped %d malformed lines%n", attempts.size(), added,
+                    skipped);
+
+        }
+
+        catch (IOException exception) {
+
+            System.err.println(exception.getMessage());
+            return false;
+
+        }
+
+        return true;
+
+    }
+
+    /**
+     * Parses a line of login_activity.txt as written by LoginAttempt.toString
+     * @param line log line without its newline
+     * @return login attempt, or null if the line is malformed
+     */
+    private static LoginAttempt parse(String line) {
+
+        int time = line.indexOf("\tDate/Time: ");
+        int result = line.lastIndexOf("\tResult: ");
+
+        if (!line.startsWith("Username: ") || time < 0 || result < time) {
+            return null;
+        }
+
+        String outcome = line.substring(result + "\tResult: ".length());
+
+        if (!outcome.equals("success") && !outcome.equals("denied")) {
+            return null;
+        }
+
+        try {
+            return new LoginAttempt(line.substring("Username: ".length(), time),
+                    Instant.parse(line.substring(time + "\tDate/Time: ".length(), result)), outcome.equals("success"));
+        }
+
+        catch (DateTimeParseException exception) {
+            return null;
+        }
+
+    }
+
+}
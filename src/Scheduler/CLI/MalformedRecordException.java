@@ -0,0 +1,23 @@
+package Scheduler.CLI;
+
+import java.io.IOException;
+
+/**
+ * Exception thrown by a record reader for a record it can't parse. The reader stays usable, so the record can be
+ * rejected and reading continued with the next one.
+ *
+ * @author Chris Criswell
+ */
+public class MalformedRecordException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor with error message
+     * @param message description of the problem, including its line number
+     */
+    public MalformedRecordException(String message) {
+        super(message);
+    }
+
+}
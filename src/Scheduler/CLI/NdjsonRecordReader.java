@@ -0,0 +1,247 @@
+package Scheduler.CLI;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Streaming reader of newline-delimited JSON records. Each non-blank line must hold one flat JSON object whose values
+ * are strings, numbers, booleans or null; values are returned as strings and null as an empty string.
+ *
+ * @author Chris Criswell
+ */
+public class NdjsonRecordReader implements RecordReader {
+
+    /**
+     * Underlying reader
+     */
+    private final BufferedReader reader;
+
+    /**
+     * Line number of the last returned record
+     */
+    private long lineNumber = 0;
+
+    /**
+     * Line being parsed
+     */
+    private String line;
+
+    /**
+     * Parse position in line
+     */
+    private int position;
+
+    /**
+     * Constructor with underlying reader
+     * @param reader reader positioned at the first record
+     */
+    public NdjsonRecordReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public Map<String, String> next() throws IOException {
+
+        do {
+
+            line = reader.readLine();
+
+            if (line == null) {
+                return null;
+            }
+
+            lineNumber++;
+
+        } while (line.trim().isEmpty());
+
+        position = 0;
+
+        Map<String, String> record = new HashMap<>();
+
+        expect('{');
+
+        if (peek() == '}') {
+            position++;
+        }
+
+        else {
+
+            while (true) {
+
+                String name = readString();
+                expect(':');
+                record.put(name, readValue());
+
+                char separator = nextChar();
+
+                if (separator == '}') {
+                    break;
+                }
+
+                if (separator != ',') {
+                    throw error("expected ',' or '}'");
+                }
+
+            }
+
+        }
+
+        if (peek() != 0) {
+            throw error("unexpected text after object");
+        }
+
+        return record;
+
+    }
+
+    @Override
+    public long getLineNumber() { return lineNumber; }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Skips whitespace and returns the next character without consuming it
+     * @return next character, or 0 at end of line
+     */
+    private char peek() {
+
+        while (position < line.length() && Character.isWhitespace(line.charAt(position))) {
+            position++;
+        }
+
+        return position < line.length() ? line.charAt(position) : 0;
+
+    }
+
+    /**
+     * Skips whitespace and consumes the next character
+     * @return next character, or 0 at end of line
+     */
+    private char nextChar() {
+
+        char character = peek();
+
+        if (character != 0) {
+            position++;
+        }
+
+        return character;
+
+    }
+
+    private void expect(char expected) throws IOException {
+
+        if (nextChar() != expected) {
+            throw error("expected '" + expected + "'");
+        }
+
+    }
+
+    /**
+     * Reads a value, converting numbers, booleans and null to their text
+     * @return value as string
+     * @throws IOException if the value is not a string, number, boolean or null
+     */
+    private String readValue() throws IOException {
+
+        char first = peek();
+
+        if (first == '"') {
+            return readString();
+        }
+
+        if (first == '{' || first == '[') {
+            throw error("nested values are not supported");
+        }
+
+        int start = position;
+
+        while (position < line.length() && ",}".indexOf(line.charAt(position)) < 0 &&
+                !Character.isWhitespace(line.charAt(position))) {
+            position++;
+        }
+
+        String literal = line.substring(start, position);
+
+        if (literal.isEmpty()) {
+            throw error("expected a value");
+        }
+
+        return literal.equals("null") ? "" : literal;
+
+    }
+
+    /**
+     * Reads a quoted string, decoding escape sequences
+     * @return decoded string
+     * @throws IOException if the string is malformed
+     */
+    private String readString() throws IOException {
+
+        expect('"');
+
+        StringBuilder value = new StringBuilder();
+
+        while (position < line.length()) {
+
+            char character = line.charAt(position++);
+
+            if (character == '"') {
+                return value.toString();
+            }
+
+            if (character != '\\') {
+                value.append(character);
+                continue;
+            }
+
+            if (position >= line.length()) {
+                break;
+            }
+
+            char escaped = line.charAt(position++);
+
+            switch (escaped) {
+                case 'n':
+                    value.append('\n');
+                    break;
+                case 't':
+                    value.append('\t');
+                    break;
+                case 'r':
+                    value.append('\r');
+                    break;
+                case 'b':
+                    value.append('\b');
+                    break;
+                case 'f':
+                    value.append('\f');
+                    break;
+                case 'u':
+                    if (position + 4 > line.length()) {
+                        throw error("incomplete unicode escape");
+                    }
+                    value.append((char) Integer.parseInt(line.substring(position, position + 4), 16));
+                    position += 4;
+                    break;
+                default:
+                    value.append(escaped);
+                    break;
+            }
+
+        }
+
+        throw error("unterminated string");
+
+    }
+
+    private MalformedRecordException error(String message) {
+        return new MalformedRecordException("Line " + lineNumber + ", column " + (position + 1) + ": " + message);
+    }
+
+}
@@ -0,0 +1,29 @@
+package Scheduler.CLI;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Streaming reader of named-field records from a file, reading one record at a time so files of any size can be
+ * processed in constant memory
+ *
+ * @author Chris Criswell
+ */
+public interface RecordReader extends Closeable {
+
+    /**
+     * Reads the next record
+     * @return map of field names to values, or null at end of file
+     * @throws MalformedRecordException if the record can't be parsed; reading can continue with the next record
+     * @throws IOException if the file can't be read
+     */
+    Map<String, String> next() throws IOException;
+
+    /**
+     * Accessor for line number of the record last returned, for reporting rejected rows
+     * @return line number in file, starting at 1
+     */
+    long getLineNumber();
+
+}
@@ -1,8 +1,8 @@
 package Scheduler.Controllers;
 
-import Scheduler.DAO.AppointmentDAO;
+import Scheduler.DAO.AppointmentDAOInterface;
+import Scheduler.DAO.DAOFactory;
 import Scheduler.Models.Appointment;
-import Scheduler.Utils.DatabaseHandler;
 
 import javafx.event.ActionEvent;
 import javafx.scene.control.Alert;
@@ -17,11 +17,6 @@ import java.util.ResourceBundle;
  */
 public class AddAppointmentController extends AppointmentController {
 
-    /**
-     * Indicator for whether a database error occurred generating new appointment ID while setting UI
-     */
-    boolean generateIDError = false;
-
     /**
      * Save button click handler that validates appointment object and writes to database
      * @param event button click event
@@ -33,10 +28,9 @@ public class AddAppointmentController extends AppointmentController {
 
         if (appointment != null) {
 
-            AppointmentDAO appointmentDAO = new AppointmentDAO();
+            AppointmentDAOInterface appointmentDAO = DAOFactory.getAppointmentDAO();
 
             if (appointmentDAO.addAppointment(appointment)) {
-                DatabaseHandler.setDatabaseUpdated(true);
                 return true;
             }
 
@@ -57,35 +51,16 @@ public class AddAppointmentController extends AppointmentController {
     }
 
     /**
-     * Method to set UI components and retrieve automatically generated ID for new appointment. If a database error occurs,
-     * class member generateIDError is flagged as true in order for initialize method to handle the error and show
-     * an alert
+     * Method to set UI components. The appointment ID field is left empty since the database assigns the ID on save.
      */
     private void setUI() {
 
         mainLabel.setText("Add a new appointment");
 
-        AppointmentDAO appointmentDAO = new AppointmentDAO();
-
-        int appointmentID = appointmentDAO.generateAppointmentID();
-
-        if (appointmentID != -1) {
-
-            enteredID.setText(String.valueOf(appointmentID));
-
-        }
-
-        else {
-
-            generateIDError = true;
-
-        }
-
     }
 
     /**
-     * Override of standard JavaFX method to initialize UI. Sets UI and button handlers and checks if there was a database
-     * error with generating automatic appointment ID for new customer
+     * Override of standard JavaFX method to initialize UI. Sets UI and button handlers
      * @param url The location used to resolve relative paths for the root object, or null if the location is not known.
      * @param resourceBundle The resources used to localize the root object, or null if the root object was not localized.
      */
@@ -96,16 +71,5 @@ public class AddAppointmentController extends AppointmentController {
         setUI();
         setHandlers();
 
-        //should only happen if no data in database or no connection to database
-        if (generateIDError) {
-
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setContentText("Database error generating ID for appointment. Check your connection and try opening the form again.");
-            alert.getDialogPane().setMinWidth(450.0);
-            alert.getDialogPane().setMinHeight(220.0);
-            alert.showAndWait();
-
-        }
-
     }
 }
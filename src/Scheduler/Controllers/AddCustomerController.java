@@ -1,9 +1,9 @@
 package Scheduler.Controllers;
 
-import Scheduler.DAO.CustomerDAO;
-import Scheduler.DAO.DivisionDAO;
+import Scheduler.DAO.CustomerDAOInterface;
+import Scheduler.DAO.DAOFactory;
+import Scheduler.DAO.DivisionDAOInterface;
 import Scheduler.Models.Customer;
-import Scheduler.Utils.DatabaseHandler;
 import Scheduler.Utils.UserSession;
 import Scheduler.Utils.Validators;
 import javafx.event.ActionEvent;
@@ -19,11 +19,6 @@ import java.util.ResourceBundle;
  */
 public class AddCustomerController extends CustomerController {
 
-    /**
-     * Indicator for whether a database error occurred generating new customer ID while setting UI
-     */
-    boolean generateIDError = false;
-
     /**
      * Save button click handler that validates customer object and writes to database
      * @param event button click event
@@ -54,20 +49,19 @@ public class AddCustomerController extends CustomerController {
                         + name.substring(name.indexOf(' ') + 2, name.length() - 1);
             }
 
-            DivisionDAO divisionDAO = new DivisionDAO();
+            DivisionDAOInterface divisionDAO = DAOFactory.getDivisionDAO();
 
             int divisionID = divisionDAO.getIDByDivision(divisionComboBox.getValue().toString());
 
             if (divisionID != -1) {
 
-                Customer customerToAdd = new Customer(Integer.parseInt(enteredID.getText().trim()), name,
+                Customer customerToAdd = new Customer(getEnteredID(), name,
                         enteredAddress.getText().trim(), enteredPostalCode.getText().trim(), divisionID,
                         enteredPhone.getText().trim());
 
-                CustomerDAO customerDAO = new CustomerDAO();
+                CustomerDAOInterface customerDAO = DAOFactory.getCustomerDAO();
 
                 if (customerDAO.addCustomer(customerToAdd)) {
-                    DatabaseHandler.setDatabaseUpdated(true);
                     return true;
                 }
 
@@ -85,33 +79,16 @@ public class AddCustomerController extends CustomerController {
     }
 
     /**
-     * Method to set UI components and retrieve automatically generated ID for new user. If a database error occurs,
-     * class member generateIDError is flagged as true in order for initialize method to handle the error and show
-     * an alert
+     * Method to set UI components. The customer ID field is left empty since the database assigns the ID on save.
      */
     private void setUI() {
 
         mainLabel.setText("Add New Customer Information");
 
-        int customerID = new CustomerDAO().generateCustomerID();
-
-        if (customerID != -1) {
-
-            enteredID.setText(String.valueOf(customerID));
-
-        }
-
-        else {
-
-            generateIDError = true;
-
-        }
-
     }
 
     /**
-     * Override of standard JavaFX method to initialize UI. Sets UI and button handlers and checks if there was a database
-     * error with generating automatic user ID for new customer
+     * Override of standard JavaFX method to initialize UI. Sets UI and button handlers
      * @param url The location used to resolve relative paths for the root object, or null if the location is not known.
      * @param resourceBundle The resources used to localize the root object, or null if the root object was not localized.
      */
@@ -122,16 +99,5 @@ public class AddCustomerController extends CustomerController {
         setUI();
         setHandlers();
 
-        //should only happen if no data in database or no connection to database
-        if (generateIDError) {
-
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setContentText("Database error generating ID for customer. Check your connection and try opening the form again.");
-            alert.getDialogPane().setMinWidth(450.0);
-            alert.getDialogPane().setMinHeight(220.0);
-            alert.showAndWait();
-
-        }
-
     }
 }
@@ -1,6 +1,7 @@
 package Scheduler.Controllers;
 
-import Scheduler.DAO.ContactDAO;
+import Scheduler.DAO.ContactDAOInterface;
+import Scheduler.DAO.DAOFactory;
 import Scheduler.Models.Appointment;
 import Scheduler.Utils.UserSession;
 import Scheduler.Utils.Validators;
@@ -141,6 +142,18 @@ public abstract class AppointmentController implements Initializable {
         return endDateTime;
     }
 
+    /**
+     * Accessor for appointment ID input field, which is empty for new appointments until the database assigns an ID
+     * @return entered appointment ID or 0 for a new appointment
+     */
+    int getEnteredID() {
+
+        String id = enteredID.getText().trim();
+
+        return id.isEmpty() ? 0 : Integer.parseInt(id);
+
+    }
+
     /**
      * Mutator for zoned start date and time object
      * @param startDateTime ZonedDateTime object representing start date and time of appointment
@@ -213,7 +226,7 @@ public abstract class AppointmentController implements Initializable {
      */
     public void setCommonUI() {
 
-        ContactDAO contactDAO = new ContactDAO();
+        ContactDAOInterface contactDAO = DAOFactory.getContactDAO();
 
         ObservableList<String> contactNames = contactDAO.getAllContactNames();
 
@@ -298,7 +311,7 @@ public abstract class AppointmentController implements Initializable {
      */
     public boolean validateInput() {
 
-        if (!Validators.validateAppointmentInput(Integer.parseInt(enteredID.getText()), enteredTitle.getText().trim(),
+        if (!Validators.validateAppointmentInput(getEnteredID(), enteredTitle.getText().trim(),
                 enteredDescription.getText().trim(), enteredLocation.getText().trim(), enteredType.getText().trim(),
                 startDateTime, endDateTime, enteredCustomerID.getText().trim(), enteredUserID.getText().trim())) {
 
@@ -324,9 +337,9 @@ public abstract class AppointmentController implements Initializable {
 
             int userID = UserSession.getCurrentUser().getId();
 
-            int contactID = new ContactDAO().getContactIDByName(contactComboBox.getValue().toString());
+            int contactID = DAOFactory.getContactDAO().getContactIDByName(contactComboBox.getValue().toString());
 
-            Appointment appointment = new Appointment(Integer.parseInt(enteredID.getText()),
+            Appointment appointment = new Appointment(getEnteredID(),
                     Integer.parseInt(enteredCustomerID.getText()), contactID, userID, enteredTitle.getText().trim(),
                     enteredDescription.getText().trim(), enteredLocation.getText().trim(), enteredType.getText().trim(),
                     startDateTime, endDateTime);
@@ -1,13 +1,21 @@
 package Scheduler.Controllers;
 
-import Scheduler.DAO.AppointmentDAO;
+import Scheduler.DAO.AppointmentDAOInterface;
+import Scheduler.DAO.AsyncAppointmentDAO;
+import Scheduler.DAO.DAOFactory;
 import Scheduler.Models.Appointment;
-import Scheduler.Utils.DatabaseHandler;
+import Scheduler.Models.Customer;
+import Scheduler.Utils.AppointmentAlertScheduler;
+import Scheduler.Utils.ChangeBus;
+import Scheduler.Utils.ChangeEvent;
+import Scheduler.Utils.LatestRequest;
+import Scheduler.Utils.PagedLoader;
+import Scheduler.Utils.TimeWindow;
 import Scheduler.Utils.UserSession;
 
+import javafx.application.Platform;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
-import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.collections.transformation.FilteredList;
 import javafx.event.ActionEvent;
@@ -22,11 +30,8 @@ import javafx.stage.Stage;
 
 import java.io.IOException;
 import java.net.URL;
-import java.time.LocalDateTime;
-import java.time.temporal.TemporalField;
-import java.time.temporal.WeekFields;
-import java.util.Locale;
-import java.util.Objects;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.ResourceBundle;
 
 /**
@@ -120,7 +125,56 @@ public class AppointmentPanelController implements Initializable {
     @FXML
     ToggleGroup toggleGroup;
 
-    ObservableList<Appointment> appointments = FXCollections.observableArrayList();
+    /**
+     * Number of appointments loaded per page as the table is scrolled
+     */
+    private static final int pageSize = 100;
+
+    /**
+     * Asynchronous DAO used to load appointment data off the JavaFX application thread
+     */
+    AsyncAppointmentDAO asyncAppointmentDAO = new AsyncAppointmentDAO();
+
+    /**
+     * Loads appointments into the table one keyset page at a time as the user scrolls
+     */
+    PagedLoader<Appointment> appointmentLoader = new PagedLoader<>((lastAppointment, size) -> lastAppointment == null ?
+            asyncAppointmentDAO.getAppointmentsPage(null, 0, size) :
+            asyncAppointmentDAO.getAppointmentsPage(lastAppointment.getStartDateTime(), lastAppointment.getAppointmentID(), size),
+            pageSize);
+
+    /**
+     * Appointments loaded so far, filled in place by the appointment loader
+     */
+    ObservableList<Appointment> appointments = appointmentLoader.getItems();
+
+    /**
+     * Loaded appointments filtered to the selected weekly or monthly window
+     */
+    FilteredList<Appointment> filteredAppointments = new FilteredList<>(appointments);
+
+    /**
+     * Order the appointment table is loaded and kept in
+     */
+    private static final Comparator<Appointment> tableOrder =
+            Comparator.comparing((Appointment appointment) -> appointment.getStartDateTime().toInstant())
+                    .thenComparingInt(Appointment::getAppointmentID);
+
+    /**
+     * Appointments of the selected weekly or monthly window retrieved by range query, or null if the window is applied
+     * to the loaded list in memory
+     */
+    ObservableList<Appointment> windowAppointments = null;
+
+    /**
+     * Selected weekly or monthly window, or null if all appointments are shown
+     */
+    TimeWindow selectedWindow = null;
+
+    /**
+     * Pending weekly or monthly appointment query
+     */
+    LatestRequest<ObservableList<Appointment>> timeframeRequest = new LatestRequest<>();
 
     /**
      * Handles add appointment button click by launching add appointment form window
@@ -145,7 +199,6 @@ public class AppointmentPanelController implements Initializable {
             stage.setScene(new Scene(root, 450, 500));
             stage.centerOnScreen();
             stage.showAndWait();
-            setTable();
 
         }
 
@@ -189,13 +242,6 @@ public class AppointmentPanelController implements Initializable {
                 stage.centerOnScreen();
                 stage.showAndWait();
 
-                if (DatabaseHandler.databaseUpdated == true) {
-
-                    setTable();
-                    allRadioButton.setSelected(true);
-                    DatabaseHandler.setDatabaseUpdated(false);
-
-                }
             }
 
             catch (IOException exception) {
@@ -231,14 +277,13 @@ public class AppointmentPanelController implements Initializable {
                 int appointmentID = appointmentTableView.getSelectionModel().getSelectedItem().getAppointmentID();
                 String appointmentType = appointmentTableView.getSelectionModel().getSelectedItem().getType();
 
-                AppointmentDAO appointmentDAO = new AppointmentDAO();
+                AppointmentDAOInterface appointmentDAO = DAOFactory.getAppointmentDAO();
 
                 if (appointmentDAO.deleteAppointment(appointmentTableView.getSelectionModel().getSelectedItem())) {
 
                     Alert confirmationDeleteAlert = new Alert(Alert.AlertType.CONFIRMATION);
                     confirmationDeleteAlert.setContentText("Appointment " + appointmentID + " of type " + appointmentType + " canceled");
                     confirmationDeleteAlert.showAndWait();
-                    setTable();
 
                 }
 
@@ -254,79 +299,175 @@ public class AppointmentPanelController implements Initializable {
     }
 
     /**
-     * Method to check for upcoming appointments through creating a filtered list object with a predicate lambda expression
-     * to check if given appointment element has same date and is within a 15 minute time range.
-     *
-     * The lambda expression allows for a shorter way to show the condition for what elements should be included in the
-     * filtered list, bypassing instantiating a Predicate object
+     * Starts background alerts for the logged in user's upcoming appointments. Each appointment is alerted 15 minutes
+     * before it starts for as long as the app runs; if none starts within the next 15 minutes the user is told so.
      */
-    private void checkAppointmentAlert() {
+    private void startAppointmentAlerts() {
 
-        //lambda
-        FilteredList<Appointment> appointmentsToAlert = new FilteredList<>(appointments, appointment -> {
+        AppointmentAlertScheduler.getAppointmentAlertScheduler()
+                .start(UserSession.getCurrentUser().getId(), appointment -> Platform.runLater(() -> showAppointmentAlert(appointment)))
+                .whenComplete((hasUpcoming, exception) -> Platform.runLater(() -> {
 
-            if (appointment.getUserID() == UserSession.getCurrentUser().getId() && appointment.getStartDateTime().getMonth() == LocalDateTime.now().getMonth() &&
-                    appointment.getStartDateTime().getDayOfMonth() == LocalDateTime.now().getDayOfMonth()
-                    && appointment.getStartDateTime().getHour() == LocalDateTime.now().getHour() &&
-                    appointment.getStartDateTime().getMinute() >= LocalDateTime.now().getMinute() &&
-                    appointment.getStartDateTime().getMinute() <= LocalDateTime.now().getMinute() + 15)
-            {
-                return true;
-            }
+                    if (exception != null) {
+                        System.out.println(exception.getMessage());
+                    }
 
-            return false;
+                    else if (!hasUpcoming) {
 
-        });
+                        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                        alert.setContentText("You have no upcoming appointments");
+                        alert.showAndWait();
 
-        if (appointmentsToAlert.isEmpty()) {
+                    }
 
-            Alert alert = new Alert(Alert.AlertType.INFORMATION);
-            alert.setContentText("You have no upcoming appointments");
-            alert.showAndWait();
+                }));
+
+    }
+
+    /**
+     * Shows an upcoming appointment alert
+     * @param appointment appointment starting soon
+     */
+    private void showAppointmentAlert(Appointment appointment) {
+
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.getDialogPane().setMinWidth(450.0);
+        alert.getDialogPane().setMinHeight(220.0);
+        alert.setContentText("Upcoming appointment alert: Appointment " + appointment.getAppointmentID() + " starts at "
+                + appointment.getFormattedStartTime() + " on " + appointment.getFormattedStartDate());
+        alert.show();
+
+    }
+
+    /**
+     * Reloads appointment data from the first page and refreshes the selected timeframe view. Further pages are
+     * retrieved in the background as the table is scrolled.
+     */
+    public void setTable() {
+
+        appointmentLoader.reset();
+
+        if (toggleGroup.getSelectedToggle() != null) {
+            showTimeframe((RadioButton) toggleGroup.getSelectedToggle());
+        }
+
+    }
+
+    /**
+     * Shows appointments for the timeframe of a selected radio button. Weekly and monthly windows are computed once per
+     * selection; if every appointment page is already loaded the window is applied to the loaded list in memory,
+     * otherwise the window's appointments are retrieved with a range query on start.
+     * @param selectedButton selected timeframe radio button
+     */
+    private void showTimeframe(RadioButton selectedButton) {
+
+        timeframeRequest.cancel();
+        windowAppointments = null;
+        selectedWindow = null;
+
+        if (selectedButton == allRadioButton) {
+
+            appointmentTableView.setItems(appointments);
+            return;
+
+        }
+
+        TimeWindow window = selectedButton == weeklyRadioButton ? TimeWindow.restOfCurrentWeek() :
+                TimeWindow.restOfCurrentMonth();
+
+        selectedWindow = window;
+
+        if (appointmentLoader.isExhausted()) {
+
+            filteredAppointments.setPredicate(window.startsWithin());
+            appointmentTableView.setItems(filteredAppointments);
 
         }
 
         else {
 
-            for (Appointment appointment : appointmentsToAlert) {
+            timeframeRequest.submit(asyncAppointmentDAO.getAppointmentsStartingWithin(window), appointmentsInWindow -> {
 
-                Alert alert = new Alert(Alert.AlertType.INFORMATION);
-                alert.getDialogPane().setMinWidth(450.0);
-                alert.getDialogPane().setMinHeight(220.0);
-                alert.setContentText("Upcoming appointment alert: Appointment " + appointment.getAppointmentID() + " starts at "
-                        + appointment.getStartDateTime().getHour() + ":" + appointment.getStartDateTime().getMinute());
-                alert.showAndWait();
+                if (appointmentsInWindow != null) {
+                    windowAppointments = appointmentsInWindow;
+                    appointmentTableView.setItems(appointmentsInWindow);
+                }
 
-            }
+            });
 
         }
+
     }
 
     /**
-     * Retrieves all appointment data from database and assigns them to TableView object
+     * Applies an appointment change published by the DAO classes to the loaded appointments and to the selected window,
+     * so edits show without reloading the table
+     * @param event appointment change
      */
-    public void setTable() {
+    private void applyAppointmentChange(ChangeEvent<Appointment> event) {
 
-        appointments = new AppointmentDAO().getAllAppointments();
+        appointments.removeIf(appointment -> appointment.getAppointmentID() == event.getId());
 
-        if (appointments != null) {
+        if (windowAppointments != null) {
+            windowAppointments.removeIf(appointment -> appointment.getAppointmentID() == event.getId());
+        }
 
-            appointmentTableView.setItems(appointments);
+        if (event.getOperation() == ChangeEvent.Operation.DELETED) {
+            return;
+        }
+
+        Appointment appointment = event.getRow();
+
+        appointmentLoader.insert(appointment, tableOrder);
+
+        if (windowAppointments != null && selectedWindow.containsStart(appointment)) {
+
+            int position = Collections.binarySearch(windowAppointments, appointment, tableOrder);
+            windowAppointments.add(position < 0 ? -position - 1 : position, appointment);
+
+        }
+
+    }
+
+    /**
+     * Removes the appointments of a deleted customer, which the database deletes along with the customer
+     * @param customerID ID of deleted customer
+     */
+    private void removeCustomerAppointments(int customerID) {
+
+        appointments.removeIf(appointment -> appointment.getCustomerID() == customerID);
 
+        if (windowAppointments != null) {
+            windowAppointments.removeIf(appointment -> appointment.getCustomerID() == customerID);
         }
 
     }
 
     /**
-     * Override of standard JavaFX method to initialize UI. Sets appointment table, initializes columns and toggle group for
-     * selected by month/by week views, and checks for upcoming appointments
+     * Override of standard JavaFX method to initialize UI. Subscribes to appointment and customer changes, starts paged
+     * loading of appointment table, initializes columns and toggle group for selected by month/by week views, and
+     * checks for upcoming appointments
      * @param url The location used to resolve relative paths for the root object, or null if the location is not known.
      * @param resourceBundle The resources used to localize the root object, or null if the root object was not localized.
      */
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
 
+        ChangeBus.getChangeBus().subscribe(Appointment.class,
+                event -> Platform.runLater(() -> applyAppointmentChange(event)));
+
+        ChangeBus.getChangeBus().subscribe(Customer.class, event -> {
+
+            if (event.getOperation() == ChangeEvent.Operation.DELETED) {
+                Platform.runLater(() -> removeCustomerAppointments(event.getId()));
+            }
+
+        });
+
+        appointmentLoader.attach(appointmentTableView);
+        appointmentTableView.setItems(appointments);
         setTable();
+        startAppointmentAlerts();
 
         appointmentIDColumn.setCellValueFactory(new PropertyValueFactory<>("appointmentID"));
         titleColumn.setCellValueFactory(new PropertyValueFactory<>("title"));
@@ -344,58 +485,14 @@ public class AppointmentPanelController implements Initializable {
             @Override
             public void changed(ObservableValue<? extends Toggle> observableValue, Toggle oldValue, Toggle newValue) {
 
-                RadioButton selectedButton = (RadioButton)newValue.getToggleGroup().getSelectedToggle();
-
-                if (Objects.equals("All", selectedButton.getText())) {
-
-                    appointmentTableView.setItems(appointments);
-
-                }
-
-                if (Objects.equals("Monthly", selectedButton.getText())) {
-
-                    FilteredList<Appointment> appointmentsByMonth = new FilteredList<>(appointments, appointment -> {
-
-                        if (appointment.getStartDateTime().toLocalDateTime().getMonth() == LocalDateTime.now().getMonth() &&
-                                appointment.getStartDateTime().toLocalDateTime().getDayOfMonth() >=
-                                        LocalDateTime.now().getDayOfMonth()) {
-                            return true;
-                        }
-
-                        return false;
-                    });
-
-                    appointmentTableView.setItems(appointmentsByMonth);
-
+                if (newValue != null) {
+                    showTimeframe((RadioButton) newValue);
                 }
 
-                if (Objects.equals("Weekly", selectedButton.getText())) {
-
-                    FilteredList<Appointment> appointmentsByWeek = new FilteredList<>(appointments, appointment -> {
-
-                        //https://stackoverflow.com/questions/26012434/get-week-number-of-localdate-java-8/26013129
-                        LocalDateTime currentDate = LocalDateTime.now();
-                        TemporalField week = WeekFields.of(Locale.getDefault()).weekOfWeekBasedYear();
-                        int currentWeekNumber = currentDate.get(week);
-
-                        if (appointment.getStartDateTime().toLocalDateTime().getMonth() == currentDate.getMonth() &&
-                                appointment.getStartDateTime().toLocalDateTime().get(week) == currentWeekNumber &&
-                                appointment.getStartDateTime().toLocalDateTime().getDayOfMonth() >= currentDate.getDayOfMonth()) {
-                            return true;
-                        }
-
-                        return false;
-                    });
-
-                    appointmentTableView.setItems(appointmentsByWeek);
-
-                }
             }
         });
 
         allRadioButton.setSelected(true);
 
-        checkAppointmentAlert();
-
     }
 }
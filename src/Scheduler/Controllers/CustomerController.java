@@ -1,7 +1,7 @@
 package Scheduler.Controllers;
 
-import Scheduler.DAO.CountryDAO;
-import Scheduler.DAO.DivisionDAO;
+import Scheduler.DAO.DAOFactory;
+import Scheduler.DAO.DivisionDAOInterface;
 
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -65,6 +65,18 @@ public abstract class CustomerController implements Initializable {
     @FXML
     TextField enteredPhone;
 
+    /**
+     * Accessor for customer ID input field, which is empty for new customers until the database assigns an ID
+     * @return entered customer ID or 0 for a new customer
+     */
+    int getEnteredID() {
+
+        String id = enteredID.getText().trim();
+
+        return id.isEmpty() ? 0 : Integer.parseInt(id);
+
+    }
+
     /**
      * Abstract save button handler
      * @param event button click event
@@ -116,12 +128,12 @@ public abstract class CustomerController implements Initializable {
      */
     public void setCommonUI() {
 
-        countryComboBox.setItems(new CountryDAO().getAllCountries());
+        countryComboBox.setItems(DAOFactory.getCountryDAO().getAllCountries());
 
         //should be US
         countryComboBox.getSelectionModel().selectFirst();
 
-        DivisionDAO divisionDAO = new DivisionDAO();
+        DivisionDAOInterface divisionDAO = DAOFactory.getDivisionDAO();
 
         divisionComboBox.setItems(divisionDAO.getUSDivisionList());
 
@@ -1,9 +1,14 @@
 package Scheduler.Controllers;
 
-import Scheduler.DAO.CustomerDAO;
+import Scheduler.DAO.AsyncCustomerDAO;
+import Scheduler.DAO.CustomerDAOInterface;
+import Scheduler.DAO.DAOFactory;
 import Scheduler.Models.Customer;
 
-import Scheduler.Utils.DatabaseHandler;
+import Scheduler.Utils.ChangeBus;
+import Scheduler.Utils.ChangeEvent;
+import Scheduler.Utils.LatestRequest;
+import javafx.application.Platform;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -71,15 +76,20 @@ public class CustomerPanelController implements Initializable {
     @FXML
     TableColumn<Customer, String> phoneColumn;
 
-    AppointmentPanelController appointmentPanelController;
+    /**
+     * Asynchronous DAO used to load customer data off the JavaFX application thread
+     */
+    AsyncCustomerDAO asyncCustomerDAO = new AsyncCustomerDAO();
 
     /**
-     * Mutator to set reference to linked appointment panel controller
-     * @param controller appointment panel controller object on same dashboard
+     * Pending customer table load; starting a new load cancels the previous one
      */
-    public void setAppointmentPanelController(AppointmentPanelController controller) {
-        this.appointmentPanelController = controller;
-    }
+    LatestRequest<ObservableList<Customer>> customerRequest = new LatestRequest<>();
+
+    /**
+     * Customers shown in the table, or null until the first load completes
+     */
+    ObservableList<Customer> customers = null;
 
     /**
      * Handles add customer button click by launching add customer form window
@@ -102,13 +112,6 @@ public class CustomerPanelController implements Initializable {
             stage.centerOnScreen();
             stage.showAndWait();
 
-            if (DatabaseHandler.databaseUpdated == true) {
-
-                setTable();
-                DatabaseHandler.setDatabaseUpdated(false);
-
-            }
-
         }
 
         catch (IOException e) {
@@ -152,10 +155,6 @@ public class CustomerPanelController implements Initializable {
                 stage.centerOnScreen();
                 stage.showAndWait();
 
-                if (DatabaseHandler.databaseUpdated == true) {
-                    setTable();
-                    DatabaseHandler.setDatabaseUpdated(false);
-                }
             }
 
             catch (IOException e) {
@@ -191,14 +190,12 @@ public class CustomerPanelController implements Initializable {
 
                 int customerID = customerTableView.getSelectionModel().getSelectedItem().getId();
 
-                CustomerDAO customerDAO = new CustomerDAO();
+                CustomerDAOInterface customerDAO = DAOFactory.getCustomerDAO();
 
                 if (customerDAO.deleteCustomer(customerTableView.getSelectionModel().getSelectedItem())) {
                     Alert confirmationDeleteAlert = new Alert(Alert.AlertType.CONFIRMATION);
                     confirmationDeleteAlert.setContentText("Customer " + customerID + " deleted");
                     confirmationDeleteAlert.showAndWait();
-                    setTable();
-                    appointmentPanelController.setTable();
                 }
 
                 else {
@@ -213,29 +210,103 @@ public class CustomerPanelController implements Initializable {
     }
 
     /**
-     * Retrieves all customer data from database and assigns them to TableView object
+     * Retrieves all customer data from database in the background and assigns them to TableView object
      */
     private void setTable() {
 
-        CustomerDAO customerDAO = new CustomerDAO();
+        customerRequest.submit(asyncCustomerDAO.getAllCustomers(), customers -> {
+
+            if (customers != null) {
+
+                this.customers = customers;
+                customerTableView.setItems(customers);
+
+            }
+
+        });
+    }
+
+    /**
+     * Applies a customer change published by the DAO classes to the loaded customers, kept in ID order, so edits show
+     * without reloading the table
+     * @param event customer change
+     */
+    private void applyCustomerChange(ChangeEvent<Customer> event) {
+
+        if (customers == null) {
+            return;
+        }
+
+        int position = indexOfCustomer(event.getId());
 
-        ObservableList<Customer> customers = customerDAO.getAllCustomers();
+        switch (event.getOperation()) {
 
-        if (customers != null) {
+            case INSERTED:
+                if (position < 0) {
+                    customers.add(-position - 1, event.getRow());
+                }
+                break;
+
+            case UPDATED:
+                if (position >= 0) {
+                    customers.set(position, event.getRow());
+                }
+                break;
 
-            customerTableView.setItems(customerDAO.getAllCustomers());
+            case DELETED:
+                if (position >= 0) {
+                    customers.remove(position);
+                }
+                break;
 
         }
+
     }
 
     /**
-     * Override of standard JavaFX method to initialize UI. Sets customer table and initializes columns
+     * Binary searches the loaded customers by ID
+     * @param customerID ID of customer
+     * @return index of customer, or (-(insertion point) - 1) if not loaded
+     */
+    private int indexOfCustomer(int customerID) {
+
+        int low = 0;
+        int high = customers.size() - 1;
+
+        while (low <= high) {
+
+            int middle = (low + high) >>> 1;
+            int middleID = customers.get(middle).getId();
+
+            if (middleID < customerID) {
+                low = middle + 1;
+            }
+
+            else if (middleID > customerID) {
+                high = middle - 1;
+            }
+
+            else {
+                return middle;
+            }
+
+        }
+
+        return -(low + 1);
+
+    }
+
+    /**
+     * Override of standard JavaFX method to initialize UI. Subscribes to customer changes, sets customer table and
+     * initializes columns
      * @param url The location used to resolve relative paths for the root object, or null if the location is not known.
      * @param resourceBundle The resources used to localize the root object, or null if the root object was not localized.
      */
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
 
+        ChangeBus.getChangeBus().subscribe(Customer.class, event -> Platform.runLater(() -> applyCustomerChange(event)));
+
         setTable();
 
         customerIDColumn.setCellValueFactory(new PropertyValueFactory<>("id"));
@@ -1,10 +1,16 @@
 package Scheduler.Controllers;
 
-import Scheduler.DAO.ReportsDAO;
+import Scheduler.DAO.AsyncReportsDAO;
+import Scheduler.DAO.ChangePoller;
+import Scheduler.DAO.DAOFactory;
+import Scheduler.DAO.StorageBackend;
+import Scheduler.DAO.WriteAheadLog;
 import Scheduler.Models.Appointment;
 import Scheduler.Models.MonthlyAppointmentsByTypeCounter;
+import Scheduler.Utils.LatestRequest;
 import Scheduler.Utils.TableHelper;
 
+import javafx.application.Platform;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -12,6 +18,7 @@ import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.control.Alert;
 import javafx.scene.control.TableView;
 import javafx.stage.Stage;
 
@@ -32,12 +39,41 @@ public class DashboardController implements Initializable {
     CustomerPanelController customerPanelController;
 
     /**
-     * Handler for menu item report click for generating monthly appointments for customers
+     * Asynchronous DAO used to load report data off the JavaFX application thread
+     */
+    AsyncReportsDAO asyncReportsDAO = new AsyncReportsDAO();
+
+    /**
+     * Pending monthly appointments by type report load
+     */
+    LatestRequest<ObservableList<MonthlyAppointmentsByTypeCounter>> monthlyReportRequest = new LatestRequest<>();
+    /**
+     * Pending schedules for all contacts report load
+     */
+    LatestRequest<ObservableList<Appointment>> contactScheduleRequest = new LatestRequest<>();
+    /**
+     * Pending appointments by user created report load
+     */
+    LatestRequest<ObservableList<Appointment>> userCreatedRequest = new LatestRequest<>();
+
+    /**
+     * Handler for menu item report click for generating monthly appointments for customers. Report data is loaded in
+     * the background and the window opens once it arrives.
      * @param event menu item click event
      */
     @FXML
     public void onMonthlyCustomerAppointmentsByType(ActionEvent event) {
 
+        monthlyReportRequest.submit(asyncReportsDAO.getMonthlyCustomerAppointmentsByType(), this::showMonthlyCustomerAppointmentsByType);
+
+    }
+
+    /**
+     * Shows the monthly appointments by type report window
+     * @param reportData list of counted appointment types per month
+     */
+    private void showMonthlyCustomerAppointmentsByType(ObservableList<MonthlyAppointmentsByTypeCounter> reportData) {
+
         try {
 
             Parent root;
@@ -47,12 +83,10 @@ public class DashboardController implements Initializable {
 
             TableView<MonthlyAppointmentsByTypeCounter> monthlyCustomerAppointmentsTable = TableHelper.initializeMonthlyReportTable();
 
-            String[] columnOrder = {"Month", "Type", "Total"};
+            String[] columnOrder = {"Year", "Month", "Type", "Total"};
 
             monthlyCustomerAppointmentsTable = TableHelper.orderTable(columnOrder, monthlyCustomerAppointmentsTable);
 
-            ObservableList<MonthlyAppointmentsByTypeCounter> reportData = new ReportsDAO().getMonthlyCustomerAppointmentsByType();
-
             for (MonthlyAppointmentsByTypeCounter report : reportData) {
                 monthlyCustomerAppointmentsTable.getItems().add(report);
             }
@@ -78,12 +112,23 @@ public class DashboardController implements Initializable {
     }
 
     /**
-     * Handler for menu item report click for generating schedules for all contacts
+     * Handler for menu item report click for generating schedules for all contacts. Report data is loaded in the
+     * background and the window opens once it arrives.
      * @param event menu item click event
      */
     @FXML
     public void onSchedulesForAllContacts(ActionEvent event) {
 
+        contactScheduleRequest.submit(asyncReportsDAO.getAppointmentsByContact(), this::showSchedulesForAllContacts);
+
+    }
+
+    /**
+     * Shows the schedules for all contacts report window
+     * @param reportData list of appointments sorted by contact ID and start date
+     */
+    private void showSchedulesForAllContacts(ObservableList<Appointment> reportData) {
+
         try {
 
             Parent root;
@@ -97,8 +142,6 @@ public class DashboardController implements Initializable {
 
             scheduleForAllContactsTable = TableHelper.orderTable(columnOrder, scheduleForAllContactsTable);
 
-            ObservableList<Appointment> reportData = new ReportsDAO().getAppointmentsByContact();
-
             for (Appointment appointment : reportData) {
                 scheduleForAllContactsTable.getItems().add(appointment);
             }
@@ -123,12 +166,23 @@ public class DashboardController implements Initializable {
     }
 
     /**
-     * Handler for menu item report click for generating all appointments ordered by IDs of users who created them
+     * Handler for menu item report click for generating all appointments ordered by IDs of users who created them.
+     * Report data is loaded in the background and the window opens once it arrives.
      * @param event menu item click event
      */
     @FXML
     public void onAppointmentsByUserCreated(ActionEvent event) {
 
+        userCreatedRequest.submit(asyncReportsDAO.getAppointmentsByUserCreated(), this::showAppointmentsByUserCreated);
+
+    }
+
+    /**
+     * Shows the appointments by user created report window
+     * @param reportData list of appointments sorted by user ID and start date
+     */
+    private void showAppointmentsByUserCreated(ObservableList<Appointment> reportData) {
+
         try {
 
             Parent root;
@@ -142,8 +196,6 @@ public class DashboardController implements Initializable {
 
             appointmentsByUserCreatedTable = TableHelper.orderTable(columnOrder, appointmentsByUserCreatedTable);
 
-            ObservableList<Appointment> reportData = new ReportsDAO().getAppointmentsByUserCreated();
-
             for (Appointment appointment : reportData) {
                 appointmentsByUserCreatedTable.getItems().add(appointment);
             }
@@ -169,15 +221,38 @@ public class DashboardController implements Initializable {
     }
 
     /**
-     * Override of standard JavaFX method to initialize UI. Assigns a reference to the appointment panel controller on
-     * the dashboard to the customer panel controller to allow customer panel to update appointment panel table.
+     * Override of standard JavaFX method to initialize UI. The customer and appointment panels keep each other current
+     * through the change bus, so they need no references to each other; starts polling the database for changes made
+     * by other clients so they are merged into both panels, and replaying writes queued while the database was
+     * unreachable. A queued write replay has to drop because another client changed the same row is shown to the
+     * user. The in-memory backend has no other clients to poll for and never queues writes.
      * @param url The location used to resolve relative paths for the root object, or null if the location is not known.
      * @param resourceBundle The resources used to localize the root object, or null if the root object was not localized.
      */
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
 
-        customerPanelController.setAppointmentPanelController(appointmentPanelController);
+        if (DAOFactory.getBackend() == StorageBackend.MYSQL) {
+            ChangePoller.getChangePoller().start();
+            WriteAheadLog.getWriteAheadLog().subscribeConflicts(
+                    conflict -> Platform.runLater(() -> showConflict(conflict)));
+            WriteAheadLog.getWriteAheadLog().start();
+        }
+
+    }
+
+    /**
+     * Tells the user a change made while the database was unreachable was dropped, without blocking the dashboard
+     * @param conflict description of the dropped write
+     */
+    private void showConflict(String conflict) {
+
+        Alert alert = new Alert(Alert.AlertType.WARNING);
+        alert.setHeaderText("A change made while offline was not saved");
+        alert.setContentText("Another user changed the same record before your change reached the database, so their " +
+                "version is shown instead. Your change was saved to " +
+                WriteAheadLog.getWriteAheadLog().getConflictsFile().toAbsolutePath() + ":\n\n" + conflict);
+        alert.show();
 
     }
 }
@@ -1,9 +1,9 @@
 package Scheduler.Controllers;
 
-import Scheduler.DAO.AppointmentDAO;
-import Scheduler.DAO.ContactDAO;
+import Scheduler.DAO.AppointmentDAOInterface;
+import Scheduler.DAO.ContactDAOInterface;
+import Scheduler.DAO.DAOFactory;
 import Scheduler.Models.Appointment;
-import Scheduler.Utils.DatabaseHandler;
 
 import javafx.event.ActionEvent;
 import javafx.scene.control.Alert;
@@ -29,10 +29,9 @@ public class UpdateAppointmentController extends AppointmentController {
 
         if (appointment != null) {
 
-            AppointmentDAO appointmentDAO = new AppointmentDAO();
+            AppointmentDAOInterface appointmentDAO = DAOFactory.getAppointmentDAO();
 
             if (appointmentDAO.updateAppointment(appointment)) {
-                DatabaseHandler.setDatabaseUpdated(true);
                 return true;
             }
 
@@ -67,7 +66,7 @@ public class UpdateAppointmentController extends AppointmentController {
         enteredCustomerID.setText(String.valueOf(appointmentToAddOrUpdate.getCustomerID()));
         enteredUserID.setText(String.valueOf(appointmentToAddOrUpdate.getUserID()));
 
-        ContactDAO contactDAO = new ContactDAO();
+        ContactDAOInterface contactDAO = DAOFactory.getContactDAO();
 
         String contactName = contactDAO.getContactNameByID(appointmentToAddOrUpdate.getContactID());
 
@@ -1,9 +1,9 @@
 package Scheduler.Controllers;
 
-import Scheduler.DAO.CustomerDAO;
-import Scheduler.DAO.DivisionDAO;
+import Scheduler.DAO.CustomerDAOInterface;
+import Scheduler.DAO.DAOFactory;
+import Scheduler.DAO.DivisionDAOInterface;
 import Scheduler.Models.Customer;
-import Scheduler.Utils.DatabaseHandler;
 import Scheduler.Utils.UserSession;
 import Scheduler.Utils.Validators;
 
@@ -55,20 +55,19 @@ public class UpdateCustomerController extends CustomerController {
                         + name.substring(name.indexOf(' ') + 2, name.length() - 1);
             }
 
-            DivisionDAO divisionDAO = new DivisionDAO();
+            DivisionDAOInterface divisionDAO = DAOFactory.getDivisionDAO();
 
             int divisionID = divisionDAO.getIDByDivision(divisionComboBox.getValue().toString());
 
             if (divisionID != -1) {
 
-                Customer customerToAdd = new Customer(Integer.parseInt(enteredID.getText().trim()), name,
+                Customer customerToAdd = new Customer(getEnteredID(), name,
                         enteredAddress.getText().trim(), enteredPostalCode.getText().trim(), divisionID,
                         enteredPhone.getText().trim());
 
-                CustomerDAO customerDAO = new CustomerDAO();
+                CustomerDAOInterface customerDAO = DAOFactory.getCustomerDAO();
 
                 if (customerDAO.updateCustomer(customerToAdd)) {
-                    DatabaseHandler.setDatabaseUpdated(true);
                     return true;
                 }
 
@@ -117,13 +116,13 @@ public class UpdateCustomerController extends CustomerController {
             }
 
             if (divisionID > 60 && divisionID < 72) {
-                divisionComboBox.setItems(new DivisionDAO().getCADivisionList());
+                divisionComboBox.setItems(DAOFactory.getDivisionDAO().getCADivisionList());
                 countryComboBox.getSelectionModel().select("Canada");
 
             }
 
             if (divisionID > 100 && divisionID < 105) {
-                divisionComboBox.setItems(new DivisionDAO().getUKDivisionList());
+                divisionComboBox.setItems(DAOFactory.getDivisionDAO().getUKDivisionList());
                 countryComboBox.getSelectionModel().select("UK");
             }
 
@@ -1,22 +1,28 @@
 package Scheduler.DAO;
 
 import Scheduler.Models.Appointment;
+import Scheduler.Utils.AppointmentIndex;
+import Scheduler.Utils.ChangeBus;
+import Scheduler.Utils.ChangeEvent;
 import Scheduler.Utils.DatabaseHandler;
+import Scheduler.Utils.TimeWindow;
 import Scheduler.Utils.UserSession;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
 
 import java.time.*;
-import java.time.temporal.TemporalField;
-import java.time.temporal.WeekFields;
 
-import java.util.Locale;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * DAO class for handling appointment data in MySQL database
@@ -26,114 +32,369 @@ import java.util.Locale;
 public class AppointmentDAO implements AppointmentDAOInterface {
 
     /**
-     * Constructs and executes query to add a given appointment
+     * Select clause joining appointments with customer and contact names so rows can be built without per-row lookups
+     */
+    static final String selectWithNames = "SELECT appointments.*, customers.Customer_Name, contacts.Contact_Name " +
+            "FROM appointments " +
+            "LEFT JOIN customers ON appointments.Customer_ID = customers.Customer_ID " +
+            "LEFT JOIN contacts ON appointments.Contact_ID = contacts.Contact_ID ";
+
+    /**
+     * Builds an appointment from the current row of a result set selected with selectWithNames, recording the row's
+     * Last_Update as the version of the appointment this client has seen
+     * @param results result set positioned on an appointment row
+     * @return appointment object with customer and contact names set
+     * @throws SQLException if a column cannot be read
+     */
+    static Appointment buildAppointment(ResultSet results) throws SQLException {
+
+        RowVersions.getRowVersions().appointmentSeen(results.getInt("Appointment_ID"), results.getInt("Customer_ID"),
+                results.getTimestamp("Last_Update"));
+
+        ZonedDateTime zonedStartDate = ZonedDateTime.ofInstant( results.getTimestamp("Start").toInstant(), ZoneId.systemDefault());
+        ZonedDateTime zonedEndDate = ZonedDateTime.ofInstant( results.getTimestamp("End").toInstant(), ZoneId.systemDefault());
+
+        return new Appointment(results.getInt("Appointment_ID"),
+                results.getInt("Customer_ID"), results.getInt("Contact_ID"),
+                results.getInt("User_ID"), results.getString("Title"),
+                results.getString("Description"), results.getString("Location"),
+                results.getString("Type"), zonedStartDate, zonedEndDate,
+                results.getString("Customer_Name"), results.getString("Contact_Name"));
+
+    }
+
+    /**
+     * Insert statement for a single appointment
+     */
+    private static final String insertQuery = "INSERT INTO appointments " +
+            "(Title, Description, Location, Type, Start, End, Create_Date, Created_By, Last_Update, Last_Updated_By, Customer_ID, User_ID, Contact_ID) " +
+            "VALUES (?, ?, ?, ?, ?, ?, NOW(), ?, NOW(), ?, ?, ?, ?)";
+
+    /**
+     * Update statement for a single appointment
+     */
+    private static final String updateQuery = "UPDATE appointments " +
+            "SET Title = ?, Description = ?, Location = ?, Type = ?, Start = ?, End = ?, Last_Update = NOW(), Last_Updated_By = ?, Customer_ID = ?, User_ID = ?, Contact_ID = ? " +
+            "WHERE Appointment_ID = ?";
+
+    /**
+     * Default number of rows sent per batch by the batch write methods
+     */
+    public static final int defaultBatchSize = 500;
+
+    /**
+     * Sets insertQuery parameters for a given appointment
+     * @param preparedStatement statement prepared from insertQuery
      * @param appointment appointment to add
-     * @return bool indicating success of database write
+     * @throws SQLException if a parameter cannot be set
      */
-    public boolean addAppointment(Appointment appointment) {
+    private static void bindInsert(PreparedStatement preparedStatement, Appointment appointment) throws SQLException {
 
-        String query = "INSERT INTO appointments " +
-                "(Appointment_ID, Title, Description, Location, Type, Start, End, Create_Date, Created_By, Last_Update, Last_Updated_By, Customer_ID, User_ID, Contact_ID) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, NOW(), ?, NOW(), ?, ?, ?, ?)";
+        preparedStatement.setString(1, appointment.getTitle());
+        preparedStatement.setString(2, appointment.getDescription());
+        preparedStatement.setString(3, appointment.getLocation());
+        preparedStatement.setString(4, appointment.getType());
+        preparedStatement.setTimestamp(5, Timestamp.from(appointment.getStartDateTime().toInstant()));
+        preparedStatement.setTimestamp(6, Timestamp.from(appointment.getEndDateTime().toInstant()));
 
-        try {
+        preparedStatement.setString(7, UserSession.getCurrentUser().getName());
+        preparedStatement.setString(8, UserSession.getCurrentUser().getName());
 
-            PreparedStatement preparedStatement = DatabaseHandler.getConnection().prepareStatement(query);
+        preparedStatement.setInt(9, appointment.getCustomerID());
+        preparedStatement.setInt(10, UserSession.getCurrentUser().getId());
+        preparedStatement.setInt(11, appointment.getContactID());
 
-            preparedStatement.setInt(1, appointment.getAppointmentID());
-            preparedStatement.setString(2, appointment.getTitle());
-            preparedStatement.setString(3, appointment.getDescription());
-            preparedStatement.setString(4, appointment.getLocation());
-            preparedStatement.setString(5, appointment.getType());
-            preparedStatement.setTimestamp(6, Timestamp.from(appointment.getStartDateTime().toInstant()));
-            preparedStatement.setTimestamp(7, Timestamp.from(appointment.getEndDateTime().toInstant()));
+    }
+
+    /**
+     * Sets updateQuery parameters for a given appointment
+     * @param preparedStatement statement prepared from updateQuery
+     * @param appointment appointment to update
+     * @throws SQLException if a parameter cannot be set
+     */
+    private static void bindUpdate(PreparedStatement preparedStatement, Appointment appointment) throws SQLException {
+
+        preparedStatement.setString(1, appointment.getTitle());
+        preparedStatement.setString(2, appointment.getDescription());
+        preparedStatement.setString(3, appointment.getLocation());
+        preparedStatement.setString(4, appointment.getType());
+        preparedStatement.setTimestamp(5, Timestamp.from(appointment.getStartDateTime().toInstant()));
+        preparedStatement.setTimestamp(6, Timestamp.from(appointment.getEndDateTime().toInstant()));
+        preparedStatement.setString(7, UserSession.getCurrentUser().getName());
+        preparedStatement.setInt(8, appointment.getCustomerID());
+        preparedStatement.setInt(9, UserSession.getCurrentUser().getId());
+        preparedStatement.setInt(10, appointment.getContactID());
+        preparedStatement.setInt(11, appointment.getAppointmentID());
 
-            preparedStatement.setString(8, UserSession.getCurrentUser().getName());
-            preparedStatement.setString(9, UserSession.getCurrentUser().getName());
+    }
 
-            preparedStatement.setInt(10, appointment.getCustomerID());
-            preparedStatement.setInt(11, UserSession.getCurrentUser().getId());
-            preparedStatement.setInt(12, appointment.getContactID());
+    /**
+     * Records a written appointment's time slot in the appointment index and publishes the change
+     * @param appointment appointment written
+     * @param operation whether the appointment was inserted or updated
+     */
+    static void appointmentWritten(Appointment appointment, ChangeEvent.Operation operation) {
 
-            preparedStatement.execute();
+        AppointmentIndex.getAppointmentIndex().put(appointment.getAppointmentID(), appointment.getCustomerID(),
+                appointment.getContactID(), appointment.getStartDateTime().toInstant(),
+                appointment.getEndDateTime().toInstant());
 
-            return true;
+        ChangeBus.getChangeBus().publish(new ChangeEvent<>(Appointment.class, operation,
+                appointment.getAppointmentID(), appointment));
 
+    }
+
+    /**
+     * Records the Last_Update of an appointment this client just wrote as its seen version, or forgets the version if
+     * it can't be read back
+     * @param connection connection the write ran on
+     * @param appointment appointment written
+     */
+    private static void recordVersion(Connection connection, Appointment appointment) {
+
+        Timestamp lastUpdate = RowVersions.readLastUpdate(connection, "appointments", "Appointment_ID",
+                appointment.getAppointmentID());
+
+        if (lastUpdate != null) {
+            RowVersions.getRowVersions().appointmentSeen(appointment.getAppointmentID(), appointment.getCustomerID(),
+                    lastUpdate);
         }
-        catch (SQLException exception) {
-            System.out.println(exception.getMessage());
-            return false;
+
+        else {
+            RowVersions.getRowVersions().forgetAppointment(appointment.getAppointmentID());
         }
 
     }
 
     /**
-     * Constructs and executes query to delete a given appointment
+     * Removes a deleted appointment from the appointment index and its seen version, and publishes the change
+     * @param appointmentID ID the appointment was published under
+     * @param appointment appointment deleted
+     */
+    static void appointmentDeleted(int appointmentID, Appointment appointment) {
+
+        AppointmentIndex.getAppointmentIndex().remove(appointmentID);
+        RowVersions.getRowVersions().forgetAppointment(appointmentID);
+        ChangeBus.getChangeBus().publish(new ChangeEvent<>(Appointment.class, ChangeEvent.Operation.DELETED,
+                appointmentID, appointment));
+
+    }
+
+    /**
+     * Adds a given appointment. The appointment ID is assigned by the database's AUTO_INCREMENT column and written back
+     * to the appointment object. If the database is unreachable the appointment is queued in the write-ahead log under
+     * a provisional ID and added once the database is back.
+     * @param appointment appointment to add
+     * @return bool indicating success of database write or of queueing it
+     */
+    public boolean addAppointment(Appointment appointment) {
+
+        return WriteAheadLog.getWriteAheadLog().writeOrQueue(() -> insert(appointment),
+                () -> PendingWrite.ofAppointment(PendingWrite.Kind.ADD_APPOINTMENT, appointment,
+                        WriteAheadLog.baseMillis()));
+
+    }
+
+    /**
+     * Constructs and executes query to add a given appointment, writing the generated ID back to the appointment
+     * @param appointment appointment to add
+     * @throws SQLException if the insert fails
+     */
+    static void insert(Appointment appointment) throws SQLException {
+
+        try (Connection connection = DatabaseHandler.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(insertQuery, Statement.RETURN_GENERATED_KEYS)) {
+
+            bindInsert(preparedStatement, appointment);
+
+            preparedStatement.execute();
+
+            //https://dev.mysql.com/doc/connector-j/8.0/en/connector-j-usagenotes-last-insert-id.html
+            ResultSet generatedKeys = preparedStatement.getGeneratedKeys();
+
+            if (generatedKeys.next()) {
+                appointment.setAppointmentID(generatedKeys.getInt(1));
+            }
+
+            recordVersion(connection, appointment);
+            appointmentWritten(appointment, ChangeEvent.Operation.INSERTED);
+
+        }
+
+    }
+
+    /**
+     * Deletes a given appointment, queueing the delete in the write-ahead log if the database is unreachable. A queued
+     * delete is based on the version of the appointment this client last saw.
      * @param appointment appointment to delete
-     * @return bool indicating success of database delete
+     * @return bool indicating success of database delete or of queueing it
      */
     public boolean deleteAppointment(Appointment appointment) {
 
-        String query = "DELETE FROM appointments WHERE Appointment_ID = ?";
+        return WriteAheadLog.getWriteAheadLog().writeOrQueue(() -> delete(appointment, null),
+                () -> PendingWrite.ofAppointment(PendingWrite.Kind.DELETE_APPOINTMENT, appointment,
+                        WriteAheadLog.baseMillis(
+                                RowVersions.getRowVersions().getAppointment(appointment.getAppointmentID()))));
 
-        try {
+    }
 
-            PreparedStatement preparedStatement = DatabaseHandler.getConnection().prepareStatement(query);
+    /**
+     * Constructs and executes query to delete a given appointment
+     * @param appointment appointment to delete
+     * @param notUpdatedAfter if not null, the appointment is only deleted if no client updated it after this time
+     * @return false if notUpdatedAfter kept an existing appointment from being deleted
+     * @throws SQLException if the delete fails
+     */
+    static boolean delete(Appointment appointment, Timestamp notUpdatedAfter) throws SQLException {
+
+        String query = notUpdatedAfter == null ? "DELETE FROM appointments WHERE Appointment_ID = ?" :
+                "DELETE FROM appointments WHERE Appointment_ID = ? AND Last_Update <= ?";
+
+        try (Connection connection = DatabaseHandler.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
 
             preparedStatement.setInt(1, appointment.getAppointmentID());
 
-            preparedStatement.execute();
+            if (notUpdatedAfter != null) {
+                preparedStatement.setTimestamp(2, notUpdatedAfter);
+            }
 
-        }
+            if (preparedStatement.executeUpdate() == 0 && notUpdatedAfter != null &&
+                    exists(connection, appointment.getAppointmentID())) {
+                return false;
+            }
+
+            appointmentDeleted(appointment.getAppointmentID(), appointment);
+
+            return true;
 
-        catch (SQLException exception) {
-            System.out.println(exception.getMessage());
-            return false;
         }
 
-        return true;
+    }
+
+    /**
+     * Updates a given appointment, queueing the update in the write-ahead log if the database is unreachable. A queued
+     * update is based on the version of the appointment this client last saw.
+     * @param appointment appointment to update
+     * @return bool indicating success of database write or of queueing it
+     */
+    public boolean updateAppointment(Appointment appointment) {
+
+        return WriteAheadLog.getWriteAheadLog().writeOrQueue(() -> update(appointment, null),
+                () -> PendingWrite.ofAppointment(PendingWrite.Kind.UPDATE_APPOINTMENT, appointment,
+                        WriteAheadLog.baseMillis(
+                                RowVersions.getRowVersions().getAppointment(appointment.getAppointmentID()))));
 
     }
 
     /**
      * Constructs and executes query to update a given appointment
      * @param appointment appointment to update
-     * @return bool indicating success of database write
+     * @param notUpdatedAfter if not null, the appointment is only updated if no client updated it after this time
+     * @return false if notUpdatedAfter was set and the appointment was changed since or no longer exists
+     * @throws SQLException if the update fails
      */
-    public boolean updateAppointment(Appointment appointment) {
+    static boolean update(Appointment appointment, Timestamp notUpdatedAfter) throws SQLException {
 
-        String query = "UPDATE appointments " +
-                "SET Title = ?, Description = ?, Location = ?, Type = ?, Start = ?, End = ?, Last_Update = NOW(), Last_Updated_By = ?, Customer_ID = ?, User_ID = ?, Contact_ID = ? " +
-                "WHERE Appointment_ID = ?";
+        String query = notUpdatedAfter == null ? updateQuery : updateQuery + " AND Last_Update <= ?";
 
-        try {
+        try (Connection connection = DatabaseHandler.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
 
-            PreparedStatement preparedStatement = DatabaseHandler.getConnection().prepareStatement(query);
+            bindUpdate(preparedStatement, appointment);
 
-            preparedStatement.setString(1, appointment.getTitle());
-            preparedStatement.setString(2, appointment.getDescription());
-            preparedStatement.setString(3, appointment.getLocation());
-            preparedStatement.setString(4, appointment.getType());
-            preparedStatement.setTimestamp(5, Timestamp.from(appointment.getStartDateTime().toInstant()));
-            preparedStatement.setTimestamp(6, Timestamp.from(appointment.getEndDateTime().toInstant()));
-            preparedStatement.setString(7, UserSession.getCurrentUser().getName());
-            preparedStatement.setInt(8, appointment.getCustomerID());
-            preparedStatement.setInt(9, UserSession.getCurrentUser().getId());
-            preparedStatement.setInt(10, appointment.getContactID());
-            preparedStatement.setInt(11, appointment.getAppointmentID());
+            if (notUpdatedAfter != null) {
 
-            preparedStatement.execute();
+                preparedStatement.setTimestamp(12, notUpdatedAfter);
+
+                if (preparedStatement.executeUpdate() == 0) {
+                    return false;
+                }
+
+            }
+
+            else {
+                preparedStatement.execute();
+            }
+
+            recordVersion(connection, appointment);
+            appointmentWritten(appointment, ChangeEvent.Operation.UPDATED);
 
             return true;
 
         }
 
-        catch (SQLException exception) {
-            System.out.println(exception.getMessage());
+    }
+
+    /**
+     * Checks whether an appointment ID exists
+     * @param connection connection to query on
+     * @param appointmentID ID of appointment
+     * @return true if the appointment exists
+     * @throws SQLException if the query fails
+     */
+    private static boolean exists(Connection connection, int appointmentID) throws SQLException {
+
+        try (PreparedStatement preparedStatement = connection.prepareStatement(
+                "SELECT 1 FROM appointments WHERE Appointment_ID = ?")) {
+
+            preparedStatement.setInt(1, appointmentID);
+
+            return preparedStatement.executeQuery().next();
+
         }
 
-        return false;
+    }
+
+    /**
+     * Adds a collection of appointments using JDBC batches of the default size
+     * @param appointments appointments to add
+     * @return result listing added appointments and per-row failures
+     */
+    @Override
+    public BatchResult<Appointment> addAppointments(Collection<Appointment> appointments) {
+        return addAppointments(appointments, defaultBatchSize);
+    }
+
+    /**
+     * Adds a collection of appointments using JDBC batches, committing each batch as one transaction. Appointment IDs
+     * assigned by the database are written back to the appointment objects. If a batch fails it is rolled back and its
+     * rows are retried one at a time so each failing row is reported with its own error.
+     * @param appointments appointments to add
+     * @param batchSize number of rows sent per batch
+     * @return result listing added appointments and per-row failures
+     */
+    @Override
+    public BatchResult<Appointment> addAppointments(Collection<Appointment> appointments, int batchSize) {
+        return new BatchWriter<Appointment>(insertQuery, AppointmentDAO::bindInsert, Appointment::setAppointmentID,
+                appointment -> appointmentWritten(appointment, ChangeEvent.Operation.INSERTED), false)
+                .write(appointments, batchSize);
+    }
+
+    /**
+     * Updates a collection of appointments using JDBC batches of the default size
+     * @param appointments appointments to update
+     * @return result listing updated appointments and per-row failures
+     */
+    @Override
+    public BatchResult<Appointment> updateAppointments(Collection<Appointment> appointments) {
+        return updateAppointments(appointments, defaultBatchSize);
+    }
 
+    /**
+     * Updates a collection of appointments using JDBC batches, committing each batch as one transaction. If a batch fails
+     * it is rolled back and its rows are retried one at a time so each failing row is reported with its own error.
+     * Versions are not read back for batched rows, so their seen versions are forgotten until next read.
+     * @param appointments appointments to update
+     * @param batchSize number of rows sent per batch
+     * @return result listing updated appointments and per-row failures
+     */
+    @Override
+    public BatchResult<Appointment> updateAppointments(Collection<Appointment> appointments, int batchSize) {
+        return new BatchWriter<Appointment>(updateQuery, AppointmentDAO::bindUpdate, null, appointment -> {
+            RowVersions.getRowVersions().forgetAppointment(appointment.getAppointmentID());
+            appointmentWritten(appointment, ChangeEvent.Operation.UPDATED);
+        }, true).write(appointments, batchSize);
     }
 
     /**
@@ -143,41 +404,69 @@ public class AppointmentDAO implements AppointmentDAOInterface {
      */
     public Appointment getAppointment(int appointmentID) {
 
-        String query = "SELECT * FROM appointments WHERE Appointment_ID = ?";
-
         try {
+            return readAppointment(appointmentID);
+        }
 
-            PreparedStatement preparedStatement = DatabaseHandler.getConnection().prepareStatement(query);
+        catch (SQLException exception) {
 
-            preparedStatement.setInt(1, appointmentID);
+            System.out.println(exception.getMessage());
 
-            preparedStatement.execute();
+        }
 
-            ResultSet results = preparedStatement.getResultSet();
+        return null;
 
-            if (results.next()) {
+    }
 
-                ZonedDateTime zonedStartDate = ZonedDateTime.ofInstant( results.getTimestamp("Start").toInstant(), ZoneId.systemDefault());
-                ZonedDateTime zonedEndDate = ZonedDateTime.ofInstant( results.getTimestamp("End").toInstant(), ZoneId.systemDefault());
+    /**
+     * Reads an appointment by ID
+     * @param appointmentID ID of appointment
+     * @return appointment object, or null if no appointment has the ID
+     * @throws SQLException if the query fails
+     */
+    static Appointment readAppointment(int appointmentID) throws SQLException {
 
-                Appointment appointment = new Appointment(results.getInt("Appointment_ID"),
-                        results.getInt("Customer_ID"), results.getInt("Contact_ID"),
-                        results.getInt("User_ID"), results.getString("Title"),
-                        results.getString("Description"), results.getString("Location"),
-                        results.getString("Type"), zonedStartDate, zonedEndDate);
+        String query = selectWithNames + "WHERE appointments.Appointment_ID = ?";
 
-                return appointment;
+        try (Connection connection = DatabaseHandler.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
 
-            }
-        }
+            preparedStatement.setInt(1, appointmentID);
 
-        catch (SQLException exception) {
+            ResultSet results = preparedStatement.executeQuery();
 
-            System.out.println(exception.getMessage());
+            return results.next() ? buildAppointment(results) : null;
 
         }
 
-        return null;
+    }
+
+    /**
+     * Reads all appointments of a customer
+     * @param customerID ID of customer
+     * @return appointments of the customer ordered by start
+     * @throws SQLException if the query fails
+     */
+    static List<Appointment> readCustomerAppointments(int customerID) throws SQLException {
+
+        String query = selectWithNames + "WHERE appointments.Customer_ID = ? ORDER BY Start";
+
+        try (Connection connection = DatabaseHandler.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+
+            preparedStatement.setInt(1, customerID);
+
+            ResultSet results = preparedStatement.executeQuery();
+
+            List<Appointment> appointments = new ArrayList<>();
+
+            while (results.next()) {
+                appointments.add(buildAppointment(results));
+            }
+
+            return appointments;
+
+        }
 
     }
 
@@ -189,11 +478,10 @@ public class AppointmentDAO implements AppointmentDAOInterface {
 
         ObservableList<Appointment> appointmentList = FXCollections.observableArrayList();
 
-        String query = "SELECT * FROM appointments ORDER BY Start, Appointment_ID";
+        String query = selectWithNames + "ORDER BY Start, appointments.Appointment_ID";
 
-        try {
-
-            PreparedStatement preparedStatement = DatabaseHandler.getConnection().prepareStatement(query);
+        try (Connection connection = DatabaseHandler.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
 
             preparedStatement.execute();
 
@@ -201,14 +489,7 @@ public class AppointmentDAO implements AppointmentDAOInterface {
 
             while (results.next()) {
 
-                ZonedDateTime zonedStartDate = ZonedDateTime.ofInstant( results.getTimestamp("Start").toInstant(), ZoneId.systemDefault());
-                ZonedDateTime zonedEndDate = ZonedDateTime.ofInstant( results.getTimestamp("End").toInstant(), ZoneId.systemDefault());
-
-                Appointment appointment = new Appointment(results.getInt("Appointment_ID"),
-                        results.getInt("Customer_ID"), results.getInt("Contact_ID"),
-                        results.getInt("User_ID"), results.getString("Title"),
-                        results.getString("Description"), results.getString("Location"),
-                        results.getString("Type"), zonedStartDate, zonedEndDate);
+                Appointment appointment = buildAppointment(results);
 
                 appointmentList.add(appointment);
 
@@ -227,50 +508,54 @@ public class AppointmentDAO implements AppointmentDAOInterface {
     }
 
     /**
-     * Constructs and executes query to retrieve all appointments falling within current week
-     * @return list of all appointments occurring during current week
+     * Constructs and executes keyset query to return the page of appointments following a given appointment in start
+     * order. Seeking past the last row already shown, rather than using OFFSET, keeps the cost of each page the same
+     * however far the user has scrolled.
+     * @param afterStart start date/time of last appointment already loaded, or null for the first page
+     * @param afterID ID of last appointment already loaded, breaking ties between equal start times
+     * @param pageSize maximum number of appointments to return
+     * @return list of up to pageSize appointments ordered by start and ID
      */
-    public ObservableList<Appointment> getAllAppointmentsByWeek() {
+    @Override
+    public ObservableList<Appointment> getAppointmentsPage(ZonedDateTime afterStart, int afterID, int pageSize) {
 
-        String query = "SELECT * FROM appointments WHERE MONTH(Start) = ? AND WEEK = ? AND DAY(Start) => ? AND HOUR(Start) => ?";
+        //expanded form of (Start, Appointment_ID) > (?, ?), which MySQL can resolve as a range on the Start index
+        String query = selectWithNames +
+                (afterStart == null ? "" : "WHERE Start > ? OR (Start = ? AND appointments.Appointment_ID > ?) ") +
+                "ORDER BY Start, appointments.Appointment_ID LIMIT ?";
 
-        try {
+        try (Connection connection = DatabaseHandler.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
 
-            PreparedStatement preparedStatement = DatabaseHandler.getConnection().prepareStatement(query);
+            int parameterIndex = 1;
 
-            //https://stackoverflow.com/questions/26012434/get-week-number-of-localdate-java-8/26013129
-            LocalDateTime currentDate = LocalDateTime.now();
-            TemporalField week = WeekFields.of(Locale.getDefault()).weekOfWeekBasedYear();
-            int weekNumber = currentDate.get(week);
+            if (afterStart != null) {
 
-            preparedStatement.setInt(1, currentDate.getMonthValue());
-            preparedStatement.setInt(2, weekNumber);
-            preparedStatement.setInt(3, currentDate.getDayOfMonth());
-            preparedStatement.setInt(4, currentDate.getHour());
+                Timestamp afterTimestamp = Timestamp.from(afterStart.toInstant());
+
+                preparedStatement.setTimestamp(parameterIndex++, afterTimestamp);
+                preparedStatement.setTimestamp(parameterIndex++, afterTimestamp);
+                preparedStatement.setInt(parameterIndex++, afterID);
+
+            }
+
+            preparedStatement.setInt(parameterIndex, pageSize);
 
             preparedStatement.execute();
 
             ResultSet results = preparedStatement.getResultSet();
 
-            ObservableList<Appointment> appointmentsInMonth = FXCollections.observableArrayList();
+            ObservableList<Appointment> appointmentPage = FXCollections.observableArrayList();
 
             while (results.next()) {
 
-                ZonedDateTime zonedStartDate = ZonedDateTime.ofInstant( results.getTimestamp("Start").toInstant(), ZoneId.systemDefault());
-                ZonedDateTime zonedEndDate = ZonedDateTime.ofInstant( results.getTimestamp("End").toInstant(), ZoneId.systemDefault());
+                Appointment appointment = buildAppointment(results);
 
-                Appointment appointment = new Appointment(results.getInt("Appointment_ID"),
-                        results.getInt("Customer_ID"), results.getInt("Contact_ID"),
-                        results.getInt("User_ID"), results.getString("Title"),
-                        results.getString("Description"), results.getString("Location"),
-                        results.getString("Type"), zonedStartDate, zonedEndDate);
-
-                appointmentsInMonth.add(appointment);
+                appointmentPage.add(appointment);
 
             }
 
-            return appointmentsInMonth;
-
+            return appointmentPage;
 
         }
 
@@ -281,49 +566,57 @@ public class AppointmentDAO implements AppointmentDAOInterface {
         }
 
         return null;
+
     }
 
     /**
-     * Constructs and executes query to retrieve all appointments falling within current month
-     * @return list of all appointments occurring during current month
+     * Constructs and executes query to retrieve all appointments starting from today through the end of the current week
+     * @return list of all appointments occurring during the rest of the current week
      */
-    public ObservableList<Appointment> getAllAppointmentsByMonth() {
-
-        String query = "SELECT * FROM appointments WHERE MONTH(Start) = ? AND DAY(Start) => ? AND HOUR(Start) => ?";
+    public ObservableList<Appointment> getAllAppointmentsByWeek() {
 
-        try {
+        return getAppointmentsStartingWithin(TimeWindow.restOfCurrentWeek());
 
-            PreparedStatement preparedStatement = DatabaseHandler.getConnection().prepareStatement(query);
+    }
 
-            ZonedDateTime currentDate = ZonedDateTime.now();
+    /**
+     * Constructs and executes query to retrieve all appointments starting from today through the end of the current month
+     * @return list of all appointments occurring during the rest of the current month
+     */
+    public ObservableList<Appointment> getAllAppointmentsByMonth() {
 
-            preparedStatement.setInt(1, currentDate.getMonthValue());
-            preparedStatement.setInt(2, currentDate.getDayOfMonth());
-            preparedStatement.setInt(3, currentDate.getHour());
+        return getAppointmentsStartingWithin(TimeWindow.restOfCurrentMonth());
 
-            preparedStatement.execute();
+    }
 
-            ResultSet results = preparedStatement.getResultSet();
+    /**
+     * Constructs and executes query to retrieve a user's appointments starting after a given time. Equality on User_ID
+     * and a range on Start are answered by the (User_ID, Start) index.
+     * @param userID ID of user appointments are assigned to
+     * @param after time appointments must start after
+     * @return list of user's upcoming appointments ordered by start, or null if the query failed
+     */
+    @Override
+    public ObservableList<Appointment> getUpcomingAppointmentsByUser(int userID, ZonedDateTime after) {
 
-            ObservableList<Appointment> appointmentsInMonth = FXCollections.observableArrayList();
+        String query = selectWithNames + "WHERE appointments.User_ID = ? AND Start > ? " +
+                "ORDER BY Start, appointments.Appointment_ID";
 
-            while (results.next()) {
+        try (Connection connection = DatabaseHandler.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
 
-                ZonedDateTime zonedStartDate = ZonedDateTime.ofInstant( results.getTimestamp("Start").toInstant(), ZoneId.systemDefault());
-                ZonedDateTime zonedEndDate = ZonedDateTime.ofInstant( results.getTimestamp("End").toInstant(), ZoneId.systemDefault());
+            preparedStatement.setInt(1, userID);
+            preparedStatement.setTimestamp(2, Timestamp.from(after.toInstant()));
 
-                Appointment appointment = new Appointment(results.getInt("Appointment_ID"),
-                        results.getInt("Customer_ID"), results.getInt("Contact_ID"),
-                        results.getInt("User_ID"), results.getString("Title"),
-                        results.getString("Description"), results.getString("Location"),
-                        results.getString("Type"), zonedStartDate, zonedEndDate);
+            ResultSet results = preparedStatement.executeQuery();
 
-                appointmentsInMonth.add(appointment);
+            ObservableList<Appointment> upcomingAppointments = FXCollections.observableArrayList();
 
+            while (results.next()) {
+                upcomingAppointments.add(buildAppointment(results));
             }
 
-            return appointmentsInMonth;
-
+            return upcomingAppointments;
 
         }
 
@@ -334,80 +627,41 @@ public class AppointmentDAO implements AppointmentDAOInterface {
         }
 
         return null;
+
     }
 
     /**
-     * Constructs and executes query to retrieve all appointments falling within a specified range
-     * @param start start date/time of range
-     * @param end end date/time of range
-     * @return list of all appointments falling within specified range
+     * Constructs and executes query to retrieve all appointments starting within a window of time
+     * @param window window of time to select appointments by start
+     * @return list of all appointments starting within window, ordered by start
      */
     @Override
-    public ObservableList<Appointment> getAppointmentsWithinRange(ZonedDateTime start, ZonedDateTime end) {
-
-        String query = "SELECT * FROM appointments WHERE ((Start > ? AND CAST(Start as TIME) > ?) AND (Start < ? AND CAST(Start as TIME) < ?)) " +
-                "OR ((End > ? AND CAST(End as TIME) > ?) AND (End < ? AND CAST(End as TIME) < ?)) " +
-                "OR ((Start > ? AND CAST(Start as TIME) < ?) AND (End > ? AND CAST(End as TIME) > ?)) " +
-                "OR ((Start < ? AND CAST(Start as TIME) < ?) AND (End > ? AND CAST(END as TIME) > ?))";
-
-
-        try {
-
-            PreparedStatement preparedStatement = DatabaseHandler.getConnection().prepareStatement(query);
-
-            LocalDate appointmentStartDateCutoff = end.toInstant().atZone(ZoneOffset.UTC).toLocalDate();
-            //hack to get appointments within same day to return
-            LocalDate appointmentEndDateCutoff = end.toInstant().atZone(ZoneOffset.UTC).toLocalDate().plusDays(1);
-
-            LocalTime appointmentStartTimeCutoff = start.toInstant().atZone(ZoneOffset.UTC).toLocalTime();
-            LocalTime appointmentEndTimeCutoff = end.toInstant().atZone(ZoneOffset.UTC).toLocalTime();
-
-            //hack to get appointments at the same time to return
-            LocalTime appointmentEndTimeCutoffPlusOne = end.toInstant().atZone(ZoneOffset.UTC).toLocalTime().plusMinutes(1);
-
-            preparedStatement.setString(1, appointmentStartDateCutoff.toString());
-            preparedStatement.setString(2, appointmentStartTimeCutoff.toString());
-            preparedStatement.setString(3, appointmentEndDateCutoff.toString());
-            preparedStatement.setString(4, appointmentEndTimeCutoff.toString());
+    public ObservableList<Appointment> getAppointmentsStartingWithin(TimeWindow window) {
 
-            preparedStatement.setString(5, appointmentStartDateCutoff.toString());
-            preparedStatement.setString(6, appointmentStartTimeCutoff.toString());
-            preparedStatement.setString(7, appointmentEndDateCutoff.toString());
-            preparedStatement.setString(8, appointmentEndTimeCutoffPlusOne.toString());
+        //bounding the raw Start column rather than comparing MONTH()/WEEK() of it lets MySQL use the Start index
+        String query = selectWithNames + "WHERE Start >= ? AND Start < ? ORDER BY Start, appointments.Appointment_ID";
 
-            preparedStatement.setString(9, appointmentStartDateCutoff.toString());
-            preparedStatement.setString(10, appointmentStartTimeCutoff.toString());
-            preparedStatement.setString(11, appointmentStartDateCutoff.toString());
-            preparedStatement.setString(12, appointmentEndTimeCutoffPlusOne.toString());
+        try (Connection connection = DatabaseHandler.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
 
-            preparedStatement.setString(13, appointmentStartDateCutoff.toString());
-            preparedStatement.setString(14, appointmentStartTimeCutoff.toString());
-            preparedStatement.setString(15, appointmentStartDateCutoff.toString());
-            preparedStatement.setString(16, appointmentEndTimeCutoff.toString());
+            preparedStatement.setTimestamp(1, Timestamp.from(window.getStart().toInstant()));
+            preparedStatement.setTimestamp(2, Timestamp.from(window.getEnd().toInstant()));
 
             preparedStatement.execute();
 
             ResultSet results = preparedStatement.getResultSet();
 
-            ObservableList<Appointment> appointmentsInRange = FXCollections.observableArrayList();
+            ObservableList<Appointment> appointmentsInWindow = FXCollections.observableArrayList();
 
             while (results.next()) {
 
-                ZonedDateTime zonedStartDate = ZonedDateTime.ofInstant( results.getTimestamp("Start").toInstant(), ZoneId.systemDefault());
-                ZonedDateTime zonedEndDate = ZonedDateTime.ofInstant( results.getTimestamp("End").toInstant(), ZoneId.systemDefault());
-
-                Appointment appointment = new Appointment(results.getInt("Appointment_ID"),
-                        results.getInt("Customer_ID"), results.getInt("Contact_ID"),
-                        results.getInt("User_ID"), results.getString("Title"),
-                        results.getString("Description"), results.getString("Location"),
-                        results.getString("Type"), zonedStartDate, zonedEndDate);
+                Appointment appointment = buildAppointment(results);
 
-                appointmentsInRange.add(appointment);
+                appointmentsInWindow.add(appointment);
 
             }
 
-            return appointmentsInRange;
-
+            return appointmentsInWindow;
 
         }
 
@@ -422,71 +676,52 @@ public class AppointmentDAO implements AppointmentDAOInterface {
     }
 
     /**
-     * Constructs and executes query to check if a given appointment overlaps with any others
-     * @param id id of a given appointment to check overlap on
-     * @param start start date/time of given appointment
-     * @param end end date/time of given appointment
-     * @return bool indicating whether given appointment overlaps with any others
+     * Query for appointments overlapping a range, bound with the range end then start. Two intervals overlap when each
+     * starts before the other ends; comparing the raw columns against bound timestamps lets MySQL range scan an index
+     * on Start instead of scanning the table.
      */
-    public boolean checkIfOtherAppointmentsInRange(int id, int customerID, ZonedDateTime start, ZonedDateTime end) {
-
-        String query = "SELECT * FROM appointments WHERE (Customer_ID = ?) AND ((Start > ? AND CAST(Start as TIME) > ?) AND (Start < ? AND CAST(Start as TIME) < ?)) " +
-                "OR ((End > ? AND CAST(End as TIME) > ?) AND (End < ? AND CAST(End as TIME) < ?)) " +
-                "OR ((Start > ? AND CAST(Start as TIME) < ?) AND (End > ? AND CAST(End as TIME) > ?)) " +
-                "OR ((Start < ? AND CAST(Start as TIME) < ?) AND (End > ? AND CAST(END as TIME) > ?))";
-
-        try {
-
-            PreparedStatement preparedStatement = DatabaseHandler.getConnection().prepareStatement(query);
+    static final String withinRangeQuery = selectWithNames +
+            "WHERE Start < ? AND End > ? ORDER BY Start, appointments.Appointment_ID";
 
-            LocalDate appointmentStartDateCutoff = end.toInstant().atZone(ZoneOffset.UTC).toLocalDate();
-            //hack to get appointments within same day to return
-            LocalDate appointmentEndDateCutoff = end.toInstant().atZone(ZoneOffset.UTC).toLocalDate().plusDays(1);
+    /**
+     * Query for one other appointment of a customer overlapping a range, bound with the customer ID, the appointment ID
+     * to exclude, then the range end and start; answered from the (Customer_ID, Start, End) index
+     */
+    static final String customerOverlapQuery = "SELECT Appointment_ID FROM appointments WHERE Customer_ID = ? " +
+            "AND Appointment_ID <> ? AND Start < ? AND End > ? LIMIT 1";
 
-            LocalTime appointmentStartTimeCutoff = start.toInstant().atZone(ZoneOffset.UTC).toLocalTime();
-            LocalTime appointmentEndTimeCutoff = end.toInstant().atZone(ZoneOffset.UTC).toLocalTime();
+    /**
+     * Constructs and executes query to retrieve all appointments overlapping a specified range
+     * @param start start date/time of range, inclusive
+     * @param end end date/time of range, exclusive
+     * @return list of all appointments overlapping specified range, ordered by start
+     */
+    @Override
+    public ObservableList<Appointment> getAppointmentsWithinRange(ZonedDateTime start, ZonedDateTime end) {
 
-            //hack to get appointments at the same time to return
-            LocalTime appointmentEndTimeCutoffPlusOne = end.toInstant().atZone(ZoneOffset.UTC).toLocalTime().plusMinutes(1);
+        try (Connection connection = DatabaseHandler.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(withinRangeQuery)) {
 
-            preparedStatement.setInt(1, customerID);
-            preparedStatement.setString(2, appointmentStartDateCutoff.toString());
-            preparedStatement.setString(3, appointmentStartTimeCutoff.toString());
-            preparedStatement.setString(4, appointmentEndDateCutoff.toString());
-            preparedStatement.setString(5, appointmentEndTimeCutoff.toString());
-
-            preparedStatement.setString(6, appointmentStartDateCutoff.toString());
-            preparedStatement.setString(7, appointmentStartTimeCutoff.toString());
-            preparedStatement.setString(8, appointmentEndDateCutoff.toString());
-            preparedStatement.setString(9, appointmentEndTimeCutoffPlusOne.toString());
-
-            preparedStatement.setString(10, appointmentStartDateCutoff.toString());
-            preparedStatement.setString(11, appointmentStartTimeCutoff.toString());
-            preparedStatement.setString(12, appointmentStartDateCutoff.toString());
-            preparedStatement.setString(13, appointmentEndTimeCutoffPlusOne.toString());
-
-            preparedStatement.setString(14, appointmentStartDateCutoff.toString());
-            preparedStatement.setString(15, appointmentStartTimeCutoff.toString());
-            preparedStatement.setString(16, appointmentStartDateCutoff.toString());
-            preparedStatement.setString(17, appointmentEndTimeCutoff.toString());
+            preparedStatement.setTimestamp(1, Timestamp.from(end.toInstant()));
+            preparedStatement.setTimestamp(2, Timestamp.from(start.toInstant()));
 
             preparedStatement.execute();
 
             ResultSet results = preparedStatement.getResultSet();
 
-            while (results.next()) {
+            ObservableList<Appointment> appointmentsInRange = FXCollections.observableArrayList();
 
-                System.out.println(results.getInt(1));
+            while (results.next()) {
 
-                //check if result is same appointment
-                if (results.getInt(1) == id) {
-                    continue;
-                }
+                Appointment appointment = buildAppointment(results);
 
-                return true;
+                appointmentsInRange.add(appointment);
 
             }
 
+            return appointmentsInRange;
+
+
         }
 
         catch (SQLException exception) {
@@ -495,39 +730,53 @@ public class AppointmentDAO implements AppointmentDAOInterface {
 
         }
 
-        return false;
+        return null;
 
     }
 
     /**
-     * Utility method to automatically generate appointment ID
-     * @return ID for new appointment
+     * Checks if a given appointment overlaps with any other appointment for the same customer. Answered from the
+     * in-memory appointment index when it is loaded, otherwise falls back to an overlap query.
+     * @param id id of a given appointment to check overlap on
+     * @param customerID id of customer associated with given appointment
+     * @param start start date/time of given appointment
+     * @param end end date/time of given appointment
+     * @return bool indicating whether given appointment overlaps with any others
      */
-    public int generateAppointmentID() {
+    public boolean checkIfOtherAppointmentsInRange(int id, int customerID, ZonedDateTime start, ZonedDateTime end) {
 
-        //https://stackoverflow.com/questions/5113450/last-id-value-in-a-table-sql-server/46346432
-        String query = "SELECT MAX(Appointment_ID) FROM appointments";
+        AppointmentIndex appointmentIndex = AppointmentIndex.getAppointmentIndex();
 
-        try {
+        if (appointmentIndex.ensureLoaded()) {
+            return appointmentIndex.customerHasOverlap(customerID, start.toInstant(), end.toInstant(), id);
+        }
+
+        try (Connection connection = DatabaseHandler.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(customerOverlapQuery)) {
 
-            PreparedStatement preparedStatement = DatabaseHandler.getConnection().prepareStatement(query);
+            preparedStatement.setInt(1, customerID);
+            preparedStatement.setInt(2, id);
+            preparedStatement.setTimestamp(3, Timestamp.from(end.toInstant()));
+            preparedStatement.setTimestamp(4, Timestamp.from(start.toInstant()));
 
             preparedStatement.execute();
 
-            ResultSet result = preparedStatement.getResultSet();
+            ResultSet results = preparedStatement.getResultSet();
 
-            if (result.next()) {
-                int id = result.getInt(1);
-                return id + 1;
+            if (results.next()) {
+                return true;
             }
 
         }
 
         catch (SQLException exception) {
+
             System.out.println(exception.getMessage());
+
         }
 
-        return -1;
+        return false;
+
     }
 
 }
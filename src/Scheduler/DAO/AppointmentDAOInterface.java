@@ -1,23 +1,32 @@
 package Scheduler.DAO;
 
 import Scheduler.Models.Appointment;
+import Scheduler.Utils.TimeWindow;
 import javafx.collections.ObservableList;
 
 import java.time.ZonedDateTime;
+import java.util.Collection;
 
-interface AppointmentDAOInterface {
+public interface AppointmentDAOInterface {
 
     boolean addAppointment(Appointment appointment);
     boolean deleteAppointment(Appointment appointment);
     boolean updateAppointment(Appointment appointment);
 
+    BatchResult<Appointment> addAppointments(Collection<Appointment> appointments);
+    BatchResult<Appointment> addAppointments(Collection<Appointment> appointments, int batchSize);
+    BatchResult<Appointment> updateAppointments(Collection<Appointment> appointments);
+    BatchResult<Appointment> updateAppointments(Collection<Appointment> appointments, int batchSize);
+
+    Appointment getAppointment(int appointmentID);
     ObservableList<Appointment> getAllAppointments();
+    ObservableList<Appointment> getAppointmentsPage(ZonedDateTime afterStart, int afterID, int pageSize);
     ObservableList<Appointment> getAllAppointmentsByMonth();
     ObservableList<Appointment> getAllAppointmentsByWeek();
+    ObservableList<Appointment> getAppointmentsStartingWithin(TimeWindow window);
     ObservableList<Appointment> getAppointmentsWithinRange(ZonedDateTime start, ZonedDateTime end);
+    ObservableList<Appointment> getUpcomingAppointmentsByUser(int userID, ZonedDateTime after);
 
     boolean checkIfOtherAppointmentsInRange(int appointmentID, int customerID, ZonedDateTime start, ZonedDateTime end);
 
-    int generateAppointmentID();
-
 }
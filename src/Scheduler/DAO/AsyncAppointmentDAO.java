@@ -0,0 +1,167 @@
+package Scheduler.DAO;
+
+import Scheduler.Models.Appointment;
+import Scheduler.Utils.TimeWindow;
+
+import javafx.collections.ObservableList;
+
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous DAO class for appointment data that runs each AppointmentDAO call on the DAO executor
+ *
+ * @author Chris Criswell
+ */
+public class AsyncAppointmentDAO implements AsyncAppointmentDAOInterface {
+
+    /**
+     * Synchronous DAO performing the database work
+     */
+    private final AppointmentDAOInterface appointmentDAO;
+
+    /**
+     * Default constructor wrapping the appointment DAO of the selected storage backend
+     */
+    public AsyncAppointmentDAO() {
+        this(DAOFactory.getAppointmentDAO());
+    }
+
+    /**
+     * Constructor wrapping a given appointment DAO
+     * @param appointmentDAO synchronous DAO performing the database work
+     */
+    public AsyncAppointmentDAO(AppointmentDAOInterface appointmentDAO) {
+        this.appointmentDAO = appointmentDAO;
+    }
+
+    /**
+     * Adds a given appointment in the background
+     * @param appointment appointment to add
+     * @return future completed with success of database write
+     */
+    @Override
+    public CompletableFuture<Boolean> addAppointment(Appointment appointment) {
+        return DAOExecutor.supply(() -> appointmentDAO.addAppointment(appointment));
+    }
+
+    /**
+     * Deletes a given appointment in the background
+     * @param appointment appointment to delete
+     * @return future completed with success of database delete
+     */
+    @Override
+    public CompletableFuture<Boolean> deleteAppointment(Appointment appointment) {
+        return DAOExecutor.supply(() -> appointmentDAO.deleteAppointment(appointment));
+    }
+
+    /**
+     * Updates a given appointment in the background
+     * @param appointment appointment to update
+     * @return future completed with success of database write
+     */
+    @Override
+    public CompletableFuture<Boolean> updateAppointment(Appointment appointment) {
+        return DAOExecutor.supply(() -> appointmentDAO.updateAppointment(appointment));
+    }
+
+    /**
+     * Adds a collection of appointments in JDBC batches in the background
+     * @param appointments appointments to add
+     * @param batchSize number of rows sent per batch
+     * @return future completed with result listing added appointments and per-row failures
+     */
+    @Override
+    public CompletableFuture<BatchResult<Appointment>> addAppointments(Collection<Appointment> appointments, int batchSize) {
+        return DAOExecutor.supply(() -> appointmentDAO.addAppointments(appointments, batchSize));
+    }
+
+    /**
+     * Updates a collection of appointments in JDBC batches in the background
+     * @param appointments appointments to update
+     * @param batchSize number of rows sent per batch
+     * @return future completed with result listing updated appointments and per-row failures
+     */
+    @Override
+    public CompletableFuture<BatchResult<Appointment>> updateAppointments(Collection<Appointment> appointments,
+                                                                          int batchSize) {
+        return DAOExecutor.supply(() -> appointmentDAO.updateAppointments(appointments, batchSize));
+    }
+
+    /**
+     * Retrieves all appointments in the background
+     * @return future completed with list of all appointments
+     */
+    @Override
+    public CompletableFuture<ObservableList<Appointment>> getAllAppointments() {
+        return DAOExecutor.supply(appointmentDAO::getAllAppointments);
+    }
+
+    /**
+     * Retrieves the page of appointments following a given appointment in start order in the background
+     * @param afterStart start date/time of last appointment already loaded, or null for the first page
+     * @param afterID ID of last appointment already loaded
+     * @param pageSize maximum number of appointments to return
+     * @return future completed with list of up to pageSize appointments
+     */
+    @Override
+    public CompletableFuture<ObservableList<Appointment>> getAppointmentsPage(ZonedDateTime afterStart, int afterID,
+                                                                              int pageSize) {
+        return DAOExecutor.supply(() -> appointmentDAO.getAppointmentsPage(afterStart, afterID, pageSize));
+    }
+
+    /**
+     * Retrieves appointments in the current month in the background
+     * @return future completed with list of appointments in current month
+     */
+    @Override
+    public CompletableFuture<ObservableList<Appointment>> getAllAppointmentsByMonth() {
+        return DAOExecutor.supply(appointmentDAO::getAllAppointmentsByMonth);
+    }
+
+    /**
+     * Retrieves appointments in the current week in the background
+     * @return future completed with list of appointments in current week
+     */
+    @Override
+    public CompletableFuture<ObservableList<Appointment>> getAllAppointmentsByWeek() {
+        return DAOExecutor.supply(appointmentDAO::getAllAppointmentsByWeek);
+    }
+
+    /**
+     * Retrieves appointments starting within a window of time in the background
+     * @param window window of time to select appointments by start
+     * @return future completed with list of appointments starting within window
+     */
+    @Override
+    public CompletableFuture<ObservableList<Appointment>> getAppointmentsStartingWithin(TimeWindow window) {
+        return DAOExecutor.supply(() -> appointmentDAO.getAppointmentsStartingWithin(window));
+    }
+
+    /**
+     * Retrieves appointments overlapping a specified range in the background
+     * @param start start date/time of range
+     * @param end end date/time of range
+     * @return future completed with list of appointments overlapping range
+     */
+    @Override
+    public CompletableFuture<ObservableList<Appointment>> getAppointmentsWithinRange(ZonedDateTime start, ZonedDateTime end) {
+        return DAOExecutor.supply(() -> appointmentDAO.getAppointmentsWithinRange(start, end));
+    }
+
+    /**
+     * Checks in the background whether a given appointment overlaps any other for the same customer
+     * @param appointmentID id of given appointment
+     * @param customerID id of customer associated with given appointment
+     * @param start start date/time of given appointment
+     * @param end end date/time of given appointment
+     * @return future completed with whether an overlapping appointment exists
+     */
+    @Override
+    public CompletableFuture<Boolean> checkIfOtherAppointmentsInRange(int appointmentID, int customerID,
+                                                                      ZonedDateTime start, ZonedDateTime end) {
+        return DAOExecutor.supply(() -> appointmentDAO.checkIfOtherAppointmentsInRange(appointmentID, customerID, start, end));
+    }
+
+}
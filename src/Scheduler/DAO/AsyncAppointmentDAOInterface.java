@@ -0,0 +1,29 @@
+package Scheduler.DAO;
+
+import Scheduler.Models.Appointment;
+import Scheduler.Utils.TimeWindow;
+import javafx.collections.ObservableList;
+
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
+interface AsyncAppointmentDAOInterface {
+
+    CompletableFuture<Boolean> addAppointment(Appointment appointment);
+    CompletableFuture<Boolean> deleteAppointment(Appointment appointment);
+    CompletableFuture<Boolean> updateAppointment(Appointment appointment);
+
+    CompletableFuture<BatchResult<Appointment>> addAppointments(Collection<Appointment> appointments, int batchSize);
+    CompletableFuture<BatchResult<Appointment>> updateAppointments(Collection<Appointment> appointments, int batchSize);
+
+    CompletableFuture<ObservableList<Appointment>> getAllAppointments();
+    CompletableFuture<ObservableList<Appointment>> getAppointmentsPage(ZonedDateTime afterStart, int afterID, int pageSize);
+    CompletableFuture<ObservableList<Appointment>> getAllAppointmentsByMonth();
+    CompletableFuture<ObservableList<Appointment>> getAllAppointmentsByWeek();
+    CompletableFuture<ObservableList<Appointment>> getAppointmentsStartingWithin(TimeWindow window);
+    CompletableFuture<ObservableList<Appointment>> getAppointmentsWithinRange(ZonedDateTime start, ZonedDateTime end);
+
+    CompletableFuture<Boolean> checkIfOtherAppointmentsInRange(int appointmentID, int customerID, ZonedDateTime start, ZonedDateTime end);
+
+}
@@ -0,0 +1,116 @@
+package Scheduler.DAO;
+
+import Scheduler.Models.Customer;
+
+import javafx.collections.ObservableList;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous DAO class for customer data that runs each CustomerDAO call on the DAO executor
+ *
+ * @author Chris Criswell
+ */
+public class AsyncCustomerDAO implements AsyncCustomerDAOInterface {
+
+    /**
+     * Synchronous DAO performing the database work
+     */
+    private final CustomerDAOInterface customerDAO;
+
+    /**
+     * Default constructor wrapping the customer DAO of the selected storage backend
+     */
+    public AsyncCustomerDAO() {
+        this(DAOFactory.getCustomerDAO());
+    }
+
+    /**
+     * Constructor wrapping a given customer DAO
+     * @param customerDAO synchronous DAO performing the database work
+     */
+    public AsyncCustomerDAO(CustomerDAOInterface customerDAO) {
+        this.customerDAO = customerDAO;
+    }
+
+    /**
+     * Retrieves all customers in the background
+     * @return future completed with list of all customers
+     */
+    @Override
+    public CompletableFuture<ObservableList<Customer>> getAllCustomers() {
+        return DAOExecutor.supply(customerDAO::getAllCustomers);
+    }
+
+    /**
+     * Adds a given customer in the background
+     * @param customer customer to add
+     * @return future completed with success of database write
+     */
+    @Override
+    public CompletableFuture<Boolean> addCustomer(Customer customer) {
+        return DAOExecutor.supply(() -> customerDAO.addCustomer(customer));
+    }
+
+    /**
+     * Deletes a given customer and their appointments in the background
+     * @param customer customer to delete
+     * @return future completed with success of database delete
+     */
+    @Override
+    public CompletableFuture<Boolean> deleteCustomer(Customer customer) {
+        return DAOExecutor.supply(() -> customerDAO.deleteCustomer(customer));
+    }
+
+    /**
+     * Deletes given customers and their appointments in one transaction in the background
+     * @param customers customers to delete
+     * @return future completed with success of database delete
+     */
+    @Override
+    public CompletableFuture<Boolean> deleteCustomers(Collection<Customer> customers) {
+        return DAOExecutor.supply(() -> customerDAO.deleteCustomers(customers));
+    }
+
+    /**
+     * Updates a given customer in the background
+     * @param customer updated customer
+     * @return future completed with success of database write
+     */
+    @Override
+    public CompletableFuture<Boolean> updateCustomer(Customer customer) {
+        return DAOExecutor.supply(() -> customerDAO.updateCustomer(customer));
+    }
+
+    /**
+     * Finds a customer ID by name in the background
+     * @param name customer name
+     * @return future completed with customer ID
+     */
+    @Override
+    public CompletableFuture<Integer> getIDByCustomerName(String name) {
+        return DAOExecutor.supply(() -> customerDAO.getIDByCustomerName(name));
+    }
+
+    /**
+     * Finds a customer name by ID in the background
+     * @param id customer ID
+     * @return future completed with customer name
+     */
+    @Override
+    public CompletableFuture<String> getCustomerNameByID(int id) {
+        return DAOExecutor.supply(() -> customerDAO.getCustomerNameByID(id));
+    }
+
+    /**
+     * Checks in the background whether a customer ID exists
+     * @param id customer ID
+     * @return future completed with whether customer ID is valid
+     */
+    @Override
+    public CompletableFuture<Boolean> checkCustomerIDValid(int id) {
+        return DAOExecutor.supply(() -> customerDAO.checkCustomerIDValid(id));
+    }
+
+}
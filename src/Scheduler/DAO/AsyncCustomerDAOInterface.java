@@ -0,0 +1,24 @@
+package Scheduler.DAO;
+
+import Scheduler.Models.Customer;
+import javafx.collections.ObservableList;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
+interface AsyncCustomerDAOInterface {
+
+    CompletableFuture<ObservableList<Customer>> getAllCustomers();
+
+    CompletableFuture<Boolean> addCustomer(Customer customer);
+    CompletableFuture<Boolean> deleteCustomer(Customer customer);
+    CompletableFuture<Boolean> updateCustomer(Customer customer);
+
+    CompletableFuture<Boolean> deleteCustomers(Collection<Customer> customers);
+
+    CompletableFuture<Integer> getIDByCustomerName(String string);
+    CompletableFuture<String> getCustomerNameByID(int id);
+
+    CompletableFuture<Boolean> checkCustomerIDValid(int id);
+
+}
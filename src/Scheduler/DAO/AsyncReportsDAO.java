@@ -0,0 +1,64 @@
+package Scheduler.DAO;
+
+import Scheduler.Models.Appointment;
+import Scheduler.Models.MonthlyAppointmentsByTypeCounter;
+
+import javafx.collections.ObservableList;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous DAO class for report data that runs each ReportsDAO call on the DAO executor
+ *
+ * @author Chris Criswell
+ */
+public class AsyncReportsDAO implements AsyncReportsDAOInterface {
+
+    /**
+     * Synchronous DAO performing the database work
+     */
+    private final ReportsDAOInterface reportsDAO;
+
+    /**
+     * Default constructor wrapping the reports DAO of the selected storage backend
+     */
+    public AsyncReportsDAO() {
+        this(DAOFactory.getReportsDAO());
+    }
+
+    /**
+     * Constructor wrapping a given reports DAO
+     * @param reportsDAO synchronous DAO performing the database work
+     */
+    public AsyncReportsDAO(ReportsDAOInterface reportsDAO) {
+        this.reportsDAO = reportsDAO;
+    }
+
+    /**
+     * Retrieves all appointments ordered by contact in the background
+     * @return future completed with list of appointments sorted by contact ID and start date
+     */
+    @Override
+    public CompletableFuture<ObservableList<Appointment>> getAppointmentsByContact() {
+        return DAOExecutor.supply(reportsDAO::getAppointmentsByContact);
+    }
+
+    /**
+     * Retrieves all appointments ordered by creating user in the background
+     * @return future completed with list of appointments sorted by user ID and start date
+     */
+    @Override
+    public CompletableFuture<ObservableList<Appointment>> getAppointmentsByUserCreated() {
+        return DAOExecutor.supply(reportsDAO::getAppointmentsByUserCreated);
+    }
+
+    /**
+     * Counts appointments per month and type in the background
+     * @return future completed with list of counted appointment types per month
+     */
+    @Override
+    public CompletableFuture<ObservableList<MonthlyAppointmentsByTypeCounter>> getMonthlyCustomerAppointmentsByType() {
+        return DAOExecutor.supply(reportsDAO::getMonthlyCustomerAppointmentsByType);
+    }
+
+}
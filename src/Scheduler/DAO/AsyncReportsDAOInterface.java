@@ -0,0 +1,15 @@
+package Scheduler.DAO;
+
+import Scheduler.Models.Appointment;
+import Scheduler.Models.MonthlyAppointmentsByTypeCounter;
+import javafx.collections.ObservableList;
+
+import java.util.concurrent.CompletableFuture;
+
+interface AsyncReportsDAOInterface {
+
+    CompletableFuture<ObservableList<Appointment>> getAppointmentsByContact();
+    CompletableFuture<ObservableList<Appointment>> getAppointmentsByUserCreated();
+    CompletableFuture<ObservableList<MonthlyAppointmentsByTypeCounter>> getMonthlyCustomerAppointmentsByType();
+
+}
@@ -0,0 +1,146 @@
+package Scheduler.DAO;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a batched database write, listing which rows were written and which failed with what error
+ *
+ * @param <T> type of row written
+ * @author Chris Criswell
+ */
+public class BatchResult<T> {
+
+    /**
+     * Row that could not be written
+     *
+     * @param <T> type of row written
+     */
+    public static class Failure<T> {
+
+        /**
+         * Position of row in the submitted collection
+         */
+        private final int index;
+
+        /**
+         * Row that failed
+         */
+        private final T row;
+
+        /**
+         * Database error message for row
+         */
+        private final String message;
+
+        /**
+         * Constructor with all members provided
+         * @param index position of row in the submitted collection
+         * @param row row that failed
+         * @param message database error message for row
+         */
+        Failure(int index, T row, String message) {
+            this.index = index;
+            this.row = row;
+            this.message = message;
+        }
+
+        /**
+         * Accessor for index
+         * @return position of row in the submitted collection
+         */
+        public int getIndex() { return index; }
+
+        /**
+         * Accessor for row
+         * @return row that failed
+         */
+        public T getRow() { return row; }
+
+        /**
+         * Accessor for message
+         * @return database error message for row
+         */
+        public String getMessage() { return message; }
+
+    }
+
+    /**
+     * Rows written, in submitted order
+     */
+    private final List<T> written = new ArrayList<>();
+
+    /**
+     * Rows that failed, in submitted order
+     */
+    private final List<Failure<T>> failures = new ArrayList<>();
+
+    /**
+     * Time taken by the whole write in nanoseconds
+     */
+    private long elapsedNanos = 0;
+
+    /**
+     * Records a written row
+     * @param row row written
+     */
+    void addWritten(T row) { written.add(row); }
+
+    /**
+     * Records a failed row
+     * @param index position of row in the submitted collection
+     * @param row row that failed
+     * @param message database error message for row
+     */
+    void addFailure(int index, T row, String message) { failures.add(new Failure<>(index, row, message)); }
+
+    /**
+     * Mutator for elapsed time
+     * @param elapsedNanos time taken by the whole write in nanoseconds
+     */
+    void setElapsedNanos(long elapsedNanos) { this.elapsedNanos = elapsedNanos; }
+
+    /**
+     * Accessor for written rows
+     * @return rows written, in submitted order
+     */
+    public List<T> getWritten() { return Collections.unmodifiableList(written); }
+
+    /**
+     * Accessor for failed rows
+     * @return rows that failed, in submitted order
+     */
+    public List<Failure<T>> getFailures() { return Collections.unmodifiableList(failures); }
+
+    /**
+     * Checks whether every row was written
+     * @return bool indicating no row failed
+     */
+    public boolean isSuccessful() { return failures.isEmpty(); }
+
+    /**
+     * Accessor for elapsed time
+     * @return time taken by the whole write in milliseconds
+     */
+    public double getElapsedMillis() { return elapsedNanos / 1_000_000.0; }
+
+    /**
+     * Calculates write throughput
+     * @return rows written per second
+     */
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : written.size() * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    /**
+     * Override of object toString method to summarize the write
+     * @return summary string
+     */
+    @Override
+    public String toString() {
+        return String.format("BatchResult[written=%d, failed=%d, elapsed=%.2fms, rowsPerSecond=%.0f]",
+                written.size(), failures.size(), getElapsedMillis(), getRowsPerSecond());
+    }
+
+}
@@ -0,0 +1,255 @@
+package Scheduler.DAO;
+
+import Scheduler.Utils.DatabaseHandler;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writes rows with one prepared statement in JDBC batches, committing each batch as one transaction. If a batch fails it
+ * is rolled back and its rows are retried one at a time so each failing row is reported with its own error. With
+ * rewriteBatchedStatements set on the connection URL, Connector/J sends each batch of inserts as a single multi-row
+ * INSERT.
+ *
+ * @param <T> type of row written
+ * @author Chris Criswell
+ */
+class BatchWriter<T> {
+
+    /**
+     * Sets statement parameters for one row
+     *
+     * @param <T> type of row written
+     */
+    interface Binder<T> {
+        void bind(PreparedStatement preparedStatement, T row) throws SQLException;
+    }
+
+    /**
+     * Receives the key the database generated for an inserted row
+     *
+     * @param <T> type of row written
+     */
+    interface KeySetter<T> {
+        void setKey(T row, int key);
+    }
+
+    /**
+     * Receives each row once its batch or single-row write is committed
+     *
+     * @param <T> type of row written
+     */
+    interface WriteListener<T> {
+        void written(T row);
+    }
+
+    /**
+     * SQL of statement to execute per row
+     */
+    private final String query;
+
+    /**
+     * Sets statement parameters for a row
+     */
+    private final Binder<T> binder;
+
+    /**
+     * Receives generated keys, or null when the statement doesn't generate keys
+     */
+    private final KeySetter<T> keySetter;
+
+    /**
+     * Receives committed rows
+     */
+    private final WriteListener<T> writeListener;
+
+    /**
+     * Whether a statement matching no row counts as a failure, as for updates and deletes by ID
+     */
+    private final boolean requireMatch;
+
+    /**
+     * Constructor with all members provided
+     * @param query SQL of statement to execute per row
+     * @param binder sets statement parameters for a row
+     * @param keySetter receives generated keys, or null when the statement doesn't generate keys
+     * @param writeListener receives committed rows
+     * @param requireMatch whether a statement matching no row counts as a failure
+     */
+    BatchWriter(String query, Binder<T> binder, KeySetter<T> keySetter, WriteListener<T> writeListener,
+                boolean requireMatch) {
+        this.query = query;
+        this.binder = binder;
+        this.keySetter = keySetter;
+        this.writeListener = writeListener;
+        this.requireMatch = requireMatch;
+    }
+
+    /**
+     * Writes rows in batches of batchSize rows, one transaction per batch
+     * @param rows rows to write
+     * @param batchSize number of rows sent per batch
+     * @return result listing written rows and per-row failures
+     */
+    BatchResult<T> write(Collection<T> rows, int batchSize) {
+
+        BatchResult<T> result = new BatchResult<>();
+        long startTime = System.nanoTime();
+
+        List<T> rowList = new ArrayList<>(rows);
+
+        try (Connection connection = DatabaseHandler.getConnection();
+             PreparedStatement preparedStatement = keySetter != null ?
+                     connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS) :
+                     connection.prepareStatement(query)) {
+
+            connection.setAutoCommit(false);
+
+            try {
+
+                for (int batchStart = 0; batchStart < rowList.size(); batchStart += batchSize) {
+
+                    List<T> batch = rowList.subList(batchStart, Math.min(batchStart + batchSize, rowList.size()));
+
+                    try {
+
+                        for (T row : batch) {
+                            binder.bind(preparedStatement, row);
+                            preparedStatement.addBatch();
+                        }
+
+                        int[] updateCounts = preparedStatement.executeBatch();
+
+                        //a row matching nothing is retried alone so it can be reported; SUCCESS_NO_INFO counts are
+                        //negative and pass
+                        if (requireMatch) {
+
+                            for (int updateCount : updateCounts) {
+
+                                if (updateCount == 0) {
+                                    throw new SQLException("Batch contains a row that does not exist");
+                                }
+
+                            }
+
+                        }
+
+                        if (keySetter != null) {
+
+                            ResultSet generatedKeys = preparedStatement.getGeneratedKeys();
+
+                            for (T row : batch) {
+
+                                if (generatedKeys.next()) {
+                                    keySetter.setKey(row, generatedKeys.getInt(1));
+                                }
+
+                            }
+
+                        }
+
+                        connection.commit();
+
+                        for (T row : batch) {
+                            writeListener.written(row);
+                            result.addWritten(row);
+                        }
+
+                    }
+
+                    catch (SQLException exception) {
+
+                        connection.rollback();
+                        preparedStatement.clearBatch();
+
+                        writeOneAtATime(connection, preparedStatement, batch, batchStart, result);
+
+                    }
+
+                }
+
+            }
+
+            finally {
+                connection.setAutoCommit(true);
+            }
+
+        }
+
+        catch (SQLException exception) {
+
+            System.out.println(exception.getMessage());
+
+            //rows not reached before the connection failed are reported with the connection error
+            for (int i = result.getWritten().size() + result.getFailures().size(); i < rowList.size(); i++) {
+                result.addFailure(i, rowList.get(i), exception.getMessage());
+            }
+
+        }
+
+        result.setElapsedNanos(System.nanoTime() - startTime);
+
+        return result;
+
+    }
+
+    /**
+     * Writes the rows of a failed batch one at a time, committing each row that succeeds and recording the error of each
+     * row that fails
+     * @param connection connection with autocommit off
+     * @param preparedStatement statement prepared from query
+     * @param batch rows of the failed batch
+     * @param batchStart index of the first row of the batch in the submitted collection
+     * @param result result to record written and failed rows in
+     * @throws SQLException if the connection can't commit or roll back
+     */
+    private void writeOneAtATime(Connection connection, PreparedStatement preparedStatement, List<T> batch,
+                                 int batchStart, BatchResult<T> result) throws SQLException {
+
+        for (int i = 0; i < batch.size(); i++) {
+
+            T row = batch.get(i);
+
+            try {
+
+                binder.bind(preparedStatement, row);
+
+                if (preparedStatement.executeUpdate() == 0 && requireMatch) {
+                    throw new SQLException("Row does not exist");
+                }
+
+                if (keySetter != null) {
+
+                    ResultSet generatedKeys = preparedStatement.getGeneratedKeys();
+
+                    if (generatedKeys.next()) {
+                        keySetter.setKey(row, generatedKeys.getInt(1));
+                    }
+
+                }
+
+                connection.commit();
+
+                writeListener.written(row);
+                result.addWritten(row);
+
+            }
+
+            catch (SQLException exception) {
+
+                connection.rollback();
+                result.addFailure(batchStart + i, row, exception.getMessage());
+
+            }
+
+        }
+
+    }
+
+}
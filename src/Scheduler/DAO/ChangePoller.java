@@ -0,0 +1,579 @@
+package Scheduler.DAO;
+
+import Scheduler.Models.Appointment;
+import Scheduler.Models.Customer;
+import Scheduler.Utils.AppointmentIndex;
+import Scheduler.Utils.ChangeBus;
+import Scheduler.Utils.ChangeEvent;
+import Scheduler.Utils.DatabaseHandler;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Singleton that polls the database in the background for appointments and customers written by other clients and
+ * publishes them on the change bus, so open panels merge them as they would local edits. Each poll fetches rows whose
+ * Last_Update is at or after the previous poll's database time less overlapMillis. The overlap catches rows stamped by a
+ * transaction that took its NOW() before the previous poll but committed after it, and rows edited again within the
+ * same second, since Last_Update has whole-second precision. The content of each row published within the overlap is
+ * remembered, so a re-read row is only published again if it changed. Deletes are read from the deleted_rows tombstone
+ * table filled by the triggers in sql/change_tracking.sql; without it only inserts and updates are picked up.
+ *
+ * The polling interval drops to minIntervalMillis after a poll that finds changes and doubles after each quiet poll up
+ * to maxIntervalMillis.
+ *
+ * @author Chris Criswell
+ */
+public class ChangePoller {
+
+    /**
+     * Shortest polling interval, used while changes are arriving
+     */
+    public static final long minIntervalMillis = 2_000;
+
+    /**
+     * Longest polling interval, reached after a run of quiet polls
+     */
+    public static final long maxIntervalMillis = 60_000;
+
+    /**
+     * Time each poll reaches back before the previous poll; the longest a write transaction is assumed to stay open
+     * between stamping a row and committing it
+     */
+    public static final long overlapMillis = 30_000;
+
+    /**
+     * Single app-wide change poller
+     */
+    private static ChangePoller changePoller = null;
+
+    /**
+     * Thread running the polls
+     */
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "change-poller");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Indicator for whether polling has been started
+     */
+    private boolean started = false;
+
+    /**
+     * Content of the rows of one table published within the overlap, so rows re-read by the next poll are only published
+     * again if they changed
+     */
+    private static class SeenRows {
+
+        /**
+         * Last_Update of each row's published version, in epoch milliseconds, by row ID
+         */
+        private final Map<Integer, Long> lastUpdates = new HashMap<>();
+
+        /**
+         * Column values of each row's published version, by row ID
+         */
+        private final Map<Integer, String> contents = new HashMap<>();
+
+        /**
+         * Records a polled row's version
+         * @param id ID of polled row
+         * @param lastUpdate Last_Update of polled row, in epoch milliseconds
+         * @param content column values of polled row
+         * @return true if the row wasn't seen with this content before and should be published
+         */
+        boolean add(int id, long lastUpdate, String content) {
+
+            lastUpdates.put(id, lastUpdate);
+
+            return !content.equals(contents.put(id, content));
+
+        }
+
+        /**
+         * Checks whether a row was published within the overlap
+         * @param id ID of row
+         * @return bool indicating whether a version of the row is remembered
+         */
+        boolean contains(int id) {
+            return contents.containsKey(id);
+        }
+
+        /**
+         * Forgets rows last updated before the next poll's window, which won't be read again
+         * @param windowStart start of the next poll's window, in epoch milliseconds
+         */
+        void prune(long windowStart) {
+
+            lastUpdates.entrySet().removeIf(entry -> {
+
+                if (entry.getValue() >= windowStart) {
+                    return false;
+                }
+
+                contents.remove(entry.getKey());
+                return true;
+
+            });
+
+        }
+
+    }
+
+    /**
+     * Database time of the last successful poll, or null before the first poll
+     */
+    private Timestamp lastPollTime = null;
+
+    /**
+     * Appointments published within the overlap
+     */
+    private final SeenRows seenAppointments = new SeenRows();
+
+    /**
+     * Customers published within the overlap
+     */
+    private final SeenRows seenCustomers = new SeenRows();
+
+    /**
+     * Highest tombstone ID seen, or -1 if the tombstone table is unavailable
+     */
+    private long tombstoneWatermark = -1;
+
+    /**
+     * Current polling interval
+     */
+    private volatile long intervalMillis = minIntervalMillis;
+
+    /**
+     * Database time through which every change has been published: the last successful poll's time less overlapMillis,
+     * given no write transaction stays open longer than overlapMillis. Null before the first poll.
+     */
+    private volatile Timestamp syncedThrough = null;
+
+    /**
+     * Number of polls run
+     */
+    private volatile long cycles = 0;
+
+    /**
+     * Number of rows merged by the last poll
+     */
+    private volatile long lastRowsMerged = 0;
+
+    /**
+     * Number of rows merged by all polls
+     */
+    private volatile long totalRowsMerged = 0;
+
+    /**
+     * Time between the oldest change merged by the last poll being written and the poll, or 0 if it merged nothing
+     */
+    private volatile long lastLagMillis = 0;
+
+    /**
+     * Largest lag of any poll
+     */
+    private volatile long maxLagMillis = 0;
+
+    /**
+     * Private default constructor for singleton
+     */
+    private ChangePoller() {
+
+    }
+
+    /**
+     * Gets initialized change poller or initializes if none created
+     * @return change poller
+     */
+    public static synchronized ChangePoller getChangePoller() {
+
+        if (changePoller == null) {
+            changePoller = new ChangePoller();
+        }
+
+        return changePoller;
+
+    }
+
+    /**
+     * Starts polling if not already started. Only changes written after the first poll are published.
+     */
+    public synchronized void start() {
+
+        if (started) {
+            return;
+        }
+
+        started = true;
+        executor.execute(this::pollAndReschedule);
+
+    }
+
+    /**
+     * Accessor for current polling interval
+     * @return polling interval in milliseconds
+     */
+    public long getIntervalMillis() { return intervalMillis; }
+
+    /**
+     * Accessor for the database time through which every change has been published
+     * @return last successful poll's time less overlapMillis, or null before the first poll
+     */
+    public Timestamp getSyncedThrough() { return syncedThrough; }
+
+    /**
+     * Accessor for number of polls run
+     * @return polls run, not counting the first poll recording the watermarks
+     */
+    public long getCycles() { return cycles; }
+
+    /**
+     * Accessor for number of rows merged by the last poll
+     * @return rows merged by the last poll
+     */
+    public long getLastRowsMerged() { return lastRowsMerged; }
+
+    /**
+     * Accessor for number of rows merged by all polls
+     * @return rows merged in total
+     */
+    public long getTotalRowsMerged() { return totalRowsMerged; }
+
+    /**
+     * Accessor for lag of the last poll
+     * @return time between the oldest change merged by the last poll being written and the poll, in milliseconds
+     */
+    public long getLastLagMillis() { return lastLagMillis; }
+
+    /**
+     * Accessor for largest lag of any poll
+     * @return largest lag in milliseconds
+     */
+    public long getMaxLagMillis() { return maxLagMillis; }
+
+    /**
+     * Override of object toString method to summarize polling metrics
+     * @return polling metrics string
+     */
+    @Override
+    public String toString() {
+        return String.format("ChangePoller[interval=%dms, cycles=%d, lastMerged=%d, totalMerged=%d, lastLag=%dms, " +
+                "maxLag=%dms]", intervalMillis, cycles, lastRowsMerged, totalRowsMerged, lastLagMillis, maxLagMillis);
+    }
+
+    /**
+     * Runs one poll and schedules the next one after the adapted interval
+     */
+    private void pollAndReschedule() {
+
+        long rowsMerged = poll();
+
+        if (rowsMerged > 0) {
+            intervalMillis = minIntervalMillis;
+        }
+
+        else {
+            intervalMillis = Math.min(maxIntervalMillis, intervalMillis * 2);
+        }
+
+        executor.schedule(this::pollAndReschedule, intervalMillis, TimeUnit.MILLISECONDS);
+
+    }
+
+    /**
+     * Fetches and publishes changes made since the last poll, less the overlap. The first poll only records the
+     * database's current time, the tombstone position and the rows already within the overlap, publishing nothing.
+     * @return number of rows merged, or -1 if the poll failed
+     */
+    private long poll() {
+
+        try (Connection connection = DatabaseHandler.getConnection()) {
+
+            Timestamp serverTime = selectServerTime(connection);
+            boolean first = lastPollTime == null;
+            Timestamp windowStart = new Timestamp((first ? serverTime : lastPollTime).getTime() - overlapMillis);
+
+            if (first) {
+                tombstoneWatermark = selectTombstoneStart(connection);
+            }
+
+            long[] oldestChange = {Long.MAX_VALUE};
+
+            long rowsMerged = pollAppointments(connection, windowStart, !first, oldestChange) +
+                    pollCustomers(connection, windowStart, !first, oldestChange) +
+                    (first ? 0 : pollTombstones(connection, oldestChange));
+
+            lastPollTime = serverTime;
+            syncedThrough = new Timestamp(serverTime.getTime() - overlapMillis);
+
+            seenAppointments.prune(syncedThrough.getTime());
+            seenCustomers.prune(syncedThrough.getTime());
+
+            if (first) {
+                return 0;
+            }
+
+            cycles++;
+            lastRowsMerged = rowsMerged;
+            totalRowsMerged += rowsMerged;
+            lastLagMillis = rowsMerged == 0 ? 0 : Math.max(0, serverTime.getTime() - oldestChange[0]);
+            maxLagMillis = Math.max(maxLagMillis, lastLagMillis);
+
+            return rowsMerged;
+
+        }
+
+        catch (SQLException exception) {
+
+            System.out.println(exception.getMessage());
+
+        }
+
+        return -1;
+
+    }
+
+    /**
+     * Publishes appointments updated since the start of the window that weren't already published with the same content
+     * @param connection connection to poll on
+     * @param windowStart earliest Last_Update read
+     * @param publish whether to publish new rows, or only record them
+     * @param oldestChange holder of the oldest change time merged so far this poll, in epoch milliseconds
+     * @return number of appointments merged
+     * @throws SQLException if the query fails
+     */
+    private long pollAppointments(Connection connection, Timestamp windowStart, boolean publish, long[] oldestChange)
+            throws SQLException {
+
+        String query = AppointmentDAO.selectWithNames + "WHERE appointments.Last_Update >= ? " +
+                "ORDER BY appointments.Last_Update";
+
+        try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+
+            preparedStatement.setTimestamp(1, windowStart);
+
+            ResultSet results = preparedStatement.executeQuery();
+
+            long rowsMerged = 0;
+
+            while (results.next()) {
+
+                Timestamp lastUpdate = results.getTimestamp("Last_Update");
+                int appointmentID = results.getInt("Appointment_ID");
+                boolean published = seenAppointments.contains(appointmentID);
+
+                if (!seenAppointments.add(appointmentID, lastUpdate.getTime(), contentOf(results)) || !publish) {
+                    continue;
+                }
+
+                AppointmentDAO.appointmentWritten(AppointmentDAO.buildAppointment(results),
+                        operationOf(results, lastUpdate, published));
+
+                oldestChange[0] = Math.min(oldestChange[0], lastUpdate.getTime());
+                rowsMerged++;
+
+            }
+
+            return rowsMerged;
+
+        }
+
+    }
+
+    /**
+     * Publishes customers updated since the start of the window that weren't already published with the same content
+     * @param connection connection to poll on
+     * @param windowStart earliest Last_Update read
+     * @param publish whether to publish new rows, or only record them
+     * @param oldestChange holder of the oldest change time merged so far this poll, in epoch milliseconds
+     * @return number of customers merged
+     * @throws SQLException if the query fails
+     */
+    private long pollCustomers(Connection connection, Timestamp windowStart, boolean publish, long[] oldestChange)
+            throws SQLException {
+
+        String query = CustomerDAO.selectWithNames + "WHERE customers.Last_Update >= ? ORDER BY customers.Last_Update";
+
+        try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+
+            preparedStatement.setTimestamp(1, windowStart);
+
+            ResultSet results = preparedStatement.executeQuery();
+
+            long rowsMerged = 0;
+
+            while (results.next()) {
+
+                Timestamp lastUpdate = results.getTimestamp("Last_Update");
+                int customerID = results.getInt("Customer_ID");
+                boolean published = seenCustomers.contains(customerID);
+
+                if (!seenCustomers.add(customerID, lastUpdate.getTime(), contentOf(results)) || !publish) {
+                    continue;
+                }
+
+                CustomerDAO.publish(CustomerDAO.buildCustomer(results), operationOf(results, lastUpdate, published));
+
+                oldestChange[0] = Math.min(oldestChange[0], lastUpdate.getTime());
+                rowsMerged++;
+
+            }
+
+            return rowsMerged;
+
+        }
+
+    }
+
+    /**
+     * Publishes deletes recorded in the tombstone table since the tombstone watermark and advances it
+     * @param connection connection to poll on
+     * @param oldestChange holder of the oldest change time merged so far this poll, in epoch milliseconds
+     * @return number of deletes merged
+     * @throws SQLException if the query fails
+     */
+    private long pollTombstones(Connection connection, long[] oldestChange) throws SQLException {
+
+        if (tombstoneWatermark < 0) {
+            return 0;
+        }
+
+        String query = "SELECT Tombstone_ID, Table_Name, Row_ID, Deleted_At FROM deleted_rows " +
+                "WHERE Tombstone_ID > ? ORDER BY Tombstone_ID";
+
+        try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+
+            preparedStatement.setLong(1, tombstoneWatermark);
+
+            ResultSet results = preparedStatement.executeQuery();
+
+            long rowsMerged = 0;
+
+            while (results.next()) {
+
+                tombstoneWatermark = results.getLong("Tombstone_ID");
+                int rowID = results.getInt("Row_ID");
+
+                if (results.getString("Table_Name").equals("appointments")) {
+
+                    AppointmentIndex.getAppointmentIndex().remove(rowID);
+                    ChangeBus.getChangeBus().publish(new ChangeEvent<>(Appointment.class, ChangeEvent.Operation.DELETED,
+                            rowID, null));
+
+                }
+
+                else if (results.getString("Table_Name").equals("customers")) {
+
+                    AppointmentIndex.getAppointmentIndex().removeCustomer(rowID);
+                    ChangeBus.getChangeBus().publish(new ChangeEvent<>(Customer.class, ChangeEvent.Operation.DELETED,
+                            rowID, null));
+
+                }
+
+                else {
+                    continue;
+                }
+
+                oldestChange[0] = Math.min(oldestChange[0], results.getTimestamp("Deleted_At").getTime());
+                rowsMerged++;
+
+            }
+
+            return rowsMerged;
+
+        }
+
+    }
+
+    /**
+     * Joins all column values of a polled row, so a row edited twice within the same second is told apart
+     * @param results result set positioned on a polled row
+     * @return column values separated by NUL characters
+     * @throws SQLException if a column cannot be read
+     */
+    private static String contentOf(ResultSet results) throws SQLException {
+
+        StringBuilder content = new StringBuilder();
+        int columnCount = results.getMetaData().getColumnCount();
+
+        for (int column = 1; column <= columnCount; column++) {
+            content.append(results.getString(column)).append('\0');
+        }
+
+        return content.toString();
+
+    }
+
+    /**
+     * Infers whether a polled row was inserted or updated by comparing its create and update times
+     * @param results result set positioned on a polled row
+     * @param lastUpdate Last_Update of the row
+     * @param published whether a version of the row was already published
+     * @return INSERTED if the row hasn't been published or updated since it was created, otherwise UPDATED
+     * @throws SQLException if Create_Date cannot be read
+     */
+    private static ChangeEvent.Operation operationOf(ResultSet results, Timestamp lastUpdate, boolean published)
+            throws SQLException {
+        return !published && lastUpdate.equals(results.getTimestamp("Create_Date")) ? ChangeEvent.Operation.INSERTED :
+                ChangeEvent.Operation.UPDATED;
+    }
+
+    /**
+     * Reads the database's current time, so watermarks and lag don't depend on the client clock
+     * @param connection connection to query on
+     * @return database time
+     * @throws SQLException if the query fails
+     */
+    private static Timestamp selectServerTime(Connection connection) throws SQLException {
+
+        try (PreparedStatement preparedStatement = connection.prepareStatement("SELECT NOW()")) {
+
+            ResultSet results = preparedStatement.executeQuery();
+            results.next();
+
+            return results.getTimestamp(1);
+
+        }
+
+    }
+
+    /**
+     * Reads the highest tombstone ID to start polling deletes after
+     * @param connection connection to query on
+     * @return highest tombstone ID, 0 if the table is empty, or -1 if the tombstone table doesn't exist
+     */
+    private static long selectTombstoneStart(Connection connection) {
+
+        try (PreparedStatement preparedStatement =
+                     connection.prepareStatement("SELECT COALESCE(MAX(Tombstone_ID), 0) FROM deleted_rows")) {
+
+            ResultSet results = preparedStatement.executeQuery();
+            results.next();
+
+            return results.getLong(1);
+
+        }
+
+        catch (SQLException exception) {
+
+            System.out.println("Deletes by other clients won't be merged: " + exception.getMessage());
+
+        }
+
+        return -1;
+
+    }
+
+}
@@ -2,7 +2,7 @@ package Scheduler.DAO;
 
 import javafx.collections.ObservableList;
 
-interface CountryDAOInterface {
+public interface CountryDAOInterface {
 
     int getIDByCountry(String country);
 
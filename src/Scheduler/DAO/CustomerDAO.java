@@ -1,15 +1,28 @@
 package Scheduler.DAO;
 
 import Scheduler.Models.Customer;
+import Scheduler.Utils.AppointmentIndex;
+import Scheduler.Utils.ChangeBus;
+import Scheduler.Utils.ChangeEvent;
 import Scheduler.Utils.DatabaseHandler;
 import Scheduler.Utils.UserSession;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
 
 /**
  * DAO class for handling customer data in MySQL database
@@ -19,18 +32,44 @@ import java.sql.SQLException;
 public class CustomerDAO implements CustomerDAOInterface {
 
     /**
-     * Constructs and executes query to return all customers from customer table
+     * Select clause for customer rows joined with their division and country names
+     */
+    static final String selectWithNames = "SELECT customers.*, first_level_divisions.Division, countries.Country " +
+            "FROM customers " +
+            "LEFT JOIN first_level_divisions ON customers.Division_ID = first_level_divisions.Division_ID " +
+            "LEFT JOIN countries ON first_level_divisions.COUNTRY_ID = countries.Country_ID ";
+
+    /**
+     * Builds a customer from the current row of a result set selected with selectWithNames, recording the row's
+     * Last_Update as the version of the customer this client has seen
+     * @param results result set positioned on a customer row
+     * @return customer object with division and country names set
+     * @throws SQLException if a column cannot be read
+     */
+    static Customer buildCustomer(ResultSet results) throws SQLException {
+
+        RowVersions.getRowVersions().customerSeen(results.getInt("Customer_ID"), results.getTimestamp("Last_Update"));
+
+        return new Customer(results.getInt("Customer_ID"), results.getString("Customer_Name"),
+                results.getString("Address"), results.getString("Postal_Code"),
+                results.getInt("Division_ID"), results.getString("Division"),
+                results.getString("Country"), results.getString("Phone"));
+
+    }
+
+    /**
+     * Constructs and executes query to return all customers from customer table. Division and country names are joined
+     * in the same query, so the whole list is loaded in one round trip.
      * @return list of all customers
      */
     public ObservableList<Customer> getAllCustomers() {
 
         ObservableList<Customer> customerList = FXCollections.observableArrayList();
 
-        String query = "SELECT * FROM customers ORDER BY Customer_ID";
-
-        try {
+        String query = selectWithNames + "ORDER BY customers.Customer_ID";
 
-            PreparedStatement preparedStatement = DatabaseHandler.getConnection().prepareStatement(query);
+        try (Connection connection = DatabaseHandler.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
 
             preparedStatement.execute();
 
@@ -38,9 +77,7 @@ public class CustomerDAO implements CustomerDAOInterface {
 
             while (results.next()) {
 
-                customerList.add(new Customer(results.getInt("Customer_ID"), results.getString("Customer_Name"),
-                        results.getString("Address"), results.getString("Postal_Code"),
-                        results.getInt("Division_ID"), results.getString("Phone")));
+                customerList.add(buildCustomer(results));
 
             }
 
@@ -55,94 +92,408 @@ public class CustomerDAO implements CustomerDAOInterface {
     }
 
     /**
-     * Constructs and executes query to add new customer in database
+     * Reads a customer by ID
+     * @param customerID ID of customer
+     * @return customer object, or null if no customer has the ID
+     * @throws SQLException if the query fails
+     */
+    static Customer readCustomer(int customerID) throws SQLException {
+
+        try (Connection connection = DatabaseHandler.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(selectWithNames +
+                     "WHERE customers.Customer_ID = ?")) {
+
+            preparedStatement.setInt(1, customerID);
+
+            ResultSet results = preparedStatement.executeQuery();
+
+            return results.next() ? buildCustomer(results) : null;
+
+        }
+
+    }
+
+    /**
+     * Insert statement for a single customer
+     */
+    private static final String insertQuery = "INSERT INTO customers(Customer_Name, Address, Postal_Code, Phone, " +
+            "Create_Date, Created_By, Last_Update, Last_Updated_By, Division_ID) " +
+            "VALUES (?, ?, ?, ?, NOW(), ?, NOW(), ?, ?)";
+
+    /**
+     * Default number of rows sent per batch by addCustomers
+     */
+    public static final int defaultBatchSize = 500;
+
+    /**
+     * Sets insertQuery parameters for a given customer
+     * @param preparedStatement statement prepared from insertQuery
+     * @param customer customer to add
+     * @throws SQLException if a parameter cannot be set
+     */
+    private static void bindInsert(PreparedStatement preparedStatement, Customer customer) throws SQLException {
+
+        preparedStatement.setString(1, customer.getCustomerName());
+        preparedStatement.setString(2, customer.getAddress());
+        preparedStatement.setString(3, customer.getPostalCode());
+        preparedStatement.setString(4, customer.getPhoneNumber());
+        preparedStatement.setString(5, UserSession.getCurrentUser().getName());
+        preparedStatement.setString(6, UserSession.getCurrentUser().getName());
+        preparedStatement.setInt(7, customer.getDivisionID());
+
+    }
+
+    /**
+     * Publishes a committed customer write on the change bus
+     * @param customer customer written
+     * @param operation kind of write
+     */
+    static void publish(Customer customer, ChangeEvent.Operation operation) {
+        ChangeBus.getChangeBus().publish(new ChangeEvent<>(Customer.class, operation, customer.getId(), customer));
+    }
+
+    /**
+     * Records the Last_Update of a customer this client just wrote as its seen version, or forgets the version if it
+     * can't be read back
+     * @param connection connection the write ran on
+     * @param customer customer written
+     */
+    private static void recordVersion(Connection connection, Customer customer) {
+
+        Timestamp lastUpdate = RowVersions.readLastUpdate(connection, "customers", "Customer_ID", customer.getId());
+
+        if (lastUpdate != null) {
+            RowVersions.getRowVersions().customerSeen(customer.getId(), lastUpdate);
+        }
+
+        else {
+            RowVersions.getRowVersions().forgetCustomer(customer.getId());
+        }
+
+    }
+
+    /**
+     * Removes a deleted customer's appointments from the appointment index and the customer's seen version, and
+     * publishes the change
+     * @param customerID ID the customer was published under
+     * @param customer customer deleted
+     */
+    static void customerDeleted(int customerID, Customer customer) {
+
+        AppointmentIndex.getAppointmentIndex().removeCustomer(customerID);
+        RowVersions.getRowVersions().forgetCustomer(customerID);
+        ChangeBus.getChangeBus().publish(new ChangeEvent<>(Customer.class, ChangeEvent.Operation.DELETED, customerID,
+                customer));
+
+    }
+
+    /**
+     * Adds new customer. The customer ID is assigned by the database's AUTO_INCREMENT column and written back to the
+     * customer object. If the database is unreachable the customer is queued in the write-ahead log under a
+     * provisional ID and added once the database is back.
      * @param customer customer to add
-     * @return bool indicating success of database write
+     * @return bool indicating success of database write or of queueing it
      */
     public boolean addCustomer(Customer customer) {
 
-        String query = "INSERT INTO customers(Customer_ID, Customer_Name, Address, Postal_Code, Phone, Create_Date, " +
-                "Created_By, Last_Update, Last_Updated_By, Division_ID) " +
-                "VALUES (?, ?, ?, ?, ?, NOW(), ?, NOW(), ?, ?)";
+        return WriteAheadLog.getWriteAheadLog().writeOrQueue(() -> insert(customer),
+                () -> PendingWrite.ofCustomers(PendingWrite.Kind.ADD_CUSTOMER, Collections.singletonList(customer),
+                        WriteAheadLog.baseMillis()));
 
-        try {
+    }
 
-            PreparedStatement preparedStatement = DatabaseHandler.getConnection().prepareStatement(query);
+    /**
+     * Constructs and executes query to add new customer in database, writing the generated ID back to the customer
+     * @param customer customer to add
+     * @throws SQLException if the insert fails
+     */
+    static void insert(Customer customer) throws SQLException {
+
+        try (Connection connection = DatabaseHandler.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(insertQuery, Statement.RETURN_GENERATED_KEYS)) {
 
-            preparedStatement.setInt(1, customer.getId());
-            preparedStatement.setString(2, customer.getCustomerName());
-            preparedStatement.setString(3, customer.getAddress());
-            preparedStatement.setString(4, customer.getPostalCode());
-            preparedStatement.setString(5, customer.getPhoneNumber());
-            preparedStatement.setString(6, UserSession.getCurrentUser().getName());
-            preparedStatement.setString(7, UserSession.getCurrentUser().getName());
-            preparedStatement.setInt(8, customer.getDivisionID());
+            bindInsert(preparedStatement, customer);
 
             preparedStatement.execute();
 
-            return true;
+            ResultSet generatedKeys = preparedStatement.getGeneratedKeys();
 
-        }
+            if (generatedKeys.next()) {
+                customer.setID(generatedKeys.getInt(1));
+            }
+
+            recordVersion(connection, customer);
+            publish(customer, ChangeEvent.Operation.INSERTED);
 
-        catch (SQLException exception) {
-            System.out.println(exception.getMessage());
         }
 
-        return false;
+    }
+
+    /**
+     * Adds a collection of customers using JDBC batches, committing each batch as one transaction. Customer IDs assigned
+     * by the database are written back to the customer objects, and rows of a failed batch are retried one at a time so
+     * each failing row is reported with its own error.
+     * @param customers customers to add
+     * @param batchSize number of rows sent per batch
+     * @return result listing added customers and per-row failures
+     */
+    @Override
+    public BatchResult<Customer> addCustomers(Collection<Customer> customers, int batchSize) {
+
+        return new BatchWriter<Customer>(insertQuery, CustomerDAO::bindInsert, Customer::setID,
+                customer -> publish(customer, ChangeEvent.Operation.INSERTED), false).write(customers, batchSize);
 
     }
 
     /**
-     * Constructs and executes query to delete existing customer in database. Method first deletes all appointments
-     * associated with the customer.
+     * Constructs and executes queries to delete existing customer in database. Method first deletes all appointments
+     * associated with the customer; both deletes run in one transaction, so a failure leaves the customer and their
+     * appointments in place.
      * @param customer customer to delete
      * @return bool indicating success of database delete
      */
     public boolean deleteCustomer(Customer customer) {
+        return deleteCustomers(Collections.singletonList(customer));
+    }
 
-        String query = "DELETE FROM appointments WHERE Customer_ID = ?";
+    /**
+     * Deletes many existing customers and all of their appointments in one transaction, queueing the delete in the
+     * write-ahead log if the database is unreachable. If any delete fails the whole transaction is rolled back and no
+     * customer or appointment is deleted. A queued delete carries the versions of the customers and appointments this
+     * client last saw, so replay only skips it if one of them changed after that.
+     * @param customers customers to delete
+     * @return bool indicating success of database delete or of queueing it
+     */
+    public boolean deleteCustomers(Collection<Customer> customers) {
 
-        try {
+        return WriteAheadLog.getWriteAheadLog().writeOrQueue(() -> delete(customers, null), () -> {
 
-            PreparedStatement preparedStatement = DatabaseHandler.getConnection().prepareStatement(query);
+            List<Integer> customerIDs = new ArrayList<>(customers.size());
 
-            preparedStatement.setInt(1, customer.getId());
+            for (Customer customer : customers) {
+                customerIDs.add(customer.getId());
+            }
 
-            preparedStatement.execute();
+            RowVersions rowVersions = RowVersions.getRowVersions();
 
-            query = "DELETE FROM customers WHERE Customer_ID = ?";
+            return PendingWrite.ofDeletedCustomers(customers, WriteAheadLog.baseMillis(),
+                    rowVersions.getCustomers(customerIDs), rowVersions.getAppointmentsOf(customerIDs));
 
-            preparedStatement = DatabaseHandler.getConnection().prepareStatement(query);
+        });
 
-            preparedStatement.setInt(1, customer.getId());
+    }
 
-            preparedStatement.execute();
+    /**
+     * Constructs and executes queries to delete many existing customers and all of their appointments in one
+     * transaction. Customer IDs are sent in IN lists of up to defaultBatchSize IDs, so each list costs two round trips
+     * however many customers it holds.
+     * @param customers customers to delete
+     * @param notUpdatedAfter if not null, nothing is deleted if any of the customers or their appointments was updated
+     *                        after this time
+     * @return false if notUpdatedAfter kept the customers from being deleted
+     * @throws SQLException if a delete fails
+     */
+    static boolean delete(Collection<Customer> customers, Timestamp notUpdatedAfter) throws SQLException {
+        return delete(customers, notUpdatedAfter, Collections.emptyMap(), Collections.emptyMap());
+    }
 
-            return true;
+    /**
+     * Constructs and executes queries to delete many existing customers and all of their appointments in one
+     * transaction, unless a row not written by this client was updated after a given time. Rows this client wrote only
+     * count as updated if their Last_Update is after that of its own write.
+     * @param customers customers to delete
+     * @param notUpdatedAfter if not null, nothing is deleted if any of the customers or their appointments was updated
+     *                        after this time
+     * @param ownCustomers Last_Update in epoch milliseconds of customers this client wrote, by customer ID
+     * @param ownAppointments Last_Update in epoch milliseconds of appointments this client wrote, by appointment ID
+     * @return false if notUpdatedAfter kept the customers from being deleted
+     * @throws SQLException if a delete fails
+     */
+    static boolean delete(Collection<Customer> customers, Timestamp notUpdatedAfter, Map<Integer, Long> ownCustomers,
+                          Map<Integer, Long> ownAppointments) throws SQLException {
 
+        List<Integer> customerIDs = new ArrayList<>(customers.size());
+
+        for (Customer customer : customers) {
+            customerIDs.add(customer.getId());
         }
 
-        catch (SQLException exception) {
-            System.out.println(exception.getMessage());
+        try (Connection connection = DatabaseHandler.getConnection()) {
+
+            connection.setAutoCommit(false);
+
+            try {
+
+                for (int listStart = 0; listStart < customerIDs.size(); listStart += defaultBatchSize) {
+
+                    List<Integer> idList = customerIDs.subList(listStart,
+                            Math.min(listStart + defaultBatchSize, customerIDs.size()));
+
+                    if (notUpdatedAfter != null &&
+                            (updatedWhereCustomerIn(connection, "customers", "Customer_ID", notUpdatedAfter, idList,
+                                    ownCustomers) ||
+                             updatedWhereCustomerIn(connection, "appointments", "Appointment_ID", notUpdatedAfter,
+                                     idList, ownAppointments))) {
+
+                        connection.rollback();
+                        return false;
+
+                    }
+
+                    deleteWhereCustomerIn(connection, "DELETE FROM appointments WHERE Customer_ID IN ", idList);
+                    deleteWhereCustomerIn(connection, "DELETE FROM customers WHERE Customer_ID IN ", idList);
+
+                }
+
+                connection.commit();
+
+            }
+
+            catch (SQLException exception) {
+
+                connection.rollback();
+                throw exception;
+
+            }
+
+            finally {
+                connection.setAutoCommit(true);
+            }
+
         }
 
-        return false;
+        for (Customer customer : customers) {
+            customerDeleted(customer.getId(), customer);
+        }
+
+        return true;
 
     }
 
     /**
-     * Constructs and executes query to update existing customer in database
+     * Checks whether any row of a table belonging to a list of customers was updated after a given time, other than
+     * by this client's own writes, locking the matching rows until the transaction ends
+     * @param connection connection with autocommit off
+     * @param table customers or appointments
+     * @param idColumn ID column of table
+     * @param updatedAfter time to compare Last_Update with
+     * @param customerIDs IDs to bind into the IN list
+     * @param ownUpdates Last_Update in epoch milliseconds of rows this client wrote, by row ID; such a row only counts
+     *                   if updated after its own write
+     * @return true if any row was updated after updatedAfter
+     * @throws SQLException if the query fails
+     */
+    private static boolean updatedWhereCustomerIn(Connection connection, String table, String idColumn,
+                                                  Timestamp updatedAfter, List<Integer> customerIDs,
+                                                  Map<Integer, Long> ownUpdates) throws SQLException {
+
+        StringJoiner placeholders = new StringJoiner(", ", "(", ")");
+
+        for (int i = 0; i < customerIDs.size(); i++) {
+            placeholders.add("?");
+        }
+
+        try (PreparedStatement preparedStatement = prepareUncached(connection, "SELECT " + idColumn +
+                ", Last_Update FROM " + table + " WHERE Last_Update > ? AND Customer_ID IN " + placeholders +
+                " FOR UPDATE")) {
+
+            preparedStatement.setTimestamp(1, updatedAfter);
+
+            for (int i = 0; i < customerIDs.size(); i++) {
+                preparedStatement.setInt(i + 2, customerIDs.get(i));
+            }
+
+            ResultSet results = preparedStatement.executeQuery();
+
+            while (results.next()) {
+
+                Long ownUpdate = ownUpdates.get(results.getInt(1));
+
+                if (ownUpdate == null || results.getTimestamp(2).getTime() > ownUpdate) {
+                    return true;
+                }
+
+            }
+
+            return false;
+
+        }
+
+    }
+
+    /**
+     * Executes a delete statement restricted to a list of customer IDs
+     * @param connection connection with autocommit off
+     * @param query delete statement ending before its IN list
+     * @param customerIDs IDs to bind into the IN list
+     * @throws SQLException if the delete fails
+     */
+    private static void deleteWhereCustomerIn(Connection connection, String query, List<Integer> customerIDs)
+            throws SQLException {
+
+        StringJoiner placeholders = new StringJoiner(", ", "(", ")");
+
+        for (int i = 0; i < customerIDs.size(); i++) {
+            placeholders.add("?");
+        }
+
+        try (PreparedStatement preparedStatement = prepareUncached(connection, query + placeholders)) {
+
+            for (int i = 0; i < customerIDs.size(); i++) {
+                preparedStatement.setInt(i + 1, customerIDs.get(i));
+            }
+
+            preparedStatement.executeUpdate();
+
+        }
+
+    }
+
+    /**
+     * Prepares a statement that bypasses the connection pool's statement cache. IN lists of every length up to
+     * defaultBatchSize have their own SQL, and caching each of them would evict the hot single-row statements.
+     * @param connection connection to prepare on
+     * @param query SQL of statement
+     * @return statement closed for good when it is closed
+     * @throws SQLException if the statement can't be prepared
+     */
+    private static PreparedStatement prepareUncached(Connection connection, String query) throws SQLException {
+        return connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+    }
+
+    /**
+     * Update statement for a single customer
+     */
+    private static final String updateQuery = "UPDATE customers SET Customer_Name = ?, Address = ?, Postal_Code = ?, " +
+            "Phone = ?, Last_Update = NOW(), Last_Updated_By = ?, Division_ID = ? WHERE Customer_ID = ?";
+
+    /**
+     * Updates existing customer, queueing the update in the write-ahead log if the database is unreachable. A queued
+     * update is based on the version of the customer this client last saw.
      * @param customer updated customer
-     * @return bool indicating success of database write
+     * @return bool indicating success of database write or of queueing it
      */
     public boolean updateCustomer(Customer customer) {
 
-        String query = "UPDATE customers SET Customer_Name = ?, Address = ?, Postal_Code = ?, Phone = ?, " +
-                "Last_Update = NOW(), Last_Updated_By = ?, Division_ID = ? WHERE Customer_ID = ?";
+        return WriteAheadLog.getWriteAheadLog().writeOrQueue(() -> update(customer, null),
+                () -> PendingWrite.ofCustomers(PendingWrite.Kind.UPDATE_CUSTOMER, Collections.singletonList(customer),
+                        WriteAheadLog.baseMillis(RowVersions.getRowVersions().getCustomer(customer.getId()))));
 
-        try {
+    }
 
-            PreparedStatement preparedStatement = DatabaseHandler.getConnection().prepareStatement(query);
+    /**
+     * Constructs and executes query to update existing customer in database
+     * @param customer updated customer
+     * @param notUpdatedAfter if not null, the customer is only updated if no client updated it after this time
+     * @return false if notUpdatedAfter was set and the customer was changed since or no longer exists
+     * @throws SQLException if the update fails
+     */
+    static boolean update(Customer customer, Timestamp notUpdatedAfter) throws SQLException {
+
+        String query = notUpdatedAfter == null ? updateQuery : updateQuery + " AND Last_Update <= ?";
+
+        try (Connection connection = DatabaseHandler.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
 
             preparedStatement.setString(1, customer.getCustomerName());
             preparedStatement.setString(2, customer.getAddress());
@@ -152,17 +503,26 @@ public class CustomerDAO implements CustomerDAOInterface {
             preparedStatement.setInt(6, customer.getDivisionID());
             preparedStatement.setInt(7, customer.getId());
 
-            preparedStatement.execute();
+            if (notUpdatedAfter != null) {
 
-            return true;
+                preparedStatement.setTimestamp(8, notUpdatedAfter);
 
-        }
+                if (preparedStatement.executeUpdate() == 0) {
+                    return false;
+                }
 
-        catch (SQLException exception) {
-            System.out.println(exception.getMessage());
-        }
+            }
 
-        return false;
+            else {
+                preparedStatement.execute();
+            }
+
+            recordVersion(connection, customer);
+            publish(customer, ChangeEvent.Operation.UPDATED);
+
+            return true;
+
+        }
 
     }
 
@@ -176,9 +536,8 @@ public class CustomerDAO implements CustomerDAOInterface {
 
         String query = "SELECT * FROM customers WHERE Customer_ID = ?";
 
-        try {
-
-            PreparedStatement preparedStatement = DatabaseHandler.getConnection().prepareStatement(query);
+        try (Connection connection = DatabaseHandler.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
 
             preparedStatement.setInt(1, id);
 
@@ -207,9 +566,8 @@ public class CustomerDAO implements CustomerDAOInterface {
 
         String query = "SELECT Customer_ID FROM customers WHERE Customer_Name = ?";
 
-        try {
-
-            PreparedStatement preparedStatement = DatabaseHandler.getConnection().prepareStatement(query);
+        try (Connection connection = DatabaseHandler.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
 
             preparedStatement.setString(1, name);
 
@@ -240,9 +598,8 @@ public class CustomerDAO implements CustomerDAOInterface {
 
         String query = "SELECT Customer_Name FROM customers WHERE Customer_ID = ?";
 
-        try {
-
-            PreparedStatement preparedStatement = DatabaseHandler.getConnection().prepareStatement(query);
+        try (Connection connection = DatabaseHandler.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
 
             preparedStatement.setInt(1, id);
 
@@ -264,35 +621,4 @@ public class CustomerDAO implements CustomerDAOInterface {
 
     }
 
-    /**
-     * Utility method to automatically generate customer ID
-     * @return customer ID for new customer
-     */
-    public int generateCustomerID() {
-
-        //https://stackoverflow.com/questions/5113450/last-id-value-in-a-table-sql-server/46346432
-        String query = "SELECT MAX(Customer_ID) FROM customers";
-
-        try {
-
-            PreparedStatement preparedStatement = DatabaseHandler.getConnection().prepareStatement(query);
-
-            preparedStatement.execute();
-
-            ResultSet result = preparedStatement.getResultSet();
-
-            if (result.next()) {
-                int id = result.getInt(1);
-                return id + 1;
-            }
-
-        }
-
-        catch (SQLException exception) {
-            System.out.println(exception.getMessage());
-        }
-
-        return -1;
-    }
-
 }
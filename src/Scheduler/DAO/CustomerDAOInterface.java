@@ -3,7 +3,9 @@ package Scheduler.DAO;
 import Scheduler.Models.Customer;
 import javafx.collections.ObservableList;
 
-interface CustomerDAOInterface {
+import java.util.Collection;
+
+public interface CustomerDAOInterface {
 
     ObservableList<Customer> getAllCustomers();
 
@@ -11,10 +13,12 @@ interface CustomerDAOInterface {
     boolean deleteCustomer(Customer customer);
     boolean updateCustomer(Customer customer);
 
+    boolean deleteCustomers(Collection<Customer> customers);
+    BatchResult<Customer> addCustomers(Collection<Customer> customers, int batchSize);
+
     int getIDByCustomerName(String string);
     String getCustomerNameByID(int id);
 
     boolean checkCustomerIDValid(int id);
-    int generateCustomerID();
 
 }
@@ -0,0 +1,77 @@
+package Scheduler.DAO;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Singleton executor running DAO calls off the JavaFX application thread for the asynchronous DAO classes
+ *
+ * @author Chris Criswell
+ */
+public class DAOExecutor {
+
+    /**
+     * Number of worker threads; kept below the connection pool size so background queries never exhaust the pool
+     */
+    private static final int threadCount = 4;
+
+    /**
+     * Single app-wide executor for database work
+     */
+    private static ExecutorService executor = null;
+
+    /**
+     * Private default constructor for static utility class
+     */
+    private DAOExecutor() {
+
+    }
+
+    /**
+     * Gets initialized executor or initializes if none started
+     * @return executor for database work
+     */
+    public static synchronized ExecutorService getExecutor() {
+
+        if (executor == null) {
+
+            AtomicInteger threadNumber = new AtomicInteger(1);
+
+            executor = Executors.newFixedThreadPool(threadCount, runnable -> {
+                Thread thread = new Thread(runnable, "dao-worker-" + threadNumber.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+        }
+
+        return executor;
+
+    }
+
+    /**
+     * Runs a DAO call on the executor. Cancelling the returned future before the call starts keeps it from running.
+     * @param query DAO call to run
+     * @param <T> type of DAO result
+     * @return future completed with the DAO result
+     */
+    static <T> CompletableFuture<T> supply(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(query, getExecutor());
+    }
+
+    /**
+     * Stops accepting new work and lets running DAO calls finish
+     */
+    public static synchronized void shutdown() {
+
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+
+    }
+
+}
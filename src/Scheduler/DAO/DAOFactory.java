@@ -0,0 +1,101 @@
+package Scheduler.DAO;
+
+/**
+ * Static factory handing out the DAO implementations of the selected storage backend. The backend is chosen once at
+ * startup with useBackend() and defaults to MySQL; callers depend only on the DAO interfaces, so the rest of the
+ * application runs unchanged against either backend.
+ *
+ * @author Chris Criswell
+ */
+public class DAOFactory {
+
+    /**
+     * Backend DAOs are currently served from
+     */
+    private static volatile StorageBackend backend = StorageBackend.MYSQL;
+
+    /**
+     * Private constructor, class holds static methods only
+     */
+    private DAOFactory() {
+
+    }
+
+    /**
+     * Selects the backend DAOs are served from. For the in-memory backend the store's reference data is loaded into
+     * the reference data cache, since no database is available to read it from.
+     * @param storageBackend backend to use
+     */
+    public static synchronized void useBackend(StorageBackend storageBackend) {
+
+        if (storageBackend == StorageBackend.MEMORY) {
+            InMemoryStore.getInMemoryStore().loadReferenceData();
+        }
+
+        backend = storageBackend;
+
+    }
+
+    /**
+     * Accessor for selected backend
+     * @return backend DAOs are served from
+     */
+    public static StorageBackend getBackend() { return backend; }
+
+    /**
+     * Gets an appointment DAO of the selected backend
+     * @return appointment DAO
+     */
+    public static AppointmentDAOInterface getAppointmentDAO() {
+        return backend == StorageBackend.MEMORY ? new InMemoryAppointmentDAO() : new AppointmentDAO();
+    }
+
+    /**
+     * Gets a customer DAO of the selected backend
+     * @return customer DAO
+     */
+    public static CustomerDAOInterface getCustomerDAO() {
+        return backend == StorageBackend.MEMORY ? new InMemoryCustomerDAO() : new CustomerDAO();
+    }
+
+    /**
+     * Gets a reports DAO of the selected backend
+     * @return reports DAO
+     */
+    public static ReportsDAOInterface getReportsDAO() {
+        return backend == StorageBackend.MEMORY ? new InMemoryReportsDAO() : new ReportsDAO();
+    }
+
+    /**
+     * Gets a user DAO of the selected backend
+     * @return user DAO
+     */
+    public static UserDAOInterface getUserDAO() {
+        return backend == StorageBackend.MEMORY ? new InMemoryUserDAO() : new UserDAO();
+    }
+
+    /**
+     * Gets a contact DAO. Contacts are served from the reference data cache for both backends.
+     * @return contact DAO
+     */
+    public static ContactDAOInterface getContactDAO() {
+        return new ContactDAO();
+    }
+
+    /**
+     * Gets a country DAO. Countries are served from the reference data cache for both backends.
+     * @return country DAO
+     */
+    public static CountryDAOInterface getCountryDAO() {
+        return new CountryDAO();
+    }
+
+    /**
+     * Gets a division DAO. Divisions are served from the reference data cache for both backends.
+     * @return division DAO
+     */
+    public static DivisionDAOInterface getDivisionDAO() {
+        return new DivisionDAO();
+    }
+
+}
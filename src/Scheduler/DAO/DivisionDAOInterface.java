@@ -2,7 +2,7 @@ package Scheduler.DAO;
 
 import javafx.collections.ObservableList;
 
-interface DivisionDAOInterface {
+public interface DivisionDAOInterface {
 
     ObservableList<String> getAllDivisionList();
     ObservableList<String> getUSDivisionList();
@@ -10,5 +10,6 @@ interface DivisionDAOInterface {
     ObservableList<String> getUKDivisionList();
 
     int getIDByDivision(String division);
+    String getDivisionNameByID(int id);
 
 }
@@ -0,0 +1,339 @@
+package Scheduler.DAO;
+
+import Scheduler.Models.Appointment;
+import Scheduler.Utils.ChangeBus;
+import Scheduler.Utils.ChangeEvent;
+import Scheduler.Utils.TimeWindow;
+import Scheduler.Utils.UserSession;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * DAO class for handling appointment data in the in-memory store. Queries are answered from the store's start, customer
+ * and user indexes and return rows in the same order as AppointmentDAO.
+ *
+ * @author Chris Criswell
+ */
+public class InMemoryAppointmentDAO implements AppointmentDAOInterface {
+
+    /**
+     * Store holding the appointments
+     */
+    private final InMemoryStore store = InMemoryStore.getInMemoryStore();
+
+    /**
+     * Assigns an appointment to the logged in user, as AppointmentDAO's writes do. Left unchanged when no user is logged
+     * in, so tools and benchmarks can write without a session.
+     * @param appointment appointment to write
+     */
+    private static void assignCurrentUser(Appointment appointment) {
+
+        if (UserSession.getCurrentUser() != null) {
+            appointment.setUserID(UserSession.getCurrentUser().getId());
+        }
+
+    }
+
+    private static void publish(Appointment appointment, ChangeEvent.Operation operation) {
+        ChangeBus.getChangeBus().publish(new ChangeEvent<>(Appointment.class, operation,
+                appointment.getAppointmentID(), appointment));
+    }
+
+    /**
+     * Adds a given appointment, writing its assigned ID back to the appointment object
+     * @param appointment appointment to add
+     * @return bool indicating success of write
+     */
+    @Override
+    public boolean addAppointment(Appointment appointment) {
+
+        try {
+
+            assignCurrentUser(appointment);
+            store.insertAppointment(appointment);
+            publish(appointment, ChangeEvent.Operation.INSERTED);
+
+            return true;
+
+        }
+
+        catch (IllegalArgumentException exception) {
+            System.out.println(exception.getMessage());
+        }
+
+        return false;
+
+    }
+
+    /**
+     * Deletes a given appointment
+     * @param appointment appointment to delete
+     * @return bool indicating success of delete
+     */
+    @Override
+    public boolean deleteAppointment(Appointment appointment) {
+
+        store.removeAppointment(appointment.getAppointmentID());
+        publish(appointment, ChangeEvent.Operation.DELETED);
+
+        return true;
+
+    }
+
+    /**
+     * Updates a given appointment
+     * @param appointment appointment to update
+     * @return bool indicating success of write
+     */
+    @Override
+    public boolean updateAppointment(Appointment appointment) {
+
+        try {
+
+            assignCurrentUser(appointment);
+
+            if (store.updateAppointment(appointment)) {
+                publish(appointment, ChangeEvent.Operation.UPDATED);
+            }
+
+            return true;
+
+        }
+
+        catch (IllegalArgumentException exception) {
+            System.out.println(exception.getMessage());
+        }
+
+        return false;
+
+    }
+
+    @Override
+    public BatchResult<Appointment> addAppointments(Collection<Appointment> appointments) {
+        return addAppointments(appointments, AppointmentDAO.defaultBatchSize);
+    }
+
+    /**
+     * Adds a collection of appointments one at a time. Batch size has no effect since there are no round trips to
+     * save; it is accepted to match AppointmentDAO.
+     * @param appointments appointments to add
+     * @param batchSize ignored
+     * @return result listing added appointments and per-row failures
+     */
+    @Override
+    public BatchResult<Appointment> addAppointments(Collection<Appointment> appointments, int batchSize) {
+        return write(appointments, false);
+    }
+
+    @Override
+    public BatchResult<Appointment> updateAppointments(Collection<Appointment> appointments) {
+        return updateAppointments(appointments, AppointmentDAO.defaultBatchSize);
+    }
+
+    /**
+     * Updates a collection of appointments one at a time, reporting appointments that don't exist as failures like
+     * AppointmentDAO does
+     * @param appointments appointments to update
+     * @param batchSize ignored
+     * @return result listing updated appointments and per-row failures
+     */
+    @Override
+    public BatchResult<Appointment> updateAppointments(Collection<Appointment> appointments, int batchSize) {
+        return write(appointments, true);
+    }
+
+    /**
+     * Writes appointments one at a time, recording each success or failure
+     * @param appointments appointments to write
+     * @param update whether appointments are updated rather than added
+     * @return result listing written appointments and per-row failures
+     */
+    private BatchResult<Appointment> write(Collection<Appointment> appointments, boolean update) {
+
+        BatchResult<Appointment> result = new BatchResult<>();
+        long startTime = System.nanoTime();
+
+        int index = 0;
+
+        for (Appointment appointment : appointments) {
+
+            try {
+
+                assignCurrentUser(appointment);
+
+                if (update) {
+
+                    if (!store.updateAppointment(appointment)) {
+                        throw new IllegalArgumentException("Row does not exist");
+                    }
+
+                }
+
+                else {
+                    store.insertAppointment(appointment);
+                }
+
+                publish(appointment, update ? ChangeEvent.Operation.UPDATED : ChangeEvent.Operation.INSERTED);
+                result.addWritten(appointment);
+
+            }
+
+            catch (IllegalArgumentException exception) {
+                result.addFailure(index, appointment, exception.getMessage());
+            }
+
+            index++;
+
+        }
+
+        result.setElapsedNanos(System.nanoTime() - startTime);
+
+        return result;
+
+    }
+
+    /**
+     * Gets the appointment with a given ID
+     * @param appointmentID ID of specified appointment
+     * @return appointment object, or null if none has the ID
+     */
+    @Override
+    public Appointment getAppointment(int appointmentID) {
+
+        Appointment appointment = store.appointmentsByID.get(appointmentID);
+
+        return appointment == null ? null : store.view(appointment);
+
+    }
+
+    /**
+     * Gets all appointments from the start index
+     * @return list of all appointments ordered by start and ID
+     */
+    @Override
+    public ObservableList<Appointment> getAllAppointments() {
+        return store.view(store.appointmentsByStart.values());
+    }
+
+    /**
+     * Gets the page of appointments following a given appointment in start order by seeking in the start index
+     * @param afterStart start date/time of last appointment already loaded, or null for the first page
+     * @param afterID ID of last appointment already loaded, breaking ties between equal start times
+     * @param pageSize maximum number of appointments to return
+     * @return list of up to pageSize appointments ordered by start and ID
+     */
+    @Override
+    public ObservableList<Appointment> getAppointmentsPage(ZonedDateTime afterStart, int afterID, int pageSize) {
+
+        Map<InMemoryStore.StartKey, Appointment> following = afterStart == null ? store.appointmentsByStart :
+                store.appointmentsByStart.tailMap(new InMemoryStore.StartKey(afterStart.toInstant().toEpochMilli(),
+                        afterID), false);
+
+        ObservableList<Appointment> appointmentPage = FXCollections.observableArrayList();
+
+        for (Appointment appointment : following.values()) {
+
+            if (appointmentPage.size() >= pageSize) {
+                break;
+            }
+
+            appointmentPage.add(store.view(appointment));
+
+        }
+
+        return appointmentPage;
+
+    }
+
+    @Override
+    public ObservableList<Appointment> getAllAppointmentsByMonth() {
+        return getAppointmentsStartingWithin(TimeWindow.restOfCurrentMonth());
+    }
+
+    @Override
+    public ObservableList<Appointment> getAllAppointmentsByWeek() {
+        return getAppointmentsStartingWithin(TimeWindow.restOfCurrentWeek());
+    }
+
+    /**
+     * Gets all appointments starting within a window of time from the start index
+     * @param window window of time to select appointments by start
+     * @return list of all appointments starting within window, ordered by start
+     */
+    @Override
+    public ObservableList<Appointment> getAppointmentsStartingWithin(TimeWindow window) {
+
+        return store.view(store.appointmentsByStart.subMap(
+                new InMemoryStore.StartKey(window.getStart().toInstant().toEpochMilli(), Integer.MIN_VALUE),
+                new InMemoryStore.StartKey(window.getEnd().toInstant().toEpochMilli(), Integer.MIN_VALUE)).values());
+
+    }
+
+    /**
+     * Gets all appointments overlapping a range from the start index
+     * @param start start date/time of range, inclusive
+     * @param end end date/time of range, exclusive
+     * @return list of all appointments overlapping specified range, ordered by start
+     */
+    @Override
+    public ObservableList<Appointment> getAppointmentsWithinRange(ZonedDateTime start, ZonedDateTime end) {
+        return store.view(store.overlapping(store.appointmentsByStart, start.toInstant(), end.toInstant()));
+    }
+
+    /**
+     * Gets a user's appointments starting after a given time from the user index
+     * @param userID ID of user appointments are assigned to
+     * @param after time appointments must start after
+     * @return list of user's upcoming appointments ordered by start
+     */
+    @Override
+    public ObservableList<Appointment> getUpcomingAppointmentsByUser(int userID, ZonedDateTime after) {
+
+        ConcurrentSkipListMap<InMemoryStore.StartKey, Appointment> userAppointments = store.appointmentsByUser.get(userID);
+
+        if (userAppointments == null) {
+            return FXCollections.observableArrayList();
+        }
+
+        return store.view(userAppointments.tailMap(new InMemoryStore.StartKey(after.toInstant().toEpochMilli(),
+                Integer.MAX_VALUE), false).values());
+
+    }
+
+    /**
+     * Checks if a given appointment overlaps with any other appointment for the same customer, using the customer index
+     * @param id id of a given appointment to check overlap on
+     * @param customerID id of customer associated with given appointment
+     * @param start start date/time of given appointment
+     * @param end end date/time of given appointment
+     * @return bool indicating whether given appointment overlaps with any others
+     */
+    @Override
+    public boolean checkIfOtherAppointmentsInRange(int id, int customerID, ZonedDateTime start, ZonedDateTime end) {
+
+        ConcurrentSkipListMap<InMemoryStore.StartKey, Appointment> customerAppointments =
+                store.appointmentsByCustomer.get(customerID);
+
+        if (customerAppointments == null) {
+            return false;
+        }
+
+        for (Appointment appointment : store.overlapping(customerAppointments, start.toInstant(), end.toInstant())) {
+
+            if (appointment.getAppointmentID() != id) {
+                return true;
+            }
+
+        }
+
+        return false;
+
+    }
+
+}
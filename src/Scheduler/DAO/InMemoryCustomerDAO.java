@@ -0,0 +1,213 @@
+package Scheduler.DAO;
+
+import Scheduler.Models.Customer;
+import Scheduler.Utils.ChangeEvent;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * DAO class for handling customer data in the in-memory store
+ *
+ * @author Chris Criswell
+ */
+public class InMemoryCustomerDAO implements CustomerDAOInterface {
+
+    /**
+     * Store holding the customers
+     */
+    private final InMemoryStore store = InMemoryStore.getInMemoryStore();
+
+    /**
+     * Gets all customers
+     * @return list of all customers ordered by ID
+     */
+    @Override
+    public ObservableList<Customer> getAllCustomers() {
+
+        ObservableList<Customer> customerList = FXCollections.observableArrayList();
+
+        for (Customer customer : store.customersByID.values()) {
+            customerList.add(store.view(customer));
+        }
+
+        return customerList;
+
+    }
+
+    /**
+     * Adds a customer, writing its assigned ID back to the customer object
+     * @param customer customer to add
+     * @return bool indicating success of write
+     */
+    @Override
+    public boolean addCustomer(Customer customer) {
+
+        try {
+
+            store.insertCustomer(customer);
+            CustomerDAO.publish(customer, ChangeEvent.Operation.INSERTED);
+
+            return true;
+
+        }
+
+        catch (IllegalArgumentException exception) {
+            System.out.println(exception.getMessage());
+        }
+
+        return false;
+
+    }
+
+    /**
+     * Deletes a customer and all of their appointments
+     * @param customer customer to delete
+     * @return bool indicating success of delete
+     */
+    @Override
+    public boolean deleteCustomer(Customer customer) {
+        return deleteCustomers(Collections.singletonList(customer));
+    }
+
+    /**
+     * Updates a customer
+     * @param customer updated customer
+     * @return bool indicating success of write
+     */
+    @Override
+    public boolean updateCustomer(Customer customer) {
+
+        try {
+
+            if (store.updateCustomer(customer)) {
+                CustomerDAO.publish(customer, ChangeEvent.Operation.UPDATED);
+            }
+
+            return true;
+
+        }
+
+        catch (IllegalArgumentException exception) {
+            System.out.println(exception.getMessage());
+        }
+
+        return false;
+
+    }
+
+    /**
+     * Deletes many customers and all of their appointments as one write
+     * @param customers customers to delete
+     * @return bool indicating success of delete
+     */
+    @Override
+    public boolean deleteCustomers(Collection<Customer> customers) {
+
+        List<Integer> customerIDs = new ArrayList<>(customers.size());
+
+        for (Customer customer : customers) {
+            customerIDs.add(customer.getId());
+        }
+
+        store.removeCustomers(customerIDs);
+
+        for (Customer customer : customers) {
+            CustomerDAO.publish(customer, ChangeEvent.Operation.DELETED);
+        }
+
+        return true;
+
+    }
+
+    /**
+     * Adds a collection of customers one at a time. Batch size has no effect since there are no round trips to save.
+     * @param customers customers to add
+     * @param batchSize ignored
+     * @return result listing added customers and per-row failures
+     */
+    @Override
+    public BatchResult<Customer> addCustomers(Collection<Customer> customers, int batchSize) {
+
+        BatchResult<Customer> result = new BatchResult<>();
+        long startTime = System.nanoTime();
+
+        int index = 0;
+
+        for (Customer customer : customers) {
+
+            try {
+
+                store.insertCustomer(customer);
+                CustomerDAO.publish(customer, ChangeEvent.Operation.INSERTED);
+                result.addWritten(customer);
+
+            }
+
+            catch (IllegalArgumentException exception) {
+                result.addFailure(index, customer, exception.getMessage());
+            }
+
+            index++;
+
+        }
+
+        result.setElapsedNanos(System.nanoTime() - startTime);
+
+        return result;
+
+    }
+
+    /**
+     * Gets the lowest ID of the customers with a given name from the name index
+     * @param name customer name
+     * @return customer ID, or -1 if no customer has the name
+     */
+    @Override
+    public int getIDByCustomerName(String name) {
+
+        Set<Integer> ids = store.customerIDsByName.get(name);
+
+        if (ids != null) {
+
+            for (int id : ids) {
+                return id;
+            }
+
+        }
+
+        return -1;
+
+    }
+
+    /**
+     * Gets the name of the customer with a given ID
+     * @param id customer ID
+     * @return customer name, or null if no customer has the ID
+     */
+    @Override
+    public String getCustomerNameByID(int id) {
+
+        Customer customer = store.customersByID.get(id);
+
+        return customer == null ? null : customer.getCustomerName();
+
+    }
+
+    /**
+     * Checks whether a customer with a given ID exists
+     * @param id customer ID
+     * @return bool indicating whether customer ID is valid
+     */
+    @Override
+    public boolean checkCustomerIDValid(int id) {
+        return store.customersByID.containsKey(id);
+    }
+
+}
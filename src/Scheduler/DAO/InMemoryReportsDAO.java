@@ -0,0 +1,206 @@
+package Scheduler.DAO;
+
+import Scheduler.Models.Appointment;
+import Scheduler.Models.MonthlyAppointmentsByTypeCounter;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * DAO class for generating report data from the in-memory store. The contact and user reports walk the store's contact
+ * and user indexes, which are already in report order, and the monthly report counts one pass over the start index.
+ *
+ * @author Chris Criswell
+ */
+public class InMemoryReportsDAO implements ReportsDAOInterface {
+
+    /**
+     * Store holding the appointments
+     */
+    private final InMemoryStore store = InMemoryStore.getInMemoryStore();
+
+    /**
+     * Gets all appointments ordered by contact ID and start date from the contact index
+     * @return List of all appointments sorted by contact ID and start date
+     */
+    @Override
+    public ObservableList<Appointment> getAppointmentsByContact() {
+        return viewGroups(store.appointmentsByContact);
+    }
+
+    /**
+     * Gets all appointments ordered by ID of user who created them from the user index
+     * @return List of all appointments ordered by user ID and start date
+     */
+    @Override
+    public ObservableList<Appointment> getAppointmentsByUserCreated() {
+        return viewGroups(store.appointmentsByUser);
+    }
+
+    /**
+     * Counts appointments of each type per month in one pass over the start index, holding only the current month's
+     * counts like ReportsDAO's streaming fallback. Start times are compared with the end of the current month as read
+     * from the index keys, so a month is only worked out once per month rather than once per appointment.
+     * @return List of counted appointment types per month, ordered by year, month and type
+     */
+    @Override
+    public ObservableList<MonthlyAppointmentsByTypeCounter> getMonthlyCustomerAppointmentsByType() {
+
+        ObservableList<MonthlyAppointmentsByTypeCounter> countedList = FXCollections.observableArrayList();
+
+        ZoneId zone = ZoneId.systemDefault();
+
+        YearMonth currentMonth = null;
+        long currentMonthEnd = Long.MIN_VALUE;
+        TreeMap<String, Integer> typeCounts = new TreeMap<>();
+
+        for (Map.Entry<InMemoryStore.StartKey, Appointment> entry : store.appointmentsByStart.entrySet()) {
+
+            long start = entry.getKey().start;
+
+            if (start >= currentMonthEnd) {
+
+                ReportsDAO.addMonthlyCounts(countedList, currentMonth, typeCounts);
+                typeCounts.clear();
+
+                currentMonth = YearMonth.from(Instant.ofEpochMilli(start).atZone(zone));
+                currentMonthEnd = currentMonth.plusMonths(1).atDay(1).atStartOfDay(zone).toInstant().toEpochMilli();
+
+            }
+
+            typeCounts.merge(entry.getValue().getType(), 1, Integer::sum);
+
+        }
+
+        ReportsDAO.addMonthlyCounts(countedList, currentMonth, typeCounts);
+
+        return countedList;
+
+    }
+
+    @Override
+    public long exportAppointmentsByContact(ReportRowHandler handler, ZoneId zone) {
+        return exportAppointments(store.appointmentsByContact, handler, zone);
+    }
+
+    @Override
+    public long exportAppointmentsByUserCreated(ReportRowHandler handler, ZoneId zone) {
+        return exportAppointments(store.appointmentsByUser, handler, zone);
+    }
+
+    /**
+     * Writes the monthly appointment type counts to a row handler
+     * @param handler receives the column names and then one row per month and type
+     * @return number of rows exported, or -1 if the export failed
+     */
+    @Override
+    public long exportMonthlyCustomerAppointmentsByType(ReportRowHandler handler) {
+
+        try {
+
+            handler.row("Year", "Month", "Type", "Total");
+
+            long rowCount = 0;
+
+            for (MonthlyAppointmentsByTypeCounter counter : getMonthlyCustomerAppointmentsByType()) {
+
+                handler.row(String.valueOf(counter.getYear()), counter.getMonth(), counter.getType(),
+                        String.valueOf(counter.getTotal()));
+
+                rowCount++;
+
+            }
+
+            return rowCount;
+
+        }
+
+        catch (IOException exception) {
+
+            System.out.println(exception.getMessage());
+
+        }
+
+        return -1;
+
+    }
+
+    /**
+     * Copies every appointment of a grouped index, group by group
+     * @param groups start-ordered appointments keyed by contact or user ID in ID order
+     * @return list of appointments ordered by group ID and start
+     */
+    private ObservableList<Appointment> viewGroups(
+            ConcurrentSkipListMap<Integer, ConcurrentSkipListMap<InMemoryStore.StartKey, Appointment>> groups) {
+
+        ObservableList<Appointment> appointmentList = FXCollections.observableArrayList();
+
+        for (Map<InMemoryStore.StartKey, Appointment> group : groups.values()) {
+            appointmentList.addAll(store.view(group.values()));
+        }
+
+        return appointmentList;
+
+    }
+
+    /**
+     * Writes every appointment of a grouped index to a row handler as it is read
+     * @param groups start-ordered appointments keyed by contact or user ID in ID order
+     * @param handler receives the column names and then one row per appointment
+     * @param zone time zone start and end dates are written in
+     * @return number of appointments exported, or -1 if the export failed
+     */
+    private long exportAppointments(
+            ConcurrentSkipListMap<Integer, ConcurrentSkipListMap<InMemoryStore.StartKey, Appointment>> groups,
+            ReportRowHandler handler, ZoneId zone) {
+
+        DateTimeFormatter formatter = DateTimeFormatter.ISO_OFFSET_DATE_TIME.withZone(zone);
+
+        try {
+
+            handler.row(ReportsDAO.appointmentColumns);
+
+            long rowCount = 0;
+
+            for (Map<InMemoryStore.StartKey, Appointment> group : groups.values()) {
+
+                for (Appointment appointment : group.values()) {
+
+                    Appointment row = store.view(appointment);
+
+                    handler.row(String.valueOf(row.getAppointmentID()), row.getTitle(), row.getDescription(),
+                            row.getLocation(), row.getType(), formatter.format(row.getStartDateTime()),
+                            formatter.format(row.getEndDateTime()), String.valueOf(row.getCustomerID()),
+                            row.getCustomerName(), String.valueOf(row.getContactID()), row.getContactName(),
+                            String.valueOf(row.getUserID()));
+
+                    rowCount++;
+
+                }
+
+            }
+
+            return rowCount;
+
+        }
+
+        catch (IOException exception) {
+
+            System.out.println(exception.getMessage());
+
+        }
+
+        return -1;
+
+    }
+
+}
@@ -0,0 +1,651 @@
+package Scheduler.DAO;
+
+import Scheduler.Models.Appointment;
+import Scheduler.Models.Customer;
+import Scheduler.Models.User;
+import Scheduler.Utils.ReferenceDataCache;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Singleton embedded store backing the in-memory DAO implementations. Appointments are indexed by ID, by start time and,
+ * in start order, by customer, contact and user; customers by ID and name. Every index is a concurrent map, so reads
+ * never lock and see each index weakly consistent while a write is in progress. Writes are serialized on the store so
+ * the indexes never disagree once a write returns.
+ *
+ * Rows are copied on the way in and on the way out, since callers edit the objects they are given. Customer, contact,
+ * division and country names are filled in when a row is read, as the MySQL DAOs' joins do, so renames show up at once.
+ * The store starts with the reference data and users of the standard company database and no customers or
+ * appointments.
+ *
+ * @author Chris Criswell
+ */
+public class InMemoryStore {
+
+    /**
+     * Singleton instance of InMemoryStore
+     */
+    private static InMemoryStore inMemoryStore = null;
+
+    /**
+     * Index key ordering appointments by start and then ID, matching the MySQL DAOs' ORDER BY Start, Appointment_ID
+     */
+    static final class StartKey implements Comparable<StartKey> {
+
+        final long start;
+        final int id;
+
+        StartKey(long start, int id) {
+            this.start = start;
+            this.id = id;
+        }
+
+        StartKey(Appointment appointment) {
+            this(appointment.getStartDateTime().toInstant().toEpochMilli(), appointment.getAppointmentID());
+        }
+
+        @Override
+        public int compareTo(StartKey other) {
+
+            int byStart = Long.compare(start, other.start);
+
+            return byStart != 0 ? byStart : Integer.compare(id, other.id);
+
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof StartKey && compareTo((StartKey) obj) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(start) * 31 + id;
+        }
+
+    }
+
+    /**
+     * Login details of a stored user
+     */
+    private static final class UserRecord {
+
+        final int id;
+        final String name;
+        final String password;
+
+        UserRecord(int id, String name, String password) {
+            this.id = id;
+            this.name = name;
+            this.password = password;
+        }
+
+    }
+
+    /**
+     * Stored appointments keyed by appointment ID
+     */
+    final ConcurrentHashMap<Integer, Appointment> appointmentsByID = new ConcurrentHashMap<>();
+    /**
+     * Stored appointments in start order
+     */
+    final ConcurrentSkipListMap<StartKey, Appointment> appointmentsByStart = new ConcurrentSkipListMap<>();
+    /**
+     * Stored appointments in start order, keyed by customer ID
+     */
+    final ConcurrentHashMap<Integer, ConcurrentSkipListMap<StartKey, Appointment>> appointmentsByCustomer =
+            new ConcurrentHashMap<>();
+    /**
+     * Stored appointments in start order, keyed by contact ID in ID order
+     */
+    final ConcurrentSkipListMap<Integer, ConcurrentSkipListMap<StartKey, Appointment>> appointmentsByContact =
+            new ConcurrentSkipListMap<>();
+    /**
+     * Stored appointments in start order, keyed by user ID in ID order
+     */
+    final ConcurrentSkipListMap<Integer, ConcurrentSkipListMap<StartKey, Appointment>> appointmentsByUser =
+            new ConcurrentSkipListMap<>();
+
+    /**
+     * Longest duration of any appointment stored since the last clear, in milliseconds. Bounds how far before a range an
+     * overlapping appointment can start, so overlap queries scan only that part of the start index.
+     */
+    private volatile long longestAppointmentMillis = 0;
+
+    /**
+     * Stored customers keyed by customer ID in ID order
+     */
+    final ConcurrentSkipListMap<Integer, Customer> customersByID = new ConcurrentSkipListMap<>();
+    /**
+     * IDs of stored customers keyed by customer name
+     */
+    final ConcurrentHashMap<String, ConcurrentSkipListSet<Integer>> customerIDsByName = new ConcurrentHashMap<>();
+
+    /**
+     * Stored users keyed by user ID and by username
+     */
+    private final ConcurrentHashMap<Integer, UserRecord> usersByID = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, UserRecord> usersByName = new ConcurrentHashMap<>();
+
+    /**
+     * Reference data, fixed for the life of the store
+     */
+    private final SortedMap<Integer, String> countryNames = new TreeMap<>();
+    private final SortedMap<Integer, String> divisionNames = new TreeMap<>();
+    private final Map<Integer, Integer> countryIDsByDivisionID = new HashMap<>();
+    private final SortedMap<Integer, String> contactNames = new TreeMap<>();
+
+    /**
+     * Next IDs assigned to inserted rows, like AUTO_INCREMENT columns. Only read and written while holding the store.
+     */
+    private int nextAppointmentID = 1;
+    private int nextCustomerID = 1;
+
+    /**
+     * Private constructor for singleton, seeding reference data and users
+     */
+    private InMemoryStore() {
+
+        countryNames.put(1, "U.S");
+        countryNames.put(2, "UK");
+        countryNames.put(3, "Canada");
+
+        String[] states = {"Alabama", "Arizona", "Arkansas", "California", "Colorado", "Connecticut", "Delaware",
+                "District of Columbia", "Florida", "Georgia", "Idaho", "Illinois", "Indiana", "Iowa", "Kansas",
+                "Kentucky", "Louisiana", "Maine", "Maryland", "Massachusetts", "Michigan", "Minnesota", "Mississippi",
+                "Missouri", "Montana", "Nebraska", "Nevada", "New Hampshire", "New Jersey", "New Mexico", "New York",
+                "North Carolina", "North Dakota", "Ohio", "Oklahoma", "Oregon", "Pennsylvania", "Rhode Island",
+                "South Carolina", "South Dakota", "Tennessee", "Texas", "Utah", "Vermont", "Virginia", "Washington",
+                "West Virginia", "Wisconsin", "Wyoming"};
+
+        for (int i = 0; i < states.length; i++) {
+            addDivision(i + 1, states[i], 1);
+        }
+
+        addDivision(52, "Hawaii", 1);
+        addDivision(54, "Alaska", 1);
+
+        String[] provinces = {"Northwest Territories", "Alberta", "British Columbia", "Manitoba", "New Brunswick",
+                "Nova Scotia", "Prince Edward Island", "Ontario", "Québec", "Saskatchewan", "Nunavut", "Yukon",
+                "Newfoundland and Labrador"};
+
+        for (int i = 0; i < provinces.length; i++) {
+            addDivision(60 + i, provinces[i], 3);
+        }
+
+        String[] nations = {"England", "Wales", "Scotland", "Northern Ireland"};
+
+        for (int i = 0; i < nations.length; i++) {
+            addDivision(101 + i, nations[i], 2);
+        }
+
+        contactNames.put(1, "Anika Costa");
+        contactNames.put(2, "Daniel Garcia");
+        contactNames.put(3, "Li Lee");
+
+        addUser(1, "test", "test");
+        addUser(2, "admin", "admin");
+
+    }
+
+    /**
+     * Gets initialized InMemoryStore instance or initializes if null
+     * @return InMemoryStore instance
+     */
+    public static synchronized InMemoryStore getInMemoryStore() {
+
+        if (inMemoryStore == null) {
+            inMemoryStore = new InMemoryStore();
+        }
+
+        return inMemoryStore;
+
+    }
+
+    private void addDivision(int id, String name, int countryID) {
+        divisionNames.put(id, name);
+        countryIDsByDivisionID.put(id, countryID);
+    }
+
+    private void addUser(int id, String name, String password) {
+
+        UserRecord user = new UserRecord(id, name, password);
+
+        usersByID.put(id, user);
+        usersByName.put(name, user);
+
+    }
+
+    /**
+     * Loads the store's countries, divisions and contacts into the reference data cache, which the contact, country and
+     * division DAOs serve from
+     */
+    void loadReferenceData() {
+        ReferenceDataCache.getReferenceDataCache().load(countryNames, divisionNames, countryIDsByDivisionID,
+                contactNames);
+    }
+
+    /**
+     * Drops all customers and appointments and restarts ID assignment, keeping reference data and users
+     */
+    public synchronized void clear() {
+
+        appointmentsByID.clear();
+        appointmentsByStart.clear();
+        appointmentsByCustomer.clear();
+        appointmentsByContact.clear();
+        appointmentsByUser.clear();
+        longestAppointmentMillis = 0;
+
+        customersByID.clear();
+        customerIDsByName.clear();
+
+        nextAppointmentID = 1;
+        nextCustomerID = 1;
+
+    }
+
+    /**
+     * Accessor for number of stored appointments
+     * @return number of stored appointments
+     */
+    public int getAppointmentCount() { return appointmentsByID.size(); }
+
+    /**
+     * Accessor for number of stored customers
+     * @return number of stored customers
+     */
+    public int getCustomerCount() { return customersByID.size(); }
+
+    /**
+     * Stores a new appointment, assigning its ID and writing it back to the given object
+     * @param appointment appointment to add
+     * @throws IllegalArgumentException if the appointment's customer, contact or user doesn't exist
+     */
+    synchronized void insertAppointment(Appointment appointment) {
+
+        checkAppointmentReferences(appointment);
+
+        appointment.setAppointmentID(nextAppointmentID++);
+        index(copyOf(appointment));
+
+    }
+
+    /**
+     * Replaces a stored appointment. Like an UPDATE matching no rows, nothing happens if the appointment isn't stored.
+     * @param appointment appointment to update
+     * @return whether the appointment was stored
+     * @throws IllegalArgumentException if the appointment's customer, contact or user doesn't exist
+     */
+    synchronized boolean updateAppointment(Appointment appointment) {
+
+        checkAppointmentReferences(appointment);
+
+        Appointment stored = appointmentsByID.get(appointment.getAppointmentID());
+
+        if (stored == null) {
+            return false;
+        }
+
+        unindex(stored);
+        index(copyOf(appointment));
+
+        return true;
+
+    }
+
+    /**
+     * Removes a stored appointment
+     * @param appointmentID ID of appointment to remove
+     * @return whether the appointment was stored
+     */
+    synchronized boolean removeAppointment(int appointmentID) {
+
+        Appointment stored = appointmentsByID.get(appointmentID);
+
+        if (stored == null) {
+            return false;
+        }
+
+        unindex(stored);
+
+        return true;
+
+    }
+
+    /**
+     * Stores a new customer, assigning its ID and writing it back to the given object
+     * @param customer customer to add
+     * @throws IllegalArgumentException if the customer's division doesn't exist
+     */
+    synchronized void insertCustomer(Customer customer) {
+
+        checkDivision(customer);
+
+        customer.setID(nextCustomerID++);
+        indexCustomer(copyOf(customer));
+
+    }
+
+    /**
+     * Replaces a stored customer. Like an UPDATE matching no rows, nothing happens if the customer isn't stored.
+     * @param customer customer to update
+     * @return whether the customer was stored
+     * @throws IllegalArgumentException if the customer's division doesn't exist
+     */
+    synchronized boolean updateCustomer(Customer customer) {
+
+        checkDivision(customer);
+
+        Customer stored = customersByID.get(customer.getId());
+
+        if (stored == null) {
+            return false;
+        }
+
+        unindexCustomer(stored);
+        indexCustomer(copyOf(customer));
+
+        return true;
+
+    }
+
+    /**
+     * Removes stored customers and all of their appointments as one write, so readers never see a customer's
+     * appointments outlive it once this returns
+     * @param customerIDs IDs of customers to remove
+     */
+    synchronized void removeCustomers(Collection<Integer> customerIDs) {
+
+        for (int customerID : customerIDs) {
+
+            Map<StartKey, Appointment> customerAppointments = appointmentsByCustomer.get(customerID);
+
+            if (customerAppointments != null) {
+
+                for (Appointment appointment : new ArrayList<>(customerAppointments.values())) {
+                    unindex(appointment);
+                }
+
+            }
+
+            Customer stored = customersByID.get(customerID);
+
+            if (stored != null) {
+                unindexCustomer(stored);
+            }
+
+        }
+
+    }
+
+    /**
+     * Checks that an appointment's customer, contact and user exist, as the database's foreign keys would
+     * @param appointment appointment to check
+     * @throws IllegalArgumentException naming the first missing reference
+     */
+    private void checkAppointmentReferences(Appointment appointment) {
+
+        if (!customersByID.containsKey(appointment.getCustomerID())) {
+            throw new IllegalArgumentException("No customer with ID " + appointment.getCustomerID());
+        }
+
+        if (!contactNames.containsKey(appointment.getContactID())) {
+            throw new IllegalArgumentException("No contact with ID " + appointment.getContactID());
+        }
+
+        if (!usersByID.containsKey(appointment.getUserID())) {
+            throw new IllegalArgumentException("No user with ID " + appointment.getUserID());
+        }
+
+    }
+
+    /**
+     * Checks that a customer's division exists, as the database's foreign key would
+     * @param customer customer to check
+     * @throws IllegalArgumentException if the division doesn't exist
+     */
+    private void checkDivision(Customer customer) {
+
+        if (!divisionNames.containsKey(customer.getDivisionID())) {
+            throw new IllegalArgumentException("No first level division with ID " + customer.getDivisionID());
+        }
+
+    }
+
+    /**
+     * Adds a stored copy to every appointment index
+     * @param appointment copy to store
+     */
+    private void index(Appointment appointment) {
+
+        StartKey key = new StartKey(appointment);
+
+        appointmentsByID.put(appointment.getAppointmentID(), appointment);
+        appointmentsByStart.put(key, appointment);
+        appointmentsByCustomer.computeIfAbsent(appointment.getCustomerID(), id -> new ConcurrentSkipListMap<>())
+                .put(key, appointment);
+        appointmentsByContact.computeIfAbsent(appointment.getContactID(), id -> new ConcurrentSkipListMap<>())
+                .put(key, appointment);
+        appointmentsByUser.computeIfAbsent(appointment.getUserID(), id -> new ConcurrentSkipListMap<>())
+                .put(key, appointment);
+
+        long durationMillis = appointment.getEndDateTime().toInstant().toEpochMilli() - key.start;
+
+        if (durationMillis > longestAppointmentMillis) {
+            longestAppointmentMillis = durationMillis;
+        }
+
+    }
+
+    /**
+     * Removes a stored copy from every appointment index
+     * @param appointment stored copy
+     */
+    private void unindex(Appointment appointment) {
+
+        StartKey key = new StartKey(appointment);
+
+        appointmentsByID.remove(appointment.getAppointmentID());
+        appointmentsByStart.remove(key);
+        removeFrom(appointmentsByCustomer, appointment.getCustomerID(), key);
+        removeFrom(appointmentsByContact, appointment.getContactID(), key);
+        removeFrom(appointmentsByUser, appointment.getUserID(), key);
+
+    }
+
+    /**
+     * Removes an appointment from one grouped index, dropping its group once empty
+     * @param groups index keyed by customer, contact or user ID
+     * @param groupID ID of group holding the appointment
+     * @param key start key of appointment
+     */
+    private static void removeFrom(Map<Integer, ConcurrentSkipListMap<StartKey, Appointment>> groups, int groupID,
+                                   StartKey key) {
+
+        ConcurrentSkipListMap<StartKey, Appointment> group = groups.get(groupID);
+
+        if (group != null) {
+
+            group.remove(key);
+
+            if (group.isEmpty()) {
+                groups.remove(groupID);
+            }
+
+        }
+
+    }
+
+    private void indexCustomer(Customer customer) {
+
+        customersByID.put(customer.getId(), customer);
+        customerIDsByName.computeIfAbsent(customer.getCustomerName(), name -> new ConcurrentSkipListSet<>())
+                .add(customer.getId());
+
+    }
+
+    private void unindexCustomer(Customer customer) {
+
+        customersByID.remove(customer.getId());
+
+        ConcurrentSkipListSet<Integer> ids = customerIDsByName.get(customer.getCustomerName());
+
+        if (ids != null) {
+
+            ids.remove(customer.getId());
+
+            if (ids.isEmpty()) {
+                customerIDsByName.remove(customer.getCustomerName());
+            }
+
+        }
+
+    }
+
+    /**
+     * Gets the stored appointments overlapping a range. Only appointments starting within the longest stored duration
+     * before the range are visited.
+     * @param group start-ordered appointments to search
+     * @param start start of range, inclusive
+     * @param end end of range, exclusive
+     * @return overlapping stored appointments in start order
+     */
+    List<Appointment> overlapping(NavigableMap<StartKey, Appointment> group, Instant start, Instant end) {
+
+        List<Appointment> overlapping = new ArrayList<>();
+
+        long startMillis = start.toEpochMilli();
+
+        for (Appointment appointment : group.subMap(new StartKey(startMillis - longestAppointmentMillis, Integer.MIN_VALUE),
+                true, new StartKey(end.toEpochMilli(), Integer.MIN_VALUE), false).values()) {
+
+            if (appointment.getEndDateTime().toInstant().toEpochMilli() > startMillis) {
+                overlapping.add(appointment);
+            }
+
+        }
+
+        return overlapping;
+
+    }
+
+    /**
+     * Copies a stored appointment for a caller, filling in customer and contact names
+     * @param appointment stored copy
+     * @return new appointment object in the system time zone
+     */
+    Appointment view(Appointment appointment) {
+
+        Customer customer = customersByID.get(appointment.getCustomerID());
+
+        return new Appointment(appointment.getAppointmentID(), appointment.getCustomerID(),
+                appointment.getContactID(), appointment.getUserID(), appointment.getTitle(),
+                appointment.getDescription(), appointment.getLocation(), appointment.getType(),
+                appointment.getStartDateTime().withZoneSameInstant(ZoneId.systemDefault()),
+                appointment.getEndDateTime().withZoneSameInstant(ZoneId.systemDefault()),
+                customer == null ? null : customer.getCustomerName(), contactNames.get(appointment.getContactID()));
+
+    }
+
+    /**
+     * Copies stored appointments for a caller
+     * @param appointments stored copies
+     * @return list of new appointment objects in the given order
+     */
+    ObservableList<Appointment> view(Collection<Appointment> appointments) {
+
+        List<Appointment> views = new ArrayList<>(appointments.size());
+
+        for (Appointment appointment : appointments) {
+            views.add(view(appointment));
+        }
+
+        return FXCollections.observableList(views);
+
+    }
+
+    /**
+     * Copies a stored customer for a caller, filling in division and country names
+     * @param customer stored copy
+     * @return new customer object
+     */
+    Customer view(Customer customer) {
+
+        Integer countryID = countryIDsByDivisionID.get(customer.getDivisionID());
+
+        return new Customer(customer.getId(), customer.getCustomerName(), customer.getAddress(),
+                customer.getPostalCode(), customer.getDivisionID(), divisionNames.get(customer.getDivisionID()),
+                countryID == null ? null : countryNames.get(countryID), customer.getPhoneNumber());
+
+    }
+
+    /**
+     * Gets a stored user by ID
+     * @param userID ID of user
+     * @return user, or null if none has the ID
+     */
+    User getUser(int userID) {
+
+        UserRecord user = usersByID.get(userID);
+
+        return user == null ? null : new User(user.name, user.id);
+
+    }
+
+    /**
+     * Gets the ID of the user with a given username and password
+     * @param username username
+     * @param password password
+     * @return user ID, or -1 if none matches
+     */
+    int getUserIDByLogin(String username, String password) {
+
+        UserRecord user = usersByName.get(username);
+
+        return user != null && user.password.equals(password) ? user.id : -1;
+
+    }
+
+    /**
+     * Copies an appointment for storage, without names since they are filled in when read
+     * @param appointment appointment given by a caller
+     * @return stored copy
+     */
+    private static Appointment copyOf(Appointment appointment) {
+
+        return new Appointment(appointment.getAppointmentID(), appointment.getCustomerID(),
+                appointment.getContactID(), appointment.getUserID(), appointment.getTitle(),
+                appointment.getDescription(), appointment.getLocation(), appointment.getType(),
+                appointment.getStartDateTime(), appointment.getEndDateTime(), null, null);
+
+    }
+
+    /**
+     * Copies a customer for storage, without names since they are filled in when read
+     * @param customer customer given by a caller
+     * @return stored copy
+     */
+    private static Customer copyOf(Customer customer) {
+
+        return new Customer(customer.getId(), customer.getCustomerName(), customer.getAddress(),
+                customer.getPostalCode(), customer.getDivisionID(), null, null, customer.getPhoneNumber());
+
+    }
+
+}
@@ -0,0 +1,32 @@
+package Scheduler.DAO;
+
+import Scheduler.Models.User;
+
+/**
+ * DAO class for handling user data in the in-memory store
+ *
+ * @author Chris Criswell
+ */
+public class InMemoryUserDAO implements UserDAOInterface {
+
+    /**
+     * Store holding the users
+     */
+    private final InMemoryStore store = InMemoryStore.getInMemoryStore();
+
+    @Override
+    public User getUserByID(int id) {
+        return store.getUser(id);
+    }
+
+    @Override
+    public boolean checkUserIDValid(int id) {
+        return store.getUser(id) != null;
+    }
+
+    @Override
+    public int getUserIDByLogin(String username, String password) {
+        return store.getUserIDByLogin(username, password);
+    }
+
+}
@@ -0,0 +1,405 @@
+package Scheduler.DAO;
+
+import Scheduler.Models.Appointment;
+import Scheduler.Models.Customer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A single-row appointment or customer write recorded in the write-ahead log while the database is unreachable. Each
+ * write carries its base time: for an update or delete of one row, the Last_Update of the row this client last saw, or
+ * the database time its view was known to be current through if later. Replay skips a write whose row another client
+ * changed after its base. A delete of customers also carries the versions of the customers and their appointments
+ * this client last saw, since it covers rows whose versions differ.
+ *
+ * @author Chris Criswell
+ */
+class PendingWrite {
+
+    /**
+     * Kind of write recorded
+     */
+    enum Kind {
+        ADD_APPOINTMENT, UPDATE_APPOINTMENT, DELETE_APPOINTMENT, ADD_CUSTOMER, UPDATE_CUSTOMER, DELETE_CUSTOMERS
+    }
+
+    /**
+     * Kind of write recorded
+     */
+    private final Kind kind;
+
+    /**
+     * Position of the write in the log, assigned when it is appended
+     */
+    private long sequence;
+
+    /**
+     * Client time the write was queued, in epoch milliseconds
+     */
+    private final long queuedAtMillis;
+
+    /**
+     * Database time after which a change to the written row by another client makes the write conflict, in epoch
+     * milliseconds
+     */
+    private final long baseMillis;
+
+    /**
+     * Appointment written, or null for customer writes
+     */
+    private final Appointment appointment;
+
+    /**
+     * Customers written, empty for appointment writes; holds one customer except for DELETE_CUSTOMERS
+     */
+    private final List<Customer> customers;
+
+    /**
+     * For DELETE_CUSTOMERS, Last_Update this client last saw of the customers, in epoch milliseconds by customer ID
+     */
+    private final Map<Integer, Long> customerVersions;
+
+    /**
+     * For DELETE_CUSTOMERS, Last_Update this client last saw of the customers' appointments, in epoch milliseconds by
+     * appointment ID
+     */
+    private final Map<Integer, Long> appointmentVersions;
+
+    /**
+     * Constructor with all members provided
+     * @param kind kind of write
+     * @param sequence position of the write in the log
+     * @param queuedAtMillis client time the write was queued
+     * @param baseMillis base time of the write
+     * @param appointment appointment written, or null for customer writes
+     * @param customers customers written, empty for appointment writes
+     * @param customerVersions seen Last_Update of deleted customers by ID, empty for other writes
+     * @param appointmentVersions seen Last_Update of deleted customers' appointments by ID, empty for other writes
+     */
+    private PendingWrite(Kind kind, long sequence, long queuedAtMillis, long baseMillis, Appointment appointment,
+                         List<Customer> customers, Map<Integer, Long> customerVersions,
+                         Map<Integer, Long> appointmentVersions) {
+        this.kind = kind;
+        this.sequence = sequence;
+        this.queuedAtMillis = queuedAtMillis;
+        this.baseMillis = baseMillis;
+        this.appointment = appointment;
+        this.customers = customers;
+        this.customerVersions = customerVersions;
+        this.appointmentVersions = appointmentVersions;
+    }
+
+    /**
+     * Creates a pending appointment write
+     * @param kind ADD_APPOINTMENT, UPDATE_APPOINTMENT or DELETE_APPOINTMENT
+     * @param appointment appointment written
+     * @param baseMillis base time of the write
+     * @return pending write, not yet sequenced
+     */
+    static PendingWrite ofAppointment(Kind kind, Appointment appointment, long baseMillis) {
+        return new PendingWrite(kind, 0, System.currentTimeMillis(), baseMillis, appointment, Collections.emptyList(),
+                Collections.emptyMap(), Collections.emptyMap());
+    }
+
+    /**
+     * Creates a pending customer write
+     * @param kind ADD_CUSTOMER, UPDATE_CUSTOMER or DELETE_CUSTOMERS
+     * @param customers customers written
+     * @param baseMillis base time of the write
+     * @return pending write, not yet sequenced
+     */
+    static PendingWrite ofCustomers(Kind kind, Collection<Customer> customers, long baseMillis) {
+        return new PendingWrite(kind, 0, System.currentTimeMillis(), baseMillis, null, new ArrayList<>(customers),
+                Collections.emptyMap(), Collections.emptyMap());
+    }
+
+    /**
+     * Creates a pending delete of customers and their appointments
+     * @param customers customers deleted
+     * @param baseMillis database time the client's view was current through
+     * @param customerVersions Last_Update this client last saw of the customers, by customer ID
+     * @param appointmentVersions Last_Update this client last saw of the customers' appointments, by appointment ID
+     * @return pending write, not yet sequenced
+     */
+    static PendingWrite ofDeletedCustomers(Collection<Customer> customers, long baseMillis,
+                                           Map<Integer, Long> customerVersions,
+                                           Map<Integer, Long> appointmentVersions) {
+        return new PendingWrite(Kind.DELETE_CUSTOMERS, 0, System.currentTimeMillis(), baseMillis, null,
+                new ArrayList<>(customers), customerVersions, appointmentVersions);
+    }
+
+    Kind getKind() { return kind; }
+
+    long getSequence() { return sequence; }
+
+    void setSequence(long sequence) { this.sequence = sequence; }
+
+    long getQueuedAtMillis() { return queuedAtMillis; }
+
+    long getBaseMillis() { return baseMillis; }
+
+    Appointment getAppointment() { return appointment; }
+
+    List<Customer> getCustomers() { return customers; }
+
+    Map<Integer, Long> getCustomerVersions() { return customerVersions; }
+
+    Map<Integer, Long> getAppointmentVersions() { return appointmentVersions; }
+
+    /**
+     * Whether the write inserts a row whose ID is provisional until replay
+     * @return true for ADD_APPOINTMENT and ADD_CUSTOMER
+     */
+    boolean isInsert() {
+        return kind == Kind.ADD_APPOINTMENT || kind == Kind.ADD_CUSTOMER;
+    }
+
+    /**
+     * Finds the lowest, i.e. most recently assigned, provisional ID this write refers to
+     * @return lowest negative ID referenced, or 0 if none
+     */
+    int lowestProvisionalID() {
+
+        int lowest = 0;
+
+        if (appointment != null) {
+            lowest = Math.min(lowest, Math.min(appointment.getAppointmentID(), appointment.getCustomerID()));
+        }
+
+        for (Customer customer : customers) {
+            lowest = Math.min(lowest, customer.getId());
+        }
+
+        return lowest;
+
+    }
+
+    /**
+     * Encodes the write as a log record payload
+     * @return encoded payload
+     * @throws IOException if the payload cannot be written
+     */
+    byte[] encode() throws IOException {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+
+            output.writeLong(sequence);
+            output.writeByte(kind.ordinal());
+            output.writeLong(queuedAtMillis);
+            output.writeLong(baseMillis);
+
+            if (appointment != null) {
+
+                output.writeInt(appointment.getAppointmentID());
+                output.writeInt(appointment.getCustomerID());
+                output.writeInt(appointment.getContactID());
+                output.writeInt(appointment.getUserID());
+                writeNullable(output, appointment.getTitle());
+                writeNullable(output, appointment.getDescription());
+                writeNullable(output, appointment.getLocation());
+                writeNullable(output, appointment.getType());
+                output.writeLong(appointment.getStartDateTime().toInstant().toEpochMilli());
+                output.writeLong(appointment.getEndDateTime().toInstant().toEpochMilli());
+                writeNullable(output, appointment.getCustomerName());
+                writeNullable(output, appointment.getContactName());
+
+            }
+
+            else {
+
+                output.writeInt(customers.size());
+
+                for (Customer customer : customers) {
+                    output.writeInt(customer.getId());
+                    writeNullable(output, customer.getCustomerName());
+                    writeNullable(output, customer.getAddress());
+                    writeNullable(output, customer.getPostalCode());
+                    output.writeInt(customer.getDivisionID());
+                    writeNullable(output, customer.getDivisionName());
+                    writeNullable(output, customer.getCountryName());
+                    writeNullable(output, customer.getPhoneNumber());
+                }
+
+                if (kind == Kind.DELETE_CUSTOMERS) {
+                    writeVersions(output, customerVersions);
+                    writeVersions(output, appointmentVersions);
+                }
+
+            }
+
+        }
+
+        return bytes.toByteArray();
+
+    }
+
+    /**
+     * Decodes a write from a log record payload
+     * @param payload payload written by encode
+     * @return decoded write
+     * @throws IOException if the payload is malformed
+     */
+    static PendingWrite decode(byte[] payload) throws IOException {
+
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(payload))) {
+
+            long sequence = input.readLong();
+            Kind kind = Kind.values()[input.readByte()];
+            long queuedAtMillis = input.readLong();
+            long baseMillis = input.readLong();
+
+            if (kind == Kind.ADD_APPOINTMENT || kind == Kind.UPDATE_APPOINTMENT || kind == Kind.DELETE_APPOINTMENT) {
+
+                int appointmentID = input.readInt();
+                int customerID = input.readInt();
+                int contactID = input.readInt();
+                int userID = input.readInt();
+                String title = readNullable(input);
+                String description = readNullable(input);
+                String location = readNullable(input);
+                String type = readNullable(input);
+                ZonedDateTime start = Instant.ofEpochMilli(input.readLong()).atZone(ZoneId.systemDefault());
+                ZonedDateTime end = Instant.ofEpochMilli(input.readLong()).atZone(ZoneId.systemDefault());
+                String customerName = readNullable(input);
+                String contactName = readNullable(input);
+
+                Appointment appointment = new Appointment(appointmentID, customerID, contactID, userID, title,
+                        description, location, type, start, end, customerName, contactName);
+
+                return new PendingWrite(kind, sequence, queuedAtMillis, baseMillis, appointment,
+                        Collections.emptyList(), Collections.emptyMap(), Collections.emptyMap());
+
+            }
+
+            int customerCount = input.readInt();
+            List<Customer> customers = new ArrayList<>(customerCount);
+
+            for (int i = 0; i < customerCount; i++) {
+                customers.add(new Customer(input.readInt(), readNullable(input), readNullable(input),
+                        readNullable(input), input.readInt(), readNullable(input), readNullable(input),
+                        readNullable(input)));
+            }
+
+            Map<Integer, Long> customerVersions = new HashMap<>();
+            Map<Integer, Long> appointmentVersions = new HashMap<>();
+
+            //records logged before deletes carried versions end after the customers
+            if (kind == Kind.DELETE_CUSTOMERS && input.available() > 0) {
+                readVersions(input, customerVersions);
+                readVersions(input, appointmentVersions);
+            }
+
+            return new PendingWrite(kind, sequence, queuedAtMillis, baseMillis, null, customers, customerVersions,
+                    appointmentVersions);
+
+        }
+
+        catch (IndexOutOfBoundsException exception) {
+            throw new IOException("Unknown pending write kind", exception);
+        }
+
+    }
+
+    /**
+     * Writes row versions
+     * @param output stream to write to
+     * @param versions Last_Update in epoch milliseconds by row ID
+     * @throws IOException if the stream cannot be written
+     */
+    private static void writeVersions(DataOutputStream output, Map<Integer, Long> versions) throws IOException {
+
+        output.writeInt(versions.size());
+
+        for (Map.Entry<Integer, Long> entry : versions.entrySet()) {
+            output.writeInt(entry.getKey());
+            output.writeLong(entry.getValue());
+        }
+
+    }
+
+    /**
+     * Reads row versions written by writeVersions
+     * @param input stream to read from
+     * @param versions map to fill
+     * @throws IOException if the stream cannot be read
+     */
+    private static void readVersions(DataInputStream input, Map<Integer, Long> versions) throws IOException {
+
+        int count = input.readInt();
+
+        for (int i = 0; i < count; i++) {
+            versions.put(input.readInt(), input.readLong());
+        }
+
+    }
+
+    /**
+     * Writes a string that may be null
+     * @param output stream to write to
+     * @param value string or null
+     * @throws IOException if the stream cannot be written
+     */
+    private static void writeNullable(DataOutputStream output, String value) throws IOException {
+
+        output.writeBoolean(value != null);
+
+        if (value != null) {
+            output.writeUTF(value);
+        }
+
+    }
+
+    /**
+     * Reads a string written by writeNullable
+     * @param input stream to read from
+     * @return string or null
+     * @throws IOException if the stream cannot be read
+     */
+    private static String readNullable(DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+
+    @Override
+    public String toString() {
+
+        StringBuilder description = new StringBuilder();
+        description.append(kind).append(" #").append(sequence).append(" queued ")
+                .append(Instant.ofEpochMilli(queuedAtMillis));
+
+        if (appointment != null) {
+            description.append(" appointment ").append(appointment.getAppointmentID()).append(" [customer ")
+                    .append(appointment.getCustomerID()).append(", contact ").append(appointment.getContactID())
+                    .append(", \"").append(appointment.getTitle()).append("\", ").append(appointment.getType())
+                    .append(", ").append(appointment.getStartDateTime()).append(" - ")
+                    .append(appointment.getEndDateTime()).append("]");
+        }
+
+        for (Customer customer : customers) {
+            description.append(" customer ").append(customer.getId()).append(" [\"")
+                    .append(customer.getCustomerName()).append("\", ").append(customer.getAddress()).append(", ")
+                    .append(customer.getPostalCode()).append(", division ").append(customer.getDivisionID())
+                    .append(", ").append(customer.getPhoneNumber()).append("]");
+        }
+
+        return description.toString();
+
+    }
+
+}
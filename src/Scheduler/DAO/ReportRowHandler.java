@@ -0,0 +1,14 @@
+package Scheduler.DAO;
+
+import java.io.IOException;
+
+/**
+ * Receives the rows of a report as they are streamed from the database. The first call receives the column names.
+ *
+ * @author Chris Criswell
+ */
+public interface ReportRowHandler {
+
+    void row(String... fields) throws IOException;
+
+}
@@ -3,19 +3,24 @@ package Scheduler.DAO;
 import Scheduler.Models.Appointment;
 import Scheduler.Models.MonthlyAppointmentsByTypeCounter;
 import Scheduler.Utils.DatabaseHandler;
-import Scheduler.Utils.StringPair;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
+import java.io.IOException;
+
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 
+import java.time.Month;
+import java.time.YearMonth;
 import java.time.ZoneId;
-import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
 
-import java.util.HashMap;
+import java.util.TreeMap;
 
 /**
  * DAO class for handling generating report data from MySQL database
@@ -33,11 +38,10 @@ public class ReportsDAO implements ReportsDAOInterface {
 
         ObservableList<Appointment> appointmentList = FXCollections.observableArrayList();
 
-        String query = "SELECT * FROM appointments ORDER BY Contact_ID, Start";
-
-        try {
+        String query = AppointmentDAO.selectWithNames + "ORDER BY appointments.Contact_ID, Start";
 
-            PreparedStatement preparedStatement = DatabaseHandler.getConnection().prepareStatement(query);
+        try (Connection connection = DatabaseHandler.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
 
             preparedStatement.execute();
 
@@ -45,14 +49,7 @@ public class ReportsDAO implements ReportsDAOInterface {
 
             while (results.next()) {
 
-                ZonedDateTime zonedStartDate = ZonedDateTime.ofInstant( results.getTimestamp("Start").toInstant(), ZoneId.systemDefault());
-                ZonedDateTime zonedEndDate = ZonedDateTime.ofInstant( results.getTimestamp("End").toInstant(), ZoneId.systemDefault());
-
-                Appointment appointment = new Appointment(results.getInt("Appointment_ID"),
-                        results.getInt("Customer_ID"), results.getInt("Contact_ID"),
-                        results.getInt("User_ID"), results.getString("Title"),
-                        results.getString("Description"), results.getString("Location"),
-                        results.getString("Type"), zonedStartDate, zonedEndDate);
+                Appointment appointment = AppointmentDAO.buildAppointment(results);
 
                 appointmentList.add(appointment);
 
@@ -71,48 +68,89 @@ public class ReportsDAO implements ReportsDAOInterface {
     }
 
     /**
-     * Constructs and executes query to get all appointments by type and start date and then runs an algorithm to count
-     * instances where appointments of same type happen within the same month
-     * @return List of counted appointment types per month
+     * Constructs and executes query to count appointments of each type per month. Counting is done by the database with
+     * GROUP BY on the year and month of the start date in the database's time zone, so only one row per month and type
+     * is transferred. Falls back to counting on the client if the aggregate query fails.
+     * @return List of counted appointment types per month, ordered by year, month and type
      */
     @Override
     public ObservableList<MonthlyAppointmentsByTypeCounter> getMonthlyCustomerAppointmentsByType() {
 
         ObservableList<MonthlyAppointmentsByTypeCounter> countedList = FXCollections.observableArrayList();
 
-        String query = "SELECT Type, Start FROM appointments";
+        String query = "SELECT YEAR(Start) AS Start_Year, MONTH(Start) AS Start_Month, Type, COUNT(*) AS Total " +
+                "FROM appointments GROUP BY Start_Year, Start_Month, Type ORDER BY Start_Year, Start_Month, Type";
+
+        try (Connection connection = DatabaseHandler.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+
+            preparedStatement.execute();
+
+            ResultSet results = preparedStatement.getResultSet();
+
+            while (results.next()) {
+
+                countedList.add(new MonthlyAppointmentsByTypeCounter(results.getInt("Start_Year"),
+                        Month.of(results.getInt("Start_Month")).toString(), results.getString("Type"),
+                        results.getInt("Total")));
+
+            }
+
+            return countedList;
+
+        }
+
+        catch (SQLException exception) {
+
+            System.out.println(exception.getMessage());
+
+        }
+
+        return countMonthlyAppointmentsByType();
+
+    }
+
+    /**
+     * Streams appointment types and start months ordered by start and counts appointments of each type per month on
+     * the client. Months are taken by the database in its time zone, as in the aggregate query, so both give the same
+     * counts. Rows are read one at a time and only the current month's counts are held, so memory use doesn't grow with
+     * the size of the appointments table.
+     * @return List of counted appointment types per month, ordered by year, month and type
+     */
+    private ObservableList<MonthlyAppointmentsByTypeCounter> countMonthlyAppointmentsByType() {
+
+        ObservableList<MonthlyAppointmentsByTypeCounter> countedList = FXCollections.observableArrayList();
 
-        try {
+        String query = "SELECT YEAR(Start) AS Start_Year, MONTH(Start) AS Start_Month, Type FROM appointments " +
+                "ORDER BY Start";
 
-            PreparedStatement preparedStatement = DatabaseHandler.getConnection().prepareStatement(query);
+        try (Connection connection = DatabaseHandler.getConnection();
+             PreparedStatement preparedStatement = prepareStreaming(connection, query)) {
 
             preparedStatement.execute();
 
             ResultSet results = preparedStatement.getResultSet();
 
-            HashMap<StringPair, Integer> counterMap = new HashMap<>();
+            YearMonth currentMonth = null;
+            TreeMap<String, Integer> typeCounts = new TreeMap<>();
 
             while (results.next()) {
 
-                ZonedDateTime zonedStartDate = ZonedDateTime.ofInstant( results.getTimestamp("Start").toInstant(), ZoneId.systemDefault());
+                YearMonth month = YearMonth.of(results.getInt("Start_Year"), results.getInt("Start_Month"));
 
-                StringPair pair = new StringPair(zonedStartDate.getMonth().toString(), results.getString("Type"));
+                if (!month.equals(currentMonth)) {
 
-                if (counterMap.containsKey(pair)) {
-                    counterMap.put(pair, counterMap.get(pair) + 1);
-                }
+                    addMonthlyCounts(countedList, currentMonth, typeCounts);
+                    currentMonth = month;
+                    typeCounts.clear();
 
-                else {
-                    counterMap.put(pair, 1);
                 }
 
-            }
-
-            counterMap.forEach((key, value) -> {
+                typeCounts.merge(results.getString("Type"), 1, Integer::sum);
 
-                countedList.add(new MonthlyAppointmentsByTypeCounter(key.getFirst().toString(), key.getSecond().toString(), value));
+            }
 
-            });
+            addMonthlyCounts(countedList, currentMonth, typeCounts);
 
         }
 
@@ -126,6 +164,24 @@ public class ReportsDAO implements ReportsDAOInterface {
 
     }
 
+    /**
+     * Adds one counter per appointment type for a finished month to the report list
+     * @param countedList report list to add to
+     * @param month month the counts belong to, or null if no rows have been read
+     * @param typeCounts appointment counts keyed by type
+     */
+    static void addMonthlyCounts(ObservableList<MonthlyAppointmentsByTypeCounter> countedList, YearMonth month,
+                                 TreeMap<String, Integer> typeCounts) {
+
+        if (month == null) {
+            return;
+        }
+
+        typeCounts.forEach((type, total) -> countedList.add(new MonthlyAppointmentsByTypeCounter(month.getYear(),
+                month.getMonth().toString(), type, total)));
+
+    }
+
     /**
      * Constructs and executes query to get all appointments ordered by ID of user who created them
      * @return List of all appointments ordered by user ID and start date
@@ -135,11 +191,10 @@ public class ReportsDAO implements ReportsDAOInterface {
 
         ObservableList<Appointment> appointmentList = FXCollections.observableArrayList();
 
-        String query = "SELECT * FROM appointments ORDER BY User_ID, Start";
+        String query = AppointmentDAO.selectWithNames + "ORDER BY appointments.User_ID, Start";
 
-        try {
-
-            PreparedStatement preparedStatement = DatabaseHandler.getConnection().prepareStatement(query);
+        try (Connection connection = DatabaseHandler.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
 
             preparedStatement.execute();
 
@@ -147,14 +202,7 @@ public class ReportsDAO implements ReportsDAOInterface {
 
             while (results.next()) {
 
-                ZonedDateTime zonedStartDate = ZonedDateTime.ofInstant( results.getTimestamp("Start").toInstant(), ZoneId.systemDefault());
-                ZonedDateTime zonedEndDate = ZonedDateTime.ofInstant( results.getTimestamp("End").toInstant(), ZoneId.systemDefault());
-
-                Appointment appointment = new Appointment(results.getInt("Appointment_ID"),
-                        results.getInt("Customer_ID"), results.getInt("Contact_ID"),
-                        results.getInt("User_ID"), results.getString("Title"),
-                        results.getString("Description"), results.getString("Location"),
-                        results.getString("Type"), zonedStartDate, zonedEndDate);
+                Appointment appointment = AppointmentDAO.buildAppointment(results);
 
                 appointmentList.add(appointment);
 
@@ -171,4 +219,156 @@ public class ReportsDAO implements ReportsDAOInterface {
         return appointmentList;
     }
 
+    /**
+     * Column names of exported appointment reports
+     */
+    static final String[] appointmentColumns = {"Appointment_ID", "Title", "Description", "Location", "Type",
+            "Start", "End", "Customer_ID", "Customer_Name", "Contact_ID", "Contact_Name", "User_ID"};
+
+    /**
+     * Streams all appointments ordered by contact ID and start date to a row handler
+     * @param handler receives the column names and then one row per appointment
+     * @param zone time zone start and end dates are written in
+     * @return number of appointments exported, or -1 if the export failed
+     */
+    @Override
+    public long exportAppointmentsByContact(ReportRowHandler handler, ZoneId zone) {
+        return exportAppointments(AppointmentDAO.selectWithNames + "ORDER BY appointments.Contact_ID, Start", handler,
+                zone);
+    }
+
+    /**
+     * Streams all appointments ordered by ID of user who created them and start date to a row handler
+     * @param handler receives the column names and then one row per appointment
+     * @param zone time zone start and end dates are written in
+     * @return number of appointments exported, or -1 if the export failed
+     */
+    @Override
+    public long exportAppointmentsByUserCreated(ReportRowHandler handler, ZoneId zone) {
+        return exportAppointments(AppointmentDAO.selectWithNames + "ORDER BY appointments.User_ID, Start", handler,
+                zone);
+    }
+
+    /**
+     * Streams appointment counts of each type per month to a row handler
+     * @param handler receives the column names and then one row per month and type
+     * @return number of rows exported, or -1 if the export failed
+     */
+    @Override
+    public long exportMonthlyCustomerAppointmentsByType(ReportRowHandler handler) {
+
+        String query = "SELECT YEAR(Start) AS Start_Year, MONTH(Start) AS Start_Month, Type, COUNT(*) AS Total " +
+                "FROM appointments GROUP BY Start_Year, Start_Month, Type ORDER BY Start_Year, Start_Month, Type";
+
+        try (Connection connection = DatabaseHandler.getConnection();
+             PreparedStatement preparedStatement = prepareStreaming(connection, query)) {
+
+            ResultSet results = preparedStatement.executeQuery();
+
+            handler.row("Year", "Month", "Type", "Total");
+
+            long rowCount = 0;
+
+            while (results.next()) {
+
+                handler.row(String.valueOf(results.getInt("Start_Year")),
+                        Month.of(results.getInt("Start_Month")).toString(), results.getString("Type"),
+                        String.valueOf(results.getInt("Total")));
+
+                rowCount++;
+
+            }
+
+            return rowCount;
+
+        }
+
+        catch (SQLException | IOException exception) {
+
+            System.out.println(exception.getMessage());
+
+        }
+
+        return -1;
+
+    }
+
+    /**
+     * Streams appointments selected with selectWithNames to a row handler. Each row is written as soon as it is read
+     * and no Appointment objects are built, so memory use doesn't grow with the size of the appointments table.
+     * @param query query selecting appointments with customer and contact names
+     * @param handler receives the column names and then one row per appointment
+     * @param zone time zone start and end dates are written in
+     * @return number of appointments exported, or -1 if the export failed
+     */
+    private long exportAppointments(String query, ReportRowHandler handler, ZoneId zone) {
+
+        DateTimeFormatter formatter = DateTimeFormatter.ISO_OFFSET_DATE_TIME.withZone(zone);
+
+        try (Connection connection = DatabaseHandler.getConnection();
+             PreparedStatement preparedStatement = prepareStreaming(connection, query)) {
+
+            ResultSet results = preparedStatement.executeQuery();
+
+            handler.row(appointmentColumns);
+
+            long rowCount = 0;
+
+            while (results.next()) {
+
+                handler.row(String.valueOf(results.getInt("Appointment_ID")), results.getString("Title"),
+                        results.getString("Description"), results.getString("Location"), results.getString("Type"),
+                        format(formatter, results.getTimestamp("Start")), format(formatter, results.getTimestamp("End")),
+                        String.valueOf(results.getInt("Customer_ID")), results.getString("Customer_Name"),
+                        String.valueOf(results.getInt("Contact_ID")), results.getString("Contact_Name"),
+                        String.valueOf(results.getInt("User_ID")));
+
+                rowCount++;
+
+            }
+
+            return rowCount;
+
+        }
+
+        catch (SQLException | IOException exception) {
+
+            System.out.println(exception.getMessage());
+
+        }
+
+        return -1;
+
+    }
+
+    /**
+     * Prepares a forward-only, read-only statement that the MySQL driver streams row by row instead of reading the
+     * whole result into memory. The statement bypasses the connection pool's statement cache so the streaming fetch
+     * size isn't left on a shared statement.
+     * @param connection connection to prepare on; it can't run other statements until the results are closed
+     * @param query SQL of statement
+     * @return streaming statement
+     * @throws SQLException if the statement can't be prepared
+     */
+    private static PreparedStatement prepareStreaming(Connection connection, String query) throws SQLException {
+
+        PreparedStatement preparedStatement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY,
+                ResultSet.CONCUR_READ_ONLY);
+
+        preparedStatement.setFetchSize(Integer.MIN_VALUE);
+
+        return preparedStatement;
+
+    }
+
+    /**
+     * Formats a database timestamp as an ISO-8601 date/time with offset
+     * @param formatter formatter with time zone set
+     * @param timestamp timestamp read from database, or null
+     * @return formatted date/time, or null if timestamp is null
+     */
+    private static String format(DateTimeFormatter formatter, Timestamp timestamp) {
+        return timestamp == null ? null : formatter.format(timestamp.toInstant());
+    }
+
 }
@@ -4,10 +4,16 @@ import Scheduler.Models.Appointment;
 import Scheduler.Models.MonthlyAppointmentsByTypeCounter;
 import javafx.collections.ObservableList;
 
-interface ReportsDAOInterface {
+import java.time.ZoneId;
+
+public interface ReportsDAOInterface {
 
     ObservableList<Appointment> getAppointmentsByContact();
     ObservableList<Appointment> getAppointmentsByUserCreated();
     ObservableList<MonthlyAppointmentsByTypeCounter> getMonthlyCustomerAppointmentsByType();
 
+    long exportAppointmentsByContact(ReportRowHandler handler, ZoneId zone);
+    long exportAppointmentsByUserCreated(ReportRowHandler handler, ZoneId zone);
+    long exportMonthlyCustomerAppointmentsByType(ReportRowHandler handler);
+
 }
@@ -0,0 +1,233 @@
+package Scheduler.DAO;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Singleton record of the Last_Update this client last read or wrote for each appointment and customer. A write queued
+ * in the write-ahead log takes its row's version as its base time, so replay only treats a row as changed by another
+ * client if it changed after this client last saw it. Versions only move forward, since a row read by a query that
+ * started before a later write can arrive after it.
+ *
+ * @author Chris Criswell
+ */
+class RowVersions {
+
+    /**
+     * Singleton instance of RowVersions
+     */
+    private static RowVersions rowVersions = null;
+
+    /**
+     * Last seen version of an appointment and the customer it belonged to then
+     */
+    private static class AppointmentVersion {
+
+        final int customerID;
+        final long lastUpdate;
+
+        AppointmentVersion(int customerID, long lastUpdate) {
+            this.customerID = customerID;
+            this.lastUpdate = lastUpdate;
+        }
+
+    }
+
+    /**
+     * Last seen versions of appointments by appointment ID
+     */
+    private final Map<Integer, AppointmentVersion> appointments = new ConcurrentHashMap<>();
+
+    /**
+     * Last seen Last_Update of customers in epoch milliseconds, by customer ID
+     */
+    private final Map<Integer, Long> customers = new ConcurrentHashMap<>();
+
+    /**
+     * Private default constructor for singleton class
+     */
+    private RowVersions() {
+
+    }
+
+    /**
+     * Gets initialized RowVersions instance or initializes if null
+     * @return RowVersions instance
+     */
+    static synchronized RowVersions getRowVersions() {
+
+        if (rowVersions == null) {
+            rowVersions = new RowVersions();
+        }
+
+        return rowVersions;
+
+    }
+
+    /**
+     * Converts a Last_Update to epoch milliseconds, rounded up to a whole millisecond so the row still counts as not
+     * updated after it
+     * @param lastUpdate Last_Update read from the database
+     * @return Last_Update in epoch milliseconds
+     */
+    static long toMillis(Timestamp lastUpdate) {
+        return lastUpdate.getTime() + (lastUpdate.getNanos() % 1_000_000 == 0 ? 0 : 1);
+    }
+
+    /**
+     * Records the version of an appointment read or written by this client
+     * @param appointmentID ID of appointment
+     * @param customerID ID of the appointment's customer
+     * @param lastUpdate Last_Update of the appointment, or null if not set
+     */
+    void appointmentSeen(int appointmentID, int customerID, Timestamp lastUpdate) {
+
+        if (lastUpdate == null) {
+            return;
+        }
+
+        AppointmentVersion version = new AppointmentVersion(customerID, toMillis(lastUpdate));
+
+        appointments.merge(appointmentID, version,
+                (seen, read) -> read.lastUpdate >= seen.lastUpdate ? read : seen);
+
+    }
+
+    /**
+     * Records the version of a customer read or written by this client
+     * @param customerID ID of customer
+     * @param lastUpdate Last_Update of the customer, or null if not set
+     */
+    void customerSeen(int customerID, Timestamp lastUpdate) {
+
+        if (lastUpdate != null) {
+            customers.merge(customerID, toMillis(lastUpdate), Math::max);
+        }
+
+    }
+
+    /**
+     * Gets the last version of an appointment this client saw
+     * @param appointmentID ID of appointment
+     * @return Last_Update in epoch milliseconds, or null if unknown
+     */
+    Long getAppointment(int appointmentID) {
+
+        AppointmentVersion version = appointments.get(appointmentID);
+
+        return version != null ? version.lastUpdate : null;
+
+    }
+
+    /**
+     * Gets the last version of a customer this client saw
+     * @param customerID ID of customer
+     * @return Last_Update in epoch milliseconds, or null if unknown
+     */
+    Long getCustomer(int customerID) {
+        return customers.get(customerID);
+    }
+
+    /**
+     * Gets the last versions this client saw of a set of customers
+     * @param customerIDs IDs of customers
+     * @return Last_Update in epoch milliseconds by customer ID, for customers whose version is known
+     */
+    Map<Integer, Long> getCustomers(Collection<Integer> customerIDs) {
+
+        Map<Integer, Long> versions = new HashMap<>();
+
+        for (int customerID : customerIDs) {
+
+            Long version = customers.get(customerID);
+
+            if (version != null) {
+                versions.put(customerID, version);
+            }
+
+        }
+
+        return versions;
+
+    }
+
+    /**
+     * Gets the last versions this client saw of the appointments of a set of customers
+     * @param customerIDs IDs of customers
+     * @return Last_Update in epoch milliseconds by appointment ID
+     */
+    Map<Integer, Long> getAppointmentsOf(Collection<Integer> customerIDs) {
+
+        Set<Integer> customerSet = new HashSet<>(customerIDs);
+        Map<Integer, Long> versions = new HashMap<>();
+
+        for (Map.Entry<Integer, AppointmentVersion> entry : appointments.entrySet()) {
+            if (customerSet.contains(entry.getValue().customerID)) {
+                versions.put(entry.getKey(), entry.getValue().lastUpdate);
+            }
+        }
+
+        return versions;
+
+    }
+
+    /**
+     * Forgets the version of an appointment that was deleted or written without reading its version back
+     * @param appointmentID ID of appointment
+     */
+    void forgetAppointment(int appointmentID) {
+        appointments.remove(appointmentID);
+    }
+
+    /**
+     * Forgets the version of a customer that was deleted or could not be read back. The versions of a deleted
+     * customer's appointments are left, since IDs are never reused and no later write can refer to them.
+     * @param customerID ID of customer
+     */
+    void forgetCustomer(int customerID) {
+        customers.remove(customerID);
+    }
+
+    /**
+     * Reads the Last_Update of a row this client just wrote. The write has already committed, so a failed read is
+     * reported and returns null rather than throwing.
+     * @param connection connection the write ran on
+     * @param table appointments or customers
+     * @param idColumn ID column of table
+     * @param id ID of row
+     * @return Last_Update of the row, or null if it is gone or could not be read
+     */
+    static Timestamp readLastUpdate(Connection connection, String table, String idColumn, int id) {
+
+        try (PreparedStatement preparedStatement = connection.prepareStatement("SELECT Last_Update FROM " + table +
+                " WHERE " + idColumn + " = ?")) {
+
+            preparedStatement.setInt(1, id);
+
+            ResultSet results = preparedStatement.executeQuery();
+
+            return results.next() ? results.getTimestamp(1) : null;
+
+        }
+
+        catch (SQLException exception) {
+
+            System.out.println(exception.getMessage());
+
+        }
+
+        return null;
+
+    }
+
+}
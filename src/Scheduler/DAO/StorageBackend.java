@@ -0,0 +1,55 @@
+package Scheduler.DAO;
+
+import java.util.Locale;
+
+/**
+ * Storage backends the DAO interfaces can be served from
+ *
+ * @author Chris Criswell
+ */
+public enum StorageBackend {
+
+    /**
+     * Company MySQL database, reached through DatabaseHandler's connection pool
+     */
+    MYSQL,
+
+    /**
+     * Embedded in-memory store with no server, for offline use, load testing and benchmarks. Data lasts only as long as
+     * the process.
+     */
+    MEMORY;
+
+    /**
+     * Name of system property selecting the backend at startup, e.g. -Dscheduler.storage=memory
+     */
+    public static final String property = "scheduler.storage";
+
+    /**
+     * Parses a backend name, ignoring case
+     * @param name backend name, "mysql" or "memory"
+     * @return named backend
+     * @throws IllegalArgumentException if the name matches no backend
+     */
+    public static StorageBackend fromName(String name) {
+
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
+
+        catch (IllegalArgumentException exception) {
+            throw new IllegalArgumentException("Unknown storage backend '" + name + "', expected mysql or memory");
+        }
+
+    }
+
+    /**
+     * Gets the backend selected by the scheduler.storage system property
+     * @return selected backend, MYSQL if the property is not set
+     * @throws IllegalArgumentException if the property names no backend
+     */
+    public static StorageBackend fromSystemProperty() {
+        return fromName(System.getProperty(property, MYSQL.name()));
+    }
+
+}
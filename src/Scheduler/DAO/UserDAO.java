@@ -3,6 +3,7 @@ package Scheduler.DAO;
 import Scheduler.Models.User;
 import Scheduler.Utils.DatabaseHandler;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -24,9 +25,8 @@ public class UserDAO implements UserDAOInterface {
 
         String query = "SELECT * FROM users WHERE User_ID = ?";
 
-        try {
-
-            PreparedStatement preparedStatement = DatabaseHandler.getConnection().prepareStatement(query);
+        try (Connection connection = DatabaseHandler.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
 
             preparedStatement.setInt(1, id);
 
@@ -57,9 +57,8 @@ public class UserDAO implements UserDAOInterface {
 
         String query = "SELECT * FROM users WHERE User_ID = ?";
 
-        try {
-
-            PreparedStatement preparedStatement = DatabaseHandler.getConnection().prepareStatement(query);
+        try (Connection connection = DatabaseHandler.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
 
             preparedStatement.setInt(1, id);
 
@@ -78,4 +77,38 @@ public class UserDAO implements UserDAOInterface {
 
         return false;
     }
+
+    /**
+     * Constructs and executes query to find the user with a given username and password
+     * @param username user-provided username
+     * @param password user-provided password
+     * @return ID of matching user, or -1 if none matches or the query failed
+     */
+    @Override
+    public int getUserIDByLogin(String username, String password) {
+
+        String query = "SELECT User_ID FROM users WHERE User_Name = ? AND Password = ?";
+
+        try (Connection connection = DatabaseHandler.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+
+            preparedStatement.setString(1, username);
+            preparedStatement.setString(2, password);
+
+            ResultSet results = preparedStatement.executeQuery();
+
+            if (results.next()) {
+                return results.getInt("User_ID");
+            }
+
+        }
+
+        catch (SQLException exception) {
+            System.out.println(exception.getMessage());
+        }
+
+        return -1;
+
+    }
+
 }
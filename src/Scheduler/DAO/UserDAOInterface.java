@@ -2,10 +2,12 @@ package Scheduler.DAO;
 
 import Scheduler.Models.User;
 
-interface UserDAOInterface {
+public interface UserDAOInterface {
 
     public User getUserByID(int id);
 
     public boolean checkUserIDValid(int id);
 
+    public int getUserIDByLogin(String username, String password);
+
 }
@@ -0,0 +1,1346 @@
+package Scheduler.DAO;
+
+import Scheduler.Models.Appointment;
+import Scheduler.Models.Customer;
+import Scheduler.Utils.ChangeEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Timestamp;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * Singleton local write-ahead log keeping single-row appointment and customer writes made while the MySQL database is
+ * unreachable. A write that fails with a connection error is appended to a memory-mapped segment file and acknowledged
+ * once its segment is forced to disk; writes arriving within flushDelayMillis of each other share one force. The
+ * write is published on the change bus as if it had been committed, with inserted rows given negative provisional IDs.
+ * While writes are pending, later writes queue behind them so the database sees every write in order.
+ * <p>
+ * Once started, the log replays pending writes in order, retrying with a doubling delay while the database stays
+ * unreachable. Inserts are replayed first-come and their provisional IDs mapped to the IDs the database assigns.
+ * Updates and deletes only apply if the row's Last_Update is not after the write's base time, which is the Last_Update
+ * this client last read or wrote for the row, or, for a row replay already wrote, not after the Last_Update of that
+ * write. A write whose row another client changed meanwhile is skipped instead of overwriting the other client's
+ * change: it is appended to conflicts.txt in the log directory, the row as the database holds it is published on the
+ * change bus in place of the queued write, and conflict listeners are told so the user can be shown the dropped edit.
+ * A replayed write is checkpointed right after it commits, so a crash between the two replays that one write again on
+ * the next start.
+ * <p>
+ * Each record is its payload length, a CRC32 of the payload, then the payload; a zero length ends a segment. Scanning
+ * stops at the first record whose checksum does not match, so a write torn by a crash is discarded.
+ *
+ * @author Chris Criswell
+ */
+public class WriteAheadLog {
+
+    /**
+     * Runs a database write
+     */
+    interface Write {
+        void run() throws SQLException;
+    }
+
+    /**
+     * System property naming the directory holding log segments; defaults to pending_writes in the working directory
+     */
+    public static final String directoryProperty = "scheduler.wal.dir";
+
+    /**
+     * Size of each memory-mapped segment file
+     */
+    static final int segmentBytes = 1 << 20;
+
+    /**
+     * Delay between the first unflushed append and the force covering it, letting concurrent appends share one force
+     */
+    public static final long flushDelayMillis = 5;
+
+    /**
+     * Delay before the first replay attempt after a write is queued
+     */
+    public static final long minRetryMillis = 2_000;
+
+    /**
+     * Longest delay between replay attempts while the database stays unreachable
+     */
+    public static final long maxRetryMillis = 60_000;
+
+    /**
+     * Bytes of record header: payload length and CRC32
+     */
+    private static final int headerBytes = 8;
+
+    /**
+     * Single app-wide log
+     */
+    private static WriteAheadLog writeAheadLog = null;
+
+    /**
+     * A memory-mapped segment file
+     */
+    private static class Segment {
+
+        final Path path;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        long lastSequence = 0;
+
+        Segment(Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+    }
+
+    /**
+     * Directory holding segments, checkpoint and conflicts file
+     */
+    private final Path directory;
+
+    /**
+     * Whether the directory and existing segments were opened; writes are not queued otherwise
+     */
+    private boolean open = false;
+
+    /**
+     * Segments holding unreplayed writes, by first sequence
+     */
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+
+    /**
+     * Segment appended to, or null until the next append opens one
+     */
+    private Segment tail = null;
+
+    /**
+     * Writes not yet replayed, in log order
+     */
+    private final ArrayDeque<PendingWrite> pending = new ArrayDeque<>();
+
+    /**
+     * Sequence assigned to the next appended write
+     */
+    private long nextSequence = 1;
+
+    /**
+     * Sequence of the last replayed write
+     */
+    private long checkpointSequence = 0;
+
+    /**
+     * Next provisional ID handed to a queued insert; counts down from -1
+     */
+    private int nextProvisionalID = -1;
+
+    /**
+     * Database IDs of replayed appointment inserts, by provisional ID
+     */
+    private final Map<Integer, Integer> appointmentIDs = new HashMap<>();
+
+    /**
+     * Database IDs of replayed customer inserts, by provisional ID
+     */
+    private final Map<Integer, Integer> customerIDs = new HashMap<>();
+
+    /**
+     * Last_Update of appointments written by replay, in epoch milliseconds, by database ID. A later write to one of
+     * these rows only conflicts if the row changed after this client's own write. Long.MAX_VALUE marks a row whose
+     * Last_Update could not be read, which later writes then apply to unconditionally.
+     */
+    private final Map<Integer, Long> replayedAppointments = new HashMap<>();
+
+    /**
+     * Last_Update of customers written by replay, in epoch milliseconds, by database ID; see replayedAppointments
+     */
+    private final Map<Integer, Long> replayedCustomers = new HashMap<>();
+
+    /**
+     * Buffers written since the last force
+     */
+    private final Set<MappedByteBuffer> dirtyBuffers = new LinkedHashSet<>();
+
+    /**
+     * Completed by the next force, or null if no force is scheduled
+     */
+    private CompletableFuture<Void> nextFlush = null;
+
+    /**
+     * Descriptions of writes skipped during replay this session
+     */
+    private final List<String> conflicts = new ArrayList<>();
+
+    /**
+     * Listeners told of each write skipped during replay
+     */
+    private final List<Consumer<String>> conflictListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Whether replay has been started
+     */
+    private boolean started = false;
+
+    /**
+     * Whether a replay attempt is scheduled
+     */
+    private boolean replayScheduled = false;
+
+    /**
+     * Delay before the next replay attempt
+     */
+    private long retryMillis = minRetryMillis;
+
+    /**
+     * Daemon thread forcing segments to disk
+     */
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "write-ahead-log-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Daemon thread replaying pending writes
+     */
+    private final ScheduledExecutorService replayer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "write-ahead-log-replay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Private constructor for singleton class; loads writes left in the log directory by an earlier session. The
+     * directory is created when the first write is queued.
+     * @param directory directory holding the log
+     */
+    private WriteAheadLog(Path directory) {
+
+        this.directory = directory;
+
+        try {
+
+            if (Files.isDirectory(directory)) {
+                readCheckpoint();
+                readSegments();
+            }
+
+            open = true;
+
+        }
+
+        catch (IOException exception) {
+            System.out.println(exception.getMessage());
+        }
+
+    }
+
+    /**
+     * Gets the app-wide log, opening it on first use
+     * @return write-ahead log
+     */
+    public static synchronized WriteAheadLog getWriteAheadLog() {
+
+        if (writeAheadLog == null) {
+            writeAheadLog = new WriteAheadLog(Paths.get(System.getProperty(directoryProperty, "pending_writes")));
+        }
+
+        return writeAheadLog;
+
+    }
+
+    /**
+     * Whether an SQL exception means the database could not be reached, as opposed to the statement being rejected
+     * @param exception exception thrown by a database write
+     * @return true for connection errors, including any SQLState in class 08
+     */
+    static boolean isConnectionFailure(SQLException exception) {
+
+        String state = exception.getSQLState();
+
+        return exception instanceof SQLTransientConnectionException ||
+                exception instanceof SQLNonTransientConnectionException ||
+                exception instanceof SQLRecoverableException ||
+                (state != null && state.startsWith("08"));
+
+    }
+
+    /**
+     * Runs a database write, or queues it if writes are already pending or it fails because the database is
+     * unreachable
+     * @param write database write
+     * @param pendingWrite creates the pending write to queue
+     * @return true if the write committed or was queued
+     */
+    boolean writeOrQueue(Write write, Supplier<PendingWrite> pendingWrite) {
+
+        if (!hasPending()) {
+
+            try {
+                write.run();
+                return true;
+            }
+
+            catch (SQLException exception) {
+
+                System.out.println(exception.getMessage());
+
+                if (!isConnectionFailure(exception)) {
+                    return false;
+                }
+
+            }
+
+        }
+
+        return queue(pendingWrite.get());
+
+    }
+
+    /**
+     * Gets the database time this client's view is current through, for use as the base time of a queued write that
+     * isn't tied to one row's version. This is the time through which the change poller has published every change, or
+     * the client clock if the poller has not polled.
+     * @return base time in epoch milliseconds
+     */
+    static long baseMillis() {
+
+        Timestamp syncedThrough = ChangePoller.getChangePoller().getSyncedThrough();
+
+        return syncedThrough != null ? syncedThrough.getTime() : System.currentTimeMillis();
+
+    }
+
+    /**
+     * Gets the base time of a queued update or delete of one row. The poller's watermark trails the database by its
+     * overlap window and poll interval, so a row this client wrote or read shortly before is based on that version
+     * instead; otherwise a second edit of a row this client had just saved would conflict with its own first edit.
+     * @param seenMillis Last_Update this client last read or wrote for the row, or null if unknown
+     * @return the later of seenMillis and the poller's watermark, in epoch milliseconds
+     */
+    static long baseMillis(Long seenMillis) {
+        return seenMillis != null ? Math.max(seenMillis, baseMillis()) : baseMillis();
+    }
+
+    /**
+     * Appends a write, waits until it is on disk and publishes it as committed
+     * @param write write to queue
+     * @return true once the write is durable, false if it could not be logged
+     */
+    boolean queue(PendingWrite write) {
+
+        CompletableFuture<Void> flushed;
+
+        synchronized (this) {
+
+            if (!open) {
+                return false;
+            }
+
+            if (write.getKind() == PendingWrite.Kind.ADD_APPOINTMENT) {
+                write.getAppointment().setAppointmentID(nextProvisionalID--);
+            }
+
+            else if (write.getKind() == PendingWrite.Kind.ADD_CUSTOMER) {
+                write.getCustomers().get(0).setID(nextProvisionalID--);
+            }
+
+            write.setSequence(nextSequence);
+
+            try {
+                byte[] payload = write.encode();
+                append(payload);
+                pending.add(PendingWrite.decode(payload));
+            }
+
+            catch (IOException exception) {
+                System.out.println(exception.getMessage());
+                return false;
+            }
+
+            nextSequence++;
+
+            if (nextFlush == null) {
+                nextFlush = new CompletableFuture<>();
+                flusher.schedule(this::flush, flushDelayMillis, TimeUnit.MILLISECONDS);
+            }
+
+            flushed = nextFlush;
+
+        }
+
+        try {
+            flushed.join();
+        }
+
+        catch (CompletionException exception) {
+            System.out.println(exception.getCause().getMessage());
+            return false;
+        }
+
+        publishQueued(write);
+
+        synchronized (this) {
+            scheduleReplay(retryMillis);
+        }
+
+        return true;
+
+    }
+
+    /**
+     * Publishes a queued write on the change bus as if it had been committed
+     * @param write queued write
+     */
+    private static void publishQueued(PendingWrite write) {
+
+        switch (write.getKind()) {
+
+            case ADD_APPOINTMENT:
+                AppointmentDAO.appointmentWritten(write.getAppointment(), ChangeEvent.Operation.INSERTED);
+                break;
+
+            case UPDATE_APPOINTMENT:
+                AppointmentDAO.appointmentWritten(write.getAppointment(), ChangeEvent.Operation.UPDATED);
+                break;
+
+            case DELETE_APPOINTMENT:
+                AppointmentDAO.appointmentDeleted(write.getAppointment().getAppointmentID(), write.getAppointment());
+                break;
+
+            case ADD_CUSTOMER:
+                CustomerDAO.publish(write.getCustomers().get(0), ChangeEvent.Operation.INSERTED);
+                break;
+
+            case UPDATE_CUSTOMER:
+                CustomerDAO.publish(write.getCustomers().get(0), ChangeEvent.Operation.UPDATED);
+                break;
+
+            case DELETE_CUSTOMERS:
+                for (Customer customer : write.getCustomers()) {
+                    CustomerDAO.customerDeleted(customer.getId(), customer);
+                }
+                break;
+
+        }
+
+    }
+
+    /**
+     * Whether any write is waiting to be replayed
+     * @return true if writes are pending
+     */
+    public synchronized boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    /**
+     * Number of writes waiting to be replayed
+     * @return pending write count
+     */
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Descriptions of writes skipped during replay this session because another client changed their rows
+     * @return conflict descriptions, oldest first
+     */
+    public synchronized List<String> getConflicts() {
+        return Collections.unmodifiableList(new ArrayList<>(conflicts));
+    }
+
+    /**
+     * Registers a listener for writes skipped during replay because another client changed their rows. By the time a
+     * listener is called the row as the database holds it has been published on the change bus.
+     * @param listener receives each conflict description on the replay thread
+     * @return action that unregisters the listener
+     */
+    public Runnable subscribeConflicts(Consumer<String> listener) {
+
+        conflictListeners.add(listener);
+
+        return () -> conflictListeners.remove(listener);
+
+    }
+
+    /**
+     * Accessor for the file skipped writes are appended to
+     * @return path of conflicts.txt in the log directory
+     */
+    public Path getConflictsFile() {
+        return directory.resolve("conflicts.txt");
+    }
+
+    /**
+     * Starts replaying pending writes, including any left by an earlier session. Replayed writes are attributed to
+     * the logged-in user, so this is called after login.
+     */
+    public synchronized void start() {
+
+        if (started) {
+            return;
+        }
+
+        started = true;
+
+        if (!pending.isEmpty()) {
+            scheduleReplay(0);
+        }
+
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("WriteAheadLog[pending=%d, segments=%d, checkpoint=%d, conflicts=%d]", pending.size(),
+                segments.size(), checkpointSequence, conflicts.size());
+    }
+
+    /**
+     * Appends a record to the tail segment, opening a new segment if the record does not fit. Called holding the lock.
+     * @param payload encoded write
+     * @throws IOException if a segment cannot be opened or the record can never fit one
+     */
+    private void append(byte[] payload) throws IOException {
+
+        int recordBytes = headerBytes + payload.length;
+
+        if (recordBytes + 4 > segmentBytes) {
+            throw new IOException("Pending write of " + payload.length + " bytes does not fit a log segment");
+        }
+
+        if (tail == null || tail.buffer.remaining() < recordBytes + 4) {
+
+            Files.createDirectories(directory);
+
+            Path path = directory.resolve(String.format("segment-%020d.wal", nextSequence));
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+
+            tail = new Segment(path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes));
+            segments.put(nextSequence, tail);
+
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        tail.buffer.putInt(payload.length);
+        tail.buffer.putInt((int) crc.getValue());
+        tail.buffer.put(payload);
+        tail.buffer.putInt(tail.buffer.position(), 0);
+        tail.lastSequence = nextSequence;
+
+        dirtyBuffers.add(tail.buffer);
+
+    }
+
+    /**
+     * Forces buffers written since the last force to disk and completes the appends waiting on them
+     */
+    private void flush() {
+
+        CompletableFuture<Void> flushing;
+        List<MappedByteBuffer> buffers;
+
+        synchronized (this) {
+            flushing = nextFlush;
+            nextFlush = null;
+            buffers = new ArrayList<>(dirtyBuffers);
+            dirtyBuffers.clear();
+        }
+
+        try {
+
+            for (MappedByteBuffer buffer : buffers) {
+                buffer.force();
+            }
+
+            flushing.complete(null);
+
+        }
+
+        catch (UncheckedIOException exception) {
+            flushing.completeExceptionally(exception);
+        }
+
+    }
+
+    /**
+     * Schedules a replay attempt unless one is scheduled or replay is not started. Called holding the lock.
+     * @param delayMillis delay before the attempt
+     */
+    private void scheduleReplay(long delayMillis) {
+
+        if (!started || replayScheduled) {
+            return;
+        }
+
+        replayScheduled = true;
+        replayer.schedule(this::replay, delayMillis, TimeUnit.MILLISECONDS);
+
+    }
+
+    /**
+     * Replays pending writes in order until none remain or the database is unreachable, in which case another
+     * attempt is scheduled after a doubled delay
+     */
+    private void replay() {
+
+        synchronized (this) {
+            replayScheduled = false;
+        }
+
+        while (true) {
+
+            PendingWrite write;
+
+            synchronized (this) {
+
+                write = pending.peek();
+
+                if (write == null) {
+                    retryMillis = minRetryMillis;
+                    return;
+                }
+
+            }
+
+            String conflict;
+
+            try {
+                conflict = apply(write);
+            }
+
+            catch (SQLException exception) {
+
+                System.out.println(exception.getMessage());
+
+                if (isConnectionFailure(exception)) {
+
+                    synchronized (this) {
+                        retryMillis = Math.min(maxRetryMillis, retryMillis * 2);
+                        scheduleReplay(retryMillis);
+                    }
+
+                    return;
+
+                }
+
+                conflict = exception.getMessage();
+
+            }
+
+            if (conflict != null) {
+                publishDatabaseState(write);
+                recordConflict(write, conflict);
+            }
+
+            synchronized (this) {
+
+                pending.poll();
+                checkpointSequence = write.getSequence();
+
+                if (pending.isEmpty()) {
+                    appointmentIDs.clear();
+                    customerIDs.clear();
+                    replayedAppointments.clear();
+                    replayedCustomers.clear();
+                }
+
+                writeCheckpoint();
+                deleteReplayedSegments();
+
+            }
+
+        }
+
+    }
+
+    /**
+     * Applies one pending write to the database. A row replay already wrote, including a row it inserted, only counts
+     * as changed by another client if changed after that write, since until then its Last_Update is this client's own.
+     * @param write write to apply
+     * @return reason the write was skipped, or null if it was applied
+     * @throws SQLException if the write fails
+     */
+    private String apply(PendingWrite write) throws SQLException {
+
+        Timestamp base = new Timestamp(write.getBaseMillis());
+
+        switch (write.getKind()) {
+
+            case ADD_APPOINTMENT: {
+
+                Appointment appointment = write.getAppointment();
+                int provisionalID = appointment.getAppointmentID();
+
+                if (!mapCustomerID(appointment)) {
+                    return "its customer was never added";
+                }
+
+                AppointmentDAO.insert(appointment);
+                AppointmentDAO.appointmentDeleted(provisionalID, appointment);
+
+                synchronized (this) {
+                    appointmentIDs.put(provisionalID, appointment.getAppointmentID());
+                }
+
+                recordReplayed(replayedAppointments, appointment.getAppointmentID(),
+                        RowVersions.getRowVersions().getAppointment(appointment.getAppointmentID()));
+
+                return null;
+
+            }
+
+            case UPDATE_APPOINTMENT:
+            case DELETE_APPOINTMENT: {
+
+                Appointment appointment = write.getAppointment();
+                boolean provisional = appointment.getAppointmentID() < 0;
+
+                if (!mapAppointmentID(appointment) || !mapCustomerID(appointment)) {
+                    return "its appointment was never added";
+                }
+
+                Timestamp notUpdatedAfter = notUpdatedAfter(replayedAppointments, appointment.getAppointmentID(),
+                        provisional, base);
+
+                boolean applied = write.getKind() == PendingWrite.Kind.UPDATE_APPOINTMENT ?
+                        AppointmentDAO.update(appointment, notUpdatedAfter) :
+                        AppointmentDAO.delete(appointment, notUpdatedAfter);
+
+                if (!applied) {
+                    return "the appointment was changed or deleted by another client since " + notUpdatedAfter;
+                }
+
+                if (write.getKind() == PendingWrite.Kind.UPDATE_APPOINTMENT) {
+                    recordReplayed(replayedAppointments, appointment.getAppointmentID(),
+                            RowVersions.getRowVersions().getAppointment(appointment.getAppointmentID()));
+                }
+
+                return null;
+
+            }
+
+            case ADD_CUSTOMER: {
+
+                Customer customer = write.getCustomers().get(0);
+                int provisionalID = customer.getId();
+
+                CustomerDAO.insert(customer);
+                CustomerDAO.customerDeleted(provisionalID, customer);
+
+                synchronized (this) {
+                    customerIDs.put(provisionalID, customer.getId());
+                }
+
+                recordReplayed(replayedCustomers, customer.getId(),
+                        RowVersions.getRowVersions().getCustomer(customer.getId()));
+
+                return null;
+
+            }
+
+            case UPDATE_CUSTOMER: {
+
+                Customer customer = write.getCustomers().get(0);
+                boolean provisional = customer.getId() < 0;
+
+                if (!mapCustomerID(customer)) {
+                    return "its customer was never added";
+                }
+
+                Timestamp notUpdatedAfter = notUpdatedAfter(replayedCustomers, customer.getId(), provisional, base);
+
+                if (!CustomerDAO.update(customer, notUpdatedAfter)) {
+                    return "the customer was changed or deleted by another client since " + notUpdatedAfter;
+                }
+
+                recordReplayed(replayedCustomers, customer.getId(),
+                        RowVersions.getRowVersions().getCustomer(customer.getId()));
+
+                return null;
+
+            }
+
+            case DELETE_CUSTOMERS: {
+
+                Map<Integer, Long> ownCustomers;
+                Map<Integer, Long> ownAppointments;
+
+                synchronized (this) {
+                    ownCustomers = new HashMap<>(replayedCustomers);
+                    ownAppointments = new HashMap<>(replayedAppointments);
+                }
+
+                //rows this client had seen when it queued the delete only count as changed if changed since
+                write.getCustomerVersions().forEach((id, seen) -> ownCustomers.merge(id, seen, Math::max));
+                write.getAppointmentVersions().forEach((id, seen) -> ownAppointments.merge(id, seen, Math::max));
+
+                for (Iterator<Customer> iterator = write.getCustomers().iterator(); iterator.hasNext(); ) {
+
+                    Customer customer = iterator.next();
+                    boolean provisional = customer.getId() < 0;
+
+                    if (!mapCustomerID(customer)) {
+                        iterator.remove();
+                        continue;
+                    }
+
+                    if (provisional) {
+                        ownCustomers.putIfAbsent(customer.getId(), Long.MAX_VALUE);
+                    }
+
+                }
+
+                if (!CustomerDAO.delete(write.getCustomers(), base, ownCustomers, ownAppointments)) {
+                    return "a customer or one of their appointments was changed by another client since " + base;
+                }
+
+                return null;
+
+            }
+
+        }
+
+        return "unknown write";
+
+    }
+
+    /**
+     * Gets the time after which a change to a row by another client makes a pending write to it conflict
+     * @param replayed Last_Update of rows written by replay, by database ID
+     * @param id database ID of row
+     * @param provisional whether the write referred to the row by a provisional ID, i.e. this client inserted it
+     * @param base base time of the write
+     * @return Last_Update of this client's own replayed write to the row if later than base, else base, or null to
+     * write unconditionally
+     */
+    private synchronized Timestamp notUpdatedAfter(Map<Integer, Long> replayed, int id, boolean provisional,
+                                                   Timestamp base) {
+
+        Long own = replayed.get(id);
+
+        if (own == null) {
+            return provisional ? null : base;
+        }
+
+        return own == Long.MAX_VALUE ? null : new Timestamp(Math.max(own, base.getTime()));
+
+    }
+
+    /**
+     * Records the Last_Update a replayed write gave a row, so later pending writes to the row don't take it for another
+     * client's change. The DAO reads it back as part of the write; if it couldn't, the row is marked to be written
+     * unconditionally instead, since the write has committed and must not be retried.
+     * @param replayed Last_Update of rows written by replay, by database ID
+     * @param id database ID of row
+     * @param lastUpdate Last_Update read back by the write in epoch milliseconds, or null if it couldn't be read
+     */
+    private synchronized void recordReplayed(Map<Integer, Long> replayed, int id, Long lastUpdate) {
+        replayed.put(id, lastUpdate != null ? lastUpdate : Long.MAX_VALUE);
+    }
+
+    /**
+     * Replaces a provisional appointment ID with the ID the database assigned on replay
+     * @param appointment appointment to remap
+     * @return false if the ID is provisional but its insert was never replayed
+     */
+    private synchronized boolean mapAppointmentID(Appointment appointment) {
+
+        if (appointment.getAppointmentID() >= 0) {
+            return true;
+        }
+
+        Integer appointmentID = appointmentIDs.get(appointment.getAppointmentID());
+
+        if (appointmentID == null) {
+            return false;
+        }
+
+        appointment.setAppointmentID(appointmentID);
+
+        return true;
+
+    }
+
+    /**
+     * Replaces a provisional customer ID referenced by an appointment with the ID the database assigned on replay
+     * @param appointment appointment to remap
+     * @return false if the ID is provisional but its insert was never replayed
+     */
+    private synchronized boolean mapCustomerID(Appointment appointment) {
+
+        if (appointment.getCustomerID() >= 0) {
+            return true;
+        }
+
+        Integer customerID = customerIDs.get(appointment.getCustomerID());
+
+        if (customerID == null) {
+            return false;
+        }
+
+        appointment.setCustomerID(customerID);
+
+        return true;
+
+    }
+
+    /**
+     * Replaces a provisional customer ID with the ID the database assigned on replay
+     * @param customer customer to remap
+     * @return false if the ID is provisional but its insert was never replayed
+     */
+    private synchronized boolean mapCustomerID(Customer customer) {
+
+        if (customer.getId() >= 0) {
+            return true;
+        }
+
+        Integer customerID = customerIDs.get(customer.getId());
+
+        if (customerID == null) {
+            return false;
+        }
+
+        customer.setID(customerID);
+
+        return true;
+
+    }
+
+    /**
+     * Records a write skipped during replay, appends it to the conflicts file so the user's change is not lost and
+     * tells conflict listeners
+     * @param write skipped write
+     * @param reason why it was skipped
+     */
+    private void recordConflict(PendingWrite write, String reason) {
+
+        String description = write + " skipped: " + reason;
+
+        System.out.println(description);
+
+        synchronized (this) {
+            conflicts.add(description);
+        }
+
+        try (Writer writer = Files.newBufferedWriter(getConflictsFile(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(description + System.lineSeparator());
+        }
+
+        catch (IOException exception) {
+            System.out.println(exception.getMessage());
+        }
+
+        for (Consumer<String> listener : conflictListeners) {
+
+            try {
+                listener.accept(description);
+            }
+
+            catch (RuntimeException exception) {
+                System.out.println(exception.getMessage());
+            }
+
+        }
+
+    }
+
+    /**
+     * Publishes the rows a skipped write touched as the database holds them, replacing what publishQueued showed when
+     * the write was queued. A row that was never added is removed under its provisional ID.
+     * @param write skipped write, with the IDs replay could map replaced by database IDs
+     */
+    private static void publishDatabaseState(PendingWrite write) {
+
+        try {
+
+            switch (write.getKind()) {
+
+                case ADD_APPOINTMENT:
+                case UPDATE_APPOINTMENT:
+                case DELETE_APPOINTMENT: {
+
+                    Appointment appointment = write.getAppointment();
+                    Appointment stored = appointment.getAppointmentID() < 0 ? null :
+                            AppointmentDAO.readAppointment(appointment.getAppointmentID());
+
+                    if (stored == null) {
+                        AppointmentDAO.appointmentDeleted(appointment.getAppointmentID(), appointment);
+                    }
+
+                    else {
+                        AppointmentDAO.appointmentWritten(stored, ChangeEvent.Operation.UPDATED);
+                    }
+
+                    break;
+
+                }
+
+                case ADD_CUSTOMER:
+                case UPDATE_CUSTOMER: {
+
+                    Customer customer = write.getCustomers().get(0);
+                    Customer stored = customer.getId() < 0 ? null : CustomerDAO.readCustomer(customer.getId());
+
+                    if (stored == null) {
+                        CustomerDAO.customerDeleted(customer.getId(), customer);
+                    }
+
+                    else {
+                        CustomerDAO.publish(stored, ChangeEvent.Operation.UPDATED);
+                    }
+
+                    break;
+
+                }
+
+                case DELETE_CUSTOMERS:
+                    for (Customer customer : write.getCustomers()) {
+
+                        Customer stored = CustomerDAO.readCustomer(customer.getId());
+
+                        if (stored == null) {
+                            continue;
+                        }
+
+                        //the queued delete removed the customer, so it is inserted back rather than updated
+                        CustomerDAO.publish(stored, ChangeEvent.Operation.INSERTED);
+
+                        for (Appointment appointment : AppointmentDAO.readCustomerAppointments(customer.getId())) {
+                            AppointmentDAO.appointmentWritten(appointment, ChangeEvent.Operation.UPDATED);
+                        }
+
+                    }
+                    break;
+
+            }
+
+        }
+
+        catch (SQLException exception) {
+            System.out.println(exception.getMessage());
+        }
+
+    }
+
+    /**
+     * Durably replaces the checkpoint file with the last replayed sequence, the provisional ID mappings and the
+     * Last_Update of rows replay wrote, which later pending writes may still refer to. Called holding the lock.
+     */
+    private void writeCheckpoint() {
+
+        Path checkpoint = directory.resolve("checkpoint");
+        Path temporary = directory.resolve("checkpoint.tmp");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+
+            output.writeLong(checkpointSequence);
+            writeIDs(output, appointmentIDs);
+            writeIDs(output, customerIDs);
+            writeTimes(output, replayedAppointments);
+            writeTimes(output, replayedCustomers);
+
+        }
+
+        catch (IOException exception) {
+            System.out.println(exception.getMessage());
+            return;
+        }
+
+        try (FileOutputStream output = new FileOutputStream(temporary.toFile())) {
+
+            output.write(bytes.toByteArray());
+            output.getChannel().force(true);
+
+        }
+
+        catch (IOException exception) {
+            System.out.println(exception.getMessage());
+            return;
+        }
+
+        try {
+            Files.move(temporary, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        catch (IOException exception) {
+            System.out.println(exception.getMessage());
+        }
+
+    }
+
+    /**
+     * Writes an ID mapping
+     * @param output stream to write to
+     * @param ids database IDs by provisional ID
+     * @throws IOException if the stream cannot be written
+     */
+    private static void writeIDs(DataOutputStream output, Map<Integer, Integer> ids) throws IOException {
+
+        output.writeInt(ids.size());
+
+        for (Map.Entry<Integer, Integer> entry : ids.entrySet()) {
+            output.writeInt(entry.getKey());
+            output.writeInt(entry.getValue());
+        }
+
+    }
+
+    /**
+     * Writes the Last_Update of rows written by replay
+     * @param output stream to write to
+     * @param times Last_Update in epoch milliseconds by database ID
+     * @throws IOException if the stream cannot be written
+     */
+    private static void writeTimes(DataOutputStream output, Map<Integer, Long> times) throws IOException {
+
+        output.writeInt(times.size());
+
+        for (Map.Entry<Integer, Long> entry : times.entrySet()) {
+            output.writeInt(entry.getKey());
+            output.writeLong(entry.getValue());
+        }
+
+    }
+
+    /**
+     * Reads the checkpoint file, if any
+     * @throws IOException if the file exists but cannot be read
+     */
+    private void readCheckpoint() throws IOException {
+
+        Path checkpoint = directory.resolve("checkpoint");
+
+        if (!Files.exists(checkpoint)) {
+            return;
+        }
+
+        try (DataInputStream input = new DataInputStream(Files.newInputStream(checkpoint))) {
+
+            checkpointSequence = input.readLong();
+            readIDs(input, appointmentIDs);
+            readIDs(input, customerIDs);
+            readTimes(input, replayedAppointments);
+            readTimes(input, replayedCustomers);
+
+        }
+
+        nextSequence = checkpointSequence + 1;
+
+        for (int provisionalID : appointmentIDs.keySet()) {
+            nextProvisionalID = Math.min(nextProvisionalID, provisionalID - 1);
+        }
+
+        for (int provisionalID : customerIDs.keySet()) {
+            nextProvisionalID = Math.min(nextProvisionalID, provisionalID - 1);
+        }
+
+    }
+
+    /**
+     * Reads an ID mapping written by writeIDs
+     * @param input stream to read from
+     * @param ids map to fill
+     * @throws IOException if the stream cannot be read
+     */
+    private static void readIDs(DataInputStream input, Map<Integer, Integer> ids) throws IOException {
+
+        int count = input.readInt();
+
+        for (int i = 0; i < count; i++) {
+            ids.put(input.readInt(), input.readInt());
+        }
+
+    }
+
+    /**
+     * Reads Last_Update times written by writeTimes
+     * @param input stream to read from
+     * @param times map to fill
+     * @throws IOException if the stream cannot be read
+     */
+    private static void readTimes(DataInputStream input, Map<Integer, Long> times) throws IOException {
+
+        int count = input.readInt();
+
+        for (int i = 0; i < count; i++) {
+            times.put(input.readInt(), input.readLong());
+        }
+
+    }
+
+    /**
+     * Loads unreplayed writes from segments left by an earlier session. New writes always go to a new segment, so a
+     * record torn by a crash is never appended after.
+     * @throws IOException if a segment cannot be opened
+     */
+    private void readSegments() throws IOException {
+
+        List<Path> paths = new ArrayList<>();
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "segment-*.wal")) {
+            for (Path path : stream) {
+                paths.add(path);
+            }
+        }
+
+        Collections.sort(paths);
+
+        for (Path path : paths) {
+
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            Segment segment = new Segment(path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    channel.size()));
+            List<PendingWrite> writes = scan(segment.buffer);
+
+            if (writes.isEmpty()) {
+                channel.close();
+                Files.deleteIfExists(path);
+                continue;
+            }
+
+            long firstSequence = writes.get(0).getSequence();
+
+            for (PendingWrite write : writes) {
+
+                segment.lastSequence = write.getSequence();
+                nextSequence = Math.max(nextSequence, write.getSequence() + 1);
+
+                if (write.getSequence() > checkpointSequence) {
+                    pending.add(write);
+                    nextProvisionalID = Math.min(nextProvisionalID, write.lowestProvisionalID() - 1);
+                }
+
+            }
+
+            segments.put(firstSequence, segment);
+
+        }
+
+        deleteReplayedSegments();
+
+    }
+
+    /**
+     * Decodes the records of a segment up to its end marker or first damaged record
+     * @param buffer segment contents
+     * @return writes in the segment, in order
+     */
+    private static List<PendingWrite> scan(MappedByteBuffer buffer) {
+
+        List<PendingWrite> writes = new ArrayList<>();
+        CRC32 crc = new CRC32();
+
+        while (buffer.remaining() >= headerBytes) {
+
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+
+            if (length <= 0 || length > buffer.remaining()) {
+                break;
+            }
+
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+
+            crc.reset();
+            crc.update(payload);
+
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+
+            try {
+                writes.add(PendingWrite.decode(payload));
+            }
+
+            catch (IOException exception) {
+                System.out.println(exception.getMessage());
+                break;
+            }
+
+        }
+
+        return writes;
+
+    }
+
+    /**
+     * Deletes segments whose writes have all been replayed. Called holding the lock. A segment that cannot be
+     * deleted, as on platforms refusing to delete mapped files, is left and deleted on a later start.
+     */
+    private void deleteReplayedSegments() {
+
+        for (Iterator<Segment> iterator = segments.values().iterator(); iterator.hasNext(); ) {
+
+            Segment segment = iterator.next();
+
+            if (segment.lastSequence > checkpointSequence) {
+                return;
+            }
+
+            iterator.remove();
+
+            if (segment == tail) {
+                tail = null;
+            }
+
+            try {
+                segment.channel.close();
+                Files.deleteIfExists(segment.path);
+            }
+
+            catch (IOException exception) {
+                System.out.println(exception.getMessage());
+            }
+
+        }
+
+    }
+
+}
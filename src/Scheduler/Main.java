@@ -1,6 +1,11 @@
 package Scheduler;
 
+import Scheduler.DAO.DAOExecutor;
+import Scheduler.DAO.DAOFactory;
+import Scheduler.DAO.StorageBackend;
 import Scheduler.Utils.DatabaseHandler;
+import Scheduler.Utils.LoginTracker;
+import Scheduler.Utils.ReferenceDataCache;
 
 import javafx.application.Application;
 import javafx.application.Platform;
@@ -63,13 +68,23 @@ public class Main extends Application {
     }
 
     /**
-     * Main method initializes database, launches application, and closes the databse connection on program close
+     * Main method selects the storage backend named by the scheduler.storage system property, initializes the database
+     * connection pool and warms the reference data cache when using MySQL, launches application, and on program close
+     * writes out queued login activity and closes the pool
      * @param args passed command line arguments
      */
     public static void main(String[] args) {
 
-        DatabaseHandler.getConnection();
+        DAOFactory.useBackend(StorageBackend.fromSystemProperty());
+
+        if (DAOFactory.getBackend() == StorageBackend.MYSQL) {
+            DatabaseHandler.getDataSource();
+            ReferenceDataCache.getReferenceDataCache().refresh();
+        }
+
         launch(args);
+        DAOExecutor.shutdown();
+        LoginTracker.shutdown();
         DatabaseHandler.endConnection();
 
     }
@@ -1,7 +1,8 @@
 package Scheduler.Models;
 
-import Scheduler.DAO.ContactDAO;
-import Scheduler.DAO.CustomerDAO;
+import Scheduler.DAO.ContactDAOInterface;
+import Scheduler.DAO.CustomerDAOInterface;
+import Scheduler.DAO.DAOFactory;
 
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
@@ -68,19 +69,28 @@ public class Appointment {
     private ZonedDateTime endDateTime;
 
     /**
-     * Formatted date of appointment start in user's timezone
+     * Shared formatter for display dates
+     */
+    private static final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("MM-dd");
+    /**
+     * Shared formatter for display times
+     */
+    private static final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("H:mm");
+
+    /**
+     * Formatted date of appointment start in user's timezone; formatted on first access and cached
      */
     private String formattedStartDate;
     /**
-     * Formatted date of appointment end in user's timezone
+     * Formatted date of appointment end in user's timezone; formatted on first access and cached
      */
     private String formattedEndDate;
     /**
-     * Formatted time of appointment start in user's timezone
+     * Formatted time of appointment start in user's timezone; formatted on first access and cached
      */
     private String formattedStartTime;
     /**
-     * Formatted time of appointment end in user's timezone
+     * Formatted time of appointment end in user's timezone; formatted on first access and cached
      */
     private String formattedEndTime;
 
@@ -111,11 +121,44 @@ public class Appointment {
         this.startDateTime = startDateTime;
         this.endDateTime = endDateTime;
 
-        setDates();
         setNamesFromDatabase();
 
     }
 
+    /**
+     * Appointment constructor for rows already joined with customer and contact names, avoiding per-row name lookups
+     * @param appointmentID ID of appointment
+     * @param customerID ID of customer associated with appointment
+     * @param contactID ID of contact associated with appointment
+     * @param userID ID of user who created appointment
+     * @param title title of appointment
+     * @param description description of appointment
+     * @param location location of appointment
+     * @param type type of appointment
+     * @param startDateTime appointment start date/time with user timezone information
+     * @param endDateTime appointment end date/time with user timezone information
+     * @param customerName name of customer associated with appointment
+     * @param contactName name of contact associated with appointment
+     */
+    public Appointment(int appointmentID, int customerID, int contactID, int userID, String title, String description,
+                       String location, String type, ZonedDateTime startDateTime, ZonedDateTime endDateTime,
+                       String customerName, String contactName) {
+
+        this.appointmentID = appointmentID;
+        this.customerID = customerID;
+        this.contactID = contactID;
+        this.userID = userID;
+        this.title = title;
+        this.description = description;
+        this.location = location;
+        this.type = type;
+        this.startDateTime = startDateTime;
+        this.endDateTime = endDateTime;
+        this.customerName = customerName;
+        this.contactName = contactName;
+
+    }
+
     /**
      * Accessor for appointment ID
      * @return appointment ID
@@ -194,25 +237,57 @@ public class Appointment {
      * Accessor for formatted start date
      * @return formatted start date
      */
-    public String getFormattedStartDate() { return formattedStartDate; }
+    public String getFormattedStartDate() {
+
+        if (formattedStartDate == null) {
+            formattedStartDate = startDateTime.format(dateFormatter);
+        }
+
+        return formattedStartDate;
+
+    }
 
     /**
      * Accessor for formatted end date
      * @return formatted end date
      */
-    public String getFormattedEndDate() { return formattedEndDate; }
+    public String getFormattedEndDate() {
+
+        if (formattedEndDate == null) {
+            formattedEndDate = endDateTime.format(dateFormatter);
+        }
+
+        return formattedEndDate;
+
+    }
 
     /**
      * Accessor for formatted start time
      * @return formatted start time
      */
-    public String getFormattedStartTime() { return formattedStartTime; }
+    public String getFormattedStartTime() {
+
+        if (formattedStartTime == null) {
+            formattedStartTime = startDateTime.format(timeFormatter);
+        }
+
+        return formattedStartTime;
+
+    }
 
     /**
      * Accessor for formatted end time
      * @return formatted end time
      */
-    public String getFormattedEndTime() { return formattedEndTime; }
+    public String getFormattedEndTime() {
+
+        if (formattedEndTime == null) {
+            formattedEndTime = endDateTime.format(timeFormatter);
+        }
+
+        return formattedEndTime;
+
+    }
 
     /**
      * Accessor for start date time
@@ -312,6 +387,8 @@ public class Appointment {
      */
     public void setStartDateTime(ZonedDateTime startDateTime) {
         this.startDateTime = startDateTime;
+        this.formattedStartDate = null;
+        this.formattedStartTime = null;
     }
 
     /**
@@ -320,33 +397,19 @@ public class Appointment {
      */
     public void setEndDateTime(ZonedDateTime endDateTime) {
         this.endDateTime = endDateTime;
+        this.formattedEndDate = null;
+        this.formattedEndTime = null;
     }
 
-    /**
-     * Formats start and end date times into strings
-     */
-    private void setDates() {
-
-        DateTimeFormatter formatterDate = DateTimeFormatter.ofPattern("MM-dd");
-        DateTimeFormatter formatterTime = DateTimeFormatter.ofPattern("H:mm");
-
-        this.formattedStartDate = startDateTime.format(formatterDate);
-        this.formattedEndDate = endDateTime.format(formatterDate);
-
-        this.formattedStartTime = startDateTime.format(formatterTime);
-        this.formattedEndTime = endDateTime.format(formatterTime);
-
-    };
-
     /**
      * Sets customer and contact name strings given contact and customer IDs
      */
     private void setNamesFromDatabase() {
 
-        CustomerDAO customerDAO = new CustomerDAO();
+        CustomerDAOInterface customerDAO = DAOFactory.getCustomerDAO();
         this.customerName = customerDAO.getCustomerNameByID(customerID);
 
-        ContactDAO contactDAO = new ContactDAO();
+        ContactDAOInterface contactDAO = DAOFactory.getContactDAO();
         this.contactName = contactDAO.getContactNameByID(contactID);
 
     }
@@ -1,7 +1,6 @@
 package Scheduler.Models;
 
-import Scheduler.DAO.CountryDAO;
-import Scheduler.DAO.DivisionDAO;
+import Scheduler.DAO.DAOFactory;
 
 /**
  *
@@ -29,11 +28,11 @@ public class Customer {
         this.divisionName = division;
         this.phoneNumber = phoneNumber;
 
-        int divisionID = new DivisionDAO().getIDByDivision(division);
+        int divisionID = DAOFactory.getDivisionDAO().getIDByDivision(division);
 
         if (divisionID != -1) {
             this.divisionID = divisionID;
-            this.countryName = new CountryDAO().getCountryNameByDivisionID(divisionID);
+            this.countryName = DAOFactory.getCountryDAO().getCountryNameByDivisionID(divisionID);
         }
 
     }
@@ -46,9 +45,9 @@ public class Customer {
         this.postalCode = postalCode;
         this.divisionID = divisionID;
         this.phoneNumber = phoneNumber;
-        this.countryName = new CountryDAO().getCountryNameByDivisionID(divisionID);
+        this.countryName = DAOFactory.getCountryDAO().getCountryNameByDivisionID(divisionID);
 
-        String division = new DivisionDAO().getDivisionNameByID(divisionID);
+        String division = DAOFactory.getDivisionDAO().getDivisionNameByID(divisionID);
 
         if (division != null) {
             this.divisionName = division;
@@ -56,6 +55,20 @@ public class Customer {
 
     }
 
+    public Customer(int id, String customerName, String address, String postalCode, int divisionID, String divisionName,
+                    String countryName, String phoneNumber) {
+
+        this.id = id;
+        this.customerName = customerName;
+        this.address = address;
+        this.postalCode = postalCode;
+        this.divisionID = divisionID;
+        this.divisionName = divisionName;
+        this.countryName = countryName;
+        this.phoneNumber = phoneNumber;
+
+    }
+
     public int getId() {
         return id;
     }
@@ -0,0 +1,71 @@
+package Scheduler.Models;
+
+import java.time.Instant;
+
+/**
+ * Model of a single login attempt recorded in the login activity log
+ *
+ * @author Chris Criswell
+ */
+public class LoginAttempt {
+
+    /**
+     * Username entered
+     */
+    private final String username;
+    /**
+     * Time of attempt
+     */
+    private final Instant time;
+    /**
+     * Whether the attempt succeeded
+     */
+    private final boolean success;
+
+    /**
+     * Constructor with all members provided
+     * @param username username entered
+     * @param time time of attempt
+     * @param success whether the attempt succeeded
+     */
+    public LoginAttempt(String username, Instant time, boolean success) {
+        this.username = username;
+        this.time = time;
+        this.success = success;
+    }
+
+    /**
+     * Accessor for username
+     * @return username entered
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * Accessor for time of attempt
+     * @return time of attempt
+     */
+    public Instant getTime() {
+        return time;
+    }
+
+    /**
+     * Accessor for result of attempt
+     * @return whether the attempt succeeded
+     */
+    public boolean isSuccess() {
+        return success;
+    }
+
+    /**
+     * Formats the attempt as a line of login_activity.txt
+     * @return tab-separated log line ending in a newline
+     */
+    @Override
+    public String toString() {
+        return "Username: " + username + '\t' + "Date/Time: " + time + '\t' + "Result: " +
+                (success ? "success" : "denied") + '\n';
+    }
+
+}
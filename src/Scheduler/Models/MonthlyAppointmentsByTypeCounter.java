@@ -7,6 +7,7 @@ package Scheduler.Models;
  */
 public class MonthlyAppointmentsByTypeCounter {
 
+    int year;
     String month;
     String type;
 
@@ -14,16 +15,24 @@ public class MonthlyAppointmentsByTypeCounter {
 
     /**
      * Constructor with all members provided
+     * @param year year of month
      * @param month name of month
      * @param type type of appointment
      * @param total total occurrences
      */
-    public MonthlyAppointmentsByTypeCounter(String month, String type, int total) {
+    public MonthlyAppointmentsByTypeCounter(int year, String month, String type, int total) {
+        this.year = year;
         this.month = month;
         this.type = type;
         this.total = total;
     }
 
+    /**
+     * Accessor for year
+     * @return year of month
+     */
+    public int getYear() { return year; }
+
     /**
      * Accessor for month
      * @return name of month
@@ -42,6 +51,12 @@ public class MonthlyAppointmentsByTypeCounter {
      */
     public String getType() { return type; }
 
+    /**
+     * Mutator for year
+     * @param year year of month
+     */
+    public void setYear(int year) { this.year = year; }
+
     /**
      * Mutator for month string
      * @param month name of month
@@ -0,0 +1,331 @@
+package Scheduler.Utils;
+
+import Scheduler.DAO.DAOFactory;
+import Scheduler.Models.Appointment;
+import Scheduler.Models.Customer;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Singleton that alerts the logged in user alertLead before each of their appointments starts. The user's upcoming
+ * appointments are loaded with one indexed query into a min-heap ordered by alert time, and a single timer on a
+ * scheduled executor is set for the earliest one. Appointment and customer changes published on the change bus update
+ * the heap incrementally.
+ *
+ * All heap state is confined to the scheduler's one thread, so it needs no locking; other threads hand their work to
+ * that thread.
+ *
+ * @author Chris Criswell
+ */
+public class AppointmentAlertScheduler {
+
+    /**
+     * How long before an appointment starts its alert fires
+     */
+    public static final Duration alertLead = Duration.ofMinutes(15);
+
+    /**
+     * Pending alert for one appointment
+     */
+    private static class Entry {
+
+        final Appointment appointment;
+        final Instant alertTime;
+
+        Entry(Appointment appointment) {
+            this.appointment = appointment;
+            this.alertTime = appointment.getStartDateTime().toInstant().minus(alertLead);
+        }
+
+    }
+
+    /**
+     * Single app-wide alert scheduler
+     */
+    private static AppointmentAlertScheduler appointmentAlertScheduler = null;
+
+    /**
+     * Thread running all heap updates and alerts
+     */
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "appointment-alerts");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Pending alerts ordered by alert time. Replaced or removed entries are left in place and skipped when they reach
+     * the head.
+     */
+    private final PriorityQueue<Entry> heap = new PriorityQueue<>((first, second) ->
+            first.alertTime.compareTo(second.alertTime));
+
+    /**
+     * Current entry for each appointment in the heap, keyed by appointment ID
+     */
+    private final Map<Integer, Entry> entries = new HashMap<>();
+
+    /**
+     * Timer set for the earliest alert, or null if none is pending
+     */
+    private ScheduledFuture<?> nextAlert = null;
+
+    /**
+     * ID of user alerts are scheduled for, or -1 when stopped
+     */
+    private int userID = -1;
+
+    /**
+     * Receives each alert on the scheduler thread
+     */
+    private Consumer<Appointment> listener = null;
+
+    /**
+     * Private constructor for singleton, subscribing to appointment and customer changes
+     */
+    private AppointmentAlertScheduler() {
+
+        ChangeBus.getChangeBus().subscribe(Appointment.class, event -> {
+
+            if (event.getOperation() == ChangeEvent.Operation.DELETED) {
+                appointmentRemoved(event.getId());
+            }
+
+            else {
+                appointmentChanged(event.getRow());
+            }
+
+        });
+
+        ChangeBus.getChangeBus().subscribe(Customer.class, event -> {
+
+            if (event.getOperation() == ChangeEvent.Operation.DELETED) {
+                customerRemoved(event.getId());
+            }
+
+        });
+
+    }
+
+    /**
+     * Gets initialized scheduler or initializes if none created
+     * @return alert scheduler
+     */
+    public static synchronized AppointmentAlertScheduler getAppointmentAlertScheduler() {
+
+        if (appointmentAlertScheduler == null) {
+            appointmentAlertScheduler = new AppointmentAlertScheduler();
+        }
+
+        return appointmentAlertScheduler;
+
+    }
+
+    /**
+     * Loads a user's upcoming appointments and schedules their alerts, replacing any previously scheduled user.
+     * Appointments starting within alertLead are alerted right away.
+     * @param userID ID of user to alert
+     * @param listener receives each alert on the scheduler thread; UI code must hand it to the JavaFX thread
+     * @return future completed with whether any appointment starts within alertLead, or exceptionally if the
+     * appointments couldn't be loaded
+     */
+    public CompletableFuture<Boolean> start(int userID, Consumer<Appointment> listener) {
+
+        return CompletableFuture.supplyAsync(() -> {
+
+            clear();
+
+            ZonedDateTime now = ZonedDateTime.now();
+            List<Appointment> upcomingAppointments = DAOFactory.getAppointmentDAO().getUpcomingAppointmentsByUser(userID, now);
+
+            if (upcomingAppointments == null) {
+                throw new IllegalStateException("Could not load upcoming appointments");
+            }
+
+            this.userID = userID;
+            this.listener = listener;
+
+            for (Appointment appointment : upcomingAppointments) {
+                add(appointment);
+            }
+
+            reschedule();
+
+            Instant alertHorizon = now.toInstant().plus(alertLead);
+
+            return upcomingAppointments.stream()
+                    .anyMatch(appointment -> !appointment.getStartDateTime().toInstant().isAfter(alertHorizon));
+
+        }, executor);
+
+    }
+
+    /**
+     * Stops alerting and drops all pending alerts
+     */
+    public void stop() {
+        executor.execute(this::clear);
+    }
+
+    /**
+     * Updates the alert of an added or updated appointment
+     * @param appointment appointment as written to the database
+     */
+    private void appointmentChanged(Appointment appointment) {
+
+        executor.execute(() -> {
+
+            entries.remove(appointment.getAppointmentID());
+
+            if (appointment.getUserID() == userID) {
+                add(appointment);
+            }
+
+            reschedule();
+
+        });
+
+    }
+
+    /**
+     * Drops the alert of a deleted appointment
+     * @param appointmentID ID of deleted appointment
+     */
+    private void appointmentRemoved(int appointmentID) {
+
+        executor.execute(() -> {
+
+            entries.remove(appointmentID);
+            reschedule();
+
+        });
+
+    }
+
+    /**
+     * Drops the alerts of all appointments of a deleted customer
+     * @param customerID ID of deleted customer
+     */
+    private void customerRemoved(int customerID) {
+
+        executor.execute(() -> {
+
+            entries.values().removeIf(entry -> entry.appointment.getCustomerID() == customerID);
+            reschedule();
+
+        });
+
+    }
+
+    /**
+     * Adds an appointment to the heap if it hasn't started yet
+     * @param appointment appointment of the scheduled user
+     */
+    private void add(Appointment appointment) {
+
+        if (!appointment.getStartDateTime().toInstant().isAfter(Instant.now())) {
+            return;
+        }
+
+        Entry entry = new Entry(appointment);
+
+        entries.put(appointment.getAppointmentID(), entry);
+        heap.add(entry);
+
+        //rebuild once stale entries outnumber current ones so repeated edits don't grow the heap
+        if (heap.size() > 2 * entries.size() + 16) {
+            heap.clear();
+            heap.addAll(entries.values());
+        }
+
+    }
+
+    /**
+     * Fires every alert that is due and sets the timer for the next one
+     */
+    private void fireDueAlerts() {
+
+        nextAlert = null;
+
+        Instant now = Instant.now();
+
+        for (Entry entry = head(); entry != null && !entry.alertTime.isAfter(now); entry = head()) {
+
+            heap.poll();
+            entries.remove(entry.appointment.getAppointmentID());
+
+            try {
+                listener.accept(entry.appointment);
+            }
+
+            catch (RuntimeException exception) {
+                System.out.println(exception.getMessage());
+            }
+
+        }
+
+        reschedule();
+
+    }
+
+    /**
+     * Sets the timer for the earliest pending alert, replacing any timer already set
+     */
+    private void reschedule() {
+
+        if (nextAlert != null) {
+            nextAlert.cancel(false);
+            nextAlert = null;
+        }
+
+        Entry entry = head();
+
+        if (entry != null) {
+
+            long delay = Math.max(0, Duration.between(Instant.now(), entry.alertTime).toMillis());
+            nextAlert = executor.schedule(this::fireDueAlerts, delay, TimeUnit.MILLISECONDS);
+
+        }
+
+    }
+
+    /**
+     * Discards stale entries at the top of the heap
+     * @return earliest current entry, or null if none is pending
+     */
+    private Entry head() {
+
+        while (!heap.isEmpty() && entries.get(heap.peek().appointment.getAppointmentID()) != heap.peek()) {
+            heap.poll();
+        }
+
+        return heap.peek();
+
+    }
+
+    /**
+     * Drops all pending alerts and cancels the timer
+     */
+    private void clear() {
+
+        heap.clear();
+        entries.clear();
+        userID = -1;
+        listener = null;
+        reschedule();
+
+    }
+
+}
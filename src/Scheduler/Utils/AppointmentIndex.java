@@ -0,0 +1,354 @@
+package Scheduler.Utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Singleton in-memory index of appointment time slots per customer and per contact, used to check for overlapping
+ * appointments without querying the database. Loaded with a single query on first use and kept up to date by
+ * AppointmentDAO and CustomerDAO as appointments are written.
+ *
+ * @author Chris Criswell
+ */
+public class AppointmentIndex {
+
+    /**
+     * Singleton instance of AppointmentIndex
+     */
+    private static AppointmentIndex appointmentIndex = null;
+
+    /**
+     * Time slot and owners of a single indexed appointment
+     */
+    private static class Slot {
+
+        final int customerID;
+        final int contactID;
+        final long start;
+        final long end;
+
+        Slot(int customerID, int contactID, long start, long end) {
+            this.customerID = customerID;
+            this.contactID = contactID;
+            this.start = start;
+            this.end = end;
+        }
+
+    }
+
+    /**
+     * Lock allowing concurrent overlap checks while writes are exclusive
+     */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Interval trees of appointment slots keyed by customer ID
+     */
+    private final HashMap<Integer, IntervalTree> customerSlots = new HashMap<>();
+    /**
+     * Interval trees of appointment slots keyed by contact ID
+     */
+    private final HashMap<Integer, IntervalTree> contactSlots = new HashMap<>();
+    /**
+     * Indexed slots keyed by appointment ID
+     */
+    private final HashMap<Integer, Slot> appointmentSlots = new HashMap<>();
+
+    /**
+     * Indicator for whether the index has been loaded from the database
+     */
+    private volatile boolean loaded = false;
+
+    /**
+     * Private default constructor for singleton class
+     */
+    private AppointmentIndex() {
+
+    }
+
+    /**
+     * Gets initialized AppointmentIndex instance or initializes if null
+     * @return AppointmentIndex instance
+     */
+    public static synchronized AppointmentIndex getAppointmentIndex() {
+
+        if (appointmentIndex == null) {
+            appointmentIndex = new AppointmentIndex();
+        }
+
+        return appointmentIndex;
+
+    }
+
+    /**
+     * Accessor for loaded state
+     * @return bool indicating whether the index holds the current appointments
+     */
+    public boolean isLoaded() { return loaded; }
+
+    /**
+     * Loads the index if it hasn't been loaded yet
+     * @return bool indicating whether the index is loaded
+     */
+    public boolean ensureLoaded() {
+        return loaded || load();
+    }
+
+    /**
+     * Replaces the index contents with all appointment slots from the database
+     * @return bool indicating success of database read
+     */
+    public boolean load() {
+
+        String query = "SELECT Appointment_ID, Customer_ID, Contact_ID, Start, End FROM appointments";
+
+        lock.writeLock().lock();
+
+        try (Connection connection = DatabaseHandler.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+
+            clear();
+
+            ResultSet results = preparedStatement.executeQuery();
+
+            while (results.next()) {
+
+                putSlot(results.getInt("Appointment_ID"), new Slot(results.getInt("Customer_ID"),
+                        results.getInt("Contact_ID"), results.getTimestamp("Start").getTime(),
+                        results.getTimestamp("End").getTime()));
+
+            }
+
+            loaded = true;
+
+        }
+
+        catch (SQLException exception) {
+
+            System.out.println(exception.getMessage());
+            clear();
+            loaded = false;
+
+        }
+
+        finally {
+            lock.writeLock().unlock();
+        }
+
+        return loaded;
+
+    }
+
+    /**
+     * Drops all indexed slots so the next check reloads from the database
+     */
+    public void invalidate() {
+
+        lock.writeLock().lock();
+
+        try {
+            clear();
+            loaded = false;
+        }
+
+        finally {
+            lock.writeLock().unlock();
+        }
+
+    }
+
+    /**
+     * Adds an appointment slot or replaces the existing slot for the same appointment ID. Ignored until the index is
+     * loaded, since loading reads the slot from the database anyway.
+     * @param appointmentID ID of appointment
+     * @param customerID ID of customer associated with appointment
+     * @param contactID ID of contact associated with appointment
+     * @param start appointment start
+     * @param end appointment end
+     */
+    public void put(int appointmentID, int customerID, int contactID, Instant start, Instant end) {
+
+        lock.writeLock().lock();
+
+        try {
+
+            if (loaded) {
+                removeSlot(appointmentID);
+                putSlot(appointmentID, new Slot(customerID, contactID, start.toEpochMilli(), end.toEpochMilli()));
+            }
+
+        }
+
+        finally {
+            lock.writeLock().unlock();
+        }
+
+    }
+
+    /**
+     * Removes an appointment slot
+     * @param appointmentID ID of appointment
+     */
+    public void remove(int appointmentID) {
+
+        lock.writeLock().lock();
+
+        try {
+            removeSlot(appointmentID);
+        }
+
+        finally {
+            lock.writeLock().unlock();
+        }
+
+    }
+
+    /**
+     * Removes all appointment slots belonging to a customer
+     * @param customerID ID of customer
+     */
+    public void removeCustomer(int customerID) {
+
+        lock.writeLock().lock();
+
+        try {
+
+            IntervalTree slots = customerSlots.get(customerID);
+
+            if (slots == null) {
+                return;
+            }
+
+            for (int appointmentID : slots.findOverlapping(Long.MIN_VALUE, Long.MAX_VALUE)) {
+                removeSlot(appointmentID);
+            }
+
+        }
+
+        finally {
+            lock.writeLock().unlock();
+        }
+
+    }
+
+    /**
+     * Checks whether a customer has any appointment other than the given one overlapping [start, end)
+     * @param customerID ID of customer
+     * @param start start of time range, inclusive
+     * @param end end of time range, exclusive
+     * @param excludedAppointmentID ID of appointment to ignore, such as the one being updated
+     * @return bool indicating whether an overlapping appointment exists
+     */
+    public boolean customerHasOverlap(int customerID, Instant start, Instant end, int excludedAppointmentID) {
+        return hasOverlap(customerSlots, customerID, start, end, excludedAppointmentID);
+    }
+
+    /**
+     * Checks whether a contact has any appointment other than the given one overlapping [start, end)
+     * @param contactID ID of contact
+     * @param start start of time range, inclusive
+     * @param end end of time range, exclusive
+     * @param excludedAppointmentID ID of appointment to ignore, such as the one being updated
+     * @return bool indicating whether an overlapping appointment exists
+     */
+    public boolean contactHasOverlap(int contactID, Instant start, Instant end, int excludedAppointmentID) {
+        return hasOverlap(contactSlots, contactID, start, end, excludedAppointmentID);
+    }
+
+    /**
+     * Finds IDs of a customer's appointments overlapping [start, end)
+     * @param customerID ID of customer
+     * @param start start of time range, inclusive
+     * @param end end of time range, exclusive
+     * @return list of overlapping appointment IDs ordered by start
+     */
+    public List<Integer> getCustomerOverlaps(int customerID, Instant start, Instant end) {
+
+        lock.readLock().lock();
+
+        try {
+
+            IntervalTree slots = customerSlots.get(customerID);
+
+            return slots == null ? Collections.emptyList() : slots.findOverlapping(start.toEpochMilli(), end.toEpochMilli());
+
+        }
+
+        finally {
+            lock.readLock().unlock();
+        }
+
+    }
+
+    private boolean hasOverlap(HashMap<Integer, IntervalTree> slotMap, int key, Instant start, Instant end,
+                               int excludedAppointmentID) {
+
+        lock.readLock().lock();
+
+        try {
+
+            IntervalTree slots = slotMap.get(key);
+
+            return slots != null && slots.overlapsAny(start.toEpochMilli(), end.toEpochMilli(), excludedAppointmentID);
+
+        }
+
+        finally {
+            lock.readLock().unlock();
+        }
+
+    }
+
+    private void putSlot(int appointmentID, Slot slot) {
+
+        appointmentSlots.put(appointmentID, slot);
+        customerSlots.computeIfAbsent(slot.customerID, id -> new IntervalTree()).insert(appointmentID, slot.start, slot.end);
+        contactSlots.computeIfAbsent(slot.contactID, id -> new IntervalTree()).insert(appointmentID, slot.start, slot.end);
+
+    }
+
+    private void removeSlot(int appointmentID) {
+
+        Slot slot = appointmentSlots.remove(appointmentID);
+
+        if (slot == null) {
+            return;
+        }
+
+        removeFromTree(customerSlots, slot.customerID, appointmentID, slot.start);
+        removeFromTree(contactSlots, slot.contactID, appointmentID, slot.start);
+
+    }
+
+    private static void removeFromTree(HashMap<Integer, IntervalTree> slotMap, int key, int appointmentID, long start) {
+
+        IntervalTree slots = slotMap.get(key);
+
+        if (slots != null) {
+
+            slots.remove(appointmentID, start);
+
+            if (slots.size() == 0) {
+                slotMap.remove(key);
+            }
+
+        }
+
+    }
+
+    private void clear() {
+
+        customerSlots.clear();
+        contactSlots.clear();
+        appointmentSlots.clear();
+
+    }
+
+}
@@ -0,0 +1,95 @@
+package Scheduler.Utils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Singleton in-process bus on which the DAO classes publish a change event for each row they write, so views can
+ * apply the change to the data they hold instead of reloading it. Events are delivered synchronously on the thread
+ * that published them; listeners that touch the UI must hand the event to the JavaFX application thread.
+ *
+ * @author Chris Criswell
+ */
+public class ChangeBus {
+
+    /**
+     * Single app-wide change bus
+     */
+    private static ChangeBus changeBus = null;
+
+    /**
+     * Listeners keyed by the type of row they receive changes for
+     */
+    private final Map<Class<?>, List<Consumer<?>>> listeners = new ConcurrentHashMap<>();
+
+    /**
+     * Private default constructor for singleton
+     */
+    private ChangeBus() {
+
+    }
+
+    /**
+     * Gets initialized change bus or initializes if none created
+     * @return change bus
+     */
+    public static synchronized ChangeBus getChangeBus() {
+
+        if (changeBus == null) {
+            changeBus = new ChangeBus();
+        }
+
+        return changeBus;
+
+    }
+
+    /**
+     * Registers a listener for changes to one type of row
+     * @param entityType type of row to receive changes for
+     * @param listener receives each change on the publishing thread
+     * @param <T> type of row
+     * @return action that unregisters the listener
+     */
+    public <T> Runnable subscribe(Class<T> entityType, Consumer<ChangeEvent<T>> listener) {
+
+        List<Consumer<?>> typeListeners = listeners.computeIfAbsent(entityType, type -> new CopyOnWriteArrayList<>());
+
+        typeListeners.add(listener);
+
+        return () -> typeListeners.remove(listener);
+
+    }
+
+    /**
+     * Delivers a change to every listener registered for its type of row. A listener that throws doesn't keep the
+     * others from receiving the change.
+     * @param event change to deliver
+     * @param <T> type of row
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void publish(ChangeEvent<T> event) {
+
+        List<Consumer<?>> typeListeners = listeners.get(event.getEntityType());
+
+        if (typeListeners == null) {
+            return;
+        }
+
+        for (Consumer<?> listener : typeListeners) {
+
+            try {
+                ((Consumer<ChangeEvent<T>>) listener).accept(event);
+            }
+
+            catch (RuntimeException exception) {
+                System.out.println(exception.getMessage());
+            }
+
+        }
+
+    }
+
+}
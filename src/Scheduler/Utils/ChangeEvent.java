@@ -0,0 +1,84 @@
+package Scheduler.Utils;
+
+/**
+ * Notification that a row was inserted, updated or deleted, published on the change bus after the write commits or
+ * after the change poller finds a write made by another client
+ *
+ * @param <T> type of row changed
+ * @author Chris Criswell
+ */
+public class ChangeEvent<T> {
+
+    /**
+     * Kind of write
+     */
+    public enum Operation { INSERTED, UPDATED, DELETED }
+
+    /**
+     * Type of row changed
+     */
+    private final Class<T> entityType;
+
+    /**
+     * Kind of write
+     */
+    private final Operation operation;
+
+    /**
+     * ID of row changed
+     */
+    private final int id;
+
+    /**
+     * Row as written, or as it was before a delete; null for deletes made elsewhere, whose row isn't known
+     */
+    private final T row;
+
+    /**
+     * Constructor with all members provided
+     * @param entityType type of row changed
+     * @param operation kind of write
+     * @param id ID of row changed
+     * @param row row as written, or as it was before a delete; null for deletes whose row isn't known
+     */
+    public ChangeEvent(Class<T> entityType, Operation operation, int id, T row) {
+        this.entityType = entityType;
+        this.operation = operation;
+        this.id = id;
+        this.row = row;
+    }
+
+    /**
+     * Accessor for type of row changed
+     * @return class of row changed
+     */
+    public Class<T> getEntityType() { return entityType; }
+
+    /**
+     * Accessor for kind of write
+     * @return operation performed
+     */
+    public Operation getOperation() { return operation; }
+
+    /**
+     * Accessor for ID of row changed
+     * @return row ID
+     */
+    public int getId() { return id; }
+
+    /**
+     * Accessor for row changed
+     * @return row as written or as it was before a delete, or null for deletes whose row isn't known
+     */
+    public T getRow() { return row; }
+
+    /**
+     * Override of object toString method to describe the change
+     * @return type, ID and kind of change
+     */
+    @Override
+    public String toString() {
+        return entityType.getSimpleName() + " " + id + " " + operation;
+    }
+
+}
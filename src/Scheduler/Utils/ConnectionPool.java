@@ -0,0 +1,749 @@
+package Scheduler.Utils;
+
+import javax.sql.DataSource;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Bounded, thread-safe pool of database connections exposed as a DataSource. Connections handed out by the pool are
+ * returned to it when closed, so callers should always close them, preferably with try-with-resources. Each pooled
+ * connection also caches the prepared statements made through it so repeated queries aren't re-parsed.
+ *
+ * @author Chris Criswell
+ */
+public class ConnectionPool implements DataSource {
+
+    /**
+     * Full URL to connect to database
+     */
+    private final String jdbcUrl;
+    /**
+     * Properties passed to the driver, including credentials and connect timeout
+     */
+    private final Properties connectionProperties = new Properties();
+
+    /**
+     * Maximum number of connections open at once
+     */
+    private final int maxSize;
+    /**
+     * Number of idle connections kept open even when idle timeout has passed
+     */
+    private final int minIdle;
+    /**
+     * Maximum time in milliseconds to wait for a free connection before failing
+     */
+    private final long borrowTimeoutMillis;
+    /**
+     * Time in milliseconds after which an unused connection is closed
+     */
+    private final long idleTimeoutMillis;
+    /**
+     * Time in seconds allowed for validating a connection on borrow
+     */
+    private final int validationTimeoutSeconds;
+    /**
+     * Maximum number of idle prepared statements cached per connection
+     */
+    private final int statementCacheSize;
+
+    /**
+     * Idle connections, most recently returned first
+     */
+    private final LinkedBlockingDeque<PooledConnection> idleConnections = new LinkedBlockingDeque<>();
+    /**
+     * Permits bounding the number of borrowed plus idle connections
+     */
+    private final Semaphore permits;
+    /**
+     * Background thread closing connections that have been idle too long
+     */
+    private final ScheduledExecutorService evictor;
+
+    /**
+     * Number of connections currently borrowed
+     */
+    private final AtomicInteger activeCount = new AtomicInteger();
+    /**
+     * Total number of successful borrows
+     */
+    private final AtomicLong borrowCount = new AtomicLong();
+    /**
+     * Total time spent waiting for connections in nanoseconds
+     */
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    /**
+     * Longest single wait for a connection in nanoseconds
+     */
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    /**
+     * Total number of physical connections opened
+     */
+    private final AtomicLong createdCount = new AtomicLong();
+    /**
+     * Total number of physical connections closed because they were idle or failed validation
+     */
+    private final AtomicLong evictedCount = new AtomicLong();
+    /**
+     * Total number of prepared statements served from a statement cache
+     */
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    /**
+     * Total number of prepared statements that missed the statement cache and were prepared
+     */
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+    /**
+     * Total number of cached prepared statements closed to make room for others
+     */
+    private final AtomicLong statementCacheEvictions = new AtomicLong();
+    /**
+     * Total number of times a cached prepared statement was executed, one database round trip each
+     */
+    private final AtomicLong statementExecutions = new AtomicLong();
+
+    /**
+     * Indicator for whether the pool has been shut down
+     */
+    private volatile boolean closed = false;
+
+    /**
+     * Login timeout in seconds reported through the DataSource API
+     */
+    private int loginTimeoutSeconds;
+
+    /**
+     * Constructor with default pool sizing and timeouts
+     * @param jdbcUrl full URL to connect to database
+     * @param username database username
+     * @param password database password
+     */
+    public ConnectionPool(String jdbcUrl, String username, String password) {
+        this(jdbcUrl, username, password, 8, 1, 10000, 300000, 10000, 2, 32);
+    }
+
+    /**
+     * Constructor with all pool settings provided
+     * @param jdbcUrl full URL to connect to database
+     * @param username database username
+     * @param password database password
+     * @param maxSize maximum number of connections open at once
+     * @param minIdle number of idle connections kept open past the idle timeout
+     * @param borrowTimeoutMillis maximum time in milliseconds to wait for a free connection
+     * @param idleTimeoutMillis time in milliseconds after which an unused connection is closed
+     * @param connectTimeoutMillis time in milliseconds allowed for opening a new physical connection
+     * @param validationTimeoutSeconds time in seconds allowed for validating a connection on borrow
+     * @param statementCacheSize maximum number of idle prepared statements cached per connection
+     */
+    public ConnectionPool(String jdbcUrl, String username, String password, int maxSize, int minIdle,
+                          long borrowTimeoutMillis, long idleTimeoutMillis, int connectTimeoutMillis,
+                          int validationTimeoutSeconds, int statementCacheSize) {
+
+        this.jdbcUrl = jdbcUrl;
+        this.maxSize = maxSize;
+        this.minIdle = minIdle;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.statementCacheSize = statementCacheSize;
+        this.loginTimeoutSeconds = Math.max(1, connectTimeoutMillis / 1000);
+        this.permits = new Semaphore(maxSize, true);
+
+        connectionProperties.setProperty("user", username);
+        connectionProperties.setProperty("password", password);
+        connectionProperties.setProperty("connectTimeout", String.valueOf(connectTimeoutMillis));
+
+        evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long evictionPeriod = Math.max(1000, idleTimeoutMillis / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdleConnections, evictionPeriod, evictionPeriod, TimeUnit.MILLISECONDS);
+
+    }
+
+    /**
+     * Borrows a connection from the pool, reusing a validated idle connection or opening a new one. Waits up to the
+     * borrow timeout for a connection to be returned if the pool is exhausted.
+     * @return connection that returns itself to the pool when closed
+     * @throws SQLException if the pool is closed, the wait times out, or a new connection cannot be opened
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        long waitStart = System.nanoTime();
+
+        try {
+
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTimeoutException("Timed out after " + borrowTimeoutMillis + " ms waiting for a database connection");
+            }
+
+        }
+
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", exception);
+        }
+
+        try {
+
+            PooledConnection pooled;
+
+            while ((pooled = idleConnections.pollFirst()) != null) {
+
+                if (pooled.isUsable(validationTimeoutSeconds)) {
+                    break;
+                }
+
+                pooled.closePhysical();
+                evictedCount.incrementAndGet();
+
+            }
+
+            if (pooled == null) {
+                pooled = openConnection();
+            }
+
+            long waited = System.nanoTime() - waitStart;
+            totalWaitNanos.addAndGet(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+            borrowCount.incrementAndGet();
+            activeCount.incrementAndGet();
+
+            return pooled.borrow();
+
+        }
+
+        catch (SQLException | RuntimeException exception) {
+            permits.release();
+            throw exception;
+        }
+
+    }
+
+    /**
+     * Unsupported: all connections use the credentials the pool was created with
+     * @param username ignored
+     * @param password ignored
+     * @return never returns
+     * @throws SQLException always
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Connection pool does not support per-call credentials");
+    }
+
+    /**
+     * Opens a new physical connection to the database
+     * @return newly opened pooled connection
+     * @throws SQLException if the connection cannot be opened
+     */
+    private PooledConnection openConnection() throws SQLException {
+
+        DriverManager.setLoginTimeout(loginTimeoutSeconds);
+        Connection physical = DriverManager.getConnection(jdbcUrl, connectionProperties);
+        createdCount.incrementAndGet();
+
+        return new PooledConnection(physical);
+
+    }
+
+    /**
+     * Returns a borrowed connection to the pool, closing it instead if the pool is shut down or the connection is broken
+     * @param pooled connection being returned
+     */
+    private void release(PooledConnection pooled) {
+
+        activeCount.decrementAndGet();
+
+        try {
+
+            if (closed || !pooled.reset()) {
+                pooled.closePhysical();
+            }
+
+            else {
+                //most recently used first so rarely needed connections age out through eviction
+                idleConnections.offerFirst(pooled);
+            }
+
+        }
+
+        finally {
+            permits.release();
+        }
+
+    }
+
+    /**
+     * Closes connections that have been idle longer than the idle timeout while keeping at least minIdle open
+     */
+    private void evictIdleConnections() {
+
+        long now = System.currentTimeMillis();
+
+        Iterator<PooledConnection> iterator = idleConnections.descendingIterator();
+
+        while (iterator.hasNext() && idleConnections.size() > minIdle) {
+
+            PooledConnection pooled = iterator.next();
+
+            if (now - pooled.lastReturned >= idleTimeoutMillis && idleConnections.removeFirstOccurrence(pooled)) {
+                pooled.closePhysical();
+                evictedCount.incrementAndGet();
+            }
+
+        }
+
+    }
+
+    /**
+     * Opens connections until minIdle idle connections are available
+     * @throws SQLException if a connection cannot be opened
+     */
+    public void warmUp() throws SQLException {
+
+        while (idleConnections.size() < minIdle && permits.tryAcquire()) {
+
+            try {
+                PooledConnection pooled = openConnection();
+                pooled.lastReturned = System.currentTimeMillis();
+                idleConnections.offerFirst(pooled);
+            }
+
+            finally {
+                permits.release();
+            }
+
+        }
+
+    }
+
+    /**
+     * Shuts down the pool and closes all idle connections. Borrowed connections are closed when they are returned.
+     */
+    public void close() {
+
+        closed = true;
+        evictor.shutdownNow();
+
+        PooledConnection pooled;
+
+        while ((pooled = idleConnections.pollFirst()) != null) {
+            pooled.closePhysical();
+        }
+
+    }
+
+    /**
+     * Accessor for number of connections currently borrowed
+     * @return number of active connections
+     */
+    public int getActiveCount() { return activeCount.get(); }
+
+    /**
+     * Accessor for number of idle connections waiting in the pool
+     * @return number of idle connections
+     */
+    public int getIdleCount() { return idleConnections.size(); }
+
+    /**
+     * Accessor for maximum pool size
+     * @return maximum number of open connections
+     */
+    public int getMaxSize() { return maxSize; }
+
+    /**
+     * Accessor for total number of successful borrows
+     * @return number of borrows
+     */
+    public long getBorrowCount() { return borrowCount.get(); }
+
+    /**
+     * Accessor for total number of physical connections opened
+     * @return number of connections created
+     */
+    public long getCreatedCount() { return createdCount.get(); }
+
+    /**
+     * Accessor for number of connections closed by idle eviction or failed validation
+     * @return number of connections evicted
+     */
+    public long getEvictedCount() { return evictedCount.get(); }
+
+    /**
+     * Accessor for average time spent waiting to borrow a connection
+     * @return average wait in milliseconds
+     */
+    public double getAverageWaitMillis() {
+
+        long borrows = borrowCount.get();
+
+        return borrows == 0 ? 0.0 : totalWaitNanos.get() / (double) borrows / 1_000_000.0;
+
+    }
+
+    /**
+     * Accessor for longest time spent waiting to borrow a connection
+     * @return maximum wait in milliseconds
+     */
+    public double getMaxWaitMillis() { return maxWaitNanos.get() / 1_000_000.0; }
+
+    /**
+     * Accessor for number of prepared statements served from a statement cache
+     * @return statement cache hits
+     */
+    public long getStatementCacheHits() { return statementCacheHits.get(); }
+
+    /**
+     * Accessor for number of prepared statements that had to be prepared because none was cached
+     * @return statement cache misses
+     */
+    public long getStatementCacheMisses() { return statementCacheMisses.get(); }
+
+    /**
+     * Accessor for number of cached prepared statements closed to make room for others
+     * @return statement cache evictions
+     */
+    public long getStatementCacheEvictions() { return statementCacheEvictions.get(); }
+
+    /**
+     * Accessor for number of times a cached prepared statement was executed. Each execution is one database round trip,
+     * so the difference across a DAO call shows how many round trips it made.
+     * @return statement executions
+     */
+    public long getStatementExecutions() { return statementExecutions.get(); }
+
+    /**
+     * Override of object toString method to summarize pool metrics
+     * @return pool metrics string
+     */
+    @Override
+    public String toString() {
+        return String.format("ConnectionPool[active=%d, idle=%d, max=%d, borrows=%d, created=%d, evicted=%d, avgWait=%.2fms, " +
+                        "maxWait=%.2fms, statementHits=%d, statementMisses=%d, statementEvictions=%d, executions=%d]",
+                getActiveCount(), getIdleCount(), maxSize, getBorrowCount(), getCreatedCount(), getEvictedCount(),
+                getAverageWaitMillis(), getMaxWaitMillis(), getStatementCacheHits(), getStatementCacheMisses(),
+                getStatementCacheEvictions(), getStatementExecutions());
+    }
+
+    @Override
+    public PrintWriter getLogWriter() { return DriverManager.getLogWriter(); }
+
+    @Override
+    public void setLogWriter(PrintWriter out) { DriverManager.setLogWriter(out); }
+
+    @Override
+    public void setLoginTimeout(int seconds) { this.loginTimeoutSeconds = seconds; }
+
+    @Override
+    public int getLoginTimeout() { return loginTimeoutSeconds; }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+
+        throw new SQLException("ConnectionPool does not wrap " + iface.getName());
+
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) { return iface.isInstance(this); }
+
+    /**
+     * Physical connection owned by the pool along with its bookkeeping
+     */
+    private class PooledConnection {
+
+        /**
+         * Underlying driver connection
+         */
+        final Connection physical;
+
+        /**
+         * Idle prepared statements for this connection keyed by SQL
+         */
+        final StatementCache statementCache = new StatementCache(statementCacheSize, statementCacheHits,
+                statementCacheMisses, statementCacheEvictions);
+
+        /**
+         * Time in milliseconds the connection was last returned to the pool
+         */
+        volatile long lastReturned = System.currentTimeMillis();
+
+        /**
+         * Constructor wrapping a physical connection
+         * @param physical underlying driver connection
+         */
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        /**
+         * Creates a single-use handle to this connection whose close() returns the connection to the pool
+         * @return connection handle
+         */
+        Connection borrow() {
+
+            //handles are single-use so a second close() or use after close() can't affect the next borrower
+            final boolean[] handleClosed = {false};
+
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+
+                        switch (method.getName()) {
+
+                            case "close":
+                                if (!handleClosed[0]) {
+                                    handleClosed[0] = true;
+                                    release(this);
+                                }
+                                return null;
+
+                            case "isClosed":
+                                return handleClosed[0] || physical.isClosed();
+
+                            case "prepareStatement":
+                                if (handleClosed[0]) {
+                                    throw new SQLException("Connection has already been returned to the pool");
+                                }
+                                if (args.length == 1) {
+                                    return prepareCached((Connection) proxy, (String) args[0]);
+                                }
+                                break;
+
+                            case "unwrap":
+                            case "isWrapperFor":
+                                break;
+
+                            case "equals":
+                                return proxy == args[0];
+
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+
+                            case "toString":
+                                return "Pooled" + physical;
+
+                            default:
+                                if (handleClosed[0]) {
+                                    throw new SQLException("Connection has already been returned to the pool");
+                                }
+                                break;
+
+                        }
+
+                        try {
+                            return method.invoke(physical, args);
+                        }
+
+                        catch (InvocationTargetException exception) {
+                            throw exception.getCause();
+                        }
+
+                    });
+
+        }
+
+        /**
+         * Returns a prepared statement for the given SQL, reusing an idle cached statement when available. Closing the
+         * returned statement closes its current result set, clears its parameters and puts it back into the cache.
+         * @param handle connection handle the statement was prepared through
+         * @param sql SQL string to prepare
+         * @return prepared statement handle
+         * @throws SQLException if the statement cannot be prepared
+         */
+        PreparedStatement prepareCached(Connection handle, String sql) throws SQLException {
+
+            PreparedStatement cached = statementCache.checkout(sql);
+            final PreparedStatement statement = cached != null ? cached : physical.prepareStatement(sql);
+            final boolean[] statementClosed = {false};
+
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+
+                        switch (method.getName()) {
+
+                            case "close":
+                                if (!statementClosed[0]) {
+                                    statementClosed[0] = true;
+                                    recycle(sql, statement);
+                                }
+                                return null;
+
+                            case "isClosed":
+                                return statementClosed[0] || statement.isClosed();
+
+                            case "getConnection":
+                                return handle;
+
+                            case "equals":
+                                return proxy == args[0];
+
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+
+                            default:
+                                if (statementClosed[0]) {
+                                    throw new SQLException("Statement has already been closed");
+                                }
+                                if (method.getName().startsWith("execute")) {
+                                    statementExecutions.incrementAndGet();
+                                }
+                                break;
+
+                        }
+
+                        try {
+                            return method.invoke(statement, args);
+                        }
+
+                        catch (InvocationTargetException exception) {
+                            throw exception.getCause();
+                        }
+
+                    });
+
+        }
+
+        /**
+         * Resets a statement released by its borrower and returns it to the cache, or closes it if it can't be reused
+         * @param sql SQL string of statement
+         * @param statement physical statement
+         */
+        private void recycle(String sql, PreparedStatement statement) {
+
+            try {
+
+                if (statement.isClosed()) {
+                    return;
+                }
+
+                ResultSet results = statement.getResultSet();
+
+                if (results != null) {
+                    results.close();
+                }
+
+                statement.clearParameters();
+                statement.clearWarnings();
+                statementCache.checkin(sql, statement);
+
+            }
+
+            catch (SQLException exception) {
+
+                System.out.println(exception.getMessage());
+
+                try {
+                    statement.close();
+                }
+
+                catch (SQLException closeException) {
+                    System.out.println(closeException.getMessage());
+                }
+
+            }
+
+        }
+
+        /**
+         * Validates the connection before it is handed out
+         * @param timeoutSeconds time allowed for validation
+         * @return bool indicating whether the connection is still open and responsive
+         */
+        boolean isUsable(int timeoutSeconds) {
+
+            try {
+                return !physical.isClosed() && physical.isValid(timeoutSeconds);
+            }
+
+            catch (SQLException exception) {
+                return false;
+            }
+
+        }
+
+        /**
+         * Restores default connection state after a borrower is done, rolling back any open transaction
+         * @return bool indicating whether the connection can be reused
+         */
+        boolean reset() {
+
+            try {
+
+                if (physical.isClosed()) {
+                    return false;
+                }
+
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+
+                lastReturned = System.currentTimeMillis();
+
+                return true;
+
+            }
+
+            catch (SQLException exception) {
+                System.out.println(exception.getMessage());
+                return false;
+            }
+
+        }
+
+        /**
+         * Closes the underlying driver connection
+         */
+        void closePhysical() {
+
+            statementCache.closeAll();
+
+            try {
+                physical.close();
+            }
+
+            catch (SQLException exception) {
+                System.out.println(exception.getMessage());
+            }
+
+        }
+
+    }
+
+}
@@ -1,21 +1,20 @@
 package Scheduler.Utils;
 
+import Scheduler.DAO.DAOFactory;
+
 import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 
 /**
- * Singleton class handling establishing and ending connections to MySQL database and login verification
+ * Singleton class handling the MySQL connection pool and login verification
  * @author Chris Criswell
  */
 public class DatabaseHandler {
 
     /**
-     * Single app-wide instance of database connection
+     * Single app-wide pool of database connections
      */
-    private static Connection dbConnection = null;
+    private static ConnectionPool connectionPool = null;
 
     /**
      * Server domain name string
@@ -35,27 +34,24 @@ public class DatabaseHandler {
     private static String password = "";
 
     /**
-     * Full URL to connect to database
+     * Full URL to connect to database. rewriteBatchedStatements lets Connector/J send a batch of inserts as one
+     * multi-row INSERT instead of one statement per row.
      */
-    private static final String jdbcUrl = "jdbc:mysql://" + server + '/' + dbName;
+    private static final String jdbcUrl = "jdbc:mysql://" + server + '/' + dbName + "?rewriteBatchedStatements=true";
 
     /**
-     * Static bool used for input forms to communicate to panel controllers to refresh tables to load newly entered data
+     * Returns app-wide connection pool, initializing it and opening its first connection if none started
+     * @return database connection pool
      */
-    public static boolean databaseUpdated = false;
+    public static synchronized ConnectionPool getDataSource() {
 
-    /**
-     * Returns instance of database connection or initializes connection if none started
-     * @return database connection instance
-     */
-    public static Connection getConnection() {
-
-        if (dbConnection == null) {
+        if (connectionPool == null) {
 
             try {
 
                 Class.forName("com.mysql.cj.jdbc.Driver");
-                dbConnection = DriverManager.getConnection(jdbcUrl, username, password);
+                connectionPool = new ConnectionPool(jdbcUrl, username, password);
+                connectionPool.warmUp();
                 System.out.println("DB connection successful");
 
             }
@@ -70,31 +66,58 @@ public class DatabaseHandler {
 
         }
 
-        return dbConnection;
+        return connectionPool;
 
     }
 
     /**
-     * Closes database connection
+     * Replaces the app-wide connection pool, closing any pool already open. Used by tools and benchmarks that run the
+     * DAO classes against a database other than the configured MySQL server.
+     * @param dataSource connection pool to use
      */
-    public static void endConnection() {
+    public static synchronized void setDataSource(ConnectionPool dataSource) {
 
-        try {
+        if (connectionPool != null && connectionPool != dataSource) {
+            connectionPool.close();
+        }
 
-            dbConnection.close();
-            System.out.println("DB connection ended");
+        connectionPool = dataSource;
+
+    }
 
+    /**
+     * Borrows a connection from the connection pool. The connection must be closed to return it to the pool.
+     * @return pooled database connection
+     * @throws SQLException if no connection could be borrowed
+     */
+    public static Connection getConnection() throws SQLException {
+
+        ConnectionPool dataSource = getDataSource();
+
+        if (dataSource == null) {
+            throw new SQLException("Database driver not available");
         }
 
-        catch (SQLException e) {
+        return dataSource.getConnection();
+
+    }
+
+    /**
+     * Closes all pooled database connections
+     */
+    public static synchronized void endConnection() {
+
+        if (connectionPool != null) {
 
-            System.out.println(e.getMessage());
+            connectionPool.close();
+            connectionPool = null;
+            System.out.println("DB connection ended");
 
         }
     }
 
     /**
-     * Handles login validation by checking if username and password pair exist in database
+     * Handles login validation by checking if username and password pair exist in the selected storage backend
      * @param username user-provided username
      * @param password user-provided password
      * @return bool indicating success of login attempt
@@ -108,42 +131,15 @@ public class DatabaseHandler {
             return false;
         }
 
-        try {
-
-            PreparedStatement loginQuery = dbConnection.prepareStatement("SELECT * FROM users WHERE User_Name=? AND Password=?");
-            loginQuery.setString(1, username);
-            loginQuery.setString(2, password);
-            ResultSet result = loginQuery.executeQuery();
-
-            if (result.next()) {
-
-                UserSession.loginUser(username, result.getInt("User_ID"));
-
-                return true;
-
-            }
-
-            else {
-                return false;
-            }
-        }
-
-        catch (SQLException exception) {
-
-            System.out.println(exception.getMessage());
+        int userID = DAOFactory.getUserDAO().getUserIDByLogin(username, password);
 
+        if (userID == -1) {
             return false;
-
         }
-    }
 
-    /**
-     * Mutator for database updated bool member
-     * @param value boolean value indicating whether the database has been updated by user
-     */
-    public static void setDatabaseUpdated(boolean value) {
+        UserSession.loginUser(username, userID);
 
-        databaseUpdated = value;
+        return true;
 
     }
 }
@@ -0,0 +1,347 @@
+package Scheduler.Utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Balanced interval tree of half-open [start, end) intervals identified by an int ID. Implemented as an AVL tree ordered
+ * by start where every node also stores the largest end in its subtree, so overlap queries can skip whole subtrees and
+ * run in O(log n + k) time for k reported intervals.
+ *
+ * @author Chris Criswell
+ */
+public class IntervalTree {
+
+    /**
+     * Tree node holding one interval
+     */
+    private static class Node {
+
+        /**
+         * ID of interval
+         */
+        final int id;
+        /**
+         * Start of interval, inclusive
+         */
+        final long start;
+        /**
+         * End of interval, exclusive
+         */
+        final long end;
+
+        /**
+         * Largest end of any interval in this subtree
+         */
+        long maxEnd;
+        /**
+         * Height of this subtree
+         */
+        int height = 1;
+
+        Node left;
+        Node right;
+
+        /**
+         * Constructor with interval values
+         * @param id ID of interval
+         * @param start start of interval
+         * @param end end of interval
+         */
+        Node(int id, long start, long end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+        }
+
+    }
+
+    /**
+     * Root of tree
+     */
+    private Node root = null;
+
+    /**
+     * Number of intervals in tree
+     */
+    private int size = 0;
+
+    /**
+     * Accessor for number of intervals
+     * @return number of intervals in tree
+     */
+    public int size() { return size; }
+
+    /**
+     * Adds an interval to the tree
+     * @param id ID of interval
+     * @param start start of interval, inclusive
+     * @param end end of interval, exclusive
+     */
+    public void insert(int id, long start, long end) {
+
+        root = insert(root, new Node(id, start, end));
+        size++;
+
+    }
+
+    /**
+     * Removes an interval from the tree
+     * @param id ID of interval
+     * @param start start of interval, needed to locate it
+     * @return bool indicating whether the interval was found and removed
+     */
+    public boolean remove(int id, long start) {
+
+        int sizeBefore = size;
+        root = remove(root, id, start);
+
+        return size < sizeBefore;
+
+    }
+
+    /**
+     * Checks whether any interval other than the excluded one overlaps [start, end)
+     * @param start start of query range, inclusive
+     * @param end end of query range, exclusive
+     * @param excludedID ID of interval to ignore, such as the appointment being updated
+     * @return bool indicating whether an overlapping interval exists
+     */
+    public boolean overlapsAny(long start, long end, int excludedID) {
+        return findFirst(root, start, end, excludedID) != null;
+    }
+
+    /**
+     * Finds IDs of all intervals overlapping [start, end)
+     * @param start start of query range, inclusive
+     * @param end end of query range, exclusive
+     * @return list of overlapping interval IDs ordered by interval start
+     */
+    public List<Integer> findOverlapping(long start, long end) {
+
+        List<Integer> overlapping = new ArrayList<>();
+        collect(root, start, end, overlapping);
+
+        return overlapping;
+
+    }
+
+    /**
+     * Depth-first search for the first overlapping interval, skipping subtrees that end before the range starts
+     * or start after it ends
+     */
+    private static Node findFirst(Node node, long start, long end, int excludedID) {
+
+        if (node == null || node.maxEnd <= start) {
+            return null;
+        }
+
+        Node found = findFirst(node.left, start, end, excludedID);
+
+        if (found != null) {
+            return found;
+        }
+
+        //every node to the right starts at or after this one
+        if (node.start >= end) {
+            return null;
+        }
+
+        if (node.end > start && node.id != excludedID) {
+            return node;
+        }
+
+        return findFirst(node.right, start, end, excludedID);
+
+    }
+
+    /**
+     * In-order collection of overlapping interval IDs, skipping subtrees that can't overlap
+     */
+    private static void collect(Node node, long start, long end, List<Integer> overlapping) {
+
+        if (node == null || node.maxEnd <= start) {
+            return;
+        }
+
+        collect(node.left, start, end, overlapping);
+
+        if (node.start >= end) {
+            return;
+        }
+
+        if (node.end > start) {
+            overlapping.add(node.id);
+        }
+
+        collect(node.right, start, end, overlapping);
+
+    }
+
+    /**
+     * Orders nodes by start, breaking ties by ID
+     */
+    private static int compare(long start, int id, Node node) {
+
+        int byStart = Long.compare(start, node.start);
+
+        return byStart != 0 ? byStart : Integer.compare(id, node.id);
+
+    }
+
+    private Node insert(Node node, Node added) {
+
+        if (node == null) {
+            return added;
+        }
+
+        if (compare(added.start, added.id, node) < 0) {
+            node.left = insert(node.left, added);
+        }
+
+        else {
+            node.right = insert(node.right, added);
+        }
+
+        return rebalance(node);
+
+    }
+
+    private Node remove(Node node, int id, long start) {
+
+        if (node == null) {
+            return null;
+        }
+
+        int comparison = compare(start, id, node);
+
+        if (comparison < 0) {
+            node.left = remove(node.left, id, start);
+        }
+
+        else if (comparison > 0) {
+            node.right = remove(node.right, id, start);
+        }
+
+        else {
+
+            size--;
+
+            if (node.left == null) {
+                return node.right;
+            }
+
+            if (node.right == null) {
+                return node.left;
+            }
+
+            Node successor = node.right;
+
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+
+            node.right = removeMin(node.right);
+            successor.right = node.right;
+            successor.left = node.left;
+            node = successor;
+
+        }
+
+        return rebalance(node);
+
+    }
+
+    private Node removeMin(Node node) {
+
+        if (node.left == null) {
+            return node.right;
+        }
+
+        node.left = removeMin(node.left);
+
+        return rebalance(node);
+
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    /**
+     * Recomputes height and max end of a node from its children
+     */
+    private static void update(Node node) {
+
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        node.maxEnd = node.end;
+
+        if (node.left != null && node.left.maxEnd > node.maxEnd) {
+            node.maxEnd = node.left.maxEnd;
+        }
+
+        if (node.right != null && node.right.maxEnd > node.maxEnd) {
+            node.maxEnd = node.right.maxEnd;
+        }
+
+    }
+
+    private static Node rotateRight(Node node) {
+
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+
+        return pivot;
+
+    }
+
+    private static Node rotateLeft(Node node) {
+
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+
+        return pivot;
+
+    }
+
+    /**
+     * Restores AVL balance at a node after an insert or remove below it
+     */
+    private static Node rebalance(Node node) {
+
+        update(node);
+
+        int balance = height(node.left) - height(node.right);
+
+        if (balance > 1) {
+
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+
+            return rotateRight(node);
+
+        }
+
+        if (balance < -1) {
+
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+
+            return rotateLeft(node);
+
+        }
+
+        return node;
+
+    }
+
+}
@@ -0,0 +1,88 @@
+package Scheduler.Utils;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * Tracks the most recent background request for a piece of UI, such as a table, and publishes its result on the JavaFX
+ * application thread. Submitting a new request cancels the previous one, and results of superseded requests are dropped
+ * even if they finish first.
+ *
+ * @param <T> type of request result
+ * @author Chris Criswell
+ */
+public class LatestRequest<T> {
+
+    /**
+     * Most recently submitted request
+     */
+    private CompletableFuture<T> latest = null;
+
+    /**
+     * Cancels any pending request and publishes the result of the given one to the UI when it completes
+     * @param request background request, typically from an asynchronous DAO
+     * @param onResult handler run on the JavaFX application thread with the request result
+     */
+    public void submit(CompletableFuture<T> request, Consumer<T> onResult) {
+        submit(request, onResult, exception -> {});
+    }
+
+    /**
+     * Cancels any pending request and publishes the result or failure of the given one to the UI when it completes.
+     * The request itself is tracked, so cancelling cancels the future the caller started rather than one derived from it.
+     * @param request background request, typically from an asynchronous DAO
+     * @param onResult handler run on the JavaFX application thread with the request result
+     * @param onFailure handler run on the JavaFX application thread with the cause if the request fails; not run for a
+     *                  cancelled or superseded request
+     */
+    public synchronized void submit(CompletableFuture<T> request, Consumer<T> onResult, Consumer<Throwable> onFailure) {
+
+        cancel();
+        latest = request;
+
+        request.whenComplete((result, exception) -> Platform.runLater(() -> {
+
+            synchronized (this) {
+
+                if (latest != request) {
+                    return;
+                }
+
+                latest = null;
+
+            }
+
+            if (exception == null) {
+                onResult.accept(result);
+            }
+
+            else if (!(exception instanceof CancellationException || exception.getCause() instanceof CancellationException)) {
+
+                Throwable cause = exception instanceof CompletionException ? exception.getCause() : exception;
+
+                System.out.println(cause.getMessage());
+                onFailure.accept(cause);
+
+            }
+
+        }));
+
+    }
+
+    /**
+     * Cancels the pending request, if any, so its result is never published
+     */
+    public synchronized void cancel() {
+
+        if (latest != null) {
+            latest.cancel(false);
+            latest = null;
+        }
+
+    }
+
+}
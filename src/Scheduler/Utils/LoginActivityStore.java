@@ -0,0 +1,741 @@
+package Scheduler.Utils;
+
+import Scheduler.Models.LoginAttempt;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Queryable binary store of login attempts, kept alongside login_activity.txt. Attempts are stored in three files:
+ * login_activity.names holds each distinct username once, login_activity.times holds one big-endian epoch millisecond
+ * per attempt, and login_activity.users holds one int per attempt packing the username's position in the names file
+ * with the result. An attempt takes 12 bytes.
+ * <p>
+ * Attempts are stored in time order, so the times column is itself the time index and any time range is found by
+ * binary search. Opening the store builds a username index listing each user's attempts in order, and a running count
+ * of successful logins so that counts over any time range need only two binary searches. Queries therefore take
+ * logarithmic time however many attempts are stored. An attempt timestamped before the previous stored attempt, as
+ * when a thread is delayed between timestamping and queueing it, is stored with the previous attempt's time.
+ * <p>
+ * Files are appended names first, then columns, and forced after each batch. Each append writes at the offsets the
+ * attempts in memory end at, after cutting back anything a failed append left beyond them, so the files never go out
+ * of step with each other or with memory. On opening, columns are cut back to the last attempt complete in both and
+ * referring to a stored name, discarding a batch torn by a crash.
+ *
+ * @author Chris Criswell
+ */
+public class LoginActivityStore {
+
+    /**
+     * Store in the working directory, next to login_activity.txt
+     */
+    private static LoginActivityStore loginActivityStore = null;
+
+    /**
+     * File name stem shared by the store's files
+     */
+    private static final String stem = "login_activity";
+
+    /**
+     * Directory holding the store's files
+     */
+    private final Path directory;
+
+    /**
+     * Usernames in order of first attempt; a username's position is its ID
+     */
+    private final List<String> names = new ArrayList<>();
+
+    /**
+     * IDs of usernames
+     */
+    private final Map<String, Integer> nameIDs = new HashMap<>();
+
+    /**
+     * Length of the names file up to the end of the last username in memory
+     */
+    private long namesLength = 0;
+
+    /**
+     * Number of attempts stored
+     */
+    private int size = 0;
+
+    /**
+     * Attempt times in epoch milliseconds, non-decreasing
+     */
+    private long[] times = new long[1024];
+
+    /**
+     * Attempt username IDs shifted left one bit, with the low bit set for successful logins
+     */
+    private int[] users = new int[1024];
+
+    /**
+     * Number of successful logins among the first i attempts, at index i
+     */
+    private int[] successCounts = new int[1025];
+
+    /**
+     * Positions of each user's attempts, by username ID
+     */
+    private int[][] postings = new int[16][];
+
+    /**
+     * Number of positions used in each user's postings, by username ID
+     */
+    private int[] postingCounts = new int[16];
+
+    /**
+     * Open names file
+     */
+    private FileChannel namesChannel;
+
+    /**
+     * Open times column
+     */
+    private FileChannel timesChannel;
+
+    /**
+     * Open users column
+     */
+    private FileChannel usersChannel;
+
+    /**
+     * Opens the store in a directory, creating its files if none exist, and builds its indexes
+     * @param directory directory holding the store's files
+     * @throws IOException if the files cannot be opened or read
+     */
+    public LoginActivityStore(Path directory) throws IOException {
+
+        this.directory = directory;
+
+        namesChannel = open(".names");
+        timesChannel = open(".times");
+        usersChannel = open(".users");
+
+        load();
+
+    }
+
+    /**
+     * Gets the store in the working directory, opening it if not yet open
+     * @return store, or null if it cannot be opened
+     */
+    public static synchronized LoginActivityStore getLoginActivityStore() {
+
+        if (loginActivityStore == null) {
+
+            try {
+                loginActivityStore = new LoginActivityStore(Paths.get("."));
+            }
+
+            catch (IOException exception) {
+                System.out.println(exception.getMessage());
+            }
+
+        }
+
+        return loginActivityStore;
+
+    }
+
+    /**
+     * Opens one of the store's files for reading and writing
+     * @param extension file extension including its dot
+     * @return open channel
+     * @throws IOException if the file cannot be opened
+     */
+    private FileChannel open(String extension) throws IOException {
+        return FileChannel.open(directory.resolve(stem + extension), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Reads the store's files, cutting off any torn tail, and builds the indexes
+     * @throws IOException if a file cannot be read or truncated
+     */
+    private void load() throws IOException {
+
+        byte[] nameBytes = readAll(namesChannel);
+        int position = 0;
+
+        while (position + 2 <= nameBytes.length) {
+
+            int length = ((nameBytes[position] & 0xFF) << 8) | (nameBytes[position + 1] & 0xFF);
+
+            if (position + 2 + length > nameBytes.length) {
+                break;
+            }
+
+            addName(new DataInputStream(new ByteArrayInputStream(nameBytes, position, 2 + length)).readUTF());
+            position += 2 + length;
+
+        }
+
+        namesChannel.truncate(position);
+        namesLength = position;
+
+        ByteBuffer timeBytes = ByteBuffer.wrap(readAll(timesChannel));
+        ByteBuffer userBytes = ByteBuffer.wrap(readAll(usersChannel));
+        int count = Math.min(timeBytes.capacity() / Long.BYTES, userBytes.capacity() / Integer.BYTES);
+
+        for (int i = 0; i < count; i++) {
+
+            int user = userBytes.getInt();
+
+            if ((user >>> 1) >= names.size()) {
+                break;
+            }
+
+            add(timeBytes.getLong(), user);
+
+        }
+
+        timesChannel.truncate((long) size * Long.BYTES);
+        usersChannel.truncate((long) size * Integer.BYTES);
+
+    }
+
+    /**
+     * Reads a whole file
+     * @param channel open file
+     * @return file contents
+     * @throws IOException if the file cannot be read
+     */
+    private static byte[] readAll(FileChannel channel) throws IOException {
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+
+        channel.position(0);
+
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            // read until full
+        }
+
+        return buffer.array();
+
+    }
+
+    /**
+     * Records a new username in memory
+     * @param name username
+     * @return ID of username
+     */
+    private int addName(String name) {
+
+        int id = names.size();
+
+        names.add(name);
+        nameIDs.put(name, id);
+
+        if (id == postings.length) {
+            postings = Arrays.copyOf(postings, id * 2);
+            postingCounts = Arrays.copyOf(postingCounts, id * 2);
+        }
+
+        postings[id] = new int[4];
+
+        return id;
+
+    }
+
+    /**
+     * Adds an attempt to the in-memory columns and indexes
+     * @param time attempt time in epoch milliseconds, not before the last stored attempt
+     * @param user username ID shifted left one bit, with the low bit set for a successful login
+     */
+    private void add(long time, int user) {
+
+        if (size == times.length) {
+            times = Arrays.copyOf(times, size * 2);
+            users = Arrays.copyOf(users, size * 2);
+            successCounts = Arrays.copyOf(successCounts, size * 2 + 1);
+        }
+
+        times[size] = time;
+        users[size] = user;
+        successCounts[size + 1] = successCounts[size] + (user & 1);
+
+        int id = user >>> 1;
+
+        if (postingCounts[id] == postings[id].length) {
+            postings[id] = Arrays.copyOf(postings[id], postingCounts[id] * 2);
+        }
+
+        postings[id][postingCounts[id]++] = size;
+
+        size++;
+
+    }
+
+    /**
+     * Appends attempts in order and forces them to disk
+     * @param attempts attempts to append
+     * @throws IOException if the files cannot be written; the files are cut back to the attempts stored before the
+     *                     append, or if that fails too, on the next append or open
+     */
+    public synchronized void append(List<LoginAttempt> attempts) throws IOException {
+
+        ByteArrayOutputStream newNames = new ByteArrayOutputStream();
+        DataOutputStream nameOutput = new DataOutputStream(newNames);
+        ByteBuffer timeBytes = ByteBuffer.allocate(attempts.size() * Long.BYTES);
+        ByteBuffer userBytes = ByteBuffer.allocate(attempts.size() * Integer.BYTES);
+
+        int nameCount = names.size();
+        Map<String, Integer> pendingIDs = new HashMap<>();
+        long lastTime = size == 0 ? Long.MIN_VALUE : times[size - 1];
+        long[] newTimes = new long[attempts.size()];
+        int[] newUsers = new int[attempts.size()];
+
+        for (int i = 0; i < attempts.size(); i++) {
+
+            LoginAttempt attempt = attempts.get(i);
+            Integer id = nameIDs.get(attempt.getUsername());
+
+            if (id == null) {
+
+                id = pendingIDs.get(attempt.getUsername());
+
+                if (id == null) {
+                    id = nameCount + pendingIDs.size();
+                    pendingIDs.put(attempt.getUsername(), id);
+                    nameOutput.writeUTF(attempt.getUsername());
+                }
+
+            }
+
+            lastTime = Math.max(lastTime, attempt.getTime().toEpochMilli());
+
+            newTimes[i] = lastTime;
+            newUsers[i] = (id << 1) | (attempt.isSuccess() ? 1 : 0);
+
+            timeBytes.putLong(newTimes[i]);
+            userBytes.putInt(newUsers[i]);
+
+        }
+
+        truncateToStored();
+
+        try {
+
+            writeAll(namesChannel, ByteBuffer.wrap(newNames.toByteArray()), namesLength);
+            writeAll(timesChannel, timeBytes.flip(), (long) size * Long.BYTES);
+            writeAll(usersChannel, userBytes.flip(), (long) size * Integer.BYTES);
+
+            namesChannel.force(false);
+            timesChannel.force(false);
+            usersChannel.force(false);
+
+        }
+
+        catch (IOException exception) {
+
+            try {
+                truncateToStored();
+            }
+
+            catch (IOException truncateException) {
+                exception.addSuppressed(truncateException);
+            }
+
+            throw exception;
+
+        }
+
+        namesLength += newNames.size();
+
+        String[] orderedNames = new String[pendingIDs.size()];
+
+        for (Map.Entry<String, Integer> entry : pendingIDs.entrySet()) {
+            orderedNames[entry.getValue() - nameCount] = entry.getKey();
+        }
+
+        for (String name : orderedNames) {
+            addName(name);
+        }
+
+        for (int i = 0; i < newTimes.length; i++) {
+            add(newTimes[i], newUsers[i]);
+        }
+
+    }
+
+    /**
+     * Cuts each file back to the end of the names and attempts in memory, discarding anything a failed append wrote
+     * @throws IOException if a file cannot be truncated
+     */
+    private void truncateToStored() throws IOException {
+        namesChannel.truncate(namesLength);
+        timesChannel.truncate((long) size * Long.BYTES);
+        usersChannel.truncate((long) size * Integer.BYTES);
+    }
+
+    /**
+     * Writes a buffer to a file at a given position
+     * @param channel open file
+     * @param buffer bytes to write
+     * @param position file offset to write at
+     * @throws IOException if the file cannot be written
+     */
+    private static void writeAll(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+
+    }
+
+    /**
+     * Merges attempts into the store, skipping any already stored with the same username, millisecond and result, and
+     * rewrites the store in time order. Used to convert existing text logs, including ones whose attempts predate
+     * attempts already stored. The three files are replaced one after another, so this should run while the
+     * application is closed.
+     * @param attempts attempts to merge, in any order
+     * @return number of attempts added
+     * @throws IOException if the store cannot be rewritten
+     */
+    public synchronized int merge(Collection<LoginAttempt> attempts) throws IOException {
+
+        List<LoginAttempt> merged = getAttempts(Instant.ofEpochMilli(Long.MIN_VALUE),
+                Instant.ofEpochMilli(Long.MAX_VALUE));
+        Set<String> stored = new HashSet<>();
+
+        for (LoginAttempt attempt : merged) {
+            stored.add(key(attempt));
+        }
+
+        int added = 0;
+
+        for (LoginAttempt attempt : attempts) {
+
+            if (stored.add(key(attempt))) {
+                merged.add(attempt);
+                added++;
+            }
+
+        }
+
+        if (added == 0) {
+            return 0;
+        }
+
+        merged.sort(Comparator.comparing(LoginAttempt::getTime));
+
+        Path temporary = Files.createTempDirectory(directory, stem);
+
+        try {
+
+            new LoginActivityStore(temporary).appendAndClose(merged);
+
+            for (String extension : new String[] {".names", ".times", ".users"}) {
+                Files.move(temporary.resolve(stem + extension), directory.resolve(stem + extension),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+
+        }
+
+        finally {
+
+            for (String extension : new String[] {".names", ".times", ".users"}) {
+                Files.deleteIfExists(temporary.resolve(stem + extension));
+            }
+
+            Files.deleteIfExists(temporary);
+
+        }
+
+        reload();
+
+        return added;
+
+    }
+
+    /**
+     * Appends attempts to a newly created store and closes it
+     * @param attempts attempts to append, in time order
+     * @throws IOException if the store cannot be written
+     */
+    private void appendAndClose(List<LoginAttempt> attempts) throws IOException {
+
+        try {
+            append(attempts);
+        }
+
+        finally {
+            close();
+        }
+
+    }
+
+    /**
+     * Identifies an attempt to the millisecond for duplicate detection
+     * @param attempt login attempt
+     * @return key of username, millisecond and result
+     */
+    private static String key(LoginAttempt attempt) {
+        return attempt.getTime().toEpochMilli() + (attempt.isSuccess() ? "+" : "-") + attempt.getUsername();
+    }
+
+    /**
+     * Rereads the store after its files were replaced
+     * @throws IOException if the files cannot be read
+     */
+    private void reload() throws IOException {
+
+        names.clear();
+        nameIDs.clear();
+        size = 0;
+        Arrays.fill(postingCounts, 0);
+
+        close();
+
+        namesChannel = open(".names");
+        timesChannel = open(".times");
+        usersChannel = open(".users");
+
+        load();
+
+    }
+
+    /**
+     * Closes the store's files
+     * @throws IOException if a file cannot be closed
+     */
+    public synchronized void close() throws IOException {
+        namesChannel.close();
+        timesChannel.close();
+        usersChannel.close();
+    }
+
+    /**
+     * Number of attempts stored
+     * @return attempt count
+     */
+    public synchronized int getAttemptCount() {
+        return size;
+    }
+
+    /**
+     * Finds the first attempt at or after a time
+     * @param millis time in epoch milliseconds
+     * @return position of the first attempt not before millis, or the attempt count if none
+     */
+    private int lowerBound(long millis) {
+
+        int low = 0;
+        int high = size;
+
+        while (low < high) {
+
+            int middle = (low + high) >>> 1;
+
+            if (times[middle] < millis) {
+                low = middle + 1;
+            }
+
+            else {
+                high = middle;
+            }
+
+        }
+
+        return low;
+
+    }
+
+    /**
+     * Finds a user's first attempt at or after a time
+     * @param id username ID
+     * @param millis time in epoch milliseconds
+     * @return index into the user's postings of the first attempt not before millis
+     */
+    private int lowerBound(int id, long millis) {
+
+        int[] positions = postings[id];
+        int low = 0;
+        int high = postingCounts[id];
+
+        while (low < high) {
+
+            int middle = (low + high) >>> 1;
+
+            if (times[positions[middle]] < millis) {
+                low = middle + 1;
+            }
+
+            else {
+                high = middle;
+            }
+
+        }
+
+        return low;
+
+    }
+
+    /**
+     * Counts attempts in a time range
+     * @param from start of range, inclusive
+     * @param to end of range, exclusive
+     * @return number of attempts
+     */
+    public synchronized int countAttempts(Instant from, Instant to) {
+        return Math.max(0, lowerBound(to.toEpochMilli()) - lowerBound(from.toEpochMilli()));
+    }
+
+    /**
+     * Counts successful logins in a time range
+     * @param from start of range, inclusive
+     * @param to end of range, exclusive
+     * @return number of successful logins
+     */
+    public synchronized int countSuccessfulLogins(Instant from, Instant to) {
+
+        int start = lowerBound(from.toEpochMilli());
+        int end = Math.max(start, lowerBound(to.toEpochMilli()));
+
+        return successCounts[end] - successCounts[start];
+
+    }
+
+    /**
+     * Counts failed attempts for a username in a time range, e.g. the last hour
+     * @param username username as entered
+     * @param from start of range, inclusive
+     * @param to end of range, exclusive
+     * @return number of denied attempts
+     */
+    public synchronized int countFailedAttempts(String username, Instant from, Instant to) {
+
+        Integer id = nameIDs.get(username);
+
+        if (id == null) {
+            return 0;
+        }
+
+        int end = lowerBound(id, to.toEpochMilli());
+        int failed = 0;
+
+        for (int i = lowerBound(id, from.toEpochMilli()); i < end; i++) {
+            failed += 1 - (users[postings[id][i]] & 1);
+        }
+
+        return failed;
+
+    }
+
+    /**
+     * Counts logins per day over a range of days, including days without any
+     * @param firstDay first day counted
+     * @param lastDay last day counted
+     * @param zone zone whose midnights divide days
+     * @param successful true to count successful logins, false to count denied attempts
+     * @return counts by day, in day order
+     */
+    public synchronized SortedMap<LocalDate, Integer> countLoginsPerDay(LocalDate firstDay, LocalDate lastDay,
+                                                                        ZoneId zone, boolean successful) {
+
+        SortedMap<LocalDate, Integer> counts = new TreeMap<>();
+
+        int start = lowerBound(firstDay.atStartOfDay(zone).toInstant().toEpochMilli());
+
+        for (LocalDate day = firstDay; !day.isAfter(lastDay); day = day.plusDays(1)) {
+
+            int end = lowerBound(day.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli());
+            int successes = successCounts[end] - successCounts[start];
+
+            counts.put(day, successful ? successes : end - start - successes);
+
+            start = end;
+
+        }
+
+        return counts;
+
+    }
+
+    /**
+     * Gets attempts in a time range
+     * @param from start of range, inclusive
+     * @param to end of range, exclusive
+     * @return attempts in time order
+     */
+    public synchronized List<LoginAttempt> getAttempts(Instant from, Instant to) {
+
+        int start = lowerBound(from.toEpochMilli());
+        int end = lowerBound(to.toEpochMilli());
+        List<LoginAttempt> attempts = new ArrayList<>(Math.max(0, end - start));
+
+        for (int i = start; i < end; i++) {
+            attempts.add(attemptAt(i));
+        }
+
+        return attempts;
+
+    }
+
+    /**
+     * Gets a username's attempts in a time range
+     * @param username username as entered
+     * @param from start of range, inclusive
+     * @param to end of range, exclusive
+     * @return attempts in time order
+     */
+    public synchronized List<LoginAttempt> getAttempts(String username, Instant from, Instant to) {
+
+        List<LoginAttempt> attempts = new ArrayList<>();
+        Integer id = nameIDs.get(username);
+
+        if (id == null) {
+            return attempts;
+        }
+
+        int end = lowerBound(id, to.toEpochMilli());
+
+        for (int i = lowerBound(id, from.toEpochMilli()); i < end; i++) {
+            attempts.add(attemptAt(postings[id][i]));
+        }
+
+        return attempts;
+
+    }
+
+    /**
+     * Builds the attempt stored at a position
+     * @param position position in the columns
+     * @return login attempt
+     */
+    private LoginAttempt attemptAt(int position) {
+        return new LoginAttempt(names.get(users[position] >>> 1), Instant.ofEpochMilli(times[position]),
+                (users[position] & 1) == 1);
+    }
+
+}
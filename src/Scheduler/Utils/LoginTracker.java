@@ -1,16 +1,71 @@
 package Scheduler.Utils;
 
-import java.io.File;
-import java.io.FileWriter;
+import Scheduler.Models.LoginAttempt;
+
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPOutputStream;
 
 /**
- * Logger class to track and log login activity
+ * Logger class to track and log login activity. Attempts are queued without locking and written by a background
+ * thread, so logging never blocks the login form on disk I/O. The writer drains every queued attempt into one buffered
+ * write followed by one force, so a burst of attempts costs one disk sync rather than one per attempt. The log is
+ * rotated when the UTC date changes or it reaches maxFileBytes; rotated files are gzip compressed. Each batch is also
+ * appended to the LoginActivityStore, which answers queries over the whole history.
+ * <p>
+ * A failed write is retried from the first attempt not yet forced to disk, after cutting the log file back to where
+ * that attempt's write began, so a retry never duplicates lines. Attempts the store fails to take are kept and appended
+ * again on the writer's next pass.
+ * <p>
+ * The queue holds up to queueCapacity attempts. Attempts are never dropped: if the queue is full, logActivity waits for
+ * the writer to make room, which only happens if the disk cannot keep up.
  *
  * @author Chris Criswell
  */
 public class LoginTracker {
 
+    /**
+     * Most attempts queued before logActivity waits for the writer
+     */
+    public static final int queueCapacity = 65_536;
+
+    /**
+     * Size at which the log file is rotated
+     */
+    public static final long maxFileBytes = 10L * 1024 * 1024;
+
+    /**
+     * Longest the writer sleeps without being woken, bounding how late a missed wakeup can delay a write
+     */
+    private static final long idleMillis = 1_000;
+
+    /**
+     * Size of the buffer attempts are encoded into before each write
+     */
+    private static final int bufferBytes = 64 * 1024;
+
     /**
      * Singleton instance of LoginTracker
      */
@@ -21,21 +76,95 @@ public class LoginTracker {
     private static String filename = "login_activity.txt";
 
     /**
-     * Private default constructor for singleton class
+     * Attempts waiting to be written
+     */
+    private final Queue<LoginAttempt> queue = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Number of attempts in the queue, bounding it at queueCapacity
+     */
+    private final AtomicInteger queuedCount = new AtomicInteger();
+
+    /**
+     * Number of attempts written and forced to disk
+     */
+    private final AtomicLong writtenCount = new AtomicLong();
+
+    /**
+     * Number of forces, each covering every attempt drained since the previous one
+     */
+    private final AtomicLong forceCount = new AtomicLong();
+
+    /**
+     * Number of times logActivity waited for room in a full queue
+     */
+    private final AtomicLong fullWaitCount = new AtomicLong();
+
+    /**
+     * Background thread writing queued attempts
+     */
+    private final Thread writer;
+
+    /**
+     * Set when the writer should write what is queued and exit
+     */
+    private volatile boolean stopping = false;
+
+    /**
+     * Buffer attempts are encoded into; used only by the writer
+     */
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(bufferBytes);
+
+    /**
+     * Open log file, or null until the first write or after a failed write; used only by the writer
+     */
+    private FileChannel channel = null;
+
+    /**
+     * Size of the open log file including buffered bytes; used only by the writer
+     */
+    private long fileBytes = 0;
+
+    /**
+     * UTC date the open log file covers; used only by the writer
+     */
+    private LocalDate fileDate = null;
+
+    /**
+     * Size the log file had before the write in progress, which a failed write is cut back to before it is retried, or
+     * -1 when no write is in progress; used only by the writer
+     */
+    private long writeStart = -1;
+
+    /**
+     * Number of leading attempts of the batch being written that are already forced to disk; used only by the writer
+     */
+    private int batchLogged = 0;
+
+    /**
+     * Attempts written to the log but not yet appended to the store, in order; used only by the writer
+     */
+    private final List<LoginAttempt> unindexed = new ArrayList<>();
+
+    /**
+     * Private default constructor for singleton class; starts the writer thread
      */
     private LoginTracker() {
 
+        writer = new Thread(this::writeQueued, "login-activity-writer");
+        writer.setDaemon(true);
+        writer.start();
+
     }
 
     /**
      * Gets initialized LoginTracker instance or initializes if null
      * @return LoginTracker instance
      */
-    public static LoginTracker getLoginTracker() {
+    public static synchronized LoginTracker getLoginTracker() {
 
         if (loginTracker == null) {
             loginTracker = new LoginTracker();
-            createFile();
         }
 
         return loginTracker;
@@ -43,56 +172,365 @@ public class LoginTracker {
     }
 
     /**
-     * Creates login log file if none currently exists
+     * Writes every queued attempt and stops the writer thread, if the tracker was started
      */
-    private static void createFile() {
+    public static synchronized void shutdown() {
 
-        File logFile = new File(filename);
-
-        if (logFile.exists()) {
+        if (loginTracker == null) {
             return;
         }
 
-        else {
+        loginTracker.stopping = true;
+        LockSupport.unpark(loginTracker.writer);
 
-            try {
-                logFile.createNewFile();
-            }
+        try {
+            loginTracker.writer.join(TimeUnit.SECONDS.toMillis(5));
+        }
 
-            catch (IOException e) {
-                System.out.println(e.getMessage());
-            }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
         }
+
+        loginTracker = null;
+
     }
 
     /**
-     * Logs login attempts
+     * Logs login attempts. The attempt is timestamped now and queued for the writer thread.
      * @param username user-inputted username
      * @param result success of login attempt
      */
     public void logActivity(String username, boolean result) {
 
-        try {
+        //https://www.javatpoint.com/java-get-current-date
+        LoginAttempt attempt = new LoginAttempt(username, Clock.systemUTC().instant(), result);
 
-            FileWriter logger = new FileWriter(filename, true);
+        while (queuedCount.incrementAndGet() > queueCapacity) {
+
+            queuedCount.decrementAndGet();
+            fullWaitCount.incrementAndGet();
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+
+        }
 
-            //https://www.javatpoint.com/java-get-current-date
-            logger.append("Username: " + username + '\t' + "Date/Time: " + java.time.Clock.systemUTC().instant() + '\t');
+        queue.add(attempt);
+        LockSupport.unpark(writer);
+
+    }
+
+    /**
+     * Accessor for number of attempts written and forced to disk
+     * @return attempts written
+     */
+    public long getWrittenCount() { return writtenCount.get(); }
+
+    /**
+     * Accessor for number of forces of the log file
+     * @return forces made
+     */
+    public long getForceCount() { return forceCount.get(); }
+
+    /**
+     * Accessor for number of times logActivity waited for room in a full queue
+     * @return waits on a full queue
+     */
+    public long getFullWaitCount() { return fullWaitCount.get(); }
+
+    /**
+     * Accessor for number of attempts waiting to be written
+     * @return attempts queued
+     */
+    public int getQueuedCount() { return queuedCount.get(); }
 
-            if (result) {
-                logger.append("Result: success" + '\n');
+    /**
+     * Override of object toString method to summarize logging metrics
+     * @return logging metrics string
+     */
+    @Override
+    public String toString() {
+        return String.format("LoginTracker[queued=%d, written=%d, forces=%d, fullWaits=%d]", queuedCount.get(),
+                writtenCount.get(), forceCount.get(), fullWaitCount.get());
+    }
+
+    /**
+     * Writer thread loop: writes whatever is queued, up to one queue's worth per force so producers refilling the queue
+     * cannot keep the writer draining forever, then sleeps until woken by logActivity. After a failed write it
+     * sleeps before retrying the attempts not yet on disk; on shutdown it makes one last attempt.
+     */
+    private void writeQueued() {
+
+        List<LoginAttempt> batch = new ArrayList<>();
+
+        while (true) {
+
+            boolean stop = stopping;
+
+            LoginAttempt attempt;
+
+            while (batch.size() < queueCapacity && (attempt = queue.poll()) != null) {
+                queuedCount.decrementAndGet();
+                batch.add(attempt);
+            }
+
+            if (!batch.isEmpty()) {
+
+                try {
+                    write(batch);
+                    logged(batch, batch.size());
+                }
+
+                catch (IOException exception) {
+                    System.out.println(exception.getMessage());
+                    closeChannel();
+                    logged(batch, batchLogged);
+                }
+
+            }
+
+            if (!unindexed.isEmpty()) {
+                index();
+            }
+
+            if (stop && queue.isEmpty()) {
+                break;
+            }
+
+            if (queue.isEmpty() || !batch.isEmpty()) {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(idleMillis));
+            }
+
+        }
+
+        closeChannel();
+
+    }
+
+    /**
+     * Writes a batch of attempts and forces them to disk, rotating the log file where an attempt falls on a new UTC
+     * date or the file is full. If the write fails, batchLogged counts the leading attempts forced to disk before a
+     * rotation and writeStart is where the rest began, so a retry of the rest starts with a file cut back to it.
+     * @param batch attempts to write, in order
+     * @throws IOException if the log file cannot be written
+     */
+    private void write(List<LoginAttempt> batch) throws IOException {
+
+        buffer.clear();
+        batchLogged = 0;
+
+        if (channel == null) {
+            openChannel();
+        }
+
+        writeStart = fileBytes;
+
+        for (int index = 0; index < batch.size(); index++) {
+
+            LoginAttempt attempt = batch.get(index);
+            byte[] line = attempt.toString().getBytes(StandardCharsets.UTF_8);
+            LocalDate date = attempt.getTime().atOffset(ZoneOffset.UTC).toLocalDate();
+
+            if (fileBytes > 0 && (fileBytes + line.length > maxFileBytes || !date.equals(fileDate))) {
+
+                drainBuffer();
+                channel.force(false);
+                forceCount.incrementAndGet();
+
+                batchLogged = index;
+                writeStart = -1;
+
+                rotate();
+
+                writeStart = fileBytes;
+
+            }
+
+            if (buffer.remaining() < line.length) {
+                drainBuffer();
+            }
+
+            if (fileBytes == 0) {
+                fileDate = date;
+            }
+
+            if (line.length > buffer.capacity()) {
+                channel.write(ByteBuffer.wrap(line));
             }
 
             else {
-                logger.append("Result: denied"  + '\n');
+                buffer.put(line);
             }
 
-            logger.close();
+            fileBytes += line.length;
 
         }
 
-        catch (IOException e) {
-            System.out.println(e.getMessage());
+        drainBuffer();
+        channel.force(false);
+        forceCount.incrementAndGet();
+
+        writeStart = -1;
+
+    }
+
+    /**
+     * Moves the leading attempts of a batch that are on disk to the attempts waiting for the store
+     * @param batch batch being written
+     * @param count number of leading attempts forced to disk
+     */
+    private void logged(List<LoginAttempt> batch, int count) {
+
+        List<LoginAttempt> logged = batch.subList(0, count);
+
+        unindexed.addAll(logged);
+        writtenCount.addAndGet(count);
+        logged.clear();
+
+    }
+
+    /**
+     * Appends the attempts written to the log to the queryable login activity store. The store takes all of them or
+     * none, so if it fails they are kept and appended again, ahead of later attempts, on the writer's next pass.
+     */
+    private void index() {
+
+        LoginActivityStore store = LoginActivityStore.getLoginActivityStore();
+
+        if (store == null) {
+            unindexed.clear();
+            return;
+        }
+
+        try {
+            store.append(unindexed);
+            unindexed.clear();
+        }
+
+        catch (IOException exception) {
+            System.out.println(exception.getMessage());
+        }
+
+    }
+
+    /**
+     * Writes the buffered bytes to the log file
+     * @throws IOException if the log file cannot be written
+     */
+    private void drainBuffer() throws IOException {
+
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
         }
+
+        buffer.clear();
+
     }
+
+    /**
+     * Opens the log file for appending, creating it if none currently exists, and cuts off anything a failed write
+     * left past writeStart. An existing file is taken to cover the UTC date it was last modified.
+     * @throws IOException if the log file cannot be opened
+     */
+    private void openChannel() throws IOException {
+
+        Path path = Paths.get(filename);
+
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        fileDate = Files.getLastModifiedTime(path).toInstant().atOffset(ZoneOffset.UTC).toLocalDate();
+
+        if (writeStart >= 0 && channel.size() > writeStart) {
+            channel.truncate(writeStart);
+        }
+
+        fileBytes = channel.size();
+
+    }
+
+    /**
+     * Closes the log file, if open
+     */
+    private void closeChannel() {
+
+        if (channel == null) {
+            return;
+        }
+
+        try {
+            channel.close();
+        }
+
+        catch (IOException exception) {
+            System.out.println(exception.getMessage());
+        }
+
+        channel = null;
+
+    }
+
+    /**
+     * Renames the log file after the UTC date it covers, compresses it, and opens a new log file
+     * @throws IOException if the log file cannot be renamed or reopened
+     */
+    private void rotate() throws IOException {
+
+        closeChannel();
+
+        String stem = filename.endsWith(".txt") ? filename.substring(0, filename.length() - 4) : filename;
+        Path rotated = Paths.get(stem + "-" + fileDate + ".txt");
+
+        for (int index = 1; Files.exists(rotated) || Files.exists(Paths.get(rotated + ".gz")); index++) {
+            rotated = Paths.get(stem + "-" + fileDate + "." + index + ".txt");
+        }
+
+        Files.move(Paths.get(filename), rotated);
+        openChannel();
+        compress(rotated);
+
+    }
+
+    /**
+     * Gzip compresses a rotated log file and deletes the uncompressed file. A file that fails to compress is left
+     * uncompressed.
+     * @param rotated rotated log file
+     */
+    private static void compress(Path rotated) {
+
+        Path compressed = Paths.get(rotated + ".gz");
+
+        try (InputStream input = Files.newInputStream(rotated);
+             OutputStream output = new GZIPOutputStream(Files.newOutputStream(compressed), bufferBytes)) {
+
+            input.transferTo(output);
+
+        }
+
+        catch (IOException exception) {
+
+            System.out.println(exception.getMessage());
+
+            try {
+                Files.deleteIfExists(compressed);
+            }
+
+            catch (IOException deleteException) {
+                System.out.println(deleteException.getMessage());
+            }
+
+            return;
+
+        }
+
+        try {
+            Files.delete(rotated);
+        }
+
+        catch (IOException exception) {
+            System.out.println(exception.getMessage());
+        }
+
+    }
+
 }
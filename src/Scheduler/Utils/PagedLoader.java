@@ -0,0 +1,187 @@
+package Scheduler.Utils;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.TransformationList;
+import javafx.scene.control.TableRow;
+import javafx.scene.control.TableView;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+
+/**
+ * Loads a list one page at a time in the background as a table is scrolled. Each page is requested by passing the last
+ * loaded item to a page query, so keyset queries can seek directly to the next page. Only pages the user has scrolled to
+ * are loaded, so the first rows show as soon as the first page arrives however large the underlying table is.
+ *
+ * @param <T> type of list item
+ * @author Chris Criswell
+ */
+public class PagedLoader<T> {
+
+    /**
+     * Query returning the page following a given item, or the first page when the item is null
+     */
+    private final BiFunction<T, Integer, CompletableFuture<ObservableList<T>>> pageQuery;
+
+    /**
+     * Number of items requested per page
+     */
+    private final int pageSize;
+
+    /**
+     * Items loaded so far, in page order
+     */
+    private final ObservableList<T> items = FXCollections.observableArrayList();
+
+    /**
+     * Pending page request; resetting cancels it
+     */
+    private final LatestRequest<ObservableList<T>> pageRequest = new LatestRequest<>();
+
+    /**
+     * Indicator for whether a page request is pending
+     */
+    private boolean loading = false;
+
+    /**
+     * Indicator for whether the last page has been loaded
+     */
+    private boolean exhausted = false;
+
+    /**
+     * Constructor with page query and page size
+     * @param pageQuery query returning the page of up to pageSize items following a given item, or the first page when
+     *                  the item is null
+     * @param pageSize number of items requested per page
+     */
+    public PagedLoader(BiFunction<T, Integer, CompletableFuture<ObservableList<T>>> pageQuery, int pageSize) {
+        this.pageQuery = pageQuery;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Accessor for loaded items. The list is filled in place as pages arrive, so it can be set on a table or wrapped in a
+     * filtered list once.
+     * @return list of items loaded so far
+     */
+    public ObservableList<T> getItems() { return items; }
+
+    /**
+     * Accessor for exhausted state
+     * @return bool indicating whether every page has been loaded
+     */
+    public boolean isExhausted() { return exhausted; }
+
+    /**
+     * Sets a row factory on a table that requests the next page when a row within half a page of the end of the table
+     * is shown, including the empty rows shown below the last item. Paging only happens while the table shows the
+     * loaded items or a view of them.
+     * @param tableView table showing the loaded items or a filtered view of them
+     */
+    public void attach(TableView<T> tableView) {
+
+        tableView.setRowFactory(table -> new TableRow<T>() {
+
+            @Override
+            public void updateIndex(int index) {
+
+                super.updateIndex(index);
+
+                if (index >= 0 && index >= table.getItems().size() - pageSize / 2 && isShowing(table)) {
+                    loadNextPage();
+                }
+
+            }
+
+        });
+
+    }
+
+    /**
+     * Checks whether a table is showing the loaded items, either directly or through a filtered or sorted view of them
+     * @param tableView table to check
+     * @return bool indicating whether the table's items come from this loader
+     */
+    private boolean isShowing(TableView<T> tableView) {
+
+        ObservableList<T> tableItems = tableView.getItems();
+
+        return tableItems == items ||
+                (tableItems instanceof TransformationList && ((TransformationList<?, ?>) tableItems).getSource() == items);
+
+    }
+
+    /**
+     * Inserts an item written after its page was loaded at its position in page order. If that position lies past the
+     * last loaded item the item is left for a later page to return when the table is scrolled to it.
+     * @param item item to insert
+     * @param order order the page query returns items in
+     */
+    public void insert(T item, Comparator<? super T> order) {
+
+        int position = Collections.binarySearch(items, item, order);
+
+        if (position < 0) {
+            position = -position - 1;
+        }
+
+        if (position < items.size() || exhausted) {
+            items.add(position, item);
+        }
+
+    }
+
+    /**
+     * Discards loaded items and any pending request and loads the first page again
+     */
+    public void reset() {
+
+        pageRequest.cancel();
+        loading = false;
+        exhausted = false;
+        items.clear();
+
+        loadNextPage();
+
+    }
+
+    /**
+     * Requests the page following the last loaded item unless a request is already pending or every page has been loaded.
+     * A query that returns null or completes exceptionally clears the pending request and stops paging.
+     */
+    public void loadNextPage() {
+
+        if (loading || exhausted) {
+            return;
+        }
+
+        loading = true;
+
+        T lastItem = items.isEmpty() ? null : items.get(items.size() - 1);
+
+        pageRequest.submit(pageQuery.apply(lastItem, pageSize), page -> {
+
+            loading = false;
+
+            //a failed query returns null; stop paging rather than retrying on every scroll
+            if (page == null || page.size() < pageSize) {
+                exhausted = true;
+            }
+
+            if (page != null) {
+                items.addAll(page);
+            }
+
+        }, exception -> {
+
+            loading = false;
+            exhausted = true;
+
+        });
+
+    }
+
+}
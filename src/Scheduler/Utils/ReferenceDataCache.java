@@ -0,0 +1,454 @@
+package Scheduler.Utils;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Singleton cache of reference data that rarely changes: countries, first level divisions and contacts. The data is
+ * read with one query per table into an immutable snapshot, warmed at startup and reloaded when older than its time to
+ * live or after an explicit invalidation. Lookups by name or ID are answered from hash maps without any SQL.
+ *
+ * @author Chris Criswell
+ */
+public class ReferenceDataCache {
+
+    /**
+     * Singleton instance of ReferenceDataCache
+     */
+    private static ReferenceDataCache referenceDataCache = null;
+
+    /**
+     * Default time a snapshot is served before it is reloaded, in milliseconds
+     */
+    private static final long defaultTimeToLiveMillis = 30 * 60 * 1000;
+
+    /**
+     * Time an expired snapshot is served after a failed reload before the next reload is tried, in milliseconds
+     */
+    private static final long retryDelayMillis = 30 * 1000;
+
+    /**
+     * Immutable set of reference data read at one point in time
+     */
+    private static final class Snapshot {
+
+        /**
+         * Time snapshot was read, from System.nanoTime()
+         */
+        final long loadedAt = System.nanoTime();
+
+        /**
+         * Country names in ID order
+         */
+        final List<String> countryNames;
+        final Map<String, Integer> countryIDByName;
+        final Map<Integer, String> countryNameByID;
+
+        /**
+         * Division IDs and names in ID order, held in parallel so ID ranges can be read without a lookup per division
+         */
+        final int[] divisionIDs;
+        final List<String> divisionNames;
+        final Map<String, Integer> divisionIDByName;
+        final Map<Integer, String> divisionNameByID;
+        final Map<Integer, Integer> countryIDByDivisionID;
+
+        /**
+         * Contact names in ID order
+         */
+        final List<String> contactNames;
+        final Map<String, Integer> contactIDByName;
+        final Map<Integer, String> contactNameByID;
+
+        /**
+         * Builds a snapshot from reference data already read
+         * @param countryNames country names keyed by country ID
+         * @param divisionNames division names keyed by division ID
+         * @param countryIDsByDivisionID country IDs keyed by division ID
+         * @param contactNames contact names keyed by contact ID
+         */
+        Snapshot(SortedMap<Integer, String> countryNames, SortedMap<Integer, String> divisionNames,
+                 Map<Integer, Integer> countryIDsByDivisionID, SortedMap<Integer, String> contactNames) {
+
+            Map<String, Integer> countryIDByName = new HashMap<>();
+
+            countryNames.forEach((id, name) -> countryIDByName.put(name, id));
+
+            Map<String, Integer> divisionIDByName = new HashMap<>();
+
+            divisionNames.forEach((id, name) -> divisionIDByName.putIfAbsent(name, id));
+
+            Map<String, Integer> contactIDByName = new HashMap<>();
+
+            contactNames.forEach((id, name) -> contactIDByName.putIfAbsent(name, id));
+
+            this.countryNames = Collections.unmodifiableList(new ArrayList<>(countryNames.values()));
+            this.countryIDByName = Collections.unmodifiableMap(countryIDByName);
+            this.countryNameByID = Collections.unmodifiableMap(new HashMap<>(countryNames));
+
+            this.divisionIDs = divisionNames.keySet().stream().mapToInt(Integer::intValue).toArray();
+            this.divisionNames = Collections.unmodifiableList(new ArrayList<>(divisionNames.values()));
+            this.divisionIDByName = Collections.unmodifiableMap(divisionIDByName);
+            this.divisionNameByID = Collections.unmodifiableMap(new HashMap<>(divisionNames));
+            this.countryIDByDivisionID = Collections.unmodifiableMap(new HashMap<>(countryIDsByDivisionID));
+
+            this.contactNames = Collections.unmodifiableList(new ArrayList<>(contactNames.values()));
+            this.contactIDByName = Collections.unmodifiableMap(contactIDByName);
+            this.contactNameByID = Collections.unmodifiableMap(new HashMap<>(contactNames));
+
+        }
+
+        /**
+         * Reads a snapshot with one query per table
+         * @param connection connection to read with
+         * @return snapshot of reference data
+         * @throws SQLException if a table can't be read
+         */
+        static Snapshot read(Connection connection) throws SQLException {
+
+            SortedMap<Integer, String> countryNames = new TreeMap<>();
+
+            try (PreparedStatement preparedStatement = connection.prepareStatement(
+                    "SELECT Country_ID, Country FROM countries ORDER BY Country_ID")) {
+
+                ResultSet results = preparedStatement.executeQuery();
+
+                while (results.next()) {
+                    countryNames.put(results.getInt("Country_ID"), results.getString("Country"));
+                }
+
+            }
+
+            SortedMap<Integer, String> divisionNames = new TreeMap<>();
+            Map<Integer, Integer> countryIDsByDivisionID = new HashMap<>();
+
+            try (PreparedStatement preparedStatement = connection.prepareStatement(
+                    "SELECT Division_ID, Division, COUNTRY_ID FROM first_level_divisions ORDER BY Division_ID")) {
+
+                ResultSet results = preparedStatement.executeQuery();
+
+                while (results.next()) {
+
+                    int id = results.getInt("Division_ID");
+
+                    divisionNames.put(id, results.getString("Division"));
+                    countryIDsByDivisionID.put(id, results.getInt("COUNTRY_ID"));
+
+                }
+
+            }
+
+            SortedMap<Integer, String> contactNames = new TreeMap<>();
+
+            try (PreparedStatement preparedStatement = connection.prepareStatement(
+                    "SELECT Contact_ID, Contact_Name FROM contacts ORDER BY Contact_ID")) {
+
+                ResultSet results = preparedStatement.executeQuery();
+
+                while (results.next()) {
+                    contactNames.put(results.getInt("Contact_ID"), results.getString("Contact_Name"));
+                }
+
+            }
+
+            return new Snapshot(countryNames, divisionNames, countryIDsByDivisionID, contactNames);
+
+        }
+
+    }
+
+    /**
+     * Current snapshot, or null if not loaded or invalidated. Replaced as a whole so readers never see a partial load.
+     */
+    private volatile Snapshot snapshot = null;
+
+    /**
+     * Time a snapshot is served before it is reloaded, in nanoseconds
+     */
+    private volatile long timeToLiveNanos = defaultTimeToLiveMillis * 1_000_000;
+
+    /**
+     * Indicator for whether the snapshot was loaded from memory rather than the database, in which case it never expires
+     */
+    private volatile boolean pinned = false;
+
+    /**
+     * Indicator for whether the last reload failed, in which case an expired snapshot is served until nextRetryAt
+     */
+    private volatile boolean refreshFailed = false;
+
+    /**
+     * Earliest time another reload is tried after a failed one, from System.nanoTime()
+     */
+    private volatile long nextRetryAt = 0;
+
+    /**
+     * Private default constructor for singleton class
+     */
+    private ReferenceDataCache() {
+
+    }
+
+    /**
+     * Gets initialized ReferenceDataCache instance or initializes if null
+     * @return ReferenceDataCache instance
+     */
+    public static synchronized ReferenceDataCache getReferenceDataCache() {
+
+        if (referenceDataCache == null) {
+            referenceDataCache = new ReferenceDataCache();
+        }
+
+        return referenceDataCache;
+
+    }
+
+    /**
+     * Mutator for time to live
+     * @param timeToLiveMillis time a snapshot is served before it is reloaded, in milliseconds
+     */
+    public void setTimeToLive(long timeToLiveMillis) { this.timeToLiveNanos = timeToLiveMillis * 1_000_000; }
+
+    /**
+     * Reloads all reference data from the database. The previous snapshot is kept if the reload fails, and served
+     * without further reloads for retryDelayMillis.
+     * @return bool indicating success of database read
+     */
+    public synchronized boolean refresh() {
+
+        try (Connection connection = DatabaseHandler.getConnection()) {
+
+            snapshot = Snapshot.read(connection);
+            pinned = false;
+            refreshFailed = false;
+
+            return true;
+
+        }
+
+        catch (SQLException exception) {
+
+            System.out.println(exception.getMessage());
+
+        }
+
+        nextRetryAt = System.nanoTime() + retryDelayMillis * 1_000_000;
+        refreshFailed = true;
+
+        return false;
+
+    }
+
+    /**
+     * Replaces the snapshot with reference data held in memory, for running without a database. The snapshot doesn't
+     * expire until refresh() reloads from the database.
+     * @param countryNames country names keyed by country ID
+     * @param divisionNames division names keyed by division ID
+     * @param countryIDsByDivisionID country IDs keyed by division ID
+     * @param contactNames contact names keyed by contact ID
+     */
+    public synchronized void load(SortedMap<Integer, String> countryNames, SortedMap<Integer, String> divisionNames,
+                                  Map<Integer, Integer> countryIDsByDivisionID, SortedMap<Integer, String> contactNames) {
+
+        snapshot = new Snapshot(countryNames, divisionNames, countryIDsByDivisionID, contactNames);
+        pinned = true;
+
+    }
+
+    /**
+     * Drops the current snapshot so the next lookup reloads from the database
+     */
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    /**
+     * Gets the current snapshot, reloading it first if missing or expired. After a failed reload an expired snapshot is
+     * served as is until nextRetryAt, so lookups don't each wait on an unreachable database.
+     * @return current snapshot, or null if it could not be loaded
+     */
+    private Snapshot current() {
+
+        Snapshot current = snapshot;
+
+        if (current == null || !pinned && System.nanoTime() - current.loadedAt > timeToLiveNanos &&
+                !(refreshFailed && System.nanoTime() - nextRetryAt < 0)) {
+
+            synchronized (this) {
+
+                //another thread may have reloaded while this one waited
+                if (snapshot == current) {
+                    refresh();
+                }
+
+                current = snapshot;
+
+            }
+
+        }
+
+        return current;
+
+    }
+
+    /**
+     * Gets all country names
+     * @return list of country names in ID order, or null if reference data could not be loaded
+     */
+    public ObservableList<String> getCountryNames() {
+
+        Snapshot current = current();
+
+        return current == null ? null : FXCollections.observableArrayList(current.countryNames);
+
+    }
+
+    /**
+     * Gets country ID for a country name
+     * @param country country name
+     * @return country ID, or -1 if not found
+     */
+    public int getCountryID(String country) {
+
+        Snapshot current = current();
+
+        return current == null ? -1 : current.countryIDByName.getOrDefault(country, -1);
+
+    }
+
+    /**
+     * Gets name of the country a first level division is in
+     * @param divisionID ID of first level division
+     * @return country name, or null if not found
+     */
+    public String getCountryNameByDivisionID(int divisionID) {
+
+        Snapshot current = current();
+
+        if (current == null) {
+            return null;
+        }
+
+        Integer countryID = current.countryIDByDivisionID.get(divisionID);
+
+        return countryID == null ? null : current.countryNameByID.get(countryID);
+
+    }
+
+    /**
+     * Gets all first level division names
+     * @return list of division names in ID order, or null if reference data could not be loaded
+     */
+    public ObservableList<String> getDivisionNames() {
+
+        Snapshot current = current();
+
+        return current == null ? null : FXCollections.observableArrayList(current.divisionNames);
+
+    }
+
+    /**
+     * Gets names of first level divisions with IDs in a range
+     * @param firstID first division ID in range, inclusive
+     * @param lastID last division ID in range, inclusive
+     * @return list of division names in ID order, or null if reference data could not be loaded
+     */
+    public ObservableList<String> getDivisionNamesInRange(int firstID, int lastID) {
+
+        Snapshot current = current();
+
+        if (current == null) {
+            return null;
+        }
+
+        ObservableList<String> divisionNames = FXCollections.observableArrayList();
+
+        for (int i = 0; i < current.divisionIDs.length; i++) {
+
+            if (current.divisionIDs[i] >= firstID && current.divisionIDs[i] <= lastID) {
+                divisionNames.add(current.divisionNames.get(i));
+            }
+
+        }
+
+        return divisionNames;
+
+    }
+
+    /**
+     * Gets first level division ID for a division name
+     * @param division division name
+     * @return division ID, or -1 if not found
+     */
+    public int getDivisionID(String division) {
+
+        Snapshot current = current();
+
+        return current == null ? -1 : current.divisionIDByName.getOrDefault(division, -1);
+
+    }
+
+    /**
+     * Gets first level division name for a division ID
+     * @param divisionID ID of first level division
+     * @return division name, or null if not found
+     */
+    public String getDivisionName(int divisionID) {
+
+        Snapshot current = current();
+
+        return current == null ? null : current.divisionNameByID.get(divisionID);
+
+    }
+
+    /**
+     * Gets all contact names
+     * @return list of contact names in ID order, or null if reference data could not be loaded
+     */
+    public ObservableList<String> getContactNames() {
+
+        Snapshot current = current();
+
+        return current == null ? null : FXCollections.observableArrayList(current.contactNames);
+
+    }
+
+    /**
+     * Gets contact ID for a contact name
+     * @param name contact name
+     * @return contact ID, or -1 if not found
+     */
+    public int getContactID(String name) {
+
+        Snapshot current = current();
+
+        return current == null ? -1 : current.contactIDByName.getOrDefault(name, -1);
+
+    }
+
+    /**
+     * Gets contact name for a contact ID
+     * @param contactID ID of contact
+     * @return contact name, or null if not found
+     */
+    public String getContactName(int contactID) {
+
+        Snapshot current = current();
+
+        return current == null ? null : current.contactNameByID.get(contactID);
+
+    }
+
+}
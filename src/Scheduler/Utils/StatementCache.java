@@ -0,0 +1,140 @@
+package Scheduler.Utils;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Least-recently-used cache of prepared statements for a single pooled connection, keyed by SQL string. A statement is
+ * removed from the cache while it is in use and put back when the borrower closes it, so two callers never share one.
+ *
+ * @author Chris Criswell
+ */
+class StatementCache {
+
+    /**
+     * Maximum number of idle statements kept open
+     */
+    private final int maxSize;
+
+    /**
+     * Idle statements in access order, least recently used first
+     */
+    private final LinkedHashMap<String, PreparedStatement> statements;
+
+    /**
+     * Pool-wide count of statements served from a cache
+     */
+    private final AtomicLong hits;
+    /**
+     * Pool-wide count of statements that had to be prepared
+     */
+    private final AtomicLong misses;
+    /**
+     * Pool-wide count of statements closed to make room in a cache
+     */
+    private final AtomicLong evictions;
+
+    /**
+     * Constructor with cache size and shared counters
+     * @param maxSize maximum number of idle statements kept open
+     * @param hits counter incremented on cache hits
+     * @param misses counter incremented on cache misses
+     * @param evictions counter incremented when a statement is evicted
+     */
+    StatementCache(int maxSize, AtomicLong hits, AtomicLong misses, AtomicLong evictions) {
+
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+
+    }
+
+    /**
+     * Takes an idle statement for the given SQL out of the cache
+     * @param sql SQL string of statement
+     * @return cached statement or null if none is idle
+     */
+    PreparedStatement checkout(String sql) {
+
+        PreparedStatement statement = statements.remove(sql);
+
+        if (statement != null) {
+            hits.incrementAndGet();
+        }
+
+        else {
+            misses.incrementAndGet();
+        }
+
+        return statement;
+
+    }
+
+    /**
+     * Puts a statement back into the cache once its borrower is done, evicting the least recently used statement if
+     * the cache is full
+     * @param sql SQL string of statement
+     * @param statement statement to cache
+     */
+    void checkin(String sql, PreparedStatement statement) {
+
+        if (maxSize <= 0) {
+            closeQuietly(statement);
+            return;
+        }
+
+        PreparedStatement previous = statements.put(sql, statement);
+
+        //same SQL prepared twice while the first was still open; keep only one
+        if (previous != null && previous != statement) {
+            closeQuietly(previous);
+        }
+
+        Iterator<Map.Entry<String, PreparedStatement>> iterator = statements.entrySet().iterator();
+
+        while (statements.size() > maxSize && iterator.hasNext()) {
+
+            closeQuietly(iterator.next().getValue());
+            iterator.remove();
+            evictions.incrementAndGet();
+
+        }
+
+    }
+
+    /**
+     * Closes and removes all idle statements
+     */
+    void closeAll() {
+
+        for (PreparedStatement statement : statements.values()) {
+            closeQuietly(statement);
+        }
+
+        statements.clear();
+
+    }
+
+    /**
+     * Closes a statement, logging rather than throwing any error
+     * @param statement statement to close
+     */
+    private static void closeQuietly(PreparedStatement statement) {
+
+        try {
+            statement.close();
+        }
+
+        catch (SQLException exception) {
+            System.out.println(exception.getMessage());
+        }
+
+    }
+
+}
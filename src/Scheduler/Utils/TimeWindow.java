@@ -0,0 +1,102 @@
+package Scheduler.Utils;
+
+import Scheduler.Models.Appointment;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.time.temporal.WeekFields;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+/**
+ * Half-open [start, end) window of time used to select appointments for the weekly and monthly views. Bounds are
+ * computed once when the window is created, so the same window can be bound to a range query or tested against each
+ * appointment without recomputing the current date per row.
+ *
+ * @author Chris Criswell
+ */
+public class TimeWindow {
+
+    /**
+     * Start of window, inclusive
+     */
+    private final ZonedDateTime start;
+
+    /**
+     * End of window, exclusive
+     */
+    private final ZonedDateTime end;
+
+    /**
+     * Constructor with window bounds
+     * @param start start of window, inclusive
+     * @param end end of window, exclusive
+     */
+    public TimeWindow(ZonedDateTime start, ZonedDateTime end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Creates window from the start of today to the start of next week, with weeks starting on the first day of the week
+     * for the default locale
+     * @return window covering the rest of the current week
+     */
+    public static TimeWindow restOfCurrentWeek() {
+
+        LocalDate today = LocalDate.now();
+        LocalDate nextWeek = today.with(WeekFields.of(Locale.getDefault()).dayOfWeek(), 1).plusWeeks(1);
+
+        return new TimeWindow(today.atStartOfDay(ZoneId.systemDefault()), nextWeek.atStartOfDay(ZoneId.systemDefault()));
+
+    }
+
+    /**
+     * Creates window from the start of today to the start of next month
+     * @return window covering the rest of the current month
+     */
+    public static TimeWindow restOfCurrentMonth() {
+
+        LocalDate today = LocalDate.now();
+        LocalDate nextMonth = today.with(TemporalAdjusters.firstDayOfNextMonth());
+
+        return new TimeWindow(today.atStartOfDay(ZoneId.systemDefault()), nextMonth.atStartOfDay(ZoneId.systemDefault()));
+
+    }
+
+    /**
+     * Accessor for start of window
+     * @return start of window, inclusive
+     */
+    public ZonedDateTime getStart() { return start; }
+
+    /**
+     * Accessor for end of window
+     * @return end of window, exclusive
+     */
+    public ZonedDateTime getEnd() { return end; }
+
+    /**
+     * Checks whether an appointment starts within the window
+     * @param appointment appointment to check
+     * @return bool indicating whether appointment starts at or after the window start and before the window end
+     */
+    public boolean containsStart(Appointment appointment) {
+
+        ZonedDateTime appointmentStart = appointment.getStartDateTime();
+
+        return !appointmentStart.isBefore(start) && appointmentStart.isBefore(end);
+
+    }
+
+    /**
+     * Creates predicate selecting appointments that start within the window, for use with filtered lists
+     * @return predicate testing appointments against the window bounds
+     */
+    public Predicate<Appointment> startsWithin() {
+        return this::containsStart;
+    }
+
+}
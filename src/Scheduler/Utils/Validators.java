@@ -1,9 +1,10 @@
 package Scheduler.Utils;
 
-import Scheduler.DAO.AppointmentDAO;
-import Scheduler.DAO.CustomerDAO;
-import Scheduler.DAO.DivisionDAO;
-import Scheduler.DAO.UserDAO;
+import Scheduler.DAO.AppointmentDAOInterface;
+import Scheduler.DAO.CustomerDAOInterface;
+import Scheduler.DAO.DAOFactory;
+import Scheduler.DAO.DivisionDAOInterface;
+import Scheduler.DAO.UserDAOInterface;
 
 import javafx.collections.ObservableList;
 import javafx.scene.control.Alert;
@@ -46,20 +47,41 @@ public class Validators {
     public static String positiveIntegerPattern = "^[1-9]\\d*$";
 
     /**
-     * Method to validate address input field: checks whether address starts with a street number and doesn't contain
+     * Message shown when an appointment falls outside business hours
+     */
+    private static final String businessHoursMessage =
+            "Appointment time cannot be scheduled outside of business hours or on weekends.";
+
+    /**
+     * Shows an error alert with a given message
+     * @param message message to show
+     */
+    private static void showError(String message) {
+
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+
+        if (businessHoursMessage.equals(message)) {
+            alert.getDialogPane().setMinWidth(450.0);
+            alert.getDialogPane().setMinHeight(180.0);
+        }
+
+        alert.setContentText(message);
+        alert.showAndWait();
+
+    }
+
+    /**
+     * Method to check address input field: checks whether address starts with a street number and doesn't contain
      * any divisions/states
      * @param address user-provided address string
-     * @return bool indicating result of address validation
+     * @return message describing the problem with the address, or null if valid
      */
-    private static boolean validateAddress(String address) {
+    private static String checkAddress(String address) {
 
-        DivisionDAO divisionDAO = new DivisionDAO();
+        DivisionDAOInterface divisionDAO = DAOFactory.getDivisionDAO();
 
         if (!Character.isDigit(address.charAt(0)) || Character.getNumericValue(address.charAt(0)) == 0) {
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setContentText("Please enter a valid street number");
-            alert.showAndWait();
-            return false;
+            return "Please enter a valid street number";
         }
 
         ObservableList<String> listOfDivisions = divisionDAO.getAllDivisionList();
@@ -67,15 +89,12 @@ public class Validators {
         for (String division : listOfDivisions) {
             if (address.contains(", " + division + ", ")) {
 
-                Alert alert = new Alert(Alert.AlertType.ERROR);
-                alert.setContentText("Please enter state or division data through combo box");
-                alert.showAndWait();
-                return false;
+                return "Please enter state or division data through combo box";
 
             }
         }
 
-        return true;
+        return null;
     }
 
     /**
@@ -95,7 +114,7 @@ public class Validators {
     }
 
     /**
-     * Method to validate all fields for customer form
+     * Method to validate all fields for customer form, showing an error alert for the first invalid field
      * @param name user-provided name string
      * @param address user-provided address string
      * @param postalCode user-provided postal code string
@@ -106,22 +125,40 @@ public class Validators {
     public static boolean validateCustomerInput(String name, String address, String postalCode, String phoneNumber,
                                                 String divisionID) {
 
+        String message = checkCustomerInput(name, address, postalCode, phoneNumber, divisionID);
+
+        if (message != null) {
+            showError(message);
+            return false;
+        }
+
+        return true;
+
+    }
+
+    /**
+     * Method to check all fields for customer form without showing any UI, so the same rules can be applied to imported
+     * rows
+     * @param name user-provided name string
+     * @param address user-provided address string
+     * @param postalCode user-provided postal code string
+     * @param phoneNumber user-provided phone number string
+     * @param divisionID automatically generated divisionID from combo box
+     * @return message describing the first invalid field, or null if all fields are valid
+     */
+    public static String checkCustomerInput(String name, String address, String postalCode, String phoneNumber,
+                                            String divisionID) {
+
         if (name.isEmpty() || address.isEmpty() || postalCode.isEmpty() || phoneNumber.isEmpty() ||
             divisionID.isEmpty()) {
 
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setContentText("Please give each field a value");
-            alert.showAndWait();
-            return false;
+            return "Please give each field a value";
 
         }
 
         if (!name.matches(namePattern)) {
 
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setContentText("Please enter a valid name");
-            alert.showAndWait();
-            return false;
+            return "Please enter a valid name";
 
         }
 
@@ -138,54 +175,41 @@ public class Validators {
 
         if (numSpaces == 0) {
 
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setContentText("Please enter both a first and last name");
-            alert.showAndWait();
-            return false;
+            return "Please enter both a first and last name";
 
         }
 
         if (numSpaces > 1) {
 
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setContentText("Please enter only first and last name");
-            alert.showAndWait();
-            return false;
+            return "Please enter only first and last name";
 
         }
 
         if (!phoneNumber.matches(phonePattern)) {
 
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setContentText("Please entere a valid phone number");
-            alert.showAndWait();
-            return false;
+            return "Please entere a valid phone number";
 
         }
 
-        if (!validateAddress(address)) {
+        String addressMessage = checkAddress(address);
 
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setContentText("Please enter a valid address");
-            alert.showAndWait();
-            return false;
+        if (addressMessage != null) {
+
+            return addressMessage;
 
         }
 
         if (!validatePostalCode(postalCode)) {
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setContentText("Please enter a valid postal code");
-            alert.showAndWait();
-            return false;
+            return "Please enter a valid postal code";
         }
 
-        return true;
+        return null;
 
     }
 
     /**
      * Method to validate all fields from appointment input form, including checking whether appointment start and end
-     * are within business hours
+     * are within business hours. Shows an error alert for the first invalid field.
      * @param appointmentID int value of automatically generated appointment ID
      * @param title user-provided title string
      * @param description user-provided description string
@@ -201,61 +225,73 @@ public class Validators {
                                                    String type, ZonedDateTime startTime, ZonedDateTime endTime,
                                                    String customerID, String userID) {
 
-        if (title.isEmpty() || description.isEmpty() || location.isEmpty() || type.isEmpty() || customerID.isEmpty() || userID.isEmpty()) {
+        String message = checkAppointmentInput(appointmentID, title, description, location, type, startTime, endTime,
+                customerID, userID);
 
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setContentText("Please give each field a value");
-            alert.showAndWait();
+        if (message != null) {
+            showError(message);
             return false;
+        }
+
+        return true;
+
+    }
+
+    /**
+     * Method to check all fields from appointment input form without showing any UI, so the same rules can be applied to
+     * imported rows
+     * @param appointmentID int value of automatically generated appointment ID
+     * @param title user-provided title string
+     * @param description user-provided description string
+     * @param location user-provided location
+     * @param type user-provided type
+     * @param startTime time and date of appointment start with user's timezone information
+     * @param endTime time and date of appointment end with user's timezone information
+     * @param customerID int value for ID of customer associated with appointment
+     * @param userID int value for ID of user who created appointment
+     * @return message describing the first invalid field, or null if all fields are valid
+     */
+    public static String checkAppointmentInput(int appointmentID, String title, String description, String location,
+                                               String type, ZonedDateTime startTime, ZonedDateTime endTime,
+                                               String customerID, String userID) {
+
+        if (title.isEmpty() || description.isEmpty() || location.isEmpty() || type.isEmpty() || customerID.isEmpty() || userID.isEmpty()) {
+
+            return "Please give each field a value";
 
         }
 
         if (!userID.matches(positiveIntegerPattern)) {
 
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setContentText("Please enter a valid user ID number");
-            alert.showAndWait();
-            return false;
+            return "Please enter a valid user ID number";
 
         }
 
         if (!customerID.matches(positiveIntegerPattern)) {
 
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setContentText("Please enter a valid user ID number");
-            alert.showAndWait();
-            return false;
+            return "Please enter a valid user ID number";
 
         }
 
-        UserDAO userDAO = new UserDAO();
+        UserDAOInterface userDAO = DAOFactory.getUserDAO();
 
         if (!userDAO.checkUserIDValid(Integer.parseInt(userID))) {
 
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setContentText("Please enter a valid user ID");
-            alert.showAndWait();
-            return false;
+            return "Please enter a valid user ID";
 
         }
 
-        CustomerDAO customerDAO = new CustomerDAO();
+        CustomerDAOInterface customerDAO = DAOFactory.getCustomerDAO();
 
         if (!customerDAO.checkCustomerIDValid(Integer.parseInt(customerID))) {
 
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setContentText("Please enter a valid customer ID number");
-            alert.showAndWait();
-            return false;
+            return "Please enter a valid customer ID number";
 
         }
 
         if (startTime.isAfter(endTime)) {
 
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setContentText("Start time cannot be after end time");
-            alert.showAndWait();
-            return false;
+            return "Start time cannot be after end time";
 
         }
 
@@ -269,26 +305,18 @@ public class Validators {
                 endAppointmentTimeInET.getDayOfWeek().equals(DayOfWeek.SATURDAY) ||
                 endAppointmentTimeInET.getDayOfWeek().equals(DayOfWeek.SUNDAY)) {
 
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.getDialogPane().setMinWidth(450.0);
-            alert.getDialogPane().setMinHeight(180.0);
-            alert.setContentText("Appointment time cannot be scheduled outside of business hours or on weekends.");
-            alert.showAndWait();
-            return false;
+            return businessHoursMessage;
         }
 
-        AppointmentDAO appointmentDAO = new AppointmentDAO();
+        AppointmentDAOInterface appointmentDAO = DAOFactory.getAppointmentDAO();
 
         if (appointmentDAO.checkIfOtherAppointmentsInRange(appointmentID, Integer.parseInt(customerID), startTime, endTime)) {
 
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setContentText("An appointment is already scheduled in entered time slot");
-            alert.showAndWait();
-            return false;
+            return "An appointment is already scheduled in entered time slot";
 
         }
 
-        return true;
+        return null;
 
     }
 
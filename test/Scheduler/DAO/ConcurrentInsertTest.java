@@ -0,0 +1,176 @@
+package Scheduler.DAO;
+
+import Scheduler.Models.Appointment;
+import Scheduler.Models.Customer;
+import Scheduler.Utils.ConnectionPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Inserts appointments and customers from many threads at once and checks every row got its own database-assigned ID.
+ * The database runs in H2's default mode: H2 2.2's MySQL compatibility mode can hand the same AUTO_INCREMENT value to
+ * two concurrent inserts, which MySQL itself never does, so it would fail this test on H2's account rather than the
+ * DAOs'.
+ *
+ * @author Chris Criswell
+ */
+class ConcurrentInsertTest {
+
+    private static final int threadCount = 8;
+    private static final int insertsPerThread = 50;
+
+    private ConnectionPool connectionPool;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        connectionPool = TestDatabase.create(false);
+        executor = Executors.newFixedThreadPool(threadCount);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        TestDatabase.drop(connectionPool);
+    }
+
+    @Test
+    void concurrentCustomerInsertsGetDistinctIDs() throws Exception {
+
+        List<Integer> ids = runConcurrently(insert -> {
+
+            Customer customer = new Customer(0, "Customer " + insert, insert + " Main St", "12345", 1,
+                    "555-555-5555");
+
+            assertTrue(new CustomerDAO().addCustomer(customer));
+
+            return customer.getId();
+
+        });
+
+        assertDistinctAndStored(ids, "customers");
+
+    }
+
+    @Test
+    void concurrentAppointmentInsertsGetDistinctIDs() throws Exception {
+
+        Customer customer = new Customer(0, "Customer", "1 Main St", "12345", 1, "555-555-5555");
+        assertTrue(new CustomerDAO().addCustomer(customer));
+
+        ZonedDateTime base = ZonedDateTime.of(2021, 1, 4, 8, 0, 0, 0, ZoneId.systemDefault());
+
+        List<Integer> ids = runConcurrently(insert -> {
+
+            Appointment appointment = new Appointment(0, customer.getId(), 1, 1, "Appointment " + insert,
+                    "Synthetic", "Office", "Planning", base.plusHours(insert), base.plusHours(insert).plusMinutes(30));
+
+            assertTrue(new AppointmentDAO().addAppointment(appointment));
+
+            return appointment.getAppointmentID();
+
+        });
+
+        assertDistinctAndStored(ids, "appointments");
+
+    }
+
+    /**
+     * Insert run by one thread, numbered across all threads
+     */
+    private interface Insert {
+        int run(int insert) throws Exception;
+    }
+
+    /**
+     * Runs inserts from all threads, released together so they contend for the table
+     * @param insert insert to run
+     * @return IDs written back by every insert
+     * @throws Exception if any insert fails
+     */
+    private List<Integer> runConcurrently(Insert insert) throws Exception {
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Integer>>> futures = new ArrayList<>();
+
+        for (int thread = 0; thread < threadCount; thread++) {
+
+            int firstInsert = thread * insertsPerThread;
+
+            Callable<List<Integer>> task = () -> {
+
+                List<Integer> ids = new ArrayList<>(insertsPerThread);
+
+                start.await();
+
+                for (int i = 0; i < insertsPerThread; i++) {
+                    ids.add(insert.run(firstInsert + i));
+                }
+
+                return ids;
+
+            };
+
+            futures.add(executor.submit(task));
+
+        }
+
+        start.countDown();
+
+        List<Integer> ids = new ArrayList<>();
+
+        for (Future<List<Integer>> future : futures) {
+            ids.addAll(future.get());
+        }
+
+        return ids;
+
+    }
+
+    /**
+     * Checks no two inserts were given the same ID and each ID is a stored row
+     * @param ids IDs written back by the inserts
+     * @param table table inserted into
+     * @throws SQLException if the table can't be read
+     */
+    private void assertDistinctAndStored(List<Integer> ids, String table) throws SQLException {
+
+        Set<Integer> distinct = new HashSet<>(ids);
+
+        assertEquals(threadCount * insertsPerThread, ids.size());
+        assertEquals(ids.size(), distinct.size(), "duplicate IDs assigned");
+        assertTrue(distinct.stream().allMatch(id -> id > 0), "ID not written back");
+
+        try (Connection connection = connectionPool.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet results = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+
+            results.next();
+            assertEquals(distinct.size(), results.getInt(1));
+
+        }
+
+    }
+
+}
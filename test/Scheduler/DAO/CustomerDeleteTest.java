@@ -0,0 +1,165 @@
+package Scheduler.DAO;
+
+import Scheduler.Models.Customer;
+import Scheduler.Utils.ConnectionPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bulk customer deletes: all-or-nothing on failure, and kept out of the pool's statement cache
+ *
+ * @author Chris Criswell
+ */
+class CustomerDeleteTest {
+
+    /**
+     * Customers seeded, spanning three IN lists of defaultBatchSize IDs
+     */
+    private static final int customerCount = 1200;
+
+    private ConnectionPool connectionPool;
+    private List<Customer> customers;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+
+        connectionPool = TestDatabase.create();
+
+        try (Connection connection = connectionPool.getConnection();
+             Statement statement = connection.createStatement()) {
+
+            statement.execute("INSERT INTO customers (Customer_Name, Address, Postal_Code, Phone, Create_Date, " +
+                    "Created_By, Last_Update, Last_Updated_By, Division_ID) SELECT CONCAT('Customer ', X), " +
+                    "'1 Main St', '12345', '555-555-5555', NOW(), 'test', NOW(), 'test', 1 " +
+                    "FROM SYSTEM_RANGE(1, " + customerCount + ")");
+            statement.execute("INSERT INTO appointments (Title, Description, Location, Type, Start, End, " +
+                    "Create_Date, Created_By, Last_Update, Last_Updated_By, Customer_ID, User_ID, Contact_ID) " +
+                    "SELECT 'Appointment', 'Synthetic', 'Office', 'Planning', TIMESTAMP '2021-01-04 08:00:00', " +
+                    "TIMESTAMP '2021-01-04 08:30:00', NOW(), 'test', NOW(), 'test', Customer_ID, 1, 1 FROM customers");
+
+        }
+
+        customers = new ArrayList<>(customerCount);
+
+        for (int id = 1; id <= customerCount; id++) {
+            customers.add(new Customer(id, "Customer " + id, "1 Main St", "12345", 1, "555-555-5555"));
+        }
+
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestDatabase.drop(connectionPool);
+    }
+
+    @Test
+    void failurePartwayThroughLeavesEverything() throws SQLException {
+
+        //a row referencing a customer in the second IN list makes its delete fail after the first list is deleted
+        try (Connection connection = connectionPool.getConnection();
+             Statement statement = connection.createStatement()) {
+
+            statement.execute("CREATE TABLE customer_notes (Customer_ID INT REFERENCES customers (Customer_ID))");
+            statement.execute("INSERT INTO customer_notes VALUES (" + (customerCount / 2 + 100) + ")");
+
+        }
+
+        assertFalse(new CustomerDAO().deleteCustomers(customers));
+
+        assertEquals(customerCount, count("customers"));
+        assertEquals(customerCount, count("appointments"));
+        assertAutoCommitRestored();
+
+    }
+
+    @Test
+    void deleteRemovesCustomersAndAppointments() throws SQLException {
+
+        assertTrue(new CustomerDAO().deleteCustomers(customers));
+
+        assertEquals(0, count("customers"));
+        assertEquals(0, count("appointments"));
+        assertAutoCommitRestored();
+
+    }
+
+    @Test
+    void inListsBypassStatementCache() throws SQLException {
+
+        long cacheLookups = connectionPool.getStatementCacheHits() + connectionPool.getStatementCacheMisses();
+
+        assertTrue(new CustomerDAO().deleteCustomers(customers.subList(0, 7)));
+        assertTrue(new CustomerDAO().deleteCustomers(customers.subList(7, 20)));
+        assertTrue(CustomerDAO.delete(customers.subList(20, customerCount), new Timestamp(Long.MAX_VALUE)));
+
+        assertEquals(cacheLookups, connectionPool.getStatementCacheHits() + connectionPool.getStatementCacheMisses());
+        assertEquals(0, count("customers"));
+
+    }
+
+    /**
+     * Counts the rows of a table
+     * @param table table to count
+     * @return row count
+     * @throws SQLException if the table can't be read
+     */
+    private int count(String table) throws SQLException {
+
+        try (Connection connection = connectionPool.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet results = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+
+            results.next();
+            return results.getInt(1);
+
+        }
+
+    }
+
+    /**
+     * Checks every idle pooled connection is back in autocommit mode, so the delete's transaction can't leak into the
+     * next borrower
+     * @throws SQLException if a connection can't be borrowed
+     */
+    private void assertAutoCommitRestored() throws SQLException {
+
+        int idleCount = connectionPool.getIdleCount();
+        List<Connection> connections = new ArrayList<>(idleCount);
+
+        try {
+
+            for (int i = 0; i < idleCount; i++) {
+                connections.add(connectionPool.getConnection());
+            }
+
+            for (Connection connection : connections) {
+                assertTrue(connection.getAutoCommit());
+            }
+
+        }
+
+        finally {
+
+            for (Connection connection : connections) {
+                connection.close();
+            }
+
+        }
+
+    }
+
+}
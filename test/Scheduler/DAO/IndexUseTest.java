@@ -0,0 +1,188 @@
+package Scheduler.DAO;
+
+import Scheduler.Utils.ConnectionPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs EXPLAIN on the appointment range queries against H2 with the indexes from sql/indexes.sql and checks the plan
+ * reads an index rather than scanning the table
+ *
+ * @author Chris Criswell
+ */
+class IndexUseTest {
+
+    private ConnectionPool connectionPool;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+
+        connectionPool = TestDatabase.create();
+
+        try (Connection connection = connectionPool.getConnection();
+             Statement statement = connection.createStatement()) {
+
+            statement.execute("INSERT INTO customers (Customer_Name, Address, Postal_Code, Phone, Create_Date, " +
+                    "Created_By, Last_Update, Last_Updated_By, Division_ID) SELECT CONCAT('Customer ', X), " +
+                    "'1 Main St', '12345', '555-555-5555', NOW(), 'test', NOW(), 'test', 1 FROM SYSTEM_RANGE(1, 100)");
+            statement.execute("INSERT INTO appointments (Title, Description, Location, Type, Start, End, " +
+                    "Create_Date, Created_By, Last_Update, Last_Updated_By, Customer_ID, User_ID, Contact_ID) " +
+                    "SELECT CONCAT('Appointment ', X), 'Synthetic', 'Office', 'Planning', " +
+                    "DATEADD('MINUTE', X * 30, TIMESTAMP '2021-01-04 08:00:00'), " +
+                    "DATEADD('MINUTE', X * 30 + 30, TIMESTAMP '2021-01-04 08:00:00'), NOW(), 'test', NOW(), 'test', " +
+                    "MOD(X, 100) + 1, 1, 1 FROM SYSTEM_RANGE(1, 5000)");
+
+        }
+
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestDatabase.drop(connectionPool);
+    }
+
+    @Test
+    void rangeQueryUsesStartIndex() throws SQLException, IOException {
+
+        createIndexes();
+
+        String plan = explainWithinRange();
+
+        assertTrue(plan.contains("IDX_APPOINTMENTS_START: START < ?1") ||
+                plan.contains("IDX_APPOINTMENTS_START_END: START < ?1"), plan);
+
+    }
+
+    @Test
+    void customerOverlapQueryUsesCustomerIndex() throws SQLException, IOException {
+
+        createIndexes();
+
+        String plan = explainCustomerOverlap();
+
+        assertTrue(plan.contains("IDX_APPOINTMENTS_CUSTOMER_START_END: "), plan);
+        assertTrue(plan.contains("CUSTOMER_ID = ?1"), plan);
+
+    }
+
+    @Test
+    void plansDifferWithoutIndexes() throws SQLException {
+
+        String plan = explainWithinRange();
+        assertTrue(plan.contains("APPOINTMENTS.tableScan"), plan);
+        assertFalse(plan.contains("IDX_APPOINTMENTS_"), plan);
+
+        //the customer foreign key's own index still narrows this one to the customer's rows
+        plan = explainCustomerOverlap();
+        assertFalse(plan.contains("IDX_APPOINTMENTS_"), plan);
+
+    }
+
+    /**
+     * Runs the CREATE INDEX statements of sql/indexes.sql and refreshes the planner's statistics
+     * @throws IOException if the file can't be read
+     * @throws SQLException if an index can't be created
+     */
+    private void createIndexes() throws IOException, SQLException {
+
+        String script = new String(Files.readAllBytes(findIndexScript()), StandardCharsets.UTF_8);
+
+        try (Connection connection = connectionPool.getConnection();
+             Statement statement = connection.createStatement()) {
+
+            for (String sql : script.replaceAll("(?m)^--.*$", "").split(";")) {
+
+                if (sql.trim().startsWith("CREATE INDEX")) {
+                    statement.execute(sql.trim());
+                }
+
+            }
+
+            statement.execute("ANALYZE");
+
+        }
+
+    }
+
+    /**
+     * Finds sql/indexes.sql from the working directory, which is the project or the test module directory
+     * @return path of the index script
+     */
+    private static Path findIndexScript() {
+
+        Path directory = Paths.get("").toAbsolutePath();
+
+        while (directory != null && !Files.exists(directory.resolve("sql/indexes.sql"))) {
+            directory = directory.getParent();
+        }
+
+        assertTrue(directory != null, "sql/indexes.sql not found");
+
+        return directory.resolve("sql/indexes.sql");
+
+    }
+
+    /**
+     * Explains the query of getAppointmentsWithinRange for one week
+     * @return plan
+     * @throws SQLException if the query can't be explained
+     */
+    private String explainWithinRange() throws SQLException {
+        return explain(AppointmentDAO.withinRangeQuery, Timestamp.valueOf("2021-01-11 00:00:00"),
+                Timestamp.valueOf("2021-01-04 00:00:00"));
+    }
+
+    /**
+     * Explains the fallback query of checkIfOtherAppointmentsInRange for one hour
+     * @return plan
+     * @throws SQLException if the query can't be explained
+     */
+    private String explainCustomerOverlap() throws SQLException {
+        return explain(AppointmentDAO.customerOverlapQuery, 5, 0, Timestamp.valueOf("2021-01-05 10:00:00"),
+                Timestamp.valueOf("2021-01-05 09:00:00"));
+    }
+
+    /**
+     * Explains a query with its parameters bound
+     * @param query query to explain
+     * @param parameters parameter values in order
+     * @return plan
+     * @throws SQLException if the query can't be explained
+     */
+    private String explain(String query, Object... parameters) throws SQLException {
+
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement("EXPLAIN " + query,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            for (int i = 0; i < parameters.length; i++) {
+                preparedStatement.setObject(i + 1, parameters[i]);
+            }
+
+            ResultSet results = preparedStatement.executeQuery();
+            results.next();
+
+            return results.getString(1);
+
+        }
+
+    }
+
+}
@@ -0,0 +1,144 @@
+package Scheduler.DAO;
+
+import Scheduler.Utils.ConnectionPool;
+import Scheduler.Utils.DatabaseHandler;
+import Scheduler.Utils.UserSession;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * In-memory H2 database with the scheduler schema, installed as the DAO classes' data source for tests.
+ * The write-ahead log is pointed at a temporary directory so tests never see or leave queued writes.
+ *
+ * @author Chris Criswell
+ */
+final class TestDatabase {
+
+    static {
+
+        try {
+            System.setProperty(WriteAheadLog.directoryProperty,
+                    Files.createTempDirectory("pending_writes").toString());
+        }
+
+        catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+
+        UserSession.loginUser("test", 1);
+
+    }
+
+    /**
+     * URL of the database last created, which stays open until dropped
+     */
+    private static String url;
+
+    private TestDatabase() {}
+
+    /**
+     * Creates an empty database in H2's MySQL compatibility mode with the scheduler schema and reference rows and
+     * installs it as the data source
+     * @return pool connected to the new database
+     * @throws SQLException if the schema can't be created
+     */
+    static ConnectionPool create() throws SQLException {
+        return create(true);
+    }
+
+    /**
+     * Creates an empty database with the scheduler schema and reference rows and installs it as the data source
+     * @param mysqlMode whether to run H2 in its MySQL compatibility mode rather than its default mode
+     * @return pool connected to the new database
+     * @throws SQLException if the schema can't be created
+     */
+    static ConnectionPool create(boolean mysqlMode) throws SQLException {
+
+        url = "jdbc:h2:mem:test" + System.nanoTime() + (mysqlMode ? ";MODE=MySQL" : "") +
+                ";NON_KEYWORDS=END,START,USER;DB_CLOSE_DELAY=-1";
+
+        ConnectionPool connectionPool = new ConnectionPool(url, "sa", "");
+
+        try (Connection connection = connectionPool.getConnection();
+             Statement statement = connection.createStatement()) {
+
+            statement.execute("CREATE TABLE countries (Country_ID INT PRIMARY KEY, Country VARCHAR(50))");
+            statement.execute("CREATE TABLE first_level_divisions (Division_ID INT PRIMARY KEY, " +
+                    "Division VARCHAR(50), COUNTRY_ID INT REFERENCES countries (Country_ID))");
+            statement.execute("CREATE TABLE contacts (Contact_ID INT PRIMARY KEY, Contact_Name VARCHAR(50), " +
+                    "Email VARCHAR(50))");
+            statement.execute("CREATE TABLE users (User_ID INT PRIMARY KEY, User_Name VARCHAR(50), " +
+                    "Password VARCHAR(50))");
+            statement.execute("CREATE TABLE customers (Customer_ID INT AUTO_INCREMENT PRIMARY KEY, " +
+                    "Customer_Name VARCHAR(50), Address VARCHAR(100), Postal_Code VARCHAR(50), Phone VARCHAR(50), " +
+                    "Create_Date DATETIME, Created_By VARCHAR(50), Last_Update DATETIME, Last_Updated_By VARCHAR(50), " +
+                    "Division_ID INT REFERENCES first_level_divisions (Division_ID))");
+            statement.execute("CREATE TABLE appointments (Appointment_ID INT AUTO_INCREMENT PRIMARY KEY, " +
+                    "Title VARCHAR(50), Description VARCHAR(50), Location VARCHAR(50), Type VARCHAR(50), " +
+                    "Start DATETIME, End DATETIME, Create_Date DATETIME, Created_By VARCHAR(50), " +
+                    "Last_Update DATETIME, Last_Updated_By VARCHAR(50), " +
+                    "Customer_ID INT REFERENCES customers (Customer_ID), User_ID INT REFERENCES users (User_ID), " +
+                    "Contact_ID INT REFERENCES contacts (Contact_ID))");
+
+            statement.execute("INSERT INTO countries VALUES (1, 'U.S'), (2, 'UK'), (3, 'Canada')");
+            statement.execute("INSERT INTO first_level_divisions VALUES (1, 'Alabama', 1), (60, 'Ontario', 3), " +
+                    "(101, 'England', 2)");
+            statement.execute("INSERT INTO contacts VALUES (1, 'Anika Costa', 'acoista@company.com'), " +
+                    "(2, 'Daniel Garcia', 'dgarcia@company.com'), (3, 'Li Lee', 'lee@company.com')");
+            statement.execute("INSERT INTO users VALUES (1, 'test', 'test'), (2, 'admin', 'admin')");
+
+        }
+
+        DatabaseHandler.setDataSource(connectionPool);
+
+        return connectionPool;
+
+    }
+
+    /**
+     * Replaces the data source with one whose connections fail with a connection error, as when the database server
+     * is unreachable. The database last created keeps its contents.
+     */
+    static void disconnect() {
+        DatabaseHandler.setDataSource(new ConnectionPool("jdbc:h2:tcp://127.0.0.1:1/mem:unreachable", "sa", ""));
+    }
+
+    /**
+     * Installs a new pool connected to the database last created as the data source, ending a disconnect
+     * @return pool connected to the database
+     */
+    static ConnectionPool reconnect() {
+
+        ConnectionPool connectionPool = new ConnectionPool(url, "sa", "");
+
+        DatabaseHandler.setDataSource(connectionPool);
+
+        return connectionPool;
+
+    }
+
+    /**
+     * Shuts down a database created by create and removes it as the data source
+     * @param connectionPool pool returned by create
+     */
+    static void drop(ConnectionPool connectionPool) {
+
+        try (Connection connection = connectionPool.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+
+        catch (SQLException exception) {
+            System.out.println(exception.getMessage());
+        }
+
+        DatabaseHandler.setDataSource(null);
+
+    }
+
+}
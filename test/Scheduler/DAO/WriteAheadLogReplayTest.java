@@ -0,0 +1,169 @@
+package Scheduler.DAO;
+
+import Scheduler.Models.Appointment;
+import Scheduler.Utils.ChangeBus;
+import Scheduler.Utils.ConnectionPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Replay of appointment updates queued while the database is unreachable: a row this client saved just before the
+ * outage is not its own conflict, and a real conflict shows the database's row and tells conflict listeners
+ *
+ * @author Chris Criswell
+ */
+class WriteAheadLogReplayTest {
+
+    private ConnectionPool connectionPool;
+    private final AppointmentDAO appointmentDAO = new AppointmentDAO();
+    private final ZonedDateTime start = ZonedDateTime.now().plusDays(1).withNano(0);
+
+    @BeforeEach
+    void setUp() throws Exception {
+
+        connectionPool = TestDatabase.create();
+
+        try (Connection connection = connectionPool.getConnection();
+             Statement statement = connection.createStatement()) {
+
+            statement.execute("INSERT INTO customers (Customer_ID, Customer_Name, Address, Postal_Code, Phone, " +
+                    "Create_Date, Created_By, Last_Update, Last_Updated_By, Division_ID) VALUES (1, 'Customer', " +
+                    "'1 Main St', '12345', '555-555-5555', NOW(), 'test', DATEADD('MINUTE', -5, NOW()), 'test', 1)");
+            statement.execute("INSERT INTO appointments (Appointment_ID, Title, Description, Location, Type, Start, " +
+                    "End, Create_Date, Created_By, Last_Update, Last_Updated_By, Customer_ID, User_ID, Contact_ID) " +
+                    "VALUES (1, 'Original', 'Synthetic', 'Office', 'Planning', NOW(), NOW(), NOW(), 'test', " +
+                    "DATEADD('MINUTE', -5, NOW()), 'test', 1, 1, 1)");
+
+        }
+
+        //the poller's watermark trails the database by its overlap window plus a poll interval
+        setSyncedThrough(new Timestamp(System.currentTimeMillis() - 60_000));
+
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+
+        setSyncedThrough(null);
+        TestDatabase.drop(connectionPool);
+
+    }
+
+    @Test
+    void editSavedBeforeOutageIsNotItsOwnConflict() throws Exception {
+
+        int conflictsBefore = WriteAheadLog.getWriteAheadLog().getConflicts().size();
+
+        appointmentDAO.getAppointment(1);
+        assertTrue(appointmentDAO.updateAppointment(appointment("Saved online")));
+
+        TestDatabase.disconnect();
+        assertTrue(appointmentDAO.updateAppointment(appointment("Saved offline")));
+        assertTrue(WriteAheadLog.getWriteAheadLog().hasPending());
+
+        replay();
+
+        assertEquals("Saved offline", storedTitle());
+        assertEquals(conflictsBefore, WriteAheadLog.getWriteAheadLog().getConflicts().size());
+
+    }
+
+    @Test
+    void conflictPublishesDatabaseRowAndTellsListeners() throws Exception {
+
+        appointmentDAO.getAppointment(1);
+
+        try (Connection connection = connectionPool.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("UPDATE appointments SET Title = 'Other client', Last_Update = NOW() " +
+                    "WHERE Appointment_ID = 1");
+        }
+
+        TestDatabase.disconnect();
+        assertTrue(appointmentDAO.updateAppointment(appointment("Saved offline")));
+
+        List<String> titles = new CopyOnWriteArrayList<>();
+        List<String> conflicts = new CopyOnWriteArrayList<>();
+        Runnable unsubscribeChanges = ChangeBus.getChangeBus().subscribe(Appointment.class,
+                event -> titles.add(event.getRow().getTitle()));
+        Runnable unsubscribeConflicts = WriteAheadLog.getWriteAheadLog().subscribeConflicts(conflicts::add);
+
+        try {
+            replay();
+        }
+
+        finally {
+            unsubscribeChanges.run();
+            unsubscribeConflicts.run();
+        }
+
+        assertEquals("Other client", storedTitle());
+        assertEquals(List.of("Other client"), titles);
+        assertEquals(1, conflicts.size());
+        assertTrue(conflicts.get(0).contains("Saved offline"));
+
+    }
+
+    /**
+     * Ends the outage and waits for the log to replay its pending writes
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private void replay() throws InterruptedException {
+
+        connectionPool = TestDatabase.reconnect();
+        WriteAheadLog.getWriteAheadLog().start();
+
+        long deadline = System.currentTimeMillis() + 10_000;
+
+        while (WriteAheadLog.getWriteAheadLog().hasPending() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertFalse(WriteAheadLog.getWriteAheadLog().hasPending(), "pending writes were not replayed");
+
+    }
+
+    private Appointment appointment(String title) {
+        return new Appointment(1, 1, 1, 1, title, "Synthetic", "Office", "Planning", start, start.plusHours(1),
+                "Customer", "Anika Costa");
+    }
+
+    private String storedTitle() throws SQLException {
+
+        try (Connection connection = connectionPool.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet results = statement.executeQuery("SELECT Title FROM appointments WHERE Appointment_ID = 1")) {
+
+            results.next();
+
+            return results.getString(1);
+
+        }
+
+    }
+
+    private static void setSyncedThrough(Timestamp syncedThrough) throws ReflectiveOperationException {
+
+        Field field = ChangePoller.class.getDeclaredField("syncedThrough");
+        field.setAccessible(true);
+        field.set(ChangePoller.getChangePoller(), syncedThrough);
+
+    }
+
+}